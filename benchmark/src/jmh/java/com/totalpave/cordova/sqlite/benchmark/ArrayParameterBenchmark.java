@@ -0,0 +1,90 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.totalpave.cordova.sqlite.benchmark;
+
+import com.totalpave.cordova.sqlite.QueryOptions;
+
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Runs an IN list query with an array parameter, bound either by expansion or as a single JSON value.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ArrayParameterBenchmark {
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    @Param({"expand", "json"})
+    public String arrayBinding;
+
+    private static final int ROWS = 10000;
+
+    private BenchmarkDatabase $db;
+    private QueryOptions $options;
+    private JSONArray $ids;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        $db = new BenchmarkDatabase();
+        $db.execute("CREATE TABLE test (id INTEGER PRIMARY KEY, name TEXT)");
+
+        JSONArray values = new JSONArray();
+        for (int r = 0; r < ROWS; ++r) {
+            JSONArray row = new JSONArray();
+            row.put(r);
+            row.put("name " + r);
+            values.put(row);
+        }
+        $db.insert("INSERT INTO test (id, name) :BulkInsertValue", values);
+
+        $ids = new JSONArray();
+        for (int i = 0; i < size; ++i) {
+            $ids.put((i * 7) % ROWS);
+        }
+
+        JSONObject options = new JSONObject();
+        options.put("arrayBinding", arrayBinding);
+        $options = QueryOptions.fromJSON(options);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        $db.close();
+    }
+
+    @Benchmark
+    public JSONArray select() throws Exception {
+        // Expansion replaces the array in the parameters, so each invocation needs its own object.
+        JSONObject vars = new JSONObject();
+        vars.put("ids", $ids);
+        return $db.getDatabase().run("SELECT * FROM test WHERE id IN (:ids)", vars, $options);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.totalpave.cordova.sqlite.benchmark;
+
+import com.totalpave.cordova.sqlite.Database;
+import com.totalpave.sqlite3.SqliteException;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+/**
+ * Creates throwaway databases in the system temp directory for the benchmarks.
+ */
+final class BenchmarkDatabase {
+    // SQLITE_OPEN_READWRITE | SQLITE_OPEN_CREATE
+    private static final int OPEN_FLAGS = 0x6;
+
+    private final File $file;
+    private final Database $database;
+
+    BenchmarkDatabase() throws IOException, SqliteException {
+        $file = File.createTempFile("tp-sqlite-benchmark", ".db");
+        $database = new Database($file, OPEN_FLAGS);
+    }
+
+    Database getDatabase() {
+        return $database;
+    }
+
+    void execute(String sql) throws JSONException, SqliteException {
+        $database.run(sql, null);
+    }
+
+    /**
+     * Inserts the rows in chunks with the same bulk insert path used by the plugin.
+     */
+    void insert(String sql, JSONArray rows) throws JSONException, SqliteException {
+        execute("BEGIN");
+        $database.bulkRun(sql, rows);
+        execute("COMMIT");
+    }
+
+    void close() {
+        $database.close();
+        $file.delete();
+        new File($file.getPath() + "-wal").delete();
+        new File($file.getPath() + "-shm").delete();
+        new File($file.getPath() + "-journal").delete();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.totalpave.cordova.sqlite.benchmark;
+
+import com.totalpave.cordova.sqlite.QueryOptions;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Reads blobs with the bytearray and base64 blob formats, including serialization to the WebView string.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BlobBenchmark {
+    @Param({"1024", "1048576"})
+    public int blobSize;
+
+    @Param({"bytearray", "base64"})
+    public String blobFormat;
+
+    private static final int ROWS = 10;
+
+    private BenchmarkDatabase $db;
+    private QueryOptions $options;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        $db = new BenchmarkDatabase();
+        $db.execute("CREATE TABLE test (id INTEGER PRIMARY KEY, data BLOB)");
+
+        Random random = new Random(42);
+        byte[] bytes = new byte[blobSize];
+        JSONArray values = new JSONArray();
+        for (int r = 0; r < ROWS; ++r) {
+            random.nextBytes(bytes);
+            JSONObject blob = new JSONObject();
+            blob.put("type", QueryOptions.BLOB_FORMAT_BASE64);
+            blob.put("value", java.util.Base64.getEncoder().encodeToString(bytes));
+
+            JSONArray row = new JSONArray();
+            row.put(r);
+            row.put(blob);
+            values.put(row);
+        }
+        $db.insert("INSERT INTO test (id, data) :BulkInsertValue", values);
+
+        JSONObject options = new JSONObject();
+        options.put("blobFormat", blobFormat);
+        $options = QueryOptions.fromJSON(options);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        $db.close();
+    }
+
+    @Benchmark
+    public String select() throws Exception {
+        return $db.getDatabase().run("SELECT * FROM test", null, $options).toString();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.totalpave.cordova.sqlite.benchmark;
+
+import com.totalpave.cordova.sqlite.BulkRunOptions;
+import com.totalpave.cordova.sqlite.CancellationToken;
+import com.totalpave.cordova.sqlite.QueryOptions;
+import com.totalpave.cordova.sqlite.QueryTimer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Inserts rows with the chunked bulk insert and with executeMany, each inside a single transaction.
+ * bulkRunCommitEvery uses the bulk insert's own savepoint instead, committing every 50k rows.
+ *
+ * The table is emptied before every invocation, so each is a single shot and runs in single shot mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BulkInsertBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private BenchmarkDatabase $db;
+    private JSONArray $arrayRows;
+    private JSONArray $objectRows;
+    private QueryOptions $options;
+    private BulkRunOptions $commitEvery;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        $db = new BenchmarkDatabase();
+        $db.execute("CREATE TABLE test (id INTEGER PRIMARY KEY, name TEXT, value REAL)");
+
+        $arrayRows = new JSONArray();
+        $objectRows = new JSONArray();
+        for (int r = 0; r < rows; ++r) {
+            JSONArray row = new JSONArray();
+            row.put(r);
+            row.put("name " + r);
+            row.put(r * 0.25);
+            $arrayRows.put(row);
+
+            JSONObject object = new JSONObject();
+            object.put("id", r);
+            object.put("name", "name " + r);
+            object.put("value", r * 0.25);
+            $objectRows.put(object);
+        }
+        $options = new QueryOptions();
+
+        JSONObject commitEvery = new JSONObject();
+        commitEvery.put("commitEvery", 50000);
+        $commitEvery = BulkRunOptions.fromJSON(commitEvery);
+    }
+
+    @Setup(Level.Invocation)
+    public void clear() throws Exception {
+        $db.execute("DELETE FROM test");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        $db.close();
+    }
+
+    @Benchmark
+    public void bulkRun() throws Exception {
+        $db.insert("INSERT INTO test (id, name, value) :BulkInsertValue", $arrayRows);
+    }
+
+    @Benchmark
+    public JSONObject bulkRunCommitEvery() throws Exception {
+        return $db.getDatabase().bulkRun("INSERT INTO test (id, name, value) :BulkInsertValue", $arrayRows, $commitEvery, QueryTimer.DISABLED, CancellationToken.NONE);
+    }
+
+    @Benchmark
+    public JSONObject executeMany() throws Exception {
+        return $db.getDatabase().executeMany("INSERT INTO test (id, name, value) VALUES (:id, :name, :value)", $objectRows, false, $options);
+    }
+}
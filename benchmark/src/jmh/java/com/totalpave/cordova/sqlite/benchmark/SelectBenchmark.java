@@ -0,0 +1,127 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.totalpave.cordova.sqlite.benchmark;
+
+import com.totalpave.cordova.sqlite.QueryOptions;
+
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Reads a table with the object and columnar result formats.
+ *
+ * The serialized variants also turn the result into the JSON string that is handed to the WebView,
+ * which is where most of the cost of large results goes. The streamed variants write the same string
+ * directly from the statement, which is what the plugin sends for execute and executeColumnar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SelectBenchmark {
+    @Param({"narrow", "wide"})
+    public String shape;
+
+    @Param({"100", "10000"})
+    public int rows;
+
+    private BenchmarkDatabase $db;
+    private QueryOptions $objects;
+    private QueryOptions $columnar;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        $db = new BenchmarkDatabase();
+        int columns = "wide".equals(shape) ? 20 : 3;
+
+        StringBuilder create = new StringBuilder("CREATE TABLE test (id INTEGER PRIMARY KEY");
+        StringBuilder insert = new StringBuilder("INSERT INTO test (id");
+        for (int i = 1; i < columns; ++i) {
+            create.append(", c").append(i).append(i % 2 == 0 ? " REAL" : " TEXT");
+            insert.append(", c").append(i);
+        }
+        create.append(')');
+        insert.append(") :BulkInsertValue");
+        $db.execute(create.toString());
+
+        JSONArray values = new JSONArray();
+        for (int r = 0; r < rows; ++r) {
+            JSONArray row = new JSONArray();
+            row.put(r);
+            for (int i = 1; i < columns; ++i) {
+                if (i % 2 == 0) {
+                    row.put(r * 0.5 + i);
+                }
+                else {
+                    row.put("value " + r + " " + i);
+                }
+            }
+            values.put(row);
+        }
+        $db.insert(insert.toString(), values);
+
+        $objects = new QueryOptions();
+        JSONObject columnar = new JSONObject();
+        columnar.put("resultFormat", QueryOptions.RESULT_FORMAT_COLUMNAR);
+        $columnar = QueryOptions.fromJSON(columnar);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        $db.close();
+    }
+
+    @Benchmark
+    public JSONArray objects() throws Exception {
+        return $db.getDatabase().run("SELECT * FROM test", null, $objects);
+    }
+
+    @Benchmark
+    public JSONObject columnar() throws Exception {
+        return $db.getDatabase().runColumnar("SELECT * FROM test", null, $columnar);
+    }
+
+    @Benchmark
+    public String objectsSerialized() throws Exception {
+        return $db.getDatabase().run("SELECT * FROM test", null, $objects).toString();
+    }
+
+    @Benchmark
+    public String columnarSerialized() throws Exception {
+        return $db.getDatabase().runColumnar("SELECT * FROM test", null, $columnar).toString();
+    }
+
+    @Benchmark
+    public String objectsStreamed() throws Exception {
+        return $db.getDatabase().runJson("SELECT * FROM test", null, $objects);
+    }
+
+    @Benchmark
+    public String columnarStreamed() throws Exception {
+        return $db.getDatabase().runColumnarJson("SELECT * FROM test", null, $columnar);
+    }
+}
@@ -0,0 +1,304 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+/*
+ * Desktop stand-in for the native side of com.totalpave.sqlite3.Sqlite, over the system libsqlite3.
+ * Only used by the benchmarks. Named parameters are given without their leading colon.
+ */
+
+#include <jni.h>
+#include <sqlite3.h>
+#include <stdint.h>
+#include <stdlib.h>
+#include <string.h>
+
+#define SHIM_FN(name) Java_com_totalpave_sqlite3_Sqlite_##name
+#define DB(handle) ((sqlite3*)(intptr_t)(handle))
+#define STMT(handle) ((sqlite3_stmt*)(intptr_t)(handle))
+
+static void throwException(JNIEnv* env, int code, const char* message) {
+    jclass cls = (*env)->FindClass(env, "com/totalpave/sqlite3/SqliteException");
+    if (cls == NULL) {
+        return;
+    }
+
+    jmethodID ctor = (*env)->GetMethodID(env, cls, "<init>", "(Ljava/lang/String;Ljava/lang/String;I)V");
+    jstring domain = (*env)->NewStringUTF(env, "com.totalpave.sqlite3.ErrorDomain");
+    jstring jmessage = (*env)->NewStringUTF(env, message != NULL ? message : sqlite3_errstr(code));
+    jobject ex = (*env)->NewObject(env, cls, ctor, domain, jmessage, (jint)code);
+    (*env)->Throw(env, (jthrowable)ex);
+}
+
+static void throwForStatement(JNIEnv* env, sqlite3_stmt* stmt, int code) {
+    throwException(env, code, sqlite3_errmsg(sqlite3_db_handle(stmt)));
+}
+
+static int getParameterIndex(JNIEnv* env, sqlite3_stmt* stmt, jstring key) {
+    const char* chars = (*env)->GetStringUTFChars(env, key, NULL);
+    size_t length = strlen(chars);
+    char* name = malloc(length + 2);
+    name[0] = ':';
+    memcpy(name + 1, chars, length + 1);
+    int index = sqlite3_bind_parameter_index(stmt, name);
+    free(name);
+    (*env)->ReleaseStringUTFChars(env, key, chars);
+    return index;
+}
+
+static void checkBind(JNIEnv* env, sqlite3_stmt* stmt, int rc) {
+    if (rc != SQLITE_OK) {
+        throwForStatement(env, stmt, rc);
+    }
+}
+
+static void bindText(JNIEnv* env, sqlite3_stmt* stmt, int index, jstring value) {
+    const jchar* chars = (*env)->GetStringChars(env, value, NULL);
+    jsize length = (*env)->GetStringLength(env, value);
+    int rc = sqlite3_bind_text16(stmt, index, chars, length * (int)sizeof(jchar), SQLITE_TRANSIENT);
+    (*env)->ReleaseStringChars(env, value, chars);
+    checkBind(env, stmt, rc);
+}
+
+static void bindBlob(JNIEnv* env, sqlite3_stmt* stmt, int index, jbyteArray value) {
+    jsize length = (*env)->GetArrayLength(env, value);
+    jbyte* bytes = (*env)->GetByteArrayElements(env, value, NULL);
+    int rc = sqlite3_bind_blob(stmt, index, bytes, length, SQLITE_TRANSIENT);
+    (*env)->ReleaseByteArrayElements(env, value, bytes, JNI_ABORT);
+    checkBind(env, stmt, rc);
+}
+
+JNIEXPORT jlong JNICALL SHIM_FN(open)(JNIEnv* env, jclass cls, jstring path, jint flags) {
+    const char* chars = (*env)->GetStringUTFChars(env, path, NULL);
+    sqlite3* db = NULL;
+    int rc = sqlite3_open_v2(chars, &db, flags, NULL);
+    (*env)->ReleaseStringUTFChars(env, path, chars);
+    if (rc != SQLITE_OK) {
+        throwException(env, rc, db != NULL ? sqlite3_errmsg(db) : NULL);
+        sqlite3_close_v2(db);
+        return 0;
+    }
+    return (jlong)(intptr_t)db;
+}
+
+JNIEXPORT void JNICALL SHIM_FN(close)(JNIEnv* env, jclass cls, jlong handle) {
+    sqlite3_close_v2(DB(handle));
+}
+
+JNIEXPORT void JNICALL SHIM_FN(setBusyTimeout)(JNIEnv* env, jclass cls, jlong handle, jint timeout) {
+    int rc = sqlite3_busy_timeout(DB(handle), timeout);
+    if (rc != SQLITE_OK) {
+        throwException(env, rc, sqlite3_errmsg(DB(handle)));
+    }
+}
+
+JNIEXPORT void JNICALL SHIM_FN(setTempDir)(JNIEnv* env, jclass cls, jstring path) {
+    // The system temp directory is used on desktop.
+}
+
+JNIEXPORT jlong JNICALL SHIM_FN(prepare)(JNIEnv* env, jclass cls, jlong handle, jstring sql) {
+    const jchar* chars = (*env)->GetStringChars(env, sql, NULL);
+    jsize length = (*env)->GetStringLength(env, sql);
+    sqlite3_stmt* stmt = NULL;
+    int rc = sqlite3_prepare16_v2(DB(handle), chars, length * (int)sizeof(jchar), &stmt, NULL);
+    (*env)->ReleaseStringChars(env, sql, chars);
+    if (rc != SQLITE_OK) {
+        throwException(env, rc, sqlite3_errmsg(DB(handle)));
+        return 0;
+    }
+    return (jlong)(intptr_t)stmt;
+}
+
+JNIEXPORT void JNICALL SHIM_FN(finalize)(JNIEnv* env, jclass cls, jlong statement) {
+    sqlite3* db = sqlite3_db_handle(STMT(statement));
+    int rc = sqlite3_finalize(STMT(statement));
+    if (rc != SQLITE_OK) {
+        throwException(env, rc, sqlite3_errmsg(db));
+    }
+}
+
+JNIEXPORT jint JNICALL SHIM_FN(step)(JNIEnv* env, jclass cls, jlong statement) {
+    int rc = sqlite3_step(STMT(statement));
+    if (rc != SQLITE_ROW && rc != SQLITE_DONE) {
+        throwForStatement(env, STMT(statement), rc);
+    }
+    return rc;
+}
+
+JNIEXPORT void JNICALL SHIM_FN(reset)(JNIEnv* env, jclass cls, jlong statement) {
+    int rc = sqlite3_reset(STMT(statement));
+    if (rc != SQLITE_OK) {
+        throwForStatement(env, STMT(statement), rc);
+    }
+}
+
+JNIEXPORT void JNICALL SHIM_FN(bindNull)(JNIEnv* env, jclass cls, jlong statement, jstring key) {
+    int index = getParameterIndex(env, STMT(statement), key);
+    if (index > 0) {
+        checkBind(env, STMT(statement), sqlite3_bind_null(STMT(statement), index));
+    }
+}
+
+JNIEXPORT void JNICALL SHIM_FN(bindString)(JNIEnv* env, jclass cls, jlong statement, jstring key, jstring value) {
+    int index = getParameterIndex(env, STMT(statement), key);
+    if (index > 0) {
+        bindText(env, STMT(statement), index, value);
+    }
+}
+
+JNIEXPORT void JNICALL SHIM_FN(bindInt)(JNIEnv* env, jclass cls, jlong statement, jstring key, jlong value) {
+    int index = getParameterIndex(env, STMT(statement), key);
+    if (index > 0) {
+        checkBind(env, STMT(statement), sqlite3_bind_int64(STMT(statement), index, value));
+    }
+}
+
+JNIEXPORT void JNICALL SHIM_FN(bindDouble)(JNIEnv* env, jclass cls, jlong statement, jstring key, jdouble value) {
+    int index = getParameterIndex(env, STMT(statement), key);
+    if (index > 0) {
+        checkBind(env, STMT(statement), sqlite3_bind_double(STMT(statement), index, value));
+    }
+}
+
+JNIEXPORT void JNICALL SHIM_FN(bindBlob)(JNIEnv* env, jclass cls, jlong statement, jstring key, jbyteArray value) {
+    int index = getParameterIndex(env, STMT(statement), key);
+    if (index > 0) {
+        bindBlob(env, STMT(statement), index, value);
+    }
+}
+
+JNIEXPORT void JNICALL SHIM_FN(bindNullWithIndex)(JNIEnv* env, jclass cls, jlong statement, jint index) {
+    checkBind(env, STMT(statement), sqlite3_bind_null(STMT(statement), index));
+}
+
+JNIEXPORT void JNICALL SHIM_FN(bindStringWithIndex)(JNIEnv* env, jclass cls, jlong statement, jint index, jstring value) {
+    bindText(env, STMT(statement), index, value);
+}
+
+JNIEXPORT void JNICALL SHIM_FN(bindIntWithIndex)(JNIEnv* env, jclass cls, jlong statement, jint index, jlong value) {
+    checkBind(env, STMT(statement), sqlite3_bind_int64(STMT(statement), index, value));
+}
+
+JNIEXPORT void JNICALL SHIM_FN(bindDoubleWithIndex)(JNIEnv* env, jclass cls, jlong statement, jint index, jdouble value) {
+    checkBind(env, STMT(statement), sqlite3_bind_double(STMT(statement), index, value));
+}
+
+JNIEXPORT void JNICALL SHIM_FN(bindBlobWithIndex)(JNIEnv* env, jclass cls, jlong statement, jint index, jbyteArray value) {
+    bindBlob(env, STMT(statement), index, value);
+}
+
+JNIEXPORT jint JNICALL SHIM_FN(columnCount)(JNIEnv* env, jclass cls, jlong statement) {
+    return sqlite3_column_count(STMT(statement));
+}
+
+JNIEXPORT jint JNICALL SHIM_FN(columnType)(JNIEnv* env, jclass cls, jlong statement, jint index) {
+    return sqlite3_column_type(STMT(statement), index);
+}
+
+JNIEXPORT jstring JNICALL SHIM_FN(columnName)(JNIEnv* env, jclass cls, jlong statement, jint index) {
+    return (*env)->NewStringUTF(env, sqlite3_column_name(STMT(statement), index));
+}
+
+JNIEXPORT jlong JNICALL SHIM_FN(getInt)(JNIEnv* env, jclass cls, jlong statement, jint index) {
+    return sqlite3_column_int64(STMT(statement), index);
+}
+
+JNIEXPORT jdouble JNICALL SHIM_FN(getDouble)(JNIEnv* env, jclass cls, jlong statement, jint index) {
+    return sqlite3_column_double(STMT(statement), index);
+}
+
+JNIEXPORT jstring JNICALL SHIM_FN(getString)(JNIEnv* env, jclass cls, jlong statement, jint index) {
+    const jchar* chars = sqlite3_column_text16(STMT(statement), index);
+    if (chars == NULL) {
+        return NULL;
+    }
+    int bytes = sqlite3_column_bytes16(STMT(statement), index);
+    return (*env)->NewString(env, chars, bytes / (int)sizeof(jchar));
+}
+
+JNIEXPORT jbyteArray JNICALL SHIM_FN(getBlob)(JNIEnv* env, jclass cls, jlong statement, jint index) {
+    const void* bytes = sqlite3_column_blob(STMT(statement), index);
+    int length = sqlite3_column_bytes(STMT(statement), index);
+    jbyteArray out = (*env)->NewByteArray(env, length);
+    if (length > 0) {
+        (*env)->SetByteArrayRegion(env, out, 0, length, (const jbyte*)bytes);
+    }
+    return out;
+}
+
+#define BLOB(handle) ((sqlite3_blob*)(intptr_t)(handle))
+
+JNIEXPORT jlong JNICALL SHIM_FN(blobOpen)(JNIEnv* env, jclass cls, jlong handle, jstring schema, jstring table, jstring column, jlong rowId, jboolean writable) {
+    const char* schemaChars = (*env)->GetStringUTFChars(env, schema, NULL);
+    const char* tableChars = (*env)->GetStringUTFChars(env, table, NULL);
+    const char* columnChars = (*env)->GetStringUTFChars(env, column, NULL);
+    sqlite3_blob* blob = NULL;
+    int rc = sqlite3_blob_open(DB(handle), schemaChars, tableChars, columnChars, rowId, writable ? 1 : 0, &blob);
+    (*env)->ReleaseStringUTFChars(env, schema, schemaChars);
+    (*env)->ReleaseStringUTFChars(env, table, tableChars);
+    (*env)->ReleaseStringUTFChars(env, column, columnChars);
+    if (rc != SQLITE_OK) {
+        throwException(env, rc, sqlite3_errmsg(DB(handle)));
+        return 0;
+    }
+    return (jlong)(intptr_t)blob;
+}
+
+JNIEXPORT void JNICALL SHIM_FN(blobReopen)(JNIEnv* env, jclass cls, jlong blob, jlong rowId) {
+    int rc = sqlite3_blob_reopen(BLOB(blob), rowId);
+    if (rc != SQLITE_OK) {
+        throwException(env, rc, NULL);
+    }
+}
+
+JNIEXPORT jint JNICALL SHIM_FN(blobBytes)(JNIEnv* env, jclass cls, jlong blob) {
+    return sqlite3_blob_bytes(BLOB(blob));
+}
+
+JNIEXPORT jbyteArray JNICALL SHIM_FN(blobRead)(JNIEnv* env, jclass cls, jlong blob, jint offset, jint length) {
+    jbyteArray out = (*env)->NewByteArray(env, length);
+    if (out == NULL || length == 0) {
+        return out;
+    }
+    jbyte* bytes = (*env)->GetByteArrayElements(env, out, NULL);
+    int rc = sqlite3_blob_read(BLOB(blob), bytes, length, offset);
+    (*env)->ReleaseByteArrayElements(env, out, bytes, rc == SQLITE_OK ? 0 : JNI_ABORT);
+    if (rc != SQLITE_OK) {
+        throwException(env, rc, NULL);
+        return NULL;
+    }
+    return out;
+}
+
+JNIEXPORT void JNICALL SHIM_FN(blobWrite)(JNIEnv* env, jclass cls, jlong blob, jint offset, jbyteArray data) {
+    jsize length = (*env)->GetArrayLength(env, data);
+    jbyte* bytes = (*env)->GetByteArrayElements(env, data, NULL);
+    int rc = sqlite3_blob_write(BLOB(blob), bytes, length, offset);
+    (*env)->ReleaseByteArrayElements(env, data, bytes, JNI_ABORT);
+    if (rc != SQLITE_OK) {
+        throwException(env, rc, NULL);
+    }
+}
+
+JNIEXPORT void JNICALL SHIM_FN(blobClose)(JNIEnv* env, jclass cls, jlong blob) {
+    int rc = sqlite3_blob_close(BLOB(blob));
+    if (rc != SQLITE_OK) {
+        throwException(env, rc, NULL);
+    }
+}
+
+JNIEXPORT void JNICALL SHIM_FN(interrupt)(JNIEnv* env, jclass cls, jlong handle) {
+    sqlite3_interrupt(DB(handle));
+}
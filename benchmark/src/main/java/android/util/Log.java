@@ -0,0 +1,53 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.util;
+
+/**
+ * Desktop stand-in for android.util.Log that writes to stderr.
+ */
+public class Log {
+    public static int v(String tag, String msg) {
+        return $print("V", tag, msg);
+    }
+
+    public static int d(String tag, String msg) {
+        return $print("D", tag, msg);
+    }
+
+    public static int i(String tag, String msg) {
+        return $print("I", tag, msg);
+    }
+
+    public static int w(String tag, String msg) {
+        return $print("W", tag, msg);
+    }
+
+    public static int e(String tag, String msg) {
+        return $print("E", tag, msg);
+    }
+
+    public static int e(String tag, String msg, Throwable tr) {
+        int out = $print("E", tag, msg);
+        tr.printStackTrace();
+        return out;
+    }
+
+    private static int $print(String level, String tag, String msg) {
+        System.err.println(level + "/" + tag + ": " + msg);
+        return 0;
+    }
+}
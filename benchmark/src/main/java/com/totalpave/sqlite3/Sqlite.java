@@ -0,0 +1,63 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.totalpave.sqlite3;
+
+/**
+ * Desktop stand-in for the Android binding, backed by the sqlite3_shim JNI library.
+ */
+public class Sqlite {
+    static {
+        System.loadLibrary("tpsqlite3shim");
+    }
+
+    public static native long open(String path, int flags) throws SqliteException;
+    public static native void close(long handle);
+    public static native void setBusyTimeout(long handle, int timeout) throws SqliteException;
+    public static native void setTempDir(String path) throws SqliteException;
+    public static native void interrupt(long handle);
+    public static native long prepare(long handle, String sql) throws SqliteException;
+    public static native void finalize(long statement) throws SqliteException;
+    public static native int step(long statement) throws SqliteException;
+    public static native void reset(long statement) throws SqliteException;
+
+    public static native void bindNull(long statement, String key) throws SqliteException;
+    public static native void bindString(long statement, String key, String value) throws SqliteException;
+    public static native void bindInt(long statement, String key, long value) throws SqliteException;
+    public static native void bindDouble(long statement, String key, double value) throws SqliteException;
+    public static native void bindBlob(long statement, String key, byte[] value) throws SqliteException;
+
+    public static native void bindNullWithIndex(long statement, int index) throws SqliteException;
+    public static native void bindStringWithIndex(long statement, int index, String value) throws SqliteException;
+    public static native void bindIntWithIndex(long statement, int index, long value) throws SqliteException;
+    public static native void bindDoubleWithIndex(long statement, int index, double value) throws SqliteException;
+    public static native void bindBlobWithIndex(long statement, int index, byte[] value) throws SqliteException;
+
+    public static native int columnCount(long statement) throws SqliteException;
+    public static native int columnType(long statement, int index) throws SqliteException;
+    public static native String columnName(long statement, int index) throws SqliteException;
+    public static native long getInt(long statement, int index) throws SqliteException;
+    public static native double getDouble(long statement, int index) throws SqliteException;
+    public static native String getString(long statement, int index) throws SqliteException;
+    public static native byte[] getBlob(long statement, int index) throws SqliteException;
+
+    public static native long blobOpen(long handle, String schema, String table, String column, long rowId, boolean writable) throws SqliteException;
+    public static native void blobReopen(long blob, long rowId) throws SqliteException;
+    public static native int blobBytes(long blob);
+    public static native byte[] blobRead(long blob, int offset, int length) throws SqliteException;
+    public static native void blobWrite(long blob, int offset, byte[] data) throws SqliteException;
+    public static native void blobClose(long blob) throws SqliteException;
+}
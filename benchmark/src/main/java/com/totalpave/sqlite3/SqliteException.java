@@ -0,0 +1,56 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.totalpave.sqlite3;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Desktop stand-in for the Android binding's exception.
+ */
+public class SqliteException extends Exception {
+    private final String $domain;
+    private final int $code;
+    private JSONObject $details;
+
+    public SqliteException(String domain, String message, int code) {
+        super(message);
+        $domain = domain;
+        $code = code;
+    }
+
+    public String getDomain() {
+        return $domain;
+    }
+
+    public int getCode() {
+        return $code;
+    }
+
+    public void setDetails(JSONObject details) {
+        $details = details;
+    }
+
+    public JSONObject toDictionary() throws JSONException {
+        JSONObject out = new JSONObject();
+        out.put("domain", $domain);
+        out.put("code", $code);
+        out.put("message", getMessage());
+        out.put("details", $details);
+        return out;
+    }
+}
@@ -0,0 +1,75 @@
+import {Batch} from '../src/www/Batch';
+import {Database} from '../src/www/Database';
+import {RawQuery} from '../src/www/RawQuery';
+import {TransactionMode} from '../src/www/TransactionMode';
+
+describe('Batch', () => {
+    let exec: jest.Mock;
+
+    beforeEach(() => {
+        exec = jest.fn();
+        (<any>global).cordova = {exec};
+    });
+
+    afterEach(() => {
+        delete (<any>global).cordova;
+    });
+
+    it('should send every query in a single call', async () => {
+        let response: any = {
+            results: [
+                {status: 'success', result: []},
+                {status: 'success', result: [{id: 1}]}
+            ],
+            rolledBack: false
+        };
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve(response);
+        });
+
+        let batch: Batch = new Batch()
+            .add(new RawQuery('INSERT INTO test (id) VALUES (:id)', {id: 1}))
+            .add(new RawQuery('SELECT id FROM test'), {blobFormat: 'base64'});
+
+        expect(batch.getLength()).toBe(2);
+        expect(await batch.execute(new Database('1'), {transaction: true, transactionMode: TransactionMode.IMMEDIATE})).toBe(response);
+        expect(exec).toHaveBeenCalledTimes(1);
+        expect(exec.mock.calls[0][3]).toBe('batch');
+        expect(exec.mock.calls[0][4]).toEqual([
+            {dbHandle: '1'},
+            [
+                {
+                    sql: 'INSERT INTO test (id) VALUES (:id)',
+                    params: {id: 1},
+                    method: 'query',
+                    options: {resultFormat: 'objects'}
+                },
+                {
+                    sql: 'SELECT id FROM test',
+                    params: null,
+                    method: 'query',
+                    options: {blobFormat: 'base64', resultFormat: 'objects'}
+                }
+            ],
+            {transaction: true, transactionMode: 'IMMEDIATE', stopOnError: true, priority: 'interactive'}
+        ]);
+    });
+
+    it('should default to no transaction and stop on error', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve({results: [], rolledBack: false});
+        });
+
+        await new Batch().execute(new Database('1'));
+        expect(exec.mock.calls[0][4][2]).toEqual({transaction: false, transactionMode: 'DEFERRED', stopOnError: true, priority: 'interactive'});
+    });
+
+    it('should pass the priority to native', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve({results: [], rolledBack: false});
+        });
+
+        await new Batch().execute(new Database('1'), {priority: 'background'});
+        expect(exec.mock.calls[0][4][2].priority).toBe('background');
+    });
+});
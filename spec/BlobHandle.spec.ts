@@ -0,0 +1,78 @@
+import {BlobHandle} from '../src/www/BlobHandle';
+import {Database} from '../src/www/Database';
+import {SQLite} from '../src/www/SQLite';
+
+describe('BlobHandle', () => {
+    let exec: jest.Mock;
+
+    beforeEach(() => {
+        exec = jest.fn();
+        (<any>global).cordova = {exec};
+    });
+
+    afterEach(() => {
+        delete (<any>global).cordova;
+    });
+
+    it('should open a blob handle', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve({blobId: 4, size: 100000, chunkSize: 65536});
+        });
+
+        let blob: BlobHandle = await SQLite.openBlob(new Database('1'), 'attachments', 'data', 12, {writable: true});
+        expect(blob.getId()).toBe(4);
+        expect(blob.getSize()).toBe(100000);
+        expect(blob.getChunkSize()).toBe(65536);
+        expect(exec.mock.calls[0][3]).toBe('openBlob');
+        expect(exec.mock.calls[0][4]).toEqual([{dbHandle: '1'}, 'attachments', 'data', 12, {writable: true}]);
+    });
+
+    it('should read a chunk, clamped to the end of the blob', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve(new Uint8Array([1, 2, 3]).buffer);
+        });
+
+        let blob: BlobHandle = new BlobHandle(new Database('1'), 4, 10, 8);
+        expect(await blob.read(7)).toEqual(new Uint8Array([1, 2, 3]));
+        expect(exec.mock.calls[0][3]).toBe('readBlob');
+        expect(exec.mock.calls[0][4]).toEqual([{dbHandle: '1'}, 4, 7, 3]);
+
+        await blob.read(0);
+        expect(exec.mock.calls[1][4]).toEqual([{dbHandle: '1'}, 4, 0, 8]);
+    });
+
+    it('should write bytes as a blob parameter', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve();
+        });
+
+        let blob: BlobHandle = new BlobHandle(new Database('1'), 4, 10, 8);
+        await blob.write(2, new Uint8Array([0, 1, 254, 255]));
+        expect(exec.mock.calls[0][3]).toBe('writeBlob');
+        expect(exec.mock.calls[0][4]).toEqual([{dbHandle: '1'}, 4, 2, {type: 'base64', value: 'AAH+/w=='}]);
+    });
+
+    it('should track the size after reopening', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve({size: 42});
+        });
+
+        let blob: BlobHandle = new BlobHandle(new Database('1'), 4, 10, 8);
+        expect(await blob.reopen(13)).toBe(42);
+        expect(blob.getSize()).toBe(42);
+        expect(exec.mock.calls[0][4]).toEqual([{dbHandle: '1'}, 4, 13]);
+    });
+
+    it('should only close once', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve();
+        });
+
+        let blob: BlobHandle = new BlobHandle(new Database('1'), 4, 10, 8);
+        await blob.close();
+        await blob.close();
+        expect(blob.isClosed()).toBe(true);
+        expect(exec).toHaveBeenCalledTimes(1);
+        expect(exec.mock.calls[0][3]).toBe('closeBlob');
+    });
+});
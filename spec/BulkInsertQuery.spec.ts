@@ -0,0 +1,49 @@
+import {BulkInsertQuery} from '../src/www/BulkInsertQuery';
+import {Database} from '../src/www/Database';
+
+class InsertItemsQuery extends BulkInsertQuery<Array<[number, string]>> {
+    protected override _getTable(): string {
+        return 'item';
+    }
+
+    protected override _getColumns(): Array<string> {
+        return ['id', 'name'];
+    }
+}
+
+describe('BulkInsertQuery', () => {
+    let exec: jest.Mock;
+
+    beforeEach(() => {
+        exec = jest.fn();
+        (<any>global).cordova = {exec};
+    });
+
+    afterEach(() => {
+        delete (<any>global).cordova;
+    });
+
+    it('should send the transaction options to bulkInsert', async () => {
+        let response: any = {rows: 2, changes: 2, checkpoint: {busy: 0, log: 0, checkpointed: 0}};
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve(response);
+        });
+
+        let query: InsertItemsQuery = new InsertItemsQuery([[1, 'a'], [2, 'b']]);
+
+        expect(await query.execute(new Database('1'), {commitEvery: 50000, checkpoint: 'truncate'})).toBe(response);
+        expect(exec.mock.calls[0][3]).toBe('bulkInsert');
+        expect(exec.mock.calls[0][4][2]).toEqual([[1, 'a'], [2, 'b']]);
+        expect(exec.mock.calls[0][4][3]).toEqual({commitEvery: 50000, checkpoint: 'truncate', queryId: expect.any(String), resultFormat: 'objects'});
+    });
+
+    it('should not send transaction options by default', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve({rows: 1, changes: 1});
+        });
+
+        let query: InsertItemsQuery = new InsertItemsQuery([[1, 'a']]);
+        await query.execute(new Database('1'));
+        expect(exec.mock.calls[0][4][3]).toEqual({queryId: expect.any(String), resultFormat: 'objects'});
+    });
+});
@@ -0,0 +1,40 @@
+import {ColumnarResult} from '../src/www/ColumnarResult';
+
+describe('ColumnarResult', () => {
+    it('should build row objects on request', () => {
+        let result: ColumnarResult = new ColumnarResult({
+            columns: ['id', 'name'],
+            rows: [
+                [1, 'a'],
+                [2, null]
+            ]
+        });
+
+        expect(result.getLength()).toBe(2);
+        expect(result.getValue(1, 'id')).toBe(2);
+        expect(result.getRow(0)).toEqual({id: 1, name: 'a'});
+        expect(result.toArray()).toEqual([
+            {id: 1, name: 'a'},
+            {id: 2, name: null}
+        ]);
+    });
+
+    it('should resolve duplicate columns to the last value', () => {
+        let result: ColumnarResult = new ColumnarResult({
+            columns: ['id', 'id'],
+            rows: [[1, 2]]
+        });
+
+        expect(result.getRow(0)).toEqual({id: 2});
+        expect(result.getValue(0, 'id')).toBe(2);
+    });
+
+    it('should convert row objects', () => {
+        let result: ColumnarResult = ColumnarResult.fromRowObjects([
+            {id: 1, name: 'a'}
+        ]);
+
+        expect(result.getColumns()).toEqual(['id', 'name']);
+        expect(result.getRows()).toEqual([[1, 'a']]);
+    });
+});
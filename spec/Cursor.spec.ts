@@ -0,0 +1,49 @@
+import {Cursor} from '../src/www/Cursor';
+import {Database} from '../src/www/Database';
+
+describe('Cursor', () => {
+    let exec: jest.Mock;
+
+    beforeEach(() => {
+        exec = jest.fn();
+        (<any>global).cordova = {exec};
+    });
+
+    afterEach(() => {
+        delete (<any>global).cordova;
+    });
+
+    it('should fetch pages until done', async () => {
+        let pages: Array<any> = [
+            {columns: ['id'], rows: [[1], [2]], done: false},
+            {columns: ['id'], rows: [[3]], done: true}
+        ];
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve(pages.shift());
+        });
+
+        let cursor: Cursor = new Cursor(new Database('1'), 7);
+        expect(await cursor.fetch(2)).toEqual([{id: 1}, {id: 2}]);
+        expect(cursor.isDone()).toBe(false);
+        expect(await cursor.fetch(2)).toEqual([{id: 3}]);
+        expect(cursor.isDone()).toBe(true);
+        expect(await cursor.fetch(2)).toEqual([]);
+
+        await cursor.close();
+        expect(exec).toHaveBeenCalledTimes(2);
+        expect(exec.mock.calls[0][3]).toBe('fetchCursor');
+        expect(exec.mock.calls[0][4]).toEqual([{dbHandle: '1'}, 7, 2]);
+    });
+
+    it('should close open cursors natively', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve(undefined);
+        });
+
+        let cursor: Cursor = new Cursor(new Database('1'), 3);
+        await cursor.close();
+        expect(cursor.isDone()).toBe(true);
+        expect(exec.mock.calls[0][3]).toBe('closeCursor');
+        expect(exec.mock.calls[0][4]).toEqual([{dbHandle: '1'}, 3]);
+    });
+});
@@ -0,0 +1,55 @@
+import {ExecuteManyQuery} from '../src/www/ExecuteManyQuery';
+import {Database} from '../src/www/Database';
+
+class UpdatePriceQuery extends ExecuteManyQuery<{id: number, price: number, note?: string}> {
+    public override getQuery(): string {
+        return 'UPDATE item SET price = :price WHERE id = :id';
+    }
+}
+
+describe('ExecuteManyQuery', () => {
+    let exec: jest.Mock;
+
+    beforeEach(() => {
+        exec = jest.fn();
+        (<any>global).cordova = {exec};
+    });
+
+    afterEach(() => {
+        delete (<any>global).cordova;
+    });
+
+    it('should send every row to executeMany', async () => {
+        let response: any = {changes: [1, 0], totalChanges: 1, lastInsertRowIds: [0, 0]};
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve(response);
+        });
+
+        let query: UpdatePriceQuery = new UpdatePriceQuery([
+            {id: 1, price: 2.5},
+            {id: 2, price: 3, note: undefined}
+        ]);
+
+        expect(await query.execute(new Database('1'), {lastInsertRowId: true})).toBe(response);
+        expect(exec.mock.calls[0][3]).toBe('executeMany');
+        expect(exec.mock.calls[0][4]).toEqual([
+            {dbHandle: '1'},
+            'UPDATE item SET price = :price WHERE id = :id',
+            [
+                {id: 1, price: 2.5},
+                {id: 2, price: 3}
+            ],
+            {lastInsertRowId: true, queryId: expect.any(String), resultFormat: 'objects'}
+        ]);
+    });
+
+    it('should validate the parameter names of every row', async () => {
+        let query: UpdatePriceQuery = new UpdatePriceQuery([
+            {id: 1, price: 2.5},
+            <any>{id: 2, '1price': 3}
+        ]);
+
+        await expect(query.execute(new Database('1'))).rejects.toThrow('1price');
+        expect(exec).not.toHaveBeenCalled();
+    });
+});
@@ -0,0 +1,92 @@
+import {RawQuery} from '../src/www/RawQuery';
+import {Database} from '../src/www/Database';
+
+describe('Query', () => {
+    let exec: jest.Mock;
+
+    beforeEach(() => {
+        exec = jest.fn();
+        (<any>global).cordova = {exec};
+    });
+
+    afterEach(() => {
+        delete (<any>global).cordova;
+    });
+
+    it('should give each execution its own query id before it runs', async () => {
+        let resolvers: Array<(data: any) => void> = [];
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolvers.push(resolve);
+        });
+
+        let ids: Array<string> = [];
+        let query: RawQuery = new RawQuery('SELECT 1');
+        let first: Promise<any> = query.execute(new Database('1'), {timeoutMs: 500, onQueryId: (id: string) => ids.push(id)});
+        let second: Promise<any> = query.execute(new Database('1'), {onQueryId: (id: string) => ids.push(id)});
+        expect(ids).toEqual([expect.any(String), expect.any(String)]);
+        expect(ids[0]).not.toBe(ids[1]);
+
+        await new Promise((resolve) => setTimeout(resolve, 0));
+        resolvers.forEach((resolve: (data: any) => void) => resolve([]));
+        await Promise.all([first, second]);
+
+        expect(exec.mock.calls[0][4][3]).toEqual({timeoutMs: 500, queryId: ids[0], resultFormat: 'objects'});
+        expect(exec.mock.calls[1][4][3]).toEqual({queryId: ids[1], resultFormat: 'objects'});
+    });
+
+    it('should use the given query id', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve([]);
+        });
+
+        let onQueryId: jest.Mock = jest.fn();
+        let query: RawQuery = new RawQuery('SELECT 1');
+        await query.execute(new Database('1'), {queryId: 'search', onQueryId});
+        expect(onQueryId).toHaveBeenCalledWith('search');
+        expect(exec.mock.calls[0][4][3].queryId).toBe('search');
+    });
+
+    it('should export to a file with progress reports', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve({event: 'progress', rows: 100, bytes: 2048});
+            resolve({event: 'complete', rows: 150, bytes: 3072});
+        });
+
+        let onProgress: jest.Mock = jest.fn();
+        let queryId: string;
+        let query: RawQuery = new RawQuery('SELECT * FROM t WHERE id > :id', {id: 1});
+        let result = await query.exportToFile(new Database('1'), 'file:///out.csv', 'csv', {header: false, onProgress, onQueryId: (id: string) => queryId = id});
+
+        expect(result).toEqual({rows: 150, bytes: 3072});
+        expect(onProgress).toHaveBeenCalledWith({rows: 100, bytes: 2048});
+        expect(exec.mock.calls[0][3]).toBe('exportQuery');
+        expect(exec.mock.calls[0][4]).toEqual([
+            {dbHandle: '1'},
+            'SELECT * FROM t WHERE id > :id',
+            {id: 1},
+            'file:///out.csv',
+            'csv',
+            {header: false, queryId: queryId, progressInterval: 1000}
+        ]);
+    });
+
+    it('should not request progress reports without a listener', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve({event: 'complete', rows: 0, bytes: 0});
+        });
+
+        let query: RawQuery = new RawQuery('SELECT 1');
+        await query.exportToFile(new Database('1'), 'file:///out.ndjson', 'ndjson', {progressInterval: 50, queryId: 'export'});
+
+        expect(exec.mock.calls[0][4][5]).toEqual({queryId: 'export', progressInterval: 0});
+    });
+
+    it('should reject a failed export', async () => {
+        exec.mockImplementation((resolve: any, reject: (error: any) => void) => {
+            reject({code: 14, message: 'Unsupported export format'});
+        });
+
+        let query: RawQuery = new RawQuery('SELECT 1');
+        await expect(query.exportToFile(new Database('1'), 'file:///out.xml', <any>'xml')).rejects.toEqual({code: 14, message: 'Unsupported export format'});
+    });
+});
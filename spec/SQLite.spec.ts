@@ -0,0 +1,248 @@
+import {SQLite} from '../src/www/SQLite';
+import {Database} from '../src/www/Database';
+import {CreateIndexQuery} from '../src/www/CreateIndexQuery';
+import {IBackupProgress} from '../src/www/IBackupOptions';
+import {
+    IImportProgress,
+    IImportResult
+} from '../src/www/IImportOptions';
+
+describe('SQLite', () => {
+    let exec: jest.Mock;
+
+    beforeEach(() => {
+        exec = jest.fn();
+        (<any>global).cordova = {exec};
+    });
+
+    afterEach(() => {
+        delete (<any>global).cordova;
+    });
+
+    it('should report online backup progress until complete', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve({event: 'progress', completed: 4096, total: 8192});
+            resolve({event: 'complete'});
+        });
+
+        let progress: Array<IBackupProgress> = [];
+        await SQLite.backup('file:///db', 'file:///backup', {
+            online: true,
+            progressInterval: 100,
+            onProgress: (p: IBackupProgress) => {
+                progress.push(p);
+            }
+        });
+
+        expect(progress).toEqual([{completed: 4096, total: 8192, table: undefined}]);
+        expect(exec.mock.calls[0][3]).toBe('backup');
+        expect(exec.mock.calls[0][4]).toEqual([
+            'file:///db',
+            'file:///backup',
+            {online: true, busyTimeout: undefined, progressInterval: 100}
+        ]);
+    });
+
+    it('should resolve an incremental backup with its result', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve({event: 'complete', type: 'delta', pages: 3, pageCount: 900, bytes: 12324, deltas: 2});
+        });
+
+        expect(await SQLite.backup('file:///db', 'file:///backups', {incremental: true, maxDeltas: 5})).toEqual({
+            type: 'delta',
+            pages: 3,
+            pageCount: 900,
+            bytes: 12324,
+            deltas: 2
+        });
+        expect(exec.mock.calls[0][4]).toEqual([
+            'file:///db',
+            'file:///backups',
+            {online: false, incremental: true, maxDeltas: 5, busyTimeout: undefined, progressInterval: 0}
+        ]);
+    });
+
+    it('should restore an incremental backup', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve({event: 'complete'});
+        });
+
+        await SQLite.restoreBackup('file:///db', 'file:///backups', {incremental: true});
+        expect(exec.mock.calls[0][3]).toBe('restoreBackup');
+        expect(exec.mock.calls[0][4][2]).toEqual({online: false, incremental: true, progressInterval: 0});
+    });
+
+    it('should use the legacy backup by default', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve();
+        });
+
+        await SQLite.restoreBackup('file:///db', 'file:///backup');
+        expect(exec.mock.calls[0][3]).toBe('restoreBackup');
+        expect(exec.mock.calls[0][4]).toEqual(['file:///db', 'file:///backup']);
+    });
+
+    it('should cancel a query by id', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve({cancelled: true});
+        });
+
+        expect(await SQLite.cancel(new Database('1'), 'search')).toBe(true);
+        expect(exec.mock.calls[0][3]).toBe('cancel');
+        expect(exec.mock.calls[0][4]).toEqual([{dbHandle: '1'}, 'search']);
+    });
+
+    it('should open with a profile and expose the effective pragmas', async () => {
+        let pragmas = {journalMode: 'wal', synchronous: 'normal', cacheSize: -16384, mmapSize: 268435456, tempStore: 'memory', pageSize: 4096, walAutocheckpoint: 1000};
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve({dbHandle: '1', pragmas});
+        });
+
+        let db: Database = await SQLite.open('file:///db', true, 5000, {profile: 'read-heavy', pragmas: {tempStore: 'memory'}});
+        expect(db.getHandle()).toBe('1');
+        expect(db.getPragmas()).toEqual(pragmas);
+        expect(exec.mock.calls[0][3]).toBe('open');
+        expect(exec.mock.calls[0][4][3]).toEqual({profile: 'read-heavy', pragmas: {tempStore: 'memory'}});
+    });
+
+    it('should open without effective pragmas', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve({dbHandle: '1'});
+        });
+
+        expect((await SQLite.open('file:///db', true)).getPragmas()).toBeNull();
+    });
+
+    it('should get the result cache stats', async () => {
+        let stats = {capacity: 1024, size: 512, entries: 2, hits: 3, misses: 1, hitRate: 0.75, evictions: 0, invalidations: 1};
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve(stats);
+        });
+
+        expect(await SQLite.getResultCacheStats(new Database('1'))).toEqual(stats);
+        expect(exec.mock.calls[0][3]).toBe('getResultCacheStats');
+        expect(exec.mock.calls[0][4]).toEqual([{dbHandle: '1'}]);
+    });
+
+    it('should get the query plan report', async () => {
+        let report = {
+            enabled: true,
+            countersAvailable: true,
+            statements: [{sql: 'SELECT * FROM items WHERE owner = ?', count: 5, totalTime: 18, averageTime: 3.6, maxTime: 7, plan: ['SCAN items'], fullScans: ['items'], tempBTrees: [], automaticIndexes: [], fullscanSteps: 99995, sorts: 0, autoindexes: 0, vmSteps: 307015}],
+            suggestions: [{indexName: 'idx_items_owner', tableName: 'items', columnName: 'owner', columns: ['owner'], reason: 'scan', statements: 1, totalTime: 18}]
+        };
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve(report);
+        });
+
+        expect(await SQLite.getQueryPlanReport(new Database('1'), {limit: 5})).toEqual(report);
+        expect(exec.mock.calls[0][3]).toBe('getQueryPlanReport');
+        expect(exec.mock.calls[0][4]).toEqual([{dbHandle: '1'}, {limit: 5}]);
+    });
+
+    it('should build a CreateIndexQuery from a suggestion', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve({enabled: true, countersAvailable: false, statements: [], suggestions: [{indexName: 'idx_items_owner', tableName: 'items', columnName: 'owner', columns: ['owner'], reason: 'scan', statements: 1, totalTime: 18}]});
+        });
+
+        let report = await SQLite.getQueryPlanReport(new Database('1'));
+        expect(exec.mock.calls[0][4]).toEqual([{dbHandle: '1'}, {}]);
+        expect(new CreateIndexQuery(report.suggestions[0]).getQuery()).toContain('CREATE INDEX IF NOT EXISTS `idx_items_owner`');
+    });
+
+    it('should reset the query plan report', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve();
+        });
+
+        await SQLite.resetQueryPlanReport(new Database('1'));
+        expect(exec.mock.calls[0][3]).toBe('resetQueryPlanReport');
+    });
+
+    it('should run maintenance and resolve with the report', async () => {
+        let report = {startedAt: 1, duration: 12, slices: 3, yielded: 1, optimized: true, pagesReclaimed: 40, freePages: 0, checkpoint: {busy: 0, log: 8, checkpointed: 8}, completed: true, error: null};
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve(report);
+        });
+
+        expect(await SQLite.runMaintenance(new Database('1'))).toEqual(report);
+        expect(exec.mock.calls[0][3]).toBe('runMaintenance');
+        expect(exec.mock.calls[0][4]).toEqual([{dbHandle: '1'}]);
+    });
+
+    it('should get the maintenance stats', async () => {
+        let stats = {enabled: true, idleTimeout: 30000, sliceDuration: 50, running: false, runs: 0, totalDuration: 0, totalPagesReclaimed: 0, lastRun: null};
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve(stats);
+        });
+
+        expect(await SQLite.getMaintenanceStats(new Database('1'))).toEqual(stats);
+        expect(exec.mock.calls[0][3]).toBe('getMaintenanceStats');
+    });
+
+    it('should pass the maintenance open option', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve({dbHandle: '1'});
+        });
+
+        await SQLite.open('file:///db', true, 5000, {maintenance: {idleTimeout: 10000}});
+        expect(exec.mock.calls[0][4][3]).toEqual({maintenance: {idleTimeout: 10000}});
+    });
+
+    it('should flush an in-memory database', async () => {
+        let result = {flushed: true, stats: {flushes: 1, lastFlushDuration: 4, size: 8192}};
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve(result);
+        });
+
+        expect(await SQLite.flush(new Database('1'))).toEqual(result);
+        expect(exec.mock.calls[0][3]).toBe('flush');
+        expect(exec.mock.calls[0][4]).toEqual([{dbHandle: '1'}]);
+    });
+
+    it('should pass the inMemory open option', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve({dbHandle: '1'});
+        });
+
+        await SQLite.open('file:///db', true, 5000, {inMemory: {maxSize: 1048576, flushOnCommit: false, flushInterval: 1000}});
+        expect(exec.mock.calls[0][4][3]).toEqual({inMemory: {maxSize: 1048576, flushOnCommit: false, flushInterval: 1000}});
+    });
+
+    it('should import a file with progress reports', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve({event: 'progress', rows: 500, bytes: 4096, totalBytes: 8192});
+            resolve({event: 'complete', rows: 900, changes: 880});
+        });
+
+        let progress: Array<IImportProgress> = [];
+        let result: IImportResult = await SQLite.importFile(new Database('1'), 'file:///rows.csv', 'items', ['id', 'name'], 'csv', {
+            onConflict: 'ignore',
+            batchSize: 500,
+            onProgress: (p: IImportProgress) => {
+                progress.push(p);
+            }
+        });
+
+        expect(result).toEqual({rows: 900, changes: 880});
+        expect(progress).toEqual([{rows: 500, bytes: 4096, totalBytes: 8192}]);
+        expect(exec.mock.calls[0][3]).toBe('importFile');
+        expect(exec.mock.calls[0][4]).toEqual([
+            {dbHandle: '1'},
+            'file:///rows.csv',
+            'items',
+            ['id', 'name'],
+            'csv',
+            {onConflict: 'ignore', batchSize: 500, progress: true}
+        ]);
+    });
+
+    it('should not request import progress without a listener', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve({event: 'complete', rows: 0, changes: 0});
+        });
+
+        await SQLite.importFile(new Database('1'), 'file:///rows.ndjson', 'items', ['id'], 'ndjson');
+        expect(exec.mock.calls[0][4][5]).toEqual({progress: false});
+    });
+});
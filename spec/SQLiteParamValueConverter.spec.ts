@@ -0,0 +1,43 @@
+import {SQLiteParamValueConverter} from '../src/www/SQLiteParamValueConverter';
+import {SQLiteBlob} from '../src/www/SQLiteTypes';
+
+describe('SQLiteParamValueConverter', () => {
+    afterEach(() => {
+        SQLiteParamValueConverter.blobEncoding = 'base64';
+    });
+
+    it('should encode blobs as base64 by default', async () => {
+        let blob: SQLiteBlob = await SQLiteParamValueConverter.int8OrUint8ToSQLiteBlob(new Uint8Array([0, 1, 254, 255]));
+        expect(blob).toEqual({
+            type: 'base64',
+            value: 'AAH+/w=='
+        });
+    });
+
+    it('should encode signed arrays as unsigned bytes', async () => {
+        let blob: SQLiteBlob = await SQLiteParamValueConverter.int8OrUint8ToSQLiteBlob(new Int8Array([-1, -2, 1]));
+        expect(SQLiteParamValueConverter.sqliteBlobToUint8Array(blob)).toEqual(new Uint8Array([255, 254, 1]));
+    });
+
+    it('should round trip large blobs', async () => {
+        let bytes: Uint8Array = new Uint8Array(100000);
+        for (let i: number = 0; i < bytes.length; i++) {
+            bytes[i] = i % 256;
+        }
+        let blob: SQLiteBlob = await SQLiteParamValueConverter.arrayBufferToSQLiteBlob(bytes.buffer);
+        expect(SQLiteParamValueConverter.sqliteBlobToUint8Array(blob)).toEqual(bytes);
+    });
+
+    it('should support the legacy bytearray encoding', async () => {
+        SQLiteParamValueConverter.blobEncoding = 'bytearray';
+        let blob: SQLiteBlob = await SQLiteParamValueConverter.int8OrUint8ToSQLiteBlob(new Uint8Array([1, 2]));
+        expect(blob).toEqual({
+            type: 'bytearray',
+            value: [1, 2]
+        });
+    });
+
+    it('should decode legacy blob columns', () => {
+        expect(SQLiteParamValueConverter.sqliteBlobToUint8Array([1, -1])).toEqual(new Uint8Array([1, 255]));
+    });
+});
@@ -0,0 +1,67 @@
+import {TableWatch, IChangeEvent} from '../src/www/TableWatch';
+import {Database} from '../src/www/Database';
+import {SQLite} from '../src/www/SQLite';
+
+describe('TableWatch', () => {
+    let exec: jest.Mock;
+
+    beforeEach(() => {
+        exec = jest.fn();
+        (<any>global).cordova = {exec};
+    });
+
+    afterEach(() => {
+        delete (<any>global).cordova;
+    });
+
+    it('should watch tables and deliver change events', async () => {
+        let change = {table: 'items', op: 'insert', rowids: [1, 2], count: 2};
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve({event: 'watch', watchId: 3});
+            resolve({event: 'change', changes: [change], transactions: 1});
+        });
+
+        let events: Array<IChangeEvent> = [];
+        let watch: TableWatch = await SQLite.watch(new Database('1'), ['items'], (event: IChangeEvent) => {
+            events.push(event);
+        }, {minInterval: 250, maxRowids: 50});
+        expect(watch.getId()).toBe(3);
+        expect(events).toEqual([{changes: [change], transactions: 1}]);
+        expect(exec.mock.calls[0][3]).toBe('watch');
+        expect(exec.mock.calls[0][4]).toEqual([{dbHandle: '1'}, ['items'], {minInterval: 250, maxRowids: 50}]);
+    });
+
+    it('should close when the native watch completes', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve({event: 'watch', watchId: 3});
+            resolve({event: 'complete'});
+        });
+
+        let listener = jest.fn();
+        let watch: TableWatch = await SQLite.watch(new Database('1'), ['items'], listener);
+        expect(watch.isClosed()).toBe(true);
+        expect(listener).not.toHaveBeenCalled();
+    });
+
+    it('should reject when the watch can not start', async () => {
+        exec.mockImplementation((resolve: (data: any) => void, reject: (error: any) => void) => {
+            reject({code: 20, message: 'Table nope not found'});
+        });
+
+        await expect(SQLite.watch(new Database('1'), ['nope'], jest.fn())).rejects.toEqual({code: 20, message: 'Table nope not found'});
+    });
+
+    it('should only unwatch once', async () => {
+        exec.mockImplementation((resolve: (data: any) => void) => {
+            resolve();
+        });
+
+        let watch: TableWatch = new TableWatch(new Database('1'), 3);
+        await watch.unwatch();
+        await watch.unwatch();
+        expect(watch.isClosed()).toBe(true);
+        expect(exec).toHaveBeenCalledTimes(1);
+        expect(exec.mock.calls[0][3]).toBe('unwatch');
+        expect(exec.mock.calls[0][4]).toEqual([{dbHandle: '1'}, 3]);
+    });
+});
@@ -2,6 +2,7 @@
 import * as api from '../src/www/api';
 
 import {BulkInsertQuery} from '../src/www/BulkInsertQuery';
+import {ExecuteManyQuery} from '../src/www/ExecuteManyQuery';
 import {CommitTransactionQuery} from '../src/www/CommitTransactionQuery';
 import {CreateIndexQuery} from '../src/www/CreateIndexQuery';
 import {Database} from '../src/www/Database';
@@ -13,12 +14,21 @@ import {TransactionMode} from '../src/www/TransactionMode';
 import {SQLite} from '../src/www/SQLite';
 import {SQLiteParamAdapter} from '../src/www/SQLiteParamAdapter';
 import {SQLiteParamValueConverter} from '../src/www/SQLiteParamValueConverter';
+import {ColumnarResult} from '../src/www/ColumnarResult';
+import {Cursor} from '../src/www/Cursor';
+import {BlobHandle} from '../src/www/BlobHandle';
+import {TableWatch} from '../src/www/TableWatch';
+import {Batch} from '../src/www/Batch';
 
 describe('Public API', () => {
     it('BulkInsertQuery', () => {
         expect(api.BulkInsertQuery).toBe(BulkInsertQuery);
     });
 
+    it('ExecuteManyQuery', () => {
+        expect(api.ExecuteManyQuery).toBe(ExecuteManyQuery);
+    });
+
     it('CommitTransactionQuery', () => {
         expect(api.CommitTransactionQuery).toBe(CommitTransactionQuery);
     });
@@ -62,4 +72,24 @@ describe('Public API', () => {
     it('SQLiteParamValueConverter', () => {
         expect(api.SQLiteParamValueConverter).toBe(SQLiteParamValueConverter);
     });
+
+    it('ColumnarResult', () => {
+        expect(api.ColumnarResult).toBe(ColumnarResult);
+    });
+
+    it('Cursor', () => {
+        expect(api.Cursor).toBe(Cursor);
+    });
+
+    it('BlobHandle', () => {
+        expect(api.BlobHandle).toBe(BlobHandle);
+    });
+
+    it('TableWatch', () => {
+        expect(api.TableWatch).toBe(TableWatch);
+    });
+
+    it('Batch', () => {
+        expect(api.Batch).toBe(Batch);
+    });
 });
@@ -0,0 +1,292 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.totalpave.cordova.sqlite;
+
+import com.totalpave.sqlite3.SqliteException;
+
+import android.util.Log;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Online backup and restore of a database that may be in use by other connections.
+ *
+ * The JNI binding does not expose the sqlite3_backup API. Instead, a backup is written with VACUUM INTO from a
+ * dedicated read-only connection, and a restore copies the schema and rows of the backup into the database inside a
+ * single transaction. Both go through SQLite's own locking, so unlike copying or renaming the database file, they are
+ * safe while other connections are open and while the database is in WAL mode.
+ */
+public class Backup {
+    public interface ProgressListener {
+        void onProgress(JSONObject progress) throws JSONException;
+    }
+
+    // SQLITE_OPEN_READONLY
+    private static final int OPEN_READ_ONLY = 0x00000001;
+    // SQLITE_OPEN_READWRITE | SQLITE_OPEN_CREATE
+    private static final int OPEN_READ_WRITE_CREATE = 0x00000002 | 0x00000004;
+    private static final String RESTORE_SCHEMA = "tp_restore";
+    private static final Pattern WITHOUT_ROWID = Pattern.compile("\\bWITHOUT\\s+ROWID\\b", Pattern.CASE_INSENSITIVE);
+    private static final String[] ROWID_ALIASES = { "rowid", "_rowid_", "oid" };
+
+    private Backup() {}
+
+    /**
+     * Writes a compacted copy of the source database to the destination.
+     *
+     * The copy is written next to the destination and moved into place once complete,
+     * so an existing backup is only replaced by a complete one. Writers are not blocked
+     * while the copy is taken when the source database is in WAL mode.
+     *
+     * @param progressInterval Time in milliseconds between progress reports. 0 or less disables progress reports.
+     */
+    public static void backup(File source, File destination, int busyTimeout, long progressInterval, ScheduledExecutorService timer, ProgressListener listener) throws SqliteException {
+        File temp = new File(destination.getAbsolutePath() + "-temp");
+        temp.delete();
+
+        Connection connection = new Connection(source, OPEN_READ_ONLY, 0);
+        ScheduledFuture<?> sampler = null;
+        try {
+            connection.setBusyTimeout(busyTimeout);
+
+            long pageSize = Long.parseLong(connection.executeScalar("PRAGMA page_size"));
+            long pageCount = Long.parseLong(connection.executeScalar("PRAGMA page_count"));
+            long freePages = Long.parseLong(connection.executeScalar("PRAGMA freelist_count"));
+            // VACUUM INTO does not copy free pages.
+            long totalBytes = (pageCount - freePages) * pageSize;
+
+            if (listener != null && progressInterval > 0) {
+                sampler = timer.scheduleAtFixedRate(new Runnable() {
+                    public void run() {
+                        try {
+                            listener.onProgress($createProgress(Math.min(temp.length(), totalBytes), totalBytes));
+                        }
+                        catch (JSONException ex) {
+                            Log.e(SQLite.LOG_TAG, "Unable to report backup progress", ex);
+                        }
+                    }
+                }, progressInterval, progressInterval, TimeUnit.MILLISECONDS);
+            }
+
+            connection.executeScalar("VACUUM INTO " + $quoteString(temp.getAbsolutePath()));
+        }
+        catch (SqliteException ex) {
+            temp.delete();
+            throw ex;
+        }
+        finally {
+            if (sampler != null) {
+                sampler.cancel(false);
+            }
+            connection.close();
+        }
+
+        if (!temp.renameTo(destination)) {
+            temp.delete();
+            throw new SqliteException(Error.DOMAIN, "Could not move the backup to " + destination.getAbsolutePath(), Error.IO_ERROR);
+        }
+    }
+
+    /**
+     * Replaces the content of the destination database with the content of the backup.
+     *
+     * Every table, index, trigger and view is dropped and recreated from the backup, and every row is copied,
+     * inside a single IMMEDIATE transaction. Other connections see either the old or the restored database,
+     * never a mix of both. Progress is reported after each table is copied.
+     */
+    public static void restore(File destination, File backupFile, int busyTimeout, ProgressListener listener) throws SqliteException, JSONException {
+        Connection connection = new Connection(destination, OPEN_READ_WRITE_CREATE, 0);
+        try {
+            connection.setBusyTimeout(busyTimeout);
+            copyInto(connection, backupFile, listener);
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * Replaces the content of the main database of the connection with the content of the source file, the same way
+     * restore does. Used to load a database into memory.
+     */
+    public static void copyInto(Connection connection, File source, ProgressListener listener) throws SqliteException, JSONException {
+        connection.executeScalar("ATTACH DATABASE " + $quoteString(source.getAbsolutePath()) + " AS " + RESTORE_SCHEMA);
+        try {
+            $restore(connection, listener);
+        }
+        finally {
+            try {
+                connection.executeScalar("DETACH DATABASE " + RESTORE_SCHEMA);
+            }
+            catch (SqliteException ex) {
+                Log.e(SQLite.LOG_TAG, "Unable to detach the restored backup", ex);
+            }
+        }
+    }
+
+    private static void $restore(Connection connection, ProgressListener listener) throws SqliteException, JSONException {
+        // Ordered by rowid so that objects are recreated in the order they were originally created in,
+        // such as views that select from other views.
+        ArrayList<String[]> objects = connection.executeRows(
+            "SELECT type, name, sql FROM " + RESTORE_SCHEMA + ".sqlite_master WHERE name NOT LIKE 'sqlite\\_%' ESCAPE '\\' AND sql IS NOT NULL ORDER BY rowid"
+        );
+
+        ArrayList<String> tables = new ArrayList<>();
+        ArrayList<String> copies = new ArrayList<>();
+        for (int i = 0, length = objects.size(); i < length; ++i) {
+            String[] object = objects.get(i);
+            if (object[0].equals("table")) {
+                if (object[2].regionMatches(true, 0, "CREATE VIRTUAL", 0, 14)) {
+                    throw new SqliteException(Error.DOMAIN, "Online restore does not support virtual tables. Found " + object[1], Error.IO_ERROR);
+                }
+                tables.add(object[1]);
+                copies.add($createCopySql(connection, object[1], !WITHOUT_ROWID.matcher(object[2]).find()));
+            }
+        }
+
+        ArrayList<String[]> existing = connection.executeRows(
+            "SELECT type, name FROM main.sqlite_master WHERE name NOT LIKE 'sqlite\\_%' ESCAPE '\\' AND type IN ('view', 'trigger', 'table') ORDER BY rowid DESC"
+        );
+
+        connection.executeScalar("BEGIN IMMEDIATE TRANSACTION");
+        try {
+            // Rows are deleted and inserted in an arbitrary order, so foreign keys are only checked on commit.
+            connection.executeScalar("PRAGMA defer_foreign_keys = ON");
+
+            // Views and triggers first, so that dropping a table does not leave them dangling.
+            for (int i = 0, length = existing.size(); i < length; ++i) {
+                String[] object = existing.get(i);
+                if (object[0].equals("view")) {
+                    connection.executeScalar("DROP VIEW IF EXISTS main." + $quoteIdentifier(object[1]));
+                }
+                else if (object[0].equals("trigger")) {
+                    connection.executeScalar("DROP TRIGGER IF EXISTS main." + $quoteIdentifier(object[1]));
+                }
+            }
+            for (int i = 0, length = existing.size(); i < length; ++i) {
+                String[] object = existing.get(i);
+                if (object[0].equals("table")) {
+                    connection.executeScalar("DROP TABLE IF EXISTS main." + $quoteIdentifier(object[1]));
+                }
+            }
+
+            for (int i = 0, length = objects.size(); i < length; ++i) {
+                String[] object = objects.get(i);
+                if (object[0].equals("table")) {
+                    connection.executeScalar(object[2]);
+                }
+            }
+
+            for (int i = 0, length = tables.size(); i < length; ++i) {
+                connection.executeScalar(copies.get(i));
+                if (listener != null) {
+                    JSONObject progress = $createProgress(i + 1, length);
+                    progress.put("table", tables.get(i));
+                    listener.onProgress(progress);
+                }
+            }
+
+            // AUTOINCREMENT counters
+            if (connection.executeScalar("SELECT 1 FROM " + RESTORE_SCHEMA + ".sqlite_master WHERE name = 'sqlite_sequence'") != null) {
+                connection.executeScalar("DELETE FROM main.sqlite_sequence");
+                connection.executeScalar("INSERT INTO main.sqlite_sequence SELECT * FROM " + RESTORE_SCHEMA + ".sqlite_sequence");
+            }
+
+            // Indexes are created after the rows are copied, which is faster than updating them row by row.
+            for (int i = 0, length = objects.size(); i < length; ++i) {
+                String[] object = objects.get(i);
+                if (!object[0].equals("table")) {
+                    connection.executeScalar(object[2]);
+                }
+            }
+
+            long userVersion = Long.parseLong(connection.executeScalar("PRAGMA " + RESTORE_SCHEMA + ".user_version"));
+            connection.executeScalar("PRAGMA main.user_version = " + userVersion);
+
+            connection.executeScalar("COMMIT TRANSACTION");
+        }
+        catch (SqliteException | JSONException ex) {
+            try {
+                connection.executeScalar("ROLLBACK TRANSACTION");
+            }
+            catch (SqliteException rex) {
+                // SQLite may have already rolled back the transaction on its own.
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Builds the statement that copies the rows of a table from the backup. Generated and hidden columns can not be
+     * inserted, so the columns are listed. The rowid of a rowid table is copied too, since it is not always declared
+     * as a column, and rowids kept by the app, such as for blob handles and watches, must stay valid.
+     */
+    private static String $createCopySql(Connection connection, String table, boolean hasRowid) throws SqliteException {
+        ArrayList<String[]> rows = connection.executeRows(
+            "SELECT name FROM pragma_table_xinfo(" + $quoteString(table) + ", '" + RESTORE_SCHEMA + "') WHERE hidden = 0 ORDER BY cid"
+        );
+
+        StringBuilder columns = new StringBuilder();
+        ArrayList<String> names = new ArrayList<>();
+        for (int i = 0, length = rows.size(); i < length; ++i) {
+            String name = rows.get(i)[0];
+            names.add(name.toLowerCase(Locale.ROOT));
+            if (columns.length() > 0) {
+                columns.append(", ");
+            }
+            columns.append($quoteIdentifier(name));
+        }
+
+        if (hasRowid) {
+            // A column may be named after one of the aliases of the rowid, which then no longer refers to it.
+            for (int i = 0; i < ROWID_ALIASES.length; ++i) {
+                if (!names.contains(ROWID_ALIASES[i])) {
+                    columns.insert(0, columns.length() > 0 ? ROWID_ALIASES[i] + ", " : ROWID_ALIASES[i]);
+                    break;
+                }
+            }
+        }
+
+        String quoted = $quoteIdentifier(table);
+        return "INSERT INTO main." + quoted + " (" + columns + ") SELECT " + columns + " FROM " + RESTORE_SCHEMA + "." + quoted;
+    }
+
+    private static JSONObject $createProgress(long completed, long total) throws JSONException {
+        JSONObject progress = new JSONObject();
+        progress.put("event", "progress");
+        progress.put("completed", completed);
+        progress.put("total", total);
+        return progress;
+    }
+
+    private static String $quoteString(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+    private static String $quoteIdentifier(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,306 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.totalpave.cordova.sqlite;
+
+import com.totalpave.sqlite3.ColumnType;
+import com.totalpave.sqlite3.Sqlite;
+import com.totalpave.sqlite3.SqliteException;
+import com.totalpave.sqlite3.Statement;
+
+/**
+ * An open sqlite3_blob on the write connection, identified by its table, column and rowid, that is read and written in byte ranges.
+ *
+ * The native handle keeps a statement open on the write connection until it is closed. Writes through a writable handle,
+ * and any other write made on the connection meanwhile, are committed when the handle is closed.
+ * A handle whose row was changed by another statement expires, and fails instead of reading stale data.
+ * Callers must synchronize on the handle while using it.
+ *
+ * Bindings older than libsqlite 0.4.0 have no sqlite3_blob calls. With those, the handle reads byte ranges with substr
+ * and writes them with an UPDATE that splices the value, which commits each write right away and only keeps the bytes
+ * unchanged in a UTF-8 database.
+ */
+public class BlobHandle {
+    // Set once a binding without the sqlite3_blob calls has been seen, so later handles do not try them again.
+    private static volatile boolean $nativeUnavailable = false;
+
+    private final int $id;
+    private final String $schema;
+    private final String $table;
+    private final String $column;
+    private final boolean $writable;
+    private final Connection $connection;
+    private final boolean $native;
+    // 0 after a failed reopen, which aborts the native handle.
+    private long $blob;
+    private long $rowId;
+    private long $size;
+    private boolean $written;
+    private boolean $rowWritten;
+    private boolean $closed;
+
+    public BlobHandle(int id, Connection connection, String schema, String table, String column, long rowId, boolean writable) throws SqliteException {
+        long blob = 0;
+        boolean isNative = !$nativeUnavailable;
+        if (isNative) {
+            try {
+                blob = Sqlite.blobOpen(connection.getHandle(), schema, table, column, rowId, writable);
+            }
+            catch (UnsatisfiedLinkError ex) {
+                $nativeUnavailable = true;
+                isNative = false;
+            }
+        }
+
+        $blob = blob;
+        $native = isNative;
+        $connection = connection;
+        $id = id;
+        $schema = schema;
+        $table = table;
+        $column = column;
+        $writable = writable;
+        $rowId = rowId;
+        $size = 0;
+        $written = false;
+        $rowWritten = false;
+        $closed = false;
+
+        if (!$native) {
+            if (writable && !"UTF-8".equalsIgnoreCase(connection.executeScalar("PRAGMA encoding"))) {
+                throw new SqliteException(Error.DOMAIN, "Writable blob handles require a UTF-8 database", Error.INVALID_BLOB_ACCESS);
+            }
+            $select(0, 0);
+        }
+    }
+
+    public int getId() {
+        return $id;
+    }
+
+    public String getSchema() {
+        return $schema;
+    }
+
+    public String getTable() {
+        return $table;
+    }
+
+    public String getColumn() {
+        return $column;
+    }
+
+    public boolean isWritable() {
+        return $writable;
+    }
+
+    /**
+     * @return True if the handle uses sqlite3_blob. Otherwise its writes run as UPDATE statements, which fire triggers.
+     */
+    public boolean isNative() {
+        return $native;
+    }
+
+    public long getRowId() {
+        return $rowId;
+    }
+
+    /**
+     * The size in bytes of the blob in the current row.
+     */
+    public long getSize() throws SqliteException {
+        if (!$native) {
+            $select(0, 0);
+            return $size;
+        }
+        return $blob == 0 ? 0 : Sqlite.blobBytes($blob);
+    }
+
+    /**
+     * Points the handle at the same column of another row. On failure, the handle can not be read or written
+     * until it is reopened on a row that has a blob.
+     */
+    public void reopen(long rowId) throws SqliteException {
+        $rowId = rowId;
+        $rowWritten = false;
+        if (!$native) {
+            $select(0, 0);
+            return;
+        }
+        if ($blob == 0) {
+            $blob = Sqlite.blobOpen($connection.getHandle(), $schema, $table, $column, rowId, $writable);
+            return;
+        }
+
+        try {
+            Sqlite.blobReopen($blob, rowId);
+        }
+        catch (SqliteException ex) {
+            // SQLite aborts the handle, which can then only be closed. Its earlier writes are already committed.
+            long blob = $blob;
+            $blob = 0;
+            try {
+                Sqlite.blobClose(blob);
+            }
+            catch (SqliteException closeEx) {
+                // Reports the error of the reopen instead.
+            }
+            throw ex;
+        }
+    }
+
+    public byte[] read(int offset, int length) throws SqliteException {
+        if (!$native) {
+            return $select(offset, length);
+        }
+        $checkRow();
+        return Sqlite.blobRead($blob, offset, length);
+    }
+
+    public void write(int offset, byte[] data) throws SqliteException {
+        if (!$native) {
+            $update(offset, data);
+        }
+        else {
+            $checkRow();
+            Sqlite.blobWrite($blob, offset, data);
+        }
+        $written = true;
+        $rowWritten = true;
+    }
+
+    /**
+     * @return True if anything was written through the handle.
+     */
+    public boolean isWritten() {
+        return $written;
+    }
+
+    /**
+     * @return True if anything was written through the handle since it was opened or reopened on the current row.
+     */
+    public boolean isRowWritten() {
+        return $rowWritten;
+    }
+
+    public boolean isClosed() {
+        return $closed;
+    }
+
+    /**
+     * Closes the native handle, which commits its writes unless a transaction is open.
+     * Does nothing if the handle is already closed.
+     */
+    public void close() throws SqliteException {
+        if ($closed) {
+            return;
+        }
+        $closed = true;
+        if ($blob != 0) {
+            Sqlite.blobClose($blob);
+        }
+    }
+
+    /**
+     * Reads length bytes from offset of the current row with substr, after checking that the row has a blob
+     * that covers the range. Also refreshes the size.
+     */
+    private final byte[] $select(int offset, int length) throws SqliteException {
+        String source = $quote($schema) + "." + $quote($table);
+        // Qualified, since SQLite reads an unknown bare "identifier" as a string literal.
+        String value = source + "." + $quote($column);
+        // length is read from the record header, so only the substr loads the value.
+        String sql = "SELECT typeof(" + value + "), length(" + value + "), substr(" + value + ", ?, ?) FROM " + source + " WHERE rowid = ?";
+
+        String type = null;
+        byte[] bytes = null;
+        StatementCache cache = $connection.getStatementCache();
+        CachedStatement cachedStatement = cache.acquire(sql);
+        try {
+            long statement = cachedStatement.getStatement();
+            Sqlite.bindIntWithIndex(statement, 1, (long)offset + 1);
+            Sqlite.bindIntWithIndex(statement, 2, length);
+            Sqlite.bindIntWithIndex(statement, 3, $rowId);
+            if (Sqlite.step(statement) == Statement.ROW) {
+                type = Sqlite.getString(statement, 0);
+                $size = Sqlite.getInt(statement, 1);
+                if (Sqlite.columnType(statement, 2) == ColumnType.BLOB) {
+                    bytes = Sqlite.getBlob(statement, 2);
+                }
+            }
+        }
+        catch (SqliteException ex) {
+            cache.discard(cachedStatement);
+            throw ex;
+        }
+        cache.release(cachedStatement);
+
+        if (type == null) {
+            $size = 0;
+            throw new SqliteException(Error.DOMAIN, "Blob Not Found. No row has rowid " + $rowId + ".", Error.BLOB_NOT_FOUND);
+        }
+        if (!type.equals("blob")) {
+            $size = 0;
+            throw new SqliteException(Error.DOMAIN, "Cannot open value of type " + type + " as a blob", Error.INVALID_BLOB_ACCESS);
+        }
+        if ((long)offset + length > $size) {
+            throw new SqliteException(Error.DOMAIN, "Blob read of " + length + " bytes at offset " + offset + " is past the end of the " + $size + " byte blob", Error.INVALID_BLOB_ACCESS);
+        }
+        return bytes == null ? new byte[0] : bytes;
+    }
+
+    /**
+     * Overwrites the bytes from offset of the current row by splicing the value, after checking the range,
+     * since the update would silently grow or create the value.
+     */
+    private final void $update(int offset, byte[] data) throws SqliteException {
+        $select(0, 0);
+        if ((long)offset + data.length > $size) {
+            throw new SqliteException(Error.DOMAIN, "Blob write of " + data.length + " bytes at offset " + offset + " is past the end of the " + $size + " byte blob", Error.INVALID_BLOB_ACCESS);
+        }
+
+        String source = $quote($schema) + "." + $quote($table);
+        String value = source + "." + $quote($column);
+        // || produces text with the same bytes in a UTF-8 database, which the cast turns back into a blob.
+        String sql = "UPDATE " + source + " SET " + $quote($column) + " = CAST(substr(" + value + ", 1, ?) || ? || substr(" + value + ", ?) AS BLOB) WHERE rowid = ?";
+
+        StatementCache cache = $connection.getStatementCache();
+        CachedStatement cachedStatement = cache.acquire(sql);
+        try {
+            long statement = cachedStatement.getStatement();
+            Sqlite.bindIntWithIndex(statement, 1, offset);
+            Sqlite.bindBlobWithIndex(statement, 2, data);
+            Sqlite.bindIntWithIndex(statement, 3, (long)offset + data.length + 1);
+            Sqlite.bindIntWithIndex(statement, 4, $rowId);
+            Sqlite.step(statement);
+        }
+        catch (SqliteException ex) {
+            cache.discard(cachedStatement);
+            throw ex;
+        }
+        cache.release(cachedStatement);
+    }
+
+    private static final String $quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    private final void $checkRow() throws SqliteException {
+        if ($blob == 0) {
+            throw new SqliteException(Error.DOMAIN, "Blob handle has no row. Reopen it on a row that has a blob.", Error.INVALID_BLOB_ACCESS);
+        }
+    }
+}
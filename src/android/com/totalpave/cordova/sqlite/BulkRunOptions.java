@@ -0,0 +1,98 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+package com.totalpave.cordova.sqlite;
+
+import com.totalpave.sqlite3.SqliteException;
+
+import java.util.Locale;
+
+import org.json.JSONObject;
+
+/**
+ * Optional transaction and checkpoint settings given to the bulkInsert action.
+ */
+public class BulkRunOptions {
+    public static final String CHECKPOINT_PASSIVE = "PASSIVE";
+    public static final String CHECKPOINT_FULL = "FULL";
+    public static final String CHECKPOINT_RESTART = "RESTART";
+    public static final String CHECKPOINT_TRUNCATE = "TRUNCATE";
+
+    private static final String[] CHECKPOINT_MODES = { CHECKPOINT_PASSIVE, CHECKPOINT_FULL, CHECKPOINT_RESTART, CHECKPOINT_TRUNCATE };
+
+    private boolean $transaction;
+    private int $commitEvery;
+    private String $checkpoint;
+
+    public BulkRunOptions() {
+        $transaction = false;
+        $commitEvery = 0;
+        $checkpoint = null;
+    }
+
+    /**
+     * @param options The options object from JS. May be null, in which case defaults are used.
+     */
+    public static BulkRunOptions fromJSON(JSONObject options) throws SqliteException {
+        BulkRunOptions out = new BulkRunOptions();
+        if (options == null) {
+            return out;
+        }
+
+        out.$transaction = options.optBoolean("transaction", false);
+        out.$commitEvery = options.optInt("commitEvery", 0);
+        if (out.$commitEvery < 0) {
+            throw new SqliteException(Error.DOMAIN, "commitEvery can not be negative", Error.INVALID_BULK_OPTION);
+        }
+
+        if (!options.isNull("checkpoint")) {
+            String checkpoint = options.optString("checkpoint").toUpperCase(Locale.ROOT);
+            for (String mode : CHECKPOINT_MODES) {
+                if (mode.equals(checkpoint)) {
+                    out.$checkpoint = mode;
+                }
+            }
+            if (out.$checkpoint == null) {
+                throw new SqliteException(Error.DOMAIN, "checkpoint must be one of passive, full, restart or truncate", Error.INVALID_BULK_OPTION);
+            }
+        }
+
+        return out;
+    }
+
+    /**
+     * True if the rows are inserted inside a savepoint, which is a transaction of its own when no transaction is open.
+     * Implied by commitEvery.
+     */
+    public boolean isTransaction() {
+        return $transaction || $commitEvery > 0;
+    }
+
+    /**
+     * The number of rows after which the savepoint is released and a new one is started. 0 uses a single savepoint.
+     */
+    public int getCommitEvery() {
+        return $commitEvery;
+    }
+
+    /**
+     * The wal_checkpoint mode to run once the rows are committed, or null to leave checkpoints to SQLite.
+     */
+    public String getCheckpoint() {
+        return $checkpoint;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.totalpave.cordova.sqlite;
+
+import com.totalpave.sqlite3.Sqlite;
+import com.totalpave.sqlite3.SqliteException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import org.json.JSONObject;
+
+/**
+ * A prepared statement owned by a StatementCache.
+ *
+ * A CachedStatement is only ever used by one thread at a time. It is checked out of the cache,
+ * used, and then released back into the cache where it is reset for the next caller.
+ */
+public class CachedStatement {
+    private final StatementCache $cache;
+    private final String $sql;
+    private final long $statement;
+    private final ArrayList<String> $boundKeys;
+    private JsonResultWriter.Columns $columns;
+    private long $profileStart;
+    private long[] $profileCounters;
+
+    public CachedStatement(StatementCache cache, String sql, long statement) {
+        $cache = cache;
+        $sql = sql;
+        $statement = statement;
+        $boundKeys = new ArrayList<>();
+    }
+
+    /**
+     * The cache the statement must be released to.
+     */
+    public StatementCache getCache() {
+        return $cache;
+    }
+
+    public String getSql() {
+        return $sql;
+    }
+
+    public long getStatement() {
+        return $statement;
+    }
+
+    /**
+     * The column layout last used to write the statement's rows as JSON, or null if it has not been written yet.
+     */
+    public JsonResultWriter.Columns getColumns() {
+        return $columns;
+    }
+
+    public void setColumns(JsonResultWriter.Columns columns) {
+        $columns = columns;
+    }
+
+    /**
+     * The time the QueryPlanProfiler started timing the current run, or 0 if the run is not profiled.
+     */
+    public long getProfileStart() {
+        return $profileStart;
+    }
+
+    /**
+     * The sqlite_stmt counters of the statement when the run started, or null if they are not available.
+     */
+    public long[] getProfileCounters() {
+        return $profileCounters;
+    }
+
+    public void setProfile(long start, long[] counters) {
+        $profileStart = start;
+        $profileCounters = counters;
+    }
+
+    /**
+     * Records the named parameters that were bound so they can be cleared on release.
+     */
+    public void setBoundKeys(JSONObject vars) {
+        $boundKeys.clear();
+        if (vars != null) {
+            Iterator<String> keys = vars.keys();
+            while (keys.hasNext()) {
+                $boundKeys.add(keys.next());
+            }
+        }
+    }
+
+    /**
+     * Resets the statement and sets every previously bound parameter back to NULL,
+     * the equivalent of sqlite3_reset followed by sqlite3_clear_bindings.
+     */
+    public void reset() throws SqliteException {
+        Sqlite.reset($statement);
+        for (int i = 0, length = $boundKeys.size(); i < length; ++i) {
+            Sqlite.bindNull($statement, $boundKeys.get(i));
+        }
+        $boundKeys.clear();
+    }
+
+    public void finalizeStatement() {
+        try {
+            Sqlite.finalize($statement);
+        }
+        catch (SqliteException ex) {
+            // finalize only reports the error of the most recent step, which the caller has already handled.
+        }
+    }
+}
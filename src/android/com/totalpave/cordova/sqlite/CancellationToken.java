@@ -0,0 +1,134 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.totalpave.cordova.sqlite;
+
+import com.totalpave.sqlite3.Sqlite;
+import com.totalpave.sqlite3.SqliteException;
+
+import android.os.SystemClock;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks whether a query was cancelled or ran past its deadline.
+ *
+ * The query checks the token between steps. While a step runs, the connection it runs on is attached to the token,
+ * and cancelling the token or reaching the deadline interrupts the connection with sqlite3_interrupt, so a single
+ * step that scans many rows without producing one stops too. sqlite3_interrupt stops every statement running on the
+ * connection, so a connection is only attached while the query is the only one that can be running on it.
+ *
+ * Bindings older than libsqlite 0.4.0 have no interrupt call. With those, the query only stops between steps.
+ */
+public class CancellationToken {
+    /**
+     * A token that is never cancelled and has no deadline.
+     */
+    public static final CancellationToken NONE = new CancellationToken(null, 0);
+
+    // Set once a binding without sqlite3_interrupt has been seen, so tokens stop trying to interrupt.
+    private static volatile boolean $interruptUnavailable = false;
+
+    private final String $queryId;
+    private final long $deadline;
+    private volatile boolean $cancelled;
+    // The handle of the connection to interrupt, or 0 while no step runs.
+    private long $handle;
+    private ScheduledFuture<?> $future;
+
+    /**
+     * @param queryId May be null if the query cannot be cancelled by id.
+     * @param timeout Time in milliseconds, starting now. 0 or less disables the deadline.
+     */
+    public CancellationToken(String queryId, long timeout) {
+        $queryId = queryId;
+        $deadline = timeout > 0 ? SystemClock.elapsedRealtime() + timeout : 0;
+        $cancelled = false;
+        $handle = 0;
+    }
+
+    public String getQueryId() {
+        return $queryId;
+    }
+
+    /**
+     * Interrupts the attached connection once the deadline passes. Does nothing without a deadline.
+     */
+    public synchronized void startTimer(ScheduledExecutorService timer) {
+        if ($deadline == 0) {
+            return;
+        }
+        $future = timer.schedule(new Runnable() {
+            public void run() {
+                $interrupt();
+            }
+        }, Math.max(0, $deadline - SystemClock.elapsedRealtime()), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the deadline timer. Called once the query finished.
+     */
+    public synchronized void stopTimer() {
+        if ($future != null) {
+            $future.cancel(false);
+            $future = null;
+        }
+    }
+
+    public void cancel() {
+        $cancelled = true;
+        $interrupt();
+    }
+
+    /**
+     * Makes cancel and the deadline interrupt the connection until detach is called.
+     */
+    public synchronized void attach(Connection connection) {
+        $handle = connection.getHandle();
+    }
+
+    public synchronized void detach() {
+        $handle = 0;
+    }
+
+    /**
+     * @throws SqliteException QUERY_CANCELLED or QUERY_TIMEOUT if the query must stop.
+     */
+    public void check() throws SqliteException {
+        if ($cancelled) {
+            throw new SqliteException(Error.DOMAIN, "Query Cancelled.", Error.QUERY_CANCELLED);
+        }
+        if ($deadline > 0 && SystemClock.elapsedRealtime() >= $deadline) {
+            throw new SqliteException(Error.DOMAIN, "Query Timed Out.", Error.QUERY_TIMEOUT);
+        }
+    }
+
+    private synchronized void $interrupt() {
+        // Synchronized with detach, so a connection is never interrupted once the query moved on.
+        if ($handle == 0 || $interruptUnavailable) {
+            return;
+        }
+        try {
+            Sqlite.interrupt($handle);
+        }
+        catch (UnsatisfiedLinkError ex) {
+            // The query still stops at its next check between steps.
+            $interruptUnavailable = true;
+        }
+    }
+}
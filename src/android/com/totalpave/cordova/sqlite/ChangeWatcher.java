@@ -0,0 +1,450 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+package com.totalpave.cordova.sqlite;
+
+import com.totalpave.sqlite3.SqliteException;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Reports the rows written to watched tables once their transaction commits.
+ *
+ * The binding does not expose the update or commit hooks, so every watched table gets TEMP triggers on the writer
+ * that log the table, operation and rowid of each written row into a TEMP table. The log is part of the
+ * transaction, so a rollback discards it along with the rows. After a commit, the log is read grouped by table and
+ * operation, cleared, and merged into the pending changes of each watch, which are sent at most once per
+ * minInterval milliseconds. A watch that collects more than maxRowids rowids for a table and operation only
+ * reports their count, so bulk loads do not flood the bridge.
+ */
+public class ChangeWatcher {
+    public interface Listener {
+        void onChanges(JSONObject event);
+        void onClosed();
+    }
+
+    public static final long DEFAULT_MIN_INTERVAL = 100;
+    public static final int DEFAULT_MAX_ROWIDS = 1000;
+
+    private static final String LOG_TABLE = "tp_watch_log";
+    private static final String[] OPERATIONS = { "insert", "update", "delete" };
+    private static final Pattern WITHOUT_ROWID = Pattern.compile("\\bWITHOUT\\s+ROWID\\b", Pattern.CASE_INSENSITIVE);
+
+    private final Connection $writer;
+    private final HashMap<Integer, Watch> $watches = new HashMap<>();
+    // The number of watches of each table that has triggers.
+    private final HashMap<String, Integer> $tables = new HashMap<>();
+    // Tables no longer watched whose triggers could not be dropped yet, because a transaction was open.
+    private final HashSet<String> $unusedTables = new HashSet<>();
+    private int $nextWatchId = 0;
+    // Read without the lock on every write, so databases without watches skip the log.
+    private volatile boolean $active = false;
+
+    public ChangeWatcher(Connection writer) {
+        $writer = writer;
+    }
+
+    /**
+     * Installs the triggers of the tables that are not watched yet. Must be called on the writer's queue,
+     * outside of a transaction, so the triggers are not rolled back with it.
+     *
+     * @return The id of the watch.
+     */
+    public synchronized int watch(JSONArray tables, long minInterval, int maxRowids, ScheduledExecutorService timer, Listener listener) throws SqliteException, JSONException {
+        if (tables == null || tables.length() == 0) {
+            throw new SqliteException(Error.DOMAIN, "watch requires at least one table", Error.INVALID_WATCH);
+        }
+
+        // SQLite matches table names without regard to case, so they are reported as declared.
+        LinkedHashSet<String> names = new LinkedHashSet<>();
+        for (int i = 0, length = tables.length(); i < length; ++i) {
+            names.add($resolveTable(tables.getString(i)));
+        }
+
+        $writer.executeScalar("CREATE TEMP TABLE IF NOT EXISTS " + LOG_TABLE + " (tbl TEXT NOT NULL, op TEXT NOT NULL, rid INTEGER)");
+        ArrayList<String> created = new ArrayList<>();
+        try {
+            for (String table : names) {
+                if (!$tables.containsKey(table) && !$unusedTables.contains(table)) {
+                    created.add(table);
+                    $createTriggers(table);
+                }
+            }
+        }
+        catch (SqliteException ex) {
+            for (int i = 0, length = created.size(); i < length; ++i) {
+                try {
+                    $dropTriggers(created.get(i));
+                }
+                catch (SqliteException dropEx) {
+                    Log.w(SQLite.LOG_TAG, "Unable to drop the watch triggers of " + created.get(i) + ": " + dropEx.getMessage());
+                }
+            }
+            $dropLogIfUnused();
+            throw ex;
+        }
+
+        for (String table : names) {
+            $unusedTables.remove(table);
+            Integer count = $tables.get(table);
+            $tables.put(table, count == null ? 1 : count + 1);
+        }
+
+        int id = $nextWatchId++;
+        $watches.put(id, new Watch(names, Math.max(0, minInterval), Math.max(0, maxRowids), timer, listener));
+        $active = true;
+        return id;
+    }
+
+    /**
+     * Stops a watch after sending its pending changes. The triggers of tables no one watches anymore are dropped,
+     * unless canDropTriggers is false because a transaction is open, in which case they are dropped after it ends.
+     */
+    public void unwatch(int watchId, boolean canDropTriggers) throws SqliteException {
+        Watch watch;
+        synchronized (this) {
+            watch = $watches.remove(watchId);
+            if (watch == null) {
+                throw new SqliteException(Error.DOMAIN, "Watch " + watchId + " not found", Error.WATCH_NOT_FOUND);
+            }
+            for (String table : watch.getTables()) {
+                int count = $tables.get(table) - 1;
+                if (count == 0) {
+                    $tables.remove(table);
+                    $unusedTables.add(table);
+                }
+                else {
+                    $tables.put(table, count);
+                }
+            }
+            if (canDropTriggers) {
+                $dropUnusedTriggers();
+            }
+        }
+        watch.close();
+    }
+
+    /**
+     * Reads and clears the change log after a commit. Must be called on the writer's queue, outside of a
+     * transaction. Failures are logged rather than thrown, since the write they follow did commit.
+     */
+    public void collect() {
+        if (!$active) {
+            return;
+        }
+
+        synchronized (this) {
+            try {
+                if (!$unusedTables.isEmpty()) {
+                    $dropUnusedTriggers();
+                }
+                if ($watches.isEmpty()) {
+                    return;
+                }
+
+                int maxRowids = 0;
+                for (Watch watch : $watches.values()) {
+                    maxRowids = Math.max(maxRowids, watch.getMaxRowids());
+                }
+                // Rowids are only listed while every watch could still use them, so a bulk load costs one count.
+                ArrayList<String[]> rows = $writer.executeRows(
+                    "SELECT tbl, op, count(*), count(DISTINCT rid), " +
+                    "CASE WHEN count(DISTINCT rid) <= " + maxRowids + " THEN group_concat(DISTINCT rid) END " +
+                    "FROM " + LOG_TABLE + " GROUP BY tbl, op"
+                );
+                if (rows.isEmpty()) {
+                    return;
+                }
+                $writer.executeScalar("DELETE FROM " + LOG_TABLE);
+
+                long now = SystemClock.elapsedRealtime();
+                for (Watch watch : $watches.values()) {
+                    watch.add(rows, now);
+                }
+            }
+            catch (SqliteException ex) {
+                Log.e(SQLite.LOG_TAG, "Unable to read the watch log", ex);
+            }
+        }
+    }
+
+    /**
+     * Logs an update of a row of a watched table, for writes that do not fire triggers, such as through a blob handle.
+     * Must be called on the writer's queue. Does nothing if the table is not watched.
+     */
+    public void logUpdate(String table, long rowId) throws SqliteException {
+        if (!$active) {
+            return;
+        }
+
+        synchronized (this) {
+            for (String watched : $tables.keySet()) {
+                if (watched.equalsIgnoreCase(table)) {
+                    $writer.executeScalar("INSERT INTO temp." + LOG_TABLE + " VALUES (" + $quoteString(watched) + ", 'update', " + rowId + ")");
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the pending changes of every watch and ends them. The triggers go away with the connection.
+     */
+    public void close() {
+        ArrayList<Watch> watches;
+        synchronized (this) {
+            watches = new ArrayList<>($watches.values());
+            $watches.clear();
+            $tables.clear();
+            $unusedTables.clear();
+            $active = false;
+        }
+        for (int i = 0, length = watches.size(); i < length; ++i) {
+            watches.get(i).close();
+        }
+    }
+
+    /**
+     * @return The name of the table as declared in the schema.
+     */
+    private final String $resolveTable(String table) throws SqliteException {
+        ArrayList<String[]> rows = $writer.executeRows(
+            "SELECT name FROM main.sqlite_master WHERE type = 'table' AND name = " + $quoteString(table) + " COLLATE NOCASE"
+        );
+        if (rows.isEmpty()) {
+            throw new SqliteException(Error.DOMAIN, "Table " + table + " not found", Error.INVALID_WATCH);
+        }
+        return rows.get(0)[0];
+    }
+
+    private final void $createTriggers(String table) throws SqliteException {
+        String sql = $writer.executeScalar("SELECT sql FROM main.sqlite_master WHERE type = 'table' AND name = " + $quoteString(table));
+        boolean hasRowid = sql == null || !WITHOUT_ROWID.matcher(sql).find();
+        for (int i = 0; i < OPERATIONS.length; ++i) {
+            String operation = OPERATIONS[i];
+            String rowid = hasRowid ? (operation.equals("delete") ? "OLD.rowid" : "NEW.rowid") : "NULL";
+            // Statements inside a trigger can not name a schema. The TEMP log is found first.
+            $writer.executeScalar(
+                "CREATE TEMP TRIGGER IF NOT EXISTS " + $triggerName(table, operation) +
+                " AFTER " + operation.toUpperCase(Locale.ROOT) + " ON main." + $quoteIdentifier(table) +
+                " BEGIN INSERT INTO " + LOG_TABLE + " VALUES (" + $quoteString(table) + ", '" + operation + "', " + rowid + "); END"
+            );
+        }
+    }
+
+    private final void $dropTriggers(String table) throws SqliteException {
+        for (int i = 0; i < OPERATIONS.length; ++i) {
+            $writer.executeScalar("DROP TRIGGER IF EXISTS temp." + $triggerName(table, OPERATIONS[i]));
+        }
+    }
+
+    private final void $dropUnusedTriggers() throws SqliteException {
+        Iterator<String> iterator = $unusedTables.iterator();
+        while (iterator.hasNext()) {
+            $dropTriggers(iterator.next());
+            iterator.remove();
+        }
+        $dropLogIfUnused();
+    }
+
+    private final void $dropLogIfUnused() throws SqliteException {
+        if ($tables.isEmpty() && $unusedTables.isEmpty()) {
+            $writer.executeScalar("DROP TABLE IF EXISTS temp." + LOG_TABLE);
+            $active = false;
+        }
+    }
+
+    private static String $triggerName(String table, String operation) {
+        return $quoteIdentifier("tp_watch_" + operation + "_" + table);
+    }
+
+    private static String $quoteString(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+    private static String $quoteIdentifier(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * The changes a listener has not been sent yet, sent on the timer once minInterval has passed since the last send.
+     */
+    private static final class Watch {
+        private final HashSet<String> $tables;
+        private final long $minInterval;
+        private final int $maxRowids;
+        private final ScheduledExecutorService $timer;
+        private final Listener $listener;
+
+        private final LinkedHashMap<String, Change> $pending = new LinkedHashMap<>();
+        private int $transactions = 0;
+        private long $lastSent = 0;
+        private ScheduledFuture<?> $future;
+        private boolean $closed = false;
+
+        public Watch(HashSet<String> tables, long minInterval, int maxRowids, ScheduledExecutorService timer, Listener listener) {
+            $tables = tables;
+            $minInterval = minInterval;
+            $maxRowids = maxRowids;
+            $timer = timer;
+            $listener = listener;
+        }
+
+        public HashSet<String> getTables() {
+            return $tables;
+        }
+
+        public int getMaxRowids() {
+            return $maxRowids;
+        }
+
+        /**
+         * Merges the grouped log rows {tbl, op, count(*), count(DISTINCT rid), group_concat(DISTINCT rid)} of one commit.
+         */
+        public synchronized void add(ArrayList<String[]> rows, long now) {
+            boolean added = false;
+            for (int i = 0, length = rows.size(); i < length; ++i) {
+                String[] row = rows.get(i);
+                if (!$tables.contains(row[0])) {
+                    continue;
+                }
+                added = true;
+                String key = row[0] + "\u0000" + row[1];
+                Change change = $pending.get(key);
+                if (change == null) {
+                    change = new Change(row[0], row[1]);
+                    $pending.put(key, change);
+                }
+                long distinct = Long.parseLong(row[3]);
+                change.add(distinct > 0 ? distinct : Long.parseLong(row[2]), row[4], $maxRowids);
+            }
+            if (!added || $closed) {
+                return;
+            }
+
+            $transactions++;
+            if ($future == null) {
+                long delay = Math.max(0, $lastSent + $minInterval - now);
+                $future = $timer.schedule(new Runnable() {
+                    public void run() {
+                        $send();
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        public void close() {
+            synchronized (this) {
+                $closed = true;
+                if ($future != null) {
+                    $future.cancel(false);
+                }
+            }
+            $send();
+            $listener.onClosed();
+        }
+
+        private final void $send() {
+            JSONObject event;
+            synchronized (this) {
+                $future = null;
+                if ($pending.isEmpty()) {
+                    return;
+                }
+                try {
+                    JSONArray changes = new JSONArray();
+                    for (Change change : $pending.values()) {
+                        changes.put(change.toJSON());
+                    }
+                    event = new JSONObject();
+                    event.put("event", "change");
+                    event.put("changes", changes);
+                    event.put("transactions", $transactions);
+                }
+                catch (JSONException ex) {
+                    Log.e(SQLite.LOG_TAG, "Unable to serialize watched changes", ex);
+                    return;
+                }
+                finally {
+                    $pending.clear();
+                    $transactions = 0;
+                    $lastSent = SystemClock.elapsedRealtime();
+                }
+            }
+            $listener.onChanges(event);
+        }
+    }
+
+    private static final class Change {
+        private final String $table;
+        private final String $operation;
+        // Null once the rowids are no longer tracked, either past maxRowids or for a WITHOUT ROWID table.
+        private LinkedHashSet<Long> $rowids = new LinkedHashSet<>();
+        private long $count = 0;
+
+        public Change(String table, String operation) {
+            $table = table;
+            $operation = operation;
+        }
+
+        /**
+         * @param rowids The comma separated rowids, or null if they were not listed.
+         */
+        public void add(long count, String rowids, int maxRowids) {
+            if ($rowids != null && rowids != null) {
+                String[] values = rowids.split(",");
+                for (int i = 0; i < values.length; ++i) {
+                    $rowids.add(Long.parseLong(values[i]));
+                }
+                $count = $rowids.size();
+                if ($count > maxRowids) {
+                    $rowids = null;
+                }
+                return;
+            }
+            // Counted per transaction from here, so a row written in two transactions is counted twice.
+            $count += count;
+            $rowids = null;
+        }
+
+        public JSONObject toJSON() throws JSONException {
+            JSONObject change = new JSONObject();
+            change.put("table", $table);
+            change.put("op", $operation);
+            change.put("rowids", $rowids == null ? JSONObject.NULL : new JSONArray($rowids));
+            change.put("count", $count);
+            return change;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.totalpave.cordova.sqlite;
+
+import com.totalpave.sqlite3.ColumnType;
+import com.totalpave.sqlite3.Sqlite;
+import com.totalpave.sqlite3.SqliteException;
+import com.totalpave.sqlite3.Statement;
+
+import java.io.File;
+import java.util.ArrayList;
+
+/**
+ * A single SQLite connection handle and its prepared statement cache.
+ */
+public class Connection {
+    private final long $handle;
+    private final StatementCache $statementCache;
+
+    public Connection(File fpath, int openFlags, int statementCacheSize) throws SqliteException {
+        this(fpath.getAbsolutePath(), openFlags, statementCacheSize);
+    }
+
+    private Connection(String path, int openFlags, int statementCacheSize) throws SqliteException {
+        $handle = Sqlite.open(path, openFlags);
+        $statementCache = new StatementCache($handle, statementCacheSize);
+    }
+
+    /**
+     * Opens a private, empty in-memory database.
+     */
+    public static Connection openInMemory(int statementCacheSize) throws SqliteException {
+        // SQLITE_OPEN_READWRITE | SQLITE_OPEN_CREATE
+        return new Connection(":memory:", 0x00000002 | 0x00000004, statementCacheSize);
+    }
+
+    public long getHandle() {
+        return $handle;
+    }
+
+    public StatementCache getStatementCache() {
+        return $statementCache;
+    }
+
+    public void setBusyTimeout(int busyTimeout) throws SqliteException {
+        Sqlite.setBusyTimeout($handle, busyTimeout);
+    }
+
+    /**
+     * Runs a statement without parameters outside of the statement cache,
+     * such as a PRAGMA that is only run once.
+     *
+     * @return The first column of the first row as a string, or null if there are no rows.
+     */
+    public String executeScalar(String sql) throws SqliteException {
+        long statement = Sqlite.prepare($handle, sql);
+        try {
+            String value = null;
+            int result = Sqlite.step(statement);
+            if (result == Statement.ROW && Sqlite.columnCount(statement) > 0) {
+                value = Sqlite.getString(statement, 0);
+            }
+            // Drain the remaining rows so statements that do work per row complete.
+            while (result == Statement.ROW) {
+                result = Sqlite.step(statement);
+            }
+            return value;
+        }
+        finally {
+            Sqlite.finalize(statement);
+        }
+    }
+
+    /**
+     * Runs a statement without parameters outside of the statement cache and reads every row.
+     *
+     * @return Each row as an array of column values converted to strings. NULL values are null.
+     */
+    public ArrayList<String[]> executeRows(String sql) throws SqliteException {
+        long statement = Sqlite.prepare($handle, sql);
+        try {
+            ArrayList<String[]> rows = new ArrayList<>();
+            int columnCount = Sqlite.columnCount(statement);
+            while (Sqlite.step(statement) == Statement.ROW) {
+                String[] row = new String[columnCount];
+                for (int i = 0; i < columnCount; ++i) {
+                    row[i] = Sqlite.columnType(statement, i) == ColumnType.NULL ? null : Sqlite.getString(statement, i);
+                }
+                rows.add(row);
+            }
+            return rows;
+        }
+        finally {
+            Sqlite.finalize(statement);
+        }
+    }
+
+    public void close() {
+        // Cached statements must be finalized before the connection can be closed.
+        $statementCache.close();
+        Sqlite.close($handle);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.totalpave.cordova.sqlite;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A statement that is kept alive between fetch calls so large result sets can be read in pages.
+ *
+ * The cursor is closed automatically when it has not been fetched from for longer than its idle timeout.
+ * Callers must synchronize on the cursor while stepping its statement.
+ */
+public class Cursor {
+    private final int $id;
+    private final CachedStatement $statement;
+    private final QueryOptions $options;
+    private final long $idleTimeout;
+    private final ScheduledExecutorService $timer;
+    private final Runnable $onIdle;
+    private ScheduledFuture<?> $idleFuture;
+    private String[] $columns;
+    private boolean $closed;
+
+    /**
+     * @param idleTimeout Time in milliseconds. 0 or less disables the idle timeout.
+     * @param onIdle Invoked on the timer thread when the idle timeout elapses.
+     */
+    public Cursor(int id, CachedStatement statement, QueryOptions options, long idleTimeout, ScheduledExecutorService timer, Runnable onIdle) {
+        $id = id;
+        $statement = statement;
+        $options = options;
+        $idleTimeout = idleTimeout;
+        $timer = timer;
+        $onIdle = onIdle;
+        $closed = false;
+        touch();
+    }
+
+    public int getId() {
+        return $id;
+    }
+
+    public CachedStatement getStatement() {
+        return $statement;
+    }
+
+    public QueryOptions getOptions() {
+        return $options;
+    }
+
+    public String[] getColumns() {
+        return $columns;
+    }
+
+    public void setColumns(String[] columns) {
+        $columns = columns;
+    }
+
+    public synchronized boolean isClosed() {
+        return $closed;
+    }
+
+    /**
+     * Marks the cursor as closed and stops its idle timer.
+     *
+     * @return false if the cursor was already closed.
+     */
+    public synchronized boolean markClosed() {
+        if ($closed) {
+            return false;
+        }
+        $closed = true;
+        if ($idleFuture != null) {
+            $idleFuture.cancel(false);
+            $idleFuture = null;
+        }
+        return true;
+    }
+
+    /**
+     * Restarts the idle timer.
+     */
+    public synchronized void touch() {
+        if ($idleFuture != null) {
+            $idleFuture.cancel(false);
+            $idleFuture = null;
+        }
+
+        if ($closed || $idleTimeout <= 0) {
+            return;
+        }
+
+        $idleFuture = $timer.schedule($onIdle, $idleTimeout, TimeUnit.MILLISECONDS);
+    }
+}
@@ -21,9 +21,17 @@ import com.totalpave.sqlite3.ColumnType;
 import com.totalpave.sqlite3.Statement;
 import com.totalpave.sqlite3.SqliteException;
 
+import android.util.Base64;
+import android.util.Log;
+
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.concurrent.ScheduledExecutorService;
 
 import org.json.JSONObject;
 import org.json.JSONArray;
@@ -31,110 +39,1838 @@ import org.json.JSONException;
 
 public class Database {
     private long $handle;
+    private Connection $writer;
+    // Null unless the database was opened with read connections.
+    private ReadConnectionPool $readers;
+    private final Object $transactionLock = new Object();
+    private boolean $inTransaction = false;
+    private int $savepointDepth = 0;
+    private long $readerQueries = 0;
+    private long $writerQueries = 0;
+    private final QueryStats $queryStats;
+    private final QueryPlanProfiler $planProfiler;
+    private final QueryScheduler $scheduler;
+    // Queries that can be cancelled by id, from when they are queued until they finish.
+    private final HashMap<String, CancellationToken> $activeQueries = new HashMap<>();
+    // Null unless the database was opened with a result cache.
+    private final ResultCache $resultCache;
+    private final TableTracker $tableTracker;
+    private final Maintenance $maintenance;
+    private final HotCopy $hotCopy;
+    private final ChangeWatcher $changeWatcher;
+    private JSONObject $pragmas;
+    private long $dataVersion = -1;
+    private final HashMap<Integer, Cursor> $cursors = new HashMap<>();
+    private int $nextCursorId = 0;
+    private final HashMap<Integer, BlobHandle> $blobs = new HashMap<>();
+    private int $nextBlobId = 0;
     // Maxinum number of variables per query, https://www.sqlite.org/c3ref/c_limit_attached.html#sqlitelimitvariablenumber.
     // Actual number is 32766. We use 32666 to add a buffer in the event that other variables
     private final int MAX_VARIABLE_COUNT = 32666;
+    // SQLITE_OPEN_READWRITE
+    private static final int OPEN_READ_WRITE = 0x00000002;
+    private static final Pattern ROLLBACK_TO = Pattern.compile("\\bTO\\b", Pattern.CASE_INSENSITIVE);
+
+    public Database(File fpath, int openFlags) throws SqliteException {
+        this(fpath, openFlags, new OpenOptions());
+    }
+
+    public Database(File fpath, int openFlags, OpenOptions options) throws SqliteException {
+        File directory = fpath.getParentFile();
+        if (directory != null) {
+            directory.mkdirs();
+        }
+        PragmaOptions pragmas = PragmaOptions.fromJSON(options.getProfile(), options.getPragmas());
+        boolean writable = (openFlags & OPEN_READ_WRITE) != 0;
+        if (options.getReadConnections() > 0 && writable && pragmas.getJournalMode() != null && !pragmas.getJournalMode().equals("wal")) {
+            throw new SqliteException(Error.DOMAIN, "readConnections requires the wal journalMode", Error.INVALID_OPEN_OPTION);
+        }
+
+        if (options.isInMemory() && options.getReadConnections() > 0) {
+            throw new SqliteException(Error.DOMAIN, "readConnections can not be used with inMemory", Error.INVALID_OPEN_OPTION);
+        }
+
+        $queryStats = new QueryStats(options.isStatsEnabled(), options.getSlowQueryThreshold());
+        $planProfiler = new QueryPlanProfiler(options.isQueryPlanProfilerEnabled());
+        if (options.isInMemory()) {
+            $hotCopy = new HotCopy(fpath, openFlags, options.getStatementCacheSize(), options.getInMemoryMaxSize(), options.isInMemoryFlushOnCommit(), options.getInMemoryFlushInterval());
+            $writer = $hotCopy.getConnection();
+        }
+        else {
+            $hotCopy = null;
+            $writer = new Connection(fpath, openFlags, options.getStatementCacheSize());
+        }
+        $handle = $writer.getHandle();
+        $scheduler = new QueryScheduler(options.getReadConnections(), options.getMaxQueueDepth(), new QueryScheduler.TransactionState() {
+            public boolean isInTransaction() {
+                return $isInTransaction();
+            }
+        });
+        $resultCache = options.getResultCacheSize() > 0 ? new ResultCache(options.getResultCacheSize()) : null;
+        $tableTracker = new TableTracker();
+        $maintenance = new Maintenance(this, $writer, $scheduler, options.getMaintenanceIdleTimeout(), options.getMaintenanceSliceDuration());
+        $changeWatcher = new ChangeWatcher($writer);
+
+        try {
+            // Every setting is applied before the database is handed out, so no query runs with a partial configuration.
+            pragmas.applyToWriter($writer);
+            if (options.getReadConnections() > 0) {
+                if (writable && pragmas.getJournalMode() == null) {
+                    // WAL lets readers see the last committed state while the writer is writing.
+                    $writer.executeScalar("PRAGMA journal_mode=WAL");
+                }
+                $readers = new ReadConnectionPool(fpath, openFlags, options.getReadConnections(), options.getStatementCacheSize(), pragmas);
+            }
+            $pragmas = PragmaOptions.getEffective($writer);
+        }
+        catch (SqliteException ex) {
+            $closeAfterFailedOpen();
+            throw ex;
+        }
+        catch (JSONException ex) {
+            $closeAfterFailedOpen();
+            throw new SqliteException(Error.DOMAIN, ex.getMessage(), Error.IO_ERROR);
+        }
+    }
+
+    public Long getHandle() {
+        return $handle;
+    }
+
+    private final void $closeAfterFailedOpen() {
+        if ($readers != null) {
+            $readers.close();
+        }
+        $writer.close();
+        $scheduler.shutdown();
+        $maintenance.stop();
+    }
+
+    /**
+     * The PRAGMA settings in effect on the writer after the database was opened, as reported by PragmaOptions.getEffective.
+     */
+    public JSONObject getPragmas() {
+        return $pragmas;
+    }
+
+    public QueryStats getQueryStats() {
+        return $queryStats;
+    }
+
+    public QueryPlanProfiler getQueryPlanProfiler() {
+        return $planProfiler;
+    }
+
+    /**
+     * Ranks the statements whose plans scan tables or sort, and suggests indexes for them.
+     * Reads the schema through the writer, so it must run on the scheduler like a query.
+     */
+    public JSONObject getQueryPlanReport(int limit) throws JSONException, SqliteException {
+        return $planProfiler.getReport($writer, limit);
+    }
+
+    public QueryScheduler getScheduler() {
+        return $scheduler;
+    }
+
+    /**
+     * Starts reporting the rows written to the given tables once their transaction commits, see ChangeWatcher.
+     * Must run on the scheduler like a query, outside of a transaction.
+     *
+     * @return The id of the watch.
+     */
+    public int watch(JSONArray tables, long minInterval, int maxRowids, ScheduledExecutorService timer, ChangeWatcher.Listener listener) throws SqliteException, JSONException {
+        if ($isInTransaction()) {
+            // The triggers would be rolled back with the transaction.
+            throw new SqliteException(Error.DOMAIN, "watch can not be called while a transaction is open", Error.INVALID_WATCH);
+        }
+        return $changeWatcher.watch(tables, minInterval, maxRowids, timer, listener);
+    }
+
+    /**
+     * Stops a watch after sending its pending changes. Must run on the scheduler like a query.
+     */
+    public void unwatch(int watchId) throws SqliteException {
+        $changeWatcher.unwatch(watchId, !$isInTransaction());
+    }
+
+    public Maintenance getMaintenance() {
+        return $maintenance;
+    }
+
+    /**
+     * Starts the timed flushes of an in-memory database. Does nothing for a database that runs against its file.
+     */
+    public void startFlushTimer(ScheduledExecutorService timer) {
+        if ($hotCopy == null) {
+            return;
+        }
+        $hotCopy.start(timer, new Runnable() {
+            public void run() {
+                try {
+                    // Queued like maintenance, so the flush never runs alongside a query on the writer.
+                    $scheduler.submitIdle(new Runnable() {
+                        public void run() {
+                            try {
+                                flush();
+                            }
+                            catch (SqliteException ex) {
+                                Log.e(SQLite.LOG_TAG, "Unable to flush the in-memory database", ex);
+                            }
+                        }
+                    });
+                }
+                catch (SqliteException ex) {
+                    // The database is closing, which flushes it.
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes an in-memory database to its file if it changed. Does nothing inside a transaction or while a blob
+     * handle is open, since only committed changes are written, or for a database that runs against its file.
+     *
+     * @return True if the file was written.
+     */
+    public boolean flush() throws SqliteException {
+        if ($hotCopy == null || $isInTransaction()) {
+            return false;
+        }
+        synchronized ($blobs) {
+            if (!$blobs.isEmpty()) {
+                return false;
+            }
+        }
+        return $hotCopy.flush();
+    }
+
+    /**
+     * Closes open cursors, rolls back the open transaction, if any, and writes an in-memory database to its file
+     * if it changed. Called when the database is about to close.
+     */
+    public void flushBeforeClose() throws SqliteException {
+        if ($hotCopy == null) {
+            return;
+        }
+        // VACUUM INTO fails while a statement is still stepping, which includes an open blob handle.
+        ArrayList<Integer> cursorIds;
+        synchronized ($cursors) {
+            cursorIds = new ArrayList<>($cursors.keySet());
+        }
+        for (int i = 0, length = cursorIds.size(); i < length; ++i) {
+            closeCursor(cursorIds.get(i));
+        }
+        $closeBlobs();
+        if ($isInTransaction()) {
+            $writer.executeScalar("ROLLBACK");
+            synchronized ($transactionLock) {
+                $inTransaction = false;
+                $savepointDepth = 0;
+            }
+        }
+        $hotCopy.flush();
+    }
+
+    /**
+     * @return {flushes, lastFlushDuration, size} for an in-memory database, or null.
+     */
+    public JSONObject getInMemoryStats() throws JSONException {
+        return $hotCopy == null ? null : $hotCopy.getStats();
+    }
+
+    /**
+     * @return True if maintenance may run on the writer, which is when no transaction, cursor or blob handle is open.
+     */
+    public boolean canRunMaintenance() {
+        return $isWriterIdle();
+    }
+
+    /**
+     * @return True if no transaction, cursor or blob handle is open on the writer.
+     */
+    private final boolean $isWriterIdle() {
+        if ($isInTransaction()) {
+            return false;
+        }
+        synchronized ($cursors) {
+            if (!$cursors.isEmpty()) {
+                return false;
+            }
+        }
+        synchronized ($blobs) {
+            return $blobs.isEmpty();
+        }
+    }
+
+    /**
+     * Creates the token of a query and, if the query has an id, registers it so it can be cancelled.
+     * Every token must be given back to finishQuery.
+     *
+     * @param timeout Time in milliseconds, starting now. 0 or less disables the deadline.
+     * @param timer Interrupts the query once the deadline passes.
+     */
+    public CancellationToken startQuery(String queryId, long timeout, ScheduledExecutorService timer) {
+        CancellationToken token = new CancellationToken(queryId, timeout);
+        token.startTimer(timer);
+        if (queryId != null) {
+            synchronized ($activeQueries) {
+                $activeQueries.put(queryId, token);
+            }
+        }
+        return token;
+    }
+
+    public void finishQuery(CancellationToken token) {
+        token.stopTimer();
+        if (token.getQueryId() == null) {
+            return;
+        }
+        synchronized ($activeQueries) {
+            // A newer query may have reused the id.
+            if ($activeQueries.get(token.getQueryId()) == token) {
+                $activeQueries.remove(token.getQueryId());
+            }
+        }
+    }
+
+    /**
+     * Cancels a queued or running query. A running query is interrupted, or stops before its next step where it
+     * can not be interrupted.
+     *
+     * @return False if no query with the id is queued or running.
+     */
+    public boolean cancel(String queryId) {
+        CancellationToken token;
+        synchronized ($activeQueries) {
+            token = $activeQueries.get(queryId);
+        }
+        if (token == null) {
+            return false;
+        }
+        token.cancel();
+        return true;
+    }
+
+    /**
+     * @return The result cache counters, or null if the database was opened without a result cache.
+     */
+    public JSONObject getResultCacheStats() throws JSONException {
+        return $resultCache == null ? null : $resultCache.getStats();
+    }
+
+    /**
+     * Results are only cached for SELECT statements that opt in, while no transaction is open.
+     * Inside a transaction, the write connection sees changes that other connections do not.
+     *
+     * @return The key of the result, or null if the result must not be cached.
+     *         Must be created before the statement runs, as running it may expand array parameters.
+     */
+    public String getResultCacheKey(String sql, JSONObject vars, QueryOptions options) {
+        if ($resultCache == null || !options.isCached() || !$getLeadingKeyword(sql).equals("SELECT") || $isInTransaction()) {
+            return null;
+        }
+        return sql + '\u0000' + (vars == null ? "" : vars.toString()) + '\u0000' + options.getFormatKey();
+    }
+
+    /**
+     * @return The cached result, or null on a miss.
+     */
+    public Object getCachedResult(String key) {
+        $checkDataVersion();
+        return $resultCache.get(key);
+    }
+
+    /**
+     * Read before running a statement whose result will be given to cacheResult.
+     */
+    public long getResultCacheGeneration() {
+        return $resultCache == null ? 0 : $resultCache.getGeneration();
+    }
+
+    /**
+     * Caches the result unless its statement reads something that cannot be tracked, or a write happened since the generation was read.
+     *
+     * @param bytes The approximate memory held by the result.
+     */
+    public void cacheResult(String key, String sql, Object result, long bytes, long generation) {
+        if ($isInTransaction()) {
+            return;
+        }
+
+        try {
+            Set<String> tables = $tableTracker.getReadTables($writer, sql);
+            if (tables != null) {
+                $resultCache.put(key, result, bytes, tables, generation);
+            }
+        }
+        catch (SqliteException ex) {
+            // The statement already ran successfully, so failing to analyze it only means it is not cached.
+        }
+    }
+
+    /**
+     * @return True if the statement may run on a read connection, in which case it can be scheduled alongside other reads.
+     */
+    public boolean isParallelReadable(String sql) {
+        return $readers != null && $getLeadingKeyword(sql).equals("SELECT");
+    }
+
+    /**
+     * Applies the busy timeout to every connection of this database.
+     */
+    public void setBusyTimeout(int busyTimeout) throws SqliteException {
+        $writer.setBusyTimeout(busyTimeout);
+        if ($readers != null) {
+            ArrayList<Connection> connections = $readers.getConnections();
+            for (int i = 0, length = connections.size(); i < length; ++i) {
+                connections.get(i).setBusyTimeout(busyTimeout);
+            }
+        }
+    }
+
+    public void close() {
+        $maintenance.stop();
+        if ($hotCopy != null) {
+            $hotCopy.stop();
+            try {
+                flushBeforeClose();
+            }
+            catch (SqliteException ex) {
+                Log.e(SQLite.LOG_TAG, "Unable to flush the in-memory database before closing", ex);
+            }
+        }
+        ArrayList<Integer> cursorIds;
+        synchronized ($cursors) {
+            cursorIds = new ArrayList<>($cursors.keySet());
+        }
+        for (int i = 0, length = cursorIds.size(); i < length; ++i) {
+            closeCursor(cursorIds.get(i));
+        }
+        $closeBlobs();
+        $changeWatcher.close();
+
+        if ($readers != null) {
+            $readers.close();
+        }
+        $writer.close();
+        $scheduler.shutdown();
+    }
+
+    /**
+     * @return The statement cache counters, summed across every connection of this database.
+     */
+    public JSONObject getStatementCacheStats() throws JSONException {
+        JSONObject stats = $writer.getStatementCache().getStats();
+        if ($readers != null) {
+            ArrayList<Connection> connections = $readers.getConnections();
+            for (int i = 0, length = connections.size(); i < length; ++i) {
+                JSONObject readerStats = connections.get(i).getStatementCache().getStats();
+                stats.put("capacity", stats.getLong("capacity") + readerStats.getLong("capacity"));
+                stats.put("size", stats.getLong("size") + readerStats.getLong("size"));
+                stats.put("hits", stats.getLong("hits") + readerStats.getLong("hits"));
+                stats.put("misses", stats.getLong("misses") + readerStats.getLong("misses"));
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * @return The occupancy of the read connection pool and how queries were routed.
+     */
+    public JSONObject getConnectionPoolStats() throws JSONException {
+        JSONObject stats;
+        if ($readers != null) {
+            stats = $readers.getStats();
+        }
+        else {
+            stats = new JSONObject();
+            stats.put("size", 0);
+            stats.put("idle", 0);
+            stats.put("busy", 0);
+            stats.put("acquisitions", 0);
+        }
+        stats.put("waits", $scheduler.getReaderWaits());
+
+        synchronized ($transactionLock) {
+            stats.put("readerQueries", $readerQueries);
+            stats.put("writerQueries", $writerQueries);
+            stats.put("inTransaction", $inTransaction || $savepointDepth > 0);
+        }
+        stats.put("scheduler", $scheduler.getStats());
+        stats.put("inMemory", $hotCopy == null ? JSONObject.NULL : $hotCopy.getStats());
+        return stats;
+    }
+
+    public JSONArray run(String sql, JSONObject vars) throws JSONException, SqliteException {
+        return run(sql, vars, new QueryOptions());
+    }
+
+    public JSONArray run(String sql, JSONObject vars, QueryOptions options) throws JSONException, SqliteException {
+        return run(sql, vars, options, QueryTimer.DISABLED);
+    }
+
+    /**
+     * @param timer Measures the phases of the statement. The caller is responsible for finishing the timer.
+     */
+    public JSONArray run(String sql, JSONObject vars, QueryOptions options, QueryTimer timer) throws JSONException, SqliteException {
+        return run(sql, vars, options, timer, CancellationToken.NONE);
+    }
+
+    /**
+     * @param token Checked before each step. The statement is finalized if the query is cancelled or times out.
+     */
+    public JSONArray run(String sql, JSONObject vars, final QueryOptions options, QueryTimer timer, CancellationToken token) throws JSONException, SqliteException {
+        return $query(sql, vars, options, timer, token, new RowSink<JSONArray>() {
+            private final JSONArray $results = new JSONArray();
+            private int $columnCount;
+
+            public void begin(CachedStatement cachedStatement) throws SqliteException {
+                $columnCount = Sqlite.columnCount(cachedStatement.getStatement());
+            }
+
+            public void row(long statement) throws JSONException, SqliteException {
+                $results.put($buildRowObject(statement, $columnCount, options));
+            }
+
+            public JSONArray end() {
+                return $results;
+            }
+        });
+    }
+
+    /**
+     * Like run, but writes the rows straight into JSON text instead of building JSONObjects.
+     * The text is identical to calling toString on the result of run.
+     */
+    public String runJson(String sql, JSONObject vars, QueryOptions options) throws JSONException, SqliteException {
+        return runJson(sql, vars, options, QueryTimer.DISABLED, CancellationToken.NONE);
+    }
+
+    /**
+     * @param timer Measures the phases of the statement. The caller is responsible for finishing the timer.
+     * @param token Checked before each step. The statement is finalized if the query is cancelled or times out.
+     */
+    public String runJson(String sql, JSONObject vars, final QueryOptions options, QueryTimer timer, CancellationToken token) throws JSONException, SqliteException {
+        return $query(sql, vars, options, timer, token, new RowSink<String>() {
+            private final JsonResultWriter $writer = JsonResultWriter.get();
+            private JsonResultWriter.Columns $columns;
+            private long $rows = 0;
+
+            public void begin(CachedStatement cachedStatement) throws SqliteException {
+                $columns = JsonResultWriter.getColumns(cachedStatement);
+                $writer.append('[');
+            }
+
+            public void row(long statement) throws JSONException, SqliteException {
+                if ($rows++ > 0) {
+                    $writer.append(',');
+                }
+                $writer.writeRowObject(statement, $columns, options);
+            }
+
+            public String end() {
+                $writer.append(']');
+                return $writer.finish();
+            }
+        });
+    }
+
+    /**
+     * Like run, but returns the result set as {columns: [...], rows: [[...], ...]}.
+     * Column names are read once per statement instead of once per cell.
+     */
+    public JSONObject runColumnar(String sql, JSONObject vars, QueryOptions options) throws JSONException, SqliteException {
+        return runColumnar(sql, vars, options, QueryTimer.DISABLED);
+    }
+
+    /**
+     * @param timer Measures the phases of the statement. The caller is responsible for finishing the timer.
+     */
+    public JSONObject runColumnar(String sql, JSONObject vars, QueryOptions options, QueryTimer timer) throws JSONException, SqliteException {
+        return runColumnar(sql, vars, options, timer, CancellationToken.NONE);
+    }
+
+    /**
+     * @param token Checked before each step. The statement is finalized if the query is cancelled or times out.
+     */
+    public JSONObject runColumnar(String sql, JSONObject vars, final QueryOptions options, QueryTimer timer, CancellationToken token) throws JSONException, SqliteException {
+        return $query(sql, vars, options, timer, token, new RowSink<JSONObject>() {
+            private final JSONArray $columns = new JSONArray();
+            private final JSONArray $rows = new JSONArray();
+            private int $columnCount;
+
+            public void begin(CachedStatement cachedStatement) throws SqliteException {
+                long statement = cachedStatement.getStatement();
+                $columnCount = Sqlite.columnCount(statement);
+                for (int i = 0; i < $columnCount; i++) {
+                    $columns.put(Sqlite.columnName(statement, i));
+                }
+            }
+
+            public void row(long statement) throws JSONException, SqliteException {
+                JSONArray row = new JSONArray();
+                for (int i = 0; i < $columnCount; i++) {
+                    row.put($getColumnValue(statement, i, options));
+                }
+                $rows.put(row);
+            }
+
+            public JSONObject end() throws JSONException {
+                JSONObject results = new JSONObject();
+                results.put("columns", $columns);
+                results.put("rows", $rows);
+                return results;
+            }
+        });
+    }
+
+    /**
+     * Like runColumnar, but writes the rows straight into JSON text instead of building JSONArrays.
+     * The text is identical to calling toString on the result of runColumnar.
+     */
+    public String runColumnarJson(String sql, JSONObject vars, QueryOptions options) throws JSONException, SqliteException {
+        return runColumnarJson(sql, vars, options, QueryTimer.DISABLED, CancellationToken.NONE);
+    }
+
+    /**
+     * @param timer Measures the phases of the statement. The caller is responsible for finishing the timer.
+     * @param token Checked before each step. The statement is finalized if the query is cancelled or times out.
+     */
+    public String runColumnarJson(String sql, JSONObject vars, final QueryOptions options, QueryTimer timer, CancellationToken token) throws JSONException, SqliteException {
+        return $query(sql, vars, options, timer, token, new RowSink<String>() {
+            private final JsonResultWriter $writer = JsonResultWriter.get();
+            private int $columnCount;
+            private long $rows = 0;
+
+            public void begin(CachedStatement cachedStatement) throws SqliteException {
+                JsonResultWriter.Columns columns = JsonResultWriter.getColumns(cachedStatement);
+                $columnCount = columns.getColumnCount();
+                $writer.append('{');
+                $writer.writeString("columns");
+                $writer.append(':');
+                $writer.writeColumnNames(columns);
+                $writer.append(',');
+                $writer.writeString("rows");
+                $writer.append(':');
+                $writer.append('[');
+            }
+
+            public void row(long statement) throws JSONException, SqliteException {
+                if ($rows++ > 0) {
+                    $writer.append(',');
+                }
+                $writer.writeRowArray(statement, $columnCount, options);
+            }
+
+            public String end() {
+                $writer.append(']');
+                $writer.append('}');
+                return $writer.finish();
+            }
+        });
+    }
+
+    /**
+     * Runs a statement and writes its rows to a file through the exporter, without holding the result set in memory.
+     * The exporter's temporary file is deleted if the statement fails, is cancelled or times out.
+     *
+     * @param token Checked before each step. The statement is finalized if the query is cancelled or times out.
+     * @return {rows, bytes}
+     */
+    public JSONObject exportQuery(String sql, JSONObject vars, QueryOptions options, final ResultExporter exporter, CancellationToken token) throws JSONException, SqliteException {
+        try {
+            return $query(sql, vars, options, QueryTimer.DISABLED, token, new RowSink<JSONObject>() {
+                private JsonResultWriter.Columns $columns;
+
+                public void begin(CachedStatement cachedStatement) throws SqliteException {
+                    $columns = JsonResultWriter.getColumns(cachedStatement);
+                    exporter.open($columns, cachedStatement.getStatement());
+                }
+
+                public void row(long statement) throws JSONException, SqliteException {
+                    exporter.writeRow(statement, $columns);
+                }
+
+                public JSONObject end() throws JSONException, SqliteException {
+                    return exporter.finish();
+                }
+            });
+        }
+        catch (SqliteException | JSONException ex) {
+            exporter.abort();
+            throw ex;
+        }
+    }
+
+    /**
+     * Receives the rows of a statement run by $query.
+     */
+    private interface RowSink<T> {
+        /**
+         * Called once the statement is prepared, before the first step.
+         */
+        void begin(CachedStatement cachedStatement) throws JSONException, SqliteException;
+
+        void row(long statement) throws JSONException, SqliteException;
+
+        /**
+         * Called once the statement is released after the last step.
+         */
+        T end() throws JSONException, SqliteException;
+    }
+
+    /**
+     * Runs a statement on the connection picked for it and hands each row to the sink. The statement is released on success,
+     * and finalized if it fails, is cancelled or times out.
+     */
+    private final <T> T $query(String sql, JSONObject vars, QueryOptions options, QueryTimer timer, CancellationToken token, RowSink<T> sink) throws JSONException, SqliteException {
+        Connection connection = $acquireConnection(sql);
+        timer.lap(QueryTimer.QUEUE);
+        try {
+            token.check();
+            CachedStatement cachedStatement = $acquireStatement(connection, sql, vars, options, timer);
+            $planProfiler.begin(connection, cachedStatement);
+
+            // We create a new try-catch here because it's unsafe to call finalize on a failed statement.
+            try {
+                long statement = cachedStatement.getStatement();
+                long rows = 0;
+
+                sink.begin(cachedStatement);
+                Connection interruptible = $getInterruptibleConnection(connection, token);
+                while (true) {
+                    int result = $step(statement, token, interruptible);
+                    timer.lap(QueryTimer.STEP);
+
+                    if (result == Statement.ROW) {
+                        sink.row(statement);
+                        rows++;
+                        timer.lap(QueryTimer.SERIALIZE);
+                    } else {
+                        break;
+                    }
+                }
+                timer.addRows(rows);
+
+                $planProfiler.end(connection, cachedStatement);
+                $releaseStatement(cachedStatement);
+            }
+            catch (SqliteException ex) {
+                $discardStatement(cachedStatement, ex);
+                throw ex;
+            }
+            catch (JSONException ex) {
+                cachedStatement.getCache().discard(cachedStatement);
+                throw ex;
+            }
+
+            return sink.end();
+        }
+        finally {
+            $releaseConnection(connection);
+        }
+    }
+
+    /**
+     * Runs an ordered list of statements on the calling thread and reports the outcome of each one.
+     *
+     * Each entry is an object of {sql, params, method, options}, where method is either "query" or "bulkInsert".
+     * When stopOnError is true, entries after the first failure are skipped. When transaction is true, the entries
+     * run inside a single transaction that is rolled back if an entry failed and stopOnError is true, and committed otherwise.
+     *
+     * @param transactionMode One of DEFERRED, IMMEDIATE or EXCLUSIVE. Only used when transaction is true.
+     * @return {results, rolledBack}, where each result is {status, result} or {status, error} and status is success, error or skipped.
+     */
+    public JSONObject batch(JSONArray entries, boolean transaction, String transactionMode, boolean stopOnError) throws JSONException, SqliteException {
+        if (transaction) {
+            if (!transactionMode.equals("DEFERRED") && !transactionMode.equals("IMMEDIATE") && !transactionMode.equals("EXCLUSIVE")) {
+                throw new SqliteException(Error.DOMAIN, "Unsupported transaction mode: " + transactionMode, Error.INVALID_BATCH_OPTIONS);
+            }
+            run("BEGIN " + transactionMode + " TRANSACTION", null);
+        }
+
+        JSONArray results = new JSONArray();
+        boolean failed = false;
+        try {
+            for (int i = 0, length = entries.length(); i < length; ++i) {
+                JSONObject result = new JSONObject();
+                results.put(result);
+
+                if (failed && stopOnError) {
+                    result.put("status", "skipped");
+                    continue;
+                }
+
+                try {
+                    result.put("result", $runBatchEntry(entries.getJSONObject(i)));
+                    result.put("status", "success");
+                }
+                catch (SqliteException ex) {
+                    failed = true;
+                    result.put("status", "error");
+                    result.put("error", ex.toDictionary());
+                }
+            }
+        }
+        catch (JSONException ex) {
+            if (transaction) {
+                $rollbackBatch();
+            }
+            throw ex;
+        }
+
+        boolean rolledBack = false;
+        if (transaction) {
+            if (failed && stopOnError) {
+                $rollbackBatch();
+                rolledBack = true;
+            }
+            else {
+                try {
+                    run("COMMIT TRANSACTION", null);
+                }
+                catch (SqliteException ex) {
+                    $rollbackBatch();
+                    throw ex;
+                }
+            }
+        }
+
+        JSONObject response = new JSONObject();
+        response.put("results", results);
+        response.put("rolledBack", rolledBack);
+        return response;
+    }
+
+    private final Object $runBatchEntry(JSONObject entry) throws JSONException, SqliteException {
+        String method = entry.optString("method", "query");
+        String sql = entry.getString("sql");
+
+        if (method.equals("query")) {
+            QueryOptions options = QueryOptions.fromJSON(entry.optJSONObject("options"));
+            if (options.isColumnar()) {
+                return runColumnar(sql, entry.optJSONObject("params"), options);
+            }
+            return run(sql, entry.optJSONObject("params"), options);
+        }
+        else if (method.equals("bulkInsert")) {
+            return bulkRun(sql, entry.optJSONArray("params"), BulkRunOptions.fromJSON(entry.optJSONObject("options")), QueryTimer.DISABLED, CancellationToken.NONE);
+        }
+        else if (method.equals("executeMany")) {
+            JSONObject options = entry.optJSONObject("options");
+            return executeMany(sql, entry.optJSONArray("params"), options != null && options.optBoolean("lastInsertRowId", false), QueryOptions.fromJSON(options));
+        }
+
+        throw new SqliteException(Error.DOMAIN, "Unsupported batch method: " + method, Error.UNSUPPORTED_BATCH_METHOD);
+    }
+
+    private final void $rollbackBatch() throws JSONException {
+        try {
+            run("ROLLBACK TRANSACTION", null);
+        }
+        catch (SqliteException ex) {
+            // SQLite may have already rolled back the transaction on its own, such as after SQLITE_FULL.
+            // Either way, there is no longer a transaction open.
+            $trackTransaction("ROLLBACK", "ROLLBACK");
+        }
+    }
+
+    /**
+     * Prepares a statement that is kept alive so its result set can be read in pages with fetchCursor.
+     *
+     * Cursors always run on the writer connection, so long running cursors do not hold a reader out of the pool.
+     *
+     * @param idleTimeout Time in milliseconds before an unused cursor is closed automatically. 0 or less disables the timeout.
+     * @return The cursor id.
+     */
+    public int openCursor(String sql, JSONObject vars, QueryOptions options, long idleTimeout, ScheduledExecutorService timer) throws JSONException, SqliteException {
+        CachedStatement cachedStatement = $acquireStatement($writer, sql, vars, options, QueryTimer.DISABLED);
+
+        String[] columns;
+        try {
+            long statement = cachedStatement.getStatement();
+            columns = new String[Sqlite.columnCount(statement)];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = Sqlite.columnName(statement, i);
+            }
+        }
+        catch (SqliteException ex) {
+            $discardStatement(cachedStatement, ex);
+            throw ex;
+        }
+
+        // Registration happens under the lock so the idle timer cannot fire for an unregistered cursor.
+        synchronized ($cursors) {
+            final int cursorId = ++$nextCursorId;
+            Cursor cursor = new Cursor(cursorId, cachedStatement, options, idleTimeout, timer, new Runnable() {
+                public void run() {
+                    closeCursor(cursorId);
+                }
+            });
+            cursor.setColumns(columns);
+            $cursors.put(cursorId, cursor);
+            return cursorId;
+        }
+    }
+
+    /**
+     * Steps the cursor up to count rows.
+     * The cursor is closed automatically once the result set is exhausted.
+     *
+     * @return {columns: [...], rows: [[...], ...], done: boolean}
+     */
+    public JSONObject fetchCursor(int cursorId, int count) throws JSONException, SqliteException {
+        Cursor cursor;
+        synchronized ($cursors) {
+            cursor = $cursors.get(cursorId);
+        }
+
+        if (cursor == null) {
+            throw new SqliteException(Error.DOMAIN, "Cursor Not Found. The cursor may have been closed or timed out.", Error.CURSOR_NOT_FOUND);
+        }
+
+        synchronized (cursor) {
+            if (cursor.isClosed()) {
+                throw new SqliteException(Error.DOMAIN, "Cursor Not Found. The cursor may have been closed or timed out.", Error.CURSOR_NOT_FOUND);
+            }
+
+            CachedStatement cachedStatement = cursor.getStatement();
+            long statement = cachedStatement.getStatement();
+            String[] columnNames = cursor.getColumns();
+            JSONArray rows = new JSONArray();
+            boolean done = false;
+
+            try {
+                for (int n = 0; n < count; ++n) {
+                    if (Sqlite.step(statement) != Statement.ROW) {
+                        done = true;
+                        break;
+                    }
+
+                    JSONArray row = new JSONArray();
+                    for (int i = 0; i < columnNames.length; i++) {
+                        row.put($getColumnValue(statement, i, cursor.getOptions()));
+                    }
+                    rows.put(row);
+                }
+            }
+            catch (SqliteException ex) {
+                $unregisterCursor(cursorId);
+                cursor.markClosed();
+                $discardStatement(cachedStatement, ex);
+                throw ex;
+            }
+            catch (JSONException ex) {
+                $unregisterCursor(cursorId);
+                cursor.markClosed();
+                cachedStatement.getCache().discard(cachedStatement);
+                throw ex;
+            }
+
+            if (done) {
+                $unregisterCursor(cursorId);
+                cursor.markClosed();
+                $releaseStatement(cachedStatement);
+            }
+            else {
+                cursor.touch();
+            }
+
+            JSONArray columns = new JSONArray();
+            for (int i = 0; i < columnNames.length; i++) {
+                columns.put(columnNames[i]);
+            }
+
+            JSONObject result = new JSONObject();
+            result.put("columns", columns);
+            result.put("rows", rows);
+            result.put("done", done);
+            return result;
+        }
+    }
+
+    /**
+     * Closes the cursor and releases its statement. Closing an unknown cursor is a no-op.
+     */
+    public void closeCursor(int cursorId) {
+        Cursor cursor = $unregisterCursor(cursorId);
+        if (cursor == null) {
+            return;
+        }
+
+        synchronized (cursor) {
+            if (cursor.markClosed()) {
+                cursor.getStatement().getCache().release(cursor.getStatement());
+            }
+        }
+    }
+
+    private final Cursor $unregisterCursor(int cursorId) {
+        synchronized ($cursors) {
+            return $cursors.remove(cursorId);
+        }
+    }
+
+    /**
+     * Opens a handle to the blob in the given row with sqlite3_blob_open, on the write connection.
+     * Like sqlite3_blob_write, writes through the handle can not change the size of the blob,
+     * so a blob that is written in chunks is first inserted as a zeroblob of its final size.
+     *
+     * @return {blobId, size}
+     */
+    public JSONObject openBlob(String schema, String table, String column, long rowId, boolean writable) throws JSONException, SqliteException {
+        int blobId;
+        synchronized ($blobs) {
+            blobId = ++$nextBlobId;
+        }
+
+        BlobHandle blob;
+        try {
+            blob = new BlobHandle(blobId, $writer, schema, table, column, rowId, writable);
+        }
+        catch (SqliteException ex) {
+            throw $describeBlobError(ex, schema, table, column, rowId);
+        }
+
+        synchronized ($blobs) {
+            $blobs.put(blob.getId(), blob);
+        }
+
+        JSONObject result = new JSONObject();
+        result.put("blobId", blob.getId());
+        result.put("size", blob.getSize());
+        return result;
+    }
+
+    /**
+     * Points the handle at the same column of another row, the equivalent of sqlite3_blob_reopen.
+     * If the new row has no blob, the handle fails to read or write until it is reopened on a row that does.
+     *
+     * @return The size of the blob in the new row.
+     */
+    public long reopenBlob(int blobId, long rowId) throws SqliteException {
+        BlobHandle blob = $getBlob(blobId);
+        synchronized (blob) {
+            $checkBlobOpen(blob);
+            try {
+                blob.reopen(rowId);
+            }
+            catch (SqliteException ex) {
+                throw $describeBlobError(ex, blob.getSchema(), blob.getTable(), blob.getColumn(), rowId);
+            }
+            return blob.getSize();
+        }
+    }
+
+    /**
+     * Reads length bytes from offset with sqlite3_blob_read. The whole range must be inside the blob.
+     */
+    public byte[] readBlob(int blobId, long offset, int length) throws SqliteException {
+        BlobHandle blob = $getBlob(blobId);
+        synchronized (blob) {
+            $checkBlobOpen(blob);
+            $checkBlobRange(blob, "read", offset, length);
+            return blob.read((int)offset, length);
+        }
+    }
+
+    /**
+     * Overwrites the bytes from offset with data, with sqlite3_blob_write. The whole range must be inside the blob.
+     * The write is committed when the handle is closed, which is also when cached results of the table are evicted.
+     *
+     * @param data A blob parameter, such as {type: "base64", value}.
+     */
+    public void writeBlob(int blobId, long offset, JSONObject data) throws JSONException, SqliteException {
+        BlobHandle blob = $getBlob(blobId);
+        synchronized (blob) {
+            $checkBlobOpen(blob);
+            if (!blob.isWritable()) {
+                throw new SqliteException(Error.DOMAIN, "Blob handle is read only", Error.INVALID_BLOB_ACCESS);
+            }
+
+            byte[] bytes = $parseBlob(data);
+            $checkBlobRange(blob, "write", offset, bytes.length);
+            // Blob writes do not fire triggers, so watchers are told about the row here, once per row.
+            if (blob.isNative() && !blob.isRowWritten() && blob.getSchema().equalsIgnoreCase("main")) {
+                $changeWatcher.logUpdate(blob.getTable(), blob.getRowId());
+            }
+            blob.write((int)offset, bytes);
+        }
+    }
+
+    /**
+     * Closes the native handle, which commits its writes unless a transaction is open.
+     * Closing an unknown blob handle is a no-op.
+     */
+    public void closeBlob(int blobId) throws SqliteException {
+        BlobHandle blob;
+        synchronized ($blobs) {
+            blob = $blobs.remove(blobId);
+        }
+
+        if (blob != null) {
+            $closeBlob(blob);
+        }
+    }
+
+    private final void $closeBlob(BlobHandle blob) throws SqliteException {
+        boolean written;
+        synchronized (blob) {
+            if (blob.isClosed()) {
+                return;
+            }
+            written = blob.isWritten();
+            try {
+                blob.close();
+            }
+            finally {
+                if (written && $resultCache != null) {
+                    ArrayList<String> tables = new ArrayList<>();
+                    tables.add(blob.getTable().toLowerCase(Locale.ROOT));
+                    $resultCache.invalidate(tables);
+                }
+            }
+        }
+
+        if (written) {
+            if ($hotCopy != null) {
+                $hotCopy.markDirty();
+            }
+            $notifyWatchers();
+            $flushAfterCommit();
+        }
+    }
+
+    private final void $closeBlobs() {
+        ArrayList<BlobHandle> blobs;
+        synchronized ($blobs) {
+            blobs = new ArrayList<>($blobs.values());
+            $blobs.clear();
+        }
+        for (int i = 0, length = blobs.size(); i < length; ++i) {
+            try {
+                $closeBlob(blobs.get(i));
+            }
+            catch (SqliteException ex) {
+                Log.e(SQLite.LOG_TAG, "Unable to close blob handle " + blobs.get(i).getId(), ex);
+            }
+        }
+    }
+
+    private final BlobHandle $getBlob(int blobId) throws SqliteException {
+        BlobHandle blob;
+        synchronized ($blobs) {
+            blob = $blobs.get(blobId);
+        }
+
+        if (blob == null) {
+            throw new SqliteException(Error.DOMAIN, "Blob Not Found. The blob handle may have been closed.", Error.BLOB_NOT_FOUND);
+        }
+        return blob;
+    }
+
+    private final void $checkBlobOpen(BlobHandle blob) throws SqliteException {
+        if (blob.isClosed()) {
+            throw new SqliteException(Error.DOMAIN, "Blob Not Found. The blob handle may have been closed.", Error.BLOB_NOT_FOUND);
+        }
+    }
+
+    private final void $checkBlobRange(BlobHandle blob, String operation, long offset, int length) throws SqliteException {
+        if (offset < 0 || length < 0) {
+            throw new SqliteException(Error.DOMAIN, "Blob offset and length must not be negative", Error.INVALID_BLOB_ACCESS);
+        }
+
+        long size = blob.getSize();
+        if (offset + length > size) {
+            throw new SqliteException(Error.DOMAIN, "Blob " + operation + " of " + length + " bytes at offset " + offset + " is past the end of the " + size + " byte blob", Error.INVALID_BLOB_ACCESS);
+        }
+    }
+
+    /**
+     * Turns a failure to open a blob into BLOB_NOT_FOUND when the row does not exist, or INVALID_BLOB_ACCESS when
+     * the value is neither a blob nor text. Other failures, such as an unknown table, are returned as they are.
+     */
+    private final SqliteException $describeBlobError(SqliteException ex, String schema, String table, String column, long rowId) {
+        String source = $quoteIdentifier(schema) + "." + $quoteIdentifier(table);
+        ArrayList<String[]> rows;
+        try {
+            rows = $writer.executeRows("SELECT typeof(" + source + "." + $quoteIdentifier(column) + ") FROM " + source + " WHERE rowid = " + rowId);
+        }
+        catch (SqliteException checkEx) {
+            return ex;
+        }
+
+        if (rows.isEmpty()) {
+            return new SqliteException(Error.DOMAIN, "Blob Not Found. No row has rowid " + rowId + ".", Error.BLOB_NOT_FOUND);
+        }
+        String type = rows.get(0)[0];
+        if (!"blob".equals(type) && !"text".equals(type)) {
+            return new SqliteException(Error.DOMAIN, "Cannot open value of type " + type + " as a blob", Error.INVALID_BLOB_ACCESS);
+        }
+        return ex;
+    }
+
+    private static String $quoteIdentifier(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * sqlite3_interrupt stops every statement running on the connection, and rolls back an open transaction.
+     * Every connection runs one query at a time, so a reader can always be interrupted, while the writer only can
+     * outside of a transaction and with no cursor or blob handle open. Other queries stop between steps.
+     *
+     * @return The connection that the token may interrupt while the query steps, or null.
+     */
+    private final Connection $getInterruptibleConnection(Connection connection, CancellationToken token) {
+        if (token == CancellationToken.NONE) {
+            return null;
+        }
+        if (connection != $writer) {
+            return connection;
+        }
+        return $isWriterIdle() ? connection : null;
+    }
+
+    /**
+     * Steps the statement of a query that can be cancelled. An interrupted step is reported as the cancel or timeout that
+     * interrupted it.
+     *
+     * @param connection The connection to attach to the token while the step runs, or null.
+     */
+    private final int $step(long statement, CancellationToken token, Connection connection) throws SqliteException {
+        token.check();
+        if (connection == null) {
+            return Sqlite.step(statement);
+        }
+
+        token.attach(connection);
+        try {
+            return Sqlite.step(statement);
+        }
+        catch (SqliteException ex) {
+            token.check();
+            throw ex;
+        }
+        finally {
+            token.detach();
+        }
+    }
+
+    /**
+     * Expands array parameters, then checks out a statement for the resulting SQL and binds vars to it.
+     * The returned statement must be given back with either $releaseStatement or $discardStatement.
+     */
+    private final CachedStatement $acquireStatement(Connection connection, String sql, JSONObject vars, QueryOptions options, QueryTimer timer) throws JSONException, SqliteException {
+        sql = $expandArrayParameters(sql, vars, options.isJsonArrays());
+
+        CachedStatement cachedStatement = $prepareStatement(connection, sql);
+        timer.lap(QueryTimer.PREPARE);
+
+        try {
+            cachedStatement.setBoundKeys(vars);
+            this.$bindVars(cachedStatement.getStatement(), vars);
+            timer.lap(QueryTimer.BIND);
+        }
+        catch (SqliteException ex) {
+            $discardStatement(cachedStatement, ex);
+            throw ex;
+        }
+
+        return cachedStatement;
+    }
+
+    private final void $releaseStatement(CachedStatement cachedStatement) {
+        cachedStatement.getCache().release(cachedStatement);
+
+        String keyword = $getLeadingKeyword(cachedStatement.getSql());
+        if (keyword.equals("CREATE") || keyword.equals("DROP") || keyword.equals("ALTER")) {
+            // Cached statements are recompiled by SQLite when the schema changes,
+            // but there is no reason to keep plans around for objects that may no longer exist.
+            $writer.getStatementCache().clear();
+            if ($readers != null) {
+                ArrayList<Connection> connections = $readers.getConnections();
+                for (int i = 0, length = connections.size(); i < length; ++i) {
+                    connections.get(i).getStatementCache().clear();
+                }
+            }
+        }
+
+        $trackTransaction(keyword, cachedStatement.getSql());
+
+        if ($resultCache != null) {
+            $invalidateResults(keyword, cachedStatement.getSql());
+        }
+
+        if (!keyword.equals("SELECT") && !keyword.equals("EXPLAIN")) {
+            // The change log lives on the writer. Reads of other statements, such as WITH, may have run on a reader.
+            if (cachedStatement.getCache() == $writer.getStatementCache()) {
+                $notifyWatchers();
+            }
+            $flushAfterCommit();
+        }
+    }
+
+    /**
+     * Sends the rows logged for watched tables once a write is committed. Runs before $flushAfterCommit,
+     * since clearing the log is itself a write.
+     */
+    private final void $notifyWatchers() {
+        if (!$isInTransaction()) {
+            $changeWatcher.collect();
+        }
+    }
+
+    /**
+     * Writes an in-memory database opened with flushOnCommit to its file once a write is committed.
+     * A failed flush is logged rather than failing the statement, which did commit, and is retried on the next
+     * commit, timed flush or close.
+     */
+    private final void $flushAfterCommit() {
+        if ($hotCopy == null || !$hotCopy.isFlushOnCommit()) {
+            return;
+        }
+        try {
+            flush();
+        }
+        catch (SqliteException ex) {
+            Log.e(SQLite.LOG_TAG, "Unable to flush the in-memory database", ex);
+        }
+    }
+
+    /**
+     * Evicts the cached results that read the tables written by the statement, which has just run on the write connection.
+     */
+    private final void $invalidateResults(String keyword, String sql) {
+        switch (keyword) {
+            case "SELECT":
+            case "EXPLAIN":
+            case "BEGIN":
+            case "COMMIT":
+            case "END":
+            case "SAVEPOINT":
+            case "RELEASE":
+            case "ROLLBACK":
+                // Writes inside a transaction invalidate when they run, so a rollback has nothing left to invalidate.
+                return;
+            case "INSERT":
+            case "REPLACE":
+            case "UPDATE":
+            case "DELETE":
+            case "WITH":
+                try {
+                    Set<String> tables = $tableTracker.getWriteTables($writer, sql);
+                    if (tables != null) {
+                        $resultCache.invalidate(tables);
+                        return;
+                    }
+                }
+                catch (SqliteException ex) {
+                    // Fall through and assume every table changed.
+                }
+                $resultCache.clear();
+                return;
+            default:
+                // Schema changes, PRAGMA, VACUUM, ATTACH and anything else that may change what a query returns.
+                $tableTracker.clear();
+                $resultCache.clear();
+                return;
+        }
+    }
+
+    /**
+     * Clears the result cache if another connection, such as another process or an online restore, committed a change.
+     */
+    private final void $checkDataVersion() {
+        long version;
+        try {
+            version = Long.parseLong($writer.executeScalar("PRAGMA data_version"));
+        }
+        catch (SqliteException | NumberFormatException ex) {
+            $resultCache.clear();
+            return;
+        }
+
+        synchronized ($resultCache) {
+            if (version != $dataVersion) {
+                if ($dataVersion != -1) {
+                    $tableTracker.clear();
+                    $resultCache.clear();
+                }
+                $dataVersion = version;
+            }
+        }
+    }
+
+    private final boolean $isInTransaction() {
+        synchronized ($transactionLock) {
+            return $inTransaction || $savepointDepth > 0;
+        }
+    }
+
+    /**
+     * Finalizes a statement that failed and attaches the query to the error.
+     */
+    private final void $discardStatement(CachedStatement cachedStatement, SqliteException ex) throws JSONException {
+        cachedStatement.getCache().discard(cachedStatement);
+        JSONObject details = new JSONObject();
+        details.put(Error.QUERY_KEY, cachedStatement.getSql());
+        ex.setDetails(details);
+    }
+
+    /**
+     * Prepares the statement once and runs it for every row of named parameters, inside a single savepoint.
+     *
+     * Unlike bulkRun, this works for any statement, such as UPDATE, DELETE or INSERT ... RETURNING.
+     * Array parameters are not supported, as they would change the statement between rows.
+     * If any row fails, every row is rolled back and the error details include the index of the failed row.
+     *
+     * @param lastInsertRowId If true, the last_insert_rowid() after each row is also returned.
+     * @return {changes, totalChanges, lastInsertRowIds, returning}, where changes holds the affected row count of each row.
+     *         lastInsertRowIds is only set if requested and returning is only set if the statement returns columns.
+     */
+    public JSONObject executeMany(String sql, JSONArray rows, boolean lastInsertRowId, QueryOptions options) throws JSONException, SqliteException {
+        return executeMany(sql, rows, lastInsertRowId, options, CancellationToken.NONE);
+    }
+
+    /**
+     * @param token Checked before each row. Every row is rolled back if the query is cancelled or times out.
+     */
+    public JSONObject executeMany(String sql, JSONArray rows, boolean lastInsertRowId, QueryOptions options, CancellationToken token) throws JSONException, SqliteException {
+        JSONArray changes = new JSONArray();
+        JSONArray lastInsertRowIds = new JSONArray();
+        JSONArray returning = new JSONArray();
+        long totalChanges = 0;
+        int columnCount = 0;
+
+        if (rows != null && rows.length() > 0) {
+            // A savepoint starts a transaction on its own, or nests inside the transaction that is already open.
+            run("SAVEPOINT executeMany", null);
+
+            CachedStatement cachedStatement = null;
+            CachedStatement changesStatement = null;
+            int rowIndex = -1;
+            try {
+                cachedStatement = $prepareStatement($writer, sql);
+                changesStatement = $prepareStatement($writer, "SELECT changes(), last_insert_rowid()");
+                long statement = cachedStatement.getStatement();
+                long changesHandle = changesStatement.getStatement();
+                columnCount = Sqlite.columnCount(statement);
+
+                for (int i = 0, length = rows.length(); i < length; ++i) {
+                    rowIndex = i;
+                    token.check();
+                    JSONObject row = rows.getJSONObject(i);
+                    if (i > 0) {
+                        // Also clears the parameters of the previous row, in case this row omits some of them.
+                        cachedStatement.reset();
+                    }
+                    cachedStatement.setBoundKeys(row);
+                    $bindVars(statement, row);
+
+                    JSONArray returned = new JSONArray();
+                    while (Sqlite.step(statement) == Statement.ROW) {
+                        returned.put($buildRowObject(statement, columnCount, options));
+                    }
+                    if (columnCount > 0) {
+                        returning.put(returned);
+                    }
+
+                    Sqlite.step(changesHandle);
+                    long rowChanges = Sqlite.getInt(changesHandle, 0);
+                    changes.put(rowChanges);
+                    totalChanges += rowChanges;
+                    if (lastInsertRowId) {
+                        lastInsertRowIds.put(Sqlite.getInt(changesHandle, 1));
+                    }
+                    Sqlite.reset(changesHandle);
+                }
+
+                $releaseStatement(cachedStatement);
+                $releaseStatement(changesStatement);
+                cachedStatement = null;
+                changesStatement = null;
+
+                run("RELEASE SAVEPOINT executeMany", null);
+            }
+            catch (SqliteException ex) {
+                if (cachedStatement != null) {
+                    cachedStatement.getCache().discard(cachedStatement);
+                }
+                if (changesStatement != null) {
+                    changesStatement.getCache().discard(changesStatement);
+                }
+
+                JSONObject details = new JSONObject();
+                details.put(Error.QUERY_KEY, sql);
+                if (rowIndex != -1) {
+                    details.put("row", rowIndex);
+                }
+                ex.setDetails(details);
+
+                $rollbackSavepoint("executeMany");
+                throw ex;
+            }
+            catch (JSONException ex) {
+                if (cachedStatement != null) {
+                    cachedStatement.getCache().discard(cachedStatement);
+                }
+                if (changesStatement != null) {
+                    changesStatement.getCache().discard(changesStatement);
+                }
+
+                $rollbackSavepoint("executeMany");
+                throw ex;
+            }
+        }
+
+        JSONObject response = new JSONObject();
+        response.put("changes", changes);
+        response.put("totalChanges", totalChanges);
+        if (lastInsertRowId) {
+            response.put("lastInsertRowIds", lastInsertRowIds);
+        }
+        if (columnCount > 0) {
+            response.put("returning", returning);
+        }
+        return response;
+    }
 
-    public Database(File fpath, int openFlags) throws SqliteException {
-        File directory = fpath.getParentFile();
-        if (directory != null) {
-            directory.mkdirs();
+    /**
+     * Rolls back and releases a savepoint after a failure, without masking the original error.
+     */
+    private final void $rollbackSavepoint(String name) throws JSONException {
+        try {
+            run("ROLLBACK TO SAVEPOINT " + name, null);
+            run("RELEASE SAVEPOINT " + name, null);
+        }
+        catch (SqliteException ex) {
+            // SQLite may have already rolled back the whole transaction on its own, such as after SQLITE_FULL.
         }
-        $handle = Sqlite.open(fpath.getAbsolutePath(), openFlags);
     }
 
-    public Long getHandle() {
-        return $handle;
+    public JSONObject bulkRun(String sql, JSONArray vars) throws JSONException, SqliteException {
+        return bulkRun(sql, vars, QueryTimer.DISABLED);
     }
 
-    public void close() {
-        Sqlite.close($handle);
+    /**
+     * @param timer Measures the phases of the statement. The caller is responsible for finishing the timer.
+     */
+    public JSONObject bulkRun(String sql, JSONArray vars, QueryTimer timer) throws JSONException, SqliteException {
+        return bulkRun(sql, vars, timer, CancellationToken.NONE);
     }
 
-    public JSONArray run(String sql, JSONObject vars) throws JSONException, SqliteException {
-        ArrayList<String> arrayKeys = new ArrayList<>();
-        if (vars != null) {
-            Iterator<String> keys = vars.keys();
-            while (keys.hasNext()) {
-                String key = keys.next();
-                if (vars.get(key) instanceof JSONArray) {
-                    arrayKeys.add(key);
-                }
-            }
+    /**
+     * @param token Checked before each chunk. Chunks that already ran are kept unless the caller rolls back its transaction.
+     */
+    public JSONObject bulkRun(String sql, JSONArray vars, QueryTimer timer, CancellationToken token) throws JSONException, SqliteException {
+        return bulkRun(sql, vars, new BulkRunOptions(), timer, token);
+    }
+
+    /**
+     * Inserts the rows in chunks of as many rows as fit in the variable limit of a statement.
+     *
+     * Without a transaction, each chunk commits on its own unless the caller has a transaction open. With a transaction,
+     * the chunks run inside a savepoint, which is released after every commitEvery rows, rounded up to a whole chunk.
+     * A savepoint is a transaction of its own when no transaction is open, and nests into the caller's transaction otherwise.
+     * If a chunk fails, the open savepoint is rolled back and the error details include the number of rows that were kept.
+     *
+     * @param token Checked before each chunk. With a transaction, the open savepoint is rolled back if the query is cancelled or times out.
+     * @return {rows, changes, checkpoint}, where changes does not count rows skipped by a conflict clause.
+     *         checkpoint is only set if requested and holds the {busy, log, checkpointed} result of wal_checkpoint.
+     */
+    public JSONObject bulkRun(String sql, JSONArray vars, BulkRunOptions options, QueryTimer timer, CancellationToken token) throws JSONException, SqliteException {
+        // Prepare VALUES string
+        int rows = vars.length();
+        // It is invalid to have a variable number of columns, so assume the column count is the same across all rows is okay.
+        int columns = vars.getJSONArray(0).length();
+
+        int chunkSize = (int)Math.floor((double)MAX_VARIABLE_COUNT / (double)columns);
+        int commitEvery = options.getCommitEvery();
+        if (commitEvery > 0 && commitEvery < chunkSize) {
+            // Smaller chunks, so that a commit is not delayed by a chunk that is larger than commitEvery.
+            chunkSize = commitEvery;
         }
+        int iterationsRequired = (int)Math.ceil((double)rows / (double)chunkSize);
+        int lastIterationLength = rows - (chunkSize * (iterationsRequired - 1));
+
+        // Each row of values will look the exact same while they are unbounded. For that reason, let's prepare a string that we can re-use.
+        StringBuilder row = $buildBulkRow(columns);
+        StringBuilder values = $buildBulkValues(row, chunkSize);
+        StringBuilder lastIterationValues = $buildBulkValues(row, lastIterationLength);
 
-        for (int i = 0, length = arrayKeys.size(); i < length; ++i) {
-            String key = arrayKeys.get(i);
-            String colonKey = ":" + key;
-            JSONArray value = vars.getJSONArray(key);
-            // The index of the old param name
-            int paramIndex = sql.indexOf(colonKey);
+        String chunkSql = sql.replaceFirst(":BulkInsertValue", values.toString());
 
-            // Remove old param name
-            vars.remove(key);
+        long statement = $prepareBulk(chunkSql);
+        timer.lap(QueryTimer.PREPARE);
 
-            while (paramIndex != -1) {
-                // Remove old param name
-                sql = sql.replaceFirst(colonKey, "");
-                StringBuilder newParams = new StringBuilder();
-                for (int vi = 0, vlength = value.length(); vi < vlength; ++vi) {
-                    StringBuilder paramName = new StringBuilder();
-                    paramName.append('$');
-                    paramName.append(key);
-                    paramName.append('_');
-                    paramName.append(vi);
-                    // Add new param name with the value
-                    vars.put(paramName.toString(), value.get(vi));
-                    paramName.insert(0, ':');
-                    newParams.append(paramName);
-                    if (vi + 1 < vlength) {
-                        newParams.append(',');
+        boolean transaction = options.isTransaction();
+        long keptRows = 0;
+        long pendingRows = 0;
+        long changes = 0;
+        int iteration = -1;
+        CachedStatement changesStatement = null;
+
+        // We create a new try-catch here because it's unsafe to call finalize on a failed statement.
+        try {
+            changesStatement = $prepareStatement($writer, "SELECT changes()");
+            long changesHandle = changesStatement.getStatement();
+            if (transaction) {
+                run("SAVEPOINT bulkRun", null);
+            }
+
+            for (int i = 0; i < iterationsRequired; ++i) {
+                iteration = i;
+                int varsStartIndex = i * chunkSize;
+                int varsEndIndex;
+
+                if (i + 1 == iterationsRequired) { // This is meant to run on the last iteration
+                    varsEndIndex = varsStartIndex + lastIterationLength;
+                    if (lastIterationLength != chunkSize) {
+                        chunkSql = sql.replaceFirst(":BulkInsertValue", lastIterationValues.toString());
+                        $finalizeBulk(statement); // Finalize chunkSql statement.
+                        // Cleared first, so that it is not finalized again if the prepare fails.
+                        statement = 0;
+                        statement = $prepareBulk(chunkSql);
+                        timer.lap(QueryTimer.PREPARE);
                     }
                 }
+                else {
+                    varsEndIndex = (i + 1) * chunkSize;
+                }
+
+                token.check();
+                Sqlite.reset(statement);
+                this.$bindBulkVars(statement, vars, varsStartIndex, varsEndIndex);
+                timer.lap(QueryTimer.BIND);
+                Sqlite.step(statement);
+                timer.lap(QueryTimer.STEP);
+
+                Sqlite.step(changesHandle);
+                changes += Sqlite.getInt(changesHandle, 0);
+                Sqlite.reset(changesHandle);
+
+                if (!transaction) {
+                    keptRows += varsEndIndex - varsStartIndex;
+                    continue;
+                }
 
-                // Insert new params into the sql
-                sql = sql.substring(0, paramIndex) + newParams + sql.substring(paramIndex);
+                pendingRows += varsEndIndex - varsStartIndex;
+                if (commitEvery > 0 && pendingRows >= commitEvery && i + 1 < iterationsRequired) {
+                    run("RELEASE SAVEPOINT bulkRun", null);
+                    keptRows += pendingRows;
+                    pendingRows = 0;
+                    run("SAVEPOINT bulkRun", null);
+                }
+            }
 
-                // Search for duplicate param name of old param name. Note earlier we removed the first occurrence of old param name.
-                // So a duplicate will be the new first occurrence.
-                paramIndex = sql.indexOf(colonKey);
+            if (transaction) {
+                run("RELEASE SAVEPOINT bulkRun", null);
+                keptRows += pendingRows;
             }
-        }
 
-        long statement;
-        try {
-            statement = Sqlite.prepare($handle, sql);
+            $releaseStatement(changesStatement);
+            changesStatement = null;
         }
         catch (SqliteException ex) {
+            $abortBulkRun(statement, changesStatement, transaction, sql, row);
             JSONObject details = new JSONObject();
-            details.put(Error.QUERY_KEY, sql);
+            details.put(Error.QUERY_KEY, chunkSql);
+            details.put("iteration", iteration);
+            details.put("rows", keptRows);
             ex.setDetails(details);
             throw ex;
         }
+        catch (JSONException ex) {
+            $abortBulkRun(statement, changesStatement, transaction, sql, row);
+            throw ex;
+        }
 
-        // We create a new try-catch here because it's unsafe to call finalize on a failed statement.
+        $finalizeBulk(statement);
+        $invalidateBulkResults(sql, row);
+        timer.addRows(rows);
+        // Without a transaction, the chunks commit on their own, outside of $releaseStatement.
+        $notifyWatchers();
+        $flushAfterCommit();
+
+        JSONObject response = new JSONObject();
+        response.put("rows", rows);
+        response.put("changes", changes);
+        if (options.getCheckpoint() != null) {
+            response.put("checkpoint", $checkpoint(options.getCheckpoint()));
+        }
+        return response;
+    }
+
+    private final void $abortBulkRun(long statement, CachedStatement changesStatement, boolean transaction, String sql, StringBuilder row) throws JSONException {
+        if (statement != 0) {
+            $finalizeBulk(statement);
+        }
+        if (changesStatement != null) {
+            changesStatement.getCache().discard(changesStatement);
+        }
+        if (transaction) {
+            $rollbackSavepoint("bulkRun");
+        }
+        // Earlier chunks may have been committed already.
+        $invalidateBulkResults(sql, row);
+    }
+
+    /**
+     * Runs wal_checkpoint on the writer. Outside of WAL mode, busy is 0 and log and checkpointed are -1.
+     *
+     * @param mode One of the BulkRunOptions checkpoint modes.
+     * @return {busy, log, checkpointed}
+     */
+    private final JSONObject $checkpoint(String mode) throws JSONException, SqliteException {
+        String[] result = $writer.executeRows("PRAGMA wal_checkpoint(" + mode + ")").get(0);
+        JSONObject checkpoint = new JSONObject();
+        checkpoint.put("busy", Long.parseLong(result[0]));
+        checkpoint.put("log", Long.parseLong(result[1]));
+        checkpoint.put("checkpointed", Long.parseLong(result[2]));
+        return checkpoint;
+    }
+
+    /**
+     * Streams the rows of a file into a table through multi-row INSERT statements like bulkRun, without the values
+     * passing through JS. Each batch of rows is committed in a savepoint, which nests into the open transaction, if any.
+     * A batch that fails is rolled back, while the batches committed before it are kept. The error details include the
+     * line of the last row read, which ends the chunk that failed, and the number of rows committed before the failure.
+     *
+     * @param token Checked before each row. The current batch is rolled back if the import is cancelled or times out.
+     * @return {rows, changes}, where changes does not count rows skipped by the conflict clause.
+     */
+    public JSONObject importFile(FileImporter importer, CancellationToken token) throws JSONException, SqliteException {
+        String[] columns = importer.getColumns();
+        int batchSize = importer.getBatchSize();
+        int chunkSize = Math.min(MAX_VARIABLE_COUNT / columns.length, batchSize);
+        if (chunkSize < 1) {
+            throw new SqliteException(Error.DOMAIN, "An import can not have more than " + MAX_VARIABLE_COUNT + " columns", Error.INVALID_IMPORT_OPTION);
+        }
+
+        String sql = importer.getInsertSql();
+        StringBuilder row = $buildBulkRow(columns.length);
+        Object[] values = new Object[chunkSize * columns.length];
+        long rows = 0;
+        long changes = 0;
+
+        importer.open($getBlobColumns(importer.getTable(), columns));
+
+        long statement = 0;
+        long lastChunkStatement = 0;
+        int lastChunkSize = 0;
+        CachedStatement changesStatement = null;
         try {
-            this.$bindVars(statement, vars);
+            statement = $prepareBulk(sql + $buildBulkValues(row, chunkSize));
+            changesStatement = $prepareStatement($writer, "SELECT changes()");
+            long changesHandle = changesStatement.getStatement();
 
-            JSONArray results = new JSONArray();
-            int columnCount = Sqlite.columnCount(statement);
+            boolean more = true;
+            while (more) {
+                int batchRows = 0;
+                int chunkRows = 0;
+                run("SAVEPOINT importFile", null);
+                try {
+                    while (batchRows < batchSize) {
+                        token.check();
+                        if (!importer.readRow(values, chunkRows * columns.length)) {
+                            more = false;
+                            break;
+                        }
+                        batchRows++;
 
-            while (true) {
-                int result = Sqlite.step(statement);
+                        if (++chunkRows == chunkSize) {
+                            changes += $stepImportChunk(statement, values, chunkRows * columns.length, changesHandle);
+                            chunkRows = 0;
+                        }
+                    }
 
-                if (result == Statement.ROW) {
-                    results.put($buildRowObject(statement, columnCount));
-                } else {
-                    break;
+                    if (chunkRows > 0) {
+                        // The last chunk of every batch has the same size, except at the end of the file.
+                        if (chunkRows != lastChunkSize) {
+                            if (lastChunkStatement != 0) {
+                                $finalizeBulk(lastChunkStatement);
+                                lastChunkStatement = 0;
+                            }
+                            lastChunkStatement = $prepareBulk(sql + $buildBulkValues(row, chunkRows));
+                            lastChunkSize = chunkRows;
+                        }
+                        changes += $stepImportChunk(lastChunkStatement, values, chunkRows * columns.length, changesHandle);
+                    }
+
+                    run("RELEASE SAVEPOINT importFile", null);
+                }
+                catch (SqliteException ex) {
+                    $rollbackSavepoint("importFile");
+
+                    JSONObject details = new JSONObject();
+                    details.put(Error.QUERY_KEY, sql);
+                    details.put("line", importer.getLine());
+                    details.put("rows", rows);
+                    ex.setDetails(details);
+                    throw ex;
+                }
+                catch (JSONException ex) {
+                    $rollbackSavepoint("importFile");
+                    throw ex;
+                }
+
+                if (batchRows > 0) {
+                    rows += batchRows;
+                    importer.reportProgress(rows);
                 }
             }
 
-            Sqlite.finalize(statement);
+            $releaseStatement(changesStatement);
+            changesStatement = null;
+        }
+        finally {
+            if (changesStatement != null) {
+                changesStatement.getCache().discard(changesStatement);
+            }
+            if (statement != 0) {
+                $finalizeBulk(statement);
+            }
+            if (lastChunkStatement != 0) {
+                $finalizeBulk(lastChunkStatement);
+            }
+            importer.close();
 
-            return results;
+            if (rows > 0 && $resultCache != null) {
+                $invalidateResults("INSERT", sql + "VALUES " + row);
+            }
+        }
+
+        JSONObject response = new JSONObject();
+        response.put("rows", rows);
+        response.put("changes", changes);
+        return response;
+    }
+
+    /**
+     * Finds which of the columns have BLOB affinity, so that their CSV fields can be decoded from base64.
+     */
+    private final boolean[] $getBlobColumns(String table, String[] columns) throws SqliteException {
+        HashMap<String, Boolean> types = new HashMap<String, Boolean>();
+        for (String[] info : $writer.executeRows("PRAGMA table_info(\"" + table.replace("\"", "\"\"") + "\")")) {
+            // Columns are cid, name, type, notnull, dflt_value and pk.
+            String type = info[2] == null ? "" : info[2].toUpperCase(Locale.ROOT);
+            types.put(info[1], type.contains("BLOB"));
+        }
+
+        boolean[] blobColumns = new boolean[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            Boolean blob = types.get(columns[i]);
+            blobColumns[i] = blob != null && blob;
+        }
+        return blobColumns;
+    }
+
+    private final long $prepareBulk(String sql) throws JSONException, SqliteException {
+        try {
+            return Sqlite.prepare($handle, sql);
         }
         catch (SqliteException ex) {
-            Sqlite.finalize(statement);
             JSONObject details = new JSONObject();
             details.put(Error.QUERY_KEY, sql);
             ex.setDetails(details);
@@ -142,16 +1878,68 @@ public class Database {
         }
     }
 
-    public void bulkRun(String sql, JSONArray vars) throws JSONException, SqliteException {
-        // Prepare VALUES string
-        int rows = vars.length();
-        // It is invalid to have a variable number of columns, so assume the column count is the same across all rows is okay.
-        int columns = vars.getJSONArray(0).length();
+    private final void $finalizeBulk(long statement) {
+        try {
+            Sqlite.finalize(statement);
+        }
+        catch (SqliteException ex) {
+            // finalize only reports the error of the most recent step, which has already been thrown.
+        }
+    }
 
-        int chunkSize = (int)Math.floor((double)MAX_VARIABLE_COUNT / (double)columns);
-        int iterationsRequired = (int)Math.ceil((double)rows / (double)chunkSize);
-        int lastIterationLength = rows - (chunkSize * (iterationsRequired - 1));
+    /**
+     * Binds the first count values, runs the statement and returns the number of rows it inserted.
+     */
+    private final long $stepImportChunk(long statement, Object[] values, int count, long changesHandle) throws JSONException, SqliteException {
+        Sqlite.reset(statement);
+        for (int i = 0; i < count; i++) {
+            // index is 1-base: https://www.sqlite.org/c3ref/bind_blob.html
+            int index = i + 1;
+            Object value = values[i];
+            values[i] = null;
+
+            if (value == null) {
+                Sqlite.bindNullWithIndex(statement, index);
+            }
+            else if (value instanceof String) {
+                Sqlite.bindStringWithIndex(statement, index, (String)value);
+            }
+            else if (value instanceof Integer) {
+                Sqlite.bindIntWithIndex(statement, index, ((Integer)value).longValue());
+            }
+            else if (value instanceof Long) {
+                Sqlite.bindIntWithIndex(statement, index, (Long)value);
+            }
+            else if (value instanceof Number) {
+                Sqlite.bindDoubleWithIndex(statement, index, ((Number)value).doubleValue());
+            }
+            else if (value instanceof Boolean) {
+                Sqlite.bindIntWithIndex(statement, index, ((Boolean)value) ? 1 : 0);
+            }
+            else if (value instanceof byte[]) {
+                Sqlite.bindBlobWithIndex(statement, index, (byte[])value);
+            }
+            else if (value instanceof JSONObject) {
+                // This is a complex object, such as an object representing binary data.
+                Sqlite.bindBlobWithIndex(statement, index, $parseBlob((JSONObject)value));
+            }
+            else {
+                // Nested arrays are stored as JSON text, which the JSON functions can read.
+                Sqlite.bindStringWithIndex(statement, index, value.toString());
+            }
+        }
+        Sqlite.step(statement);
+
+        Sqlite.step(changesHandle);
+        long changes = Sqlite.getInt(changesHandle, 0);
+        Sqlite.reset(changesHandle);
+        return changes;
+    }
 
+    /**
+     * @return (?,?) with one placeholder per column.
+     */
+    private static final StringBuilder $buildBulkRow(int columns) {
         /*
              (columns * 2) - last comma + ( and )
              (?,?)
@@ -160,7 +1948,6 @@ public class Database {
              5
          */
         int rowStringCapacity = (columns * 2) - 1 + 2;
-        // Each row of values will look the exact same while they are unbounded. For that reason, let's prepare a string that we can re-use.
         StringBuilder row = new StringBuilder(rowStringCapacity);
         row.append('(');
         for (int i = 0; i < columns; ++i) {
@@ -170,7 +1957,14 @@ public class Database {
             }
         }
         row.append(')');
+        return row;
+    }
 
+    /**
+     * @param row A row built by $buildBulkRow.
+     * @return VALUES (?,?),(?,?) with the row repeated rows times.
+     */
+    private static final StringBuilder $buildBulkValues(StringBuilder row, int rows) {
         /*
              (chunked rows * rowStringCapacity) + commas - last comma + "VALUES "
              VALUES (?,?),(?,?)
@@ -178,80 +1972,266 @@ public class Database {
              10 + 8
              18
          */
-        int valuesStringCapacity = (chunkSize * rowStringCapacity) + chunkSize - 1 + 7;
-        int lastIterationValuesStringCapacity = (lastIterationLength * rowStringCapacity) + lastIterationLength - 1 + 7;
+        int valuesStringCapacity = (rows * row.length()) + rows - 1 + 7;
 
         // Use our prepared re-useable row string to actually prepare the VALUES string.
         StringBuilder values = new StringBuilder(valuesStringCapacity);
         values.append("VALUES ");
-        for (int i = 0; i < chunkSize; ++i) {
+        for (int i = 0; i < rows; ++i) {
             values.append(row);
-            if ((i + 1) < chunkSize) {
+            if ((i + 1) < rows) {
                 values.append(',');
             }
         }
+        return values;
+    }
+
+    /**
+     * Bulk inserts do not go through the statement cache, so they invalidate cached results here.
+     * The tables are worked out from a single row version of the statement, so that it is analyzed once.
+     */
+    private final void $invalidateBulkResults(String sql, StringBuilder row) {
+        if ($resultCache != null) {
+            String rowSql = sql.replaceFirst(":BulkInsertValue", "VALUES " + row);
+            $invalidateResults($getLeadingKeyword(rowSql), rowSql);
+        }
+    }
 
-        StringBuilder lastIterationValues = new StringBuilder(lastIterationValuesStringCapacity);
-        lastIterationValues.append("VALUES ");
-        for (int i = 0; i < lastIterationLength; ++i) {
-            lastIterationValues.append(row);
-            if ((i + 1) < lastIterationLength) {
-                lastIterationValues.append(',');
+    /**
+     * Picks the connection to run the statement on.
+     *
+     * SELECT statements run on a reader when the scheduler gave their task one. The scheduler only does so while
+     * a reader is idle and the writer has no transaction open, so reads during a transaction see its uncommitted
+     * changes. Everything else runs on the writer, which the scheduler hands to one task at a time.
+     */
+    private final Connection $acquireConnection(String sql) {
+        if (isParallelReadable(sql) && $scheduler.isOnReader()) {
+            Connection reader = $readers.acquire();
+            if (reader != null) {
+                synchronized ($transactionLock) {
+                    $readerQueries++;
+                }
+                return reader;
             }
         }
 
-        String chunkSql = sql.replaceFirst(":BulkInsertValue", values.toString());
+        synchronized ($transactionLock) {
+            $writerQueries++;
+        }
+        return $writer;
+    }
 
-        long statement;
-        try {
-            statement = Sqlite.prepare($handle, chunkSql);
+    private final void $releaseConnection(Connection connection) {
+        if (connection != $writer) {
+            $readers.release(connection);
         }
-        catch (SqliteException ex) {
-            JSONObject details = new JSONObject();
-            details.put(Error.QUERY_KEY, chunkSql);
-            ex.setDetails(details);
-            throw ex;
+    }
+
+    /**
+     * Tracks whether the writer has a transaction open, based on statements that completed successfully.
+     *
+     * When the state cannot be known exactly, such as releasing an outer savepoint that also releases inner
+     * savepoints, it errs on the side of reporting an open transaction. That only routes reads to the writer.
+     */
+    private final void $trackTransaction(String keyword, String sql) {
+        synchronized ($transactionLock) {
+            switch (keyword) {
+                case "BEGIN":
+                    $inTransaction = true;
+                    break;
+                case "SAVEPOINT":
+                    $savepointDepth++;
+                    break;
+                case "RELEASE":
+                    if ($savepointDepth > 0) {
+                        $savepointDepth--;
+                    }
+                    break;
+                case "COMMIT":
+                case "END":
+                    $inTransaction = false;
+                    $savepointDepth = 0;
+                    break;
+                case "ROLLBACK":
+                    // ROLLBACK TO only rewinds to a savepoint and leaves the transaction open.
+                    if (!ROLLBACK_TO.matcher(sql).find()) {
+                        $inTransaction = false;
+                        $savepointDepth = 0;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Returns the first keyword of the statement in upper case, skipping whitespace and comments.
+     */
+    private static final String $getLeadingKeyword(String sql) {
+        int i = 0;
+        int length = sql.length();
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            }
+            else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                while (i < length && sql.charAt(i) != '\n') {
+                    i++;
+                }
+            }
+            else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end == -1 ? length : end + 2;
+            }
+            else {
+                break;
+            }
         }
 
-        for (int i = 0; i < iterationsRequired; ++i) {
-            int varsStartIndex = i * chunkSize;
-            int varsEndIndex;
+        int start = i;
+        while (i < length && Character.isLetter(sql.charAt(i))) {
+            i++;
+        }
 
-            if (i + 1 == iterationsRequired) { // This is meant to run on the last iteration
-                varsEndIndex = varsStartIndex + lastIterationLength;
-                chunkSql = sql.replaceFirst(":BulkInsertValue", lastIterationValues.toString());
-                try {
-                    Sqlite.finalize(statement); // Finalize chunkSql statement.
-                    statement = Sqlite.prepare($handle, chunkSql);
+        return sql.substring(start, i).toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Rewrites the array parameters of the statement in a single pass over the SQL.
+     *
+     * By default, each occurrence of an array parameter :key is replaced with one parameter per element,
+     * :$key_0,:$key_1,..., so the SQL text depends on the length of the array. When useJson is true,
+     * each occurrence is replaced with a json_each subquery over the array bound as a single JSON text value,
+     * so the statement is the same for any length. Parameters inside string literals, quoted identifiers and
+     * comments are left untouched. vars is updated with the parameters that replace the array parameters.
+     */
+    private final String $expandArrayParameters(String sql, JSONObject vars, boolean useJson) throws JSONException, SqliteException {
+        if (vars == null) {
+            return sql;
+        }
+
+        HashMap<String, String> replacements = null;
+        Iterator<String> keys = vars.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            if (vars.get(key) instanceof JSONArray) {
+                if (replacements == null) {
+                    replacements = new HashMap<>();
                 }
-                catch (SqliteException ex) {
-                    JSONObject details = new JSONObject();
-                    details.put(Error.QUERY_KEY, chunkSql);
-                    ex.setDetails(details);
-                    throw ex;
+                replacements.put(key, null);
+            }
+        }
+
+        if (replacements == null) {
+            return sql;
+        }
+
+        for (String key : new ArrayList<>(replacements.keySet())) {
+            JSONArray value = (JSONArray)vars.remove(key);
+            StringBuilder replacement = new StringBuilder();
+
+            if (useJson) {
+                for (int vi = 0, vlength = value.length(); vi < vlength; ++vi) {
+                    Object element = value.get(vi);
+                    if (element instanceof JSONObject || element instanceof JSONArray) {
+                        throw new SqliteException(Error.DOMAIN, "Unhandled Parameter Type in array \"" + key + "\". Only text, numbers and null can be bound as JSON.", Error.UNHANDLED_PARAMETER_TYPE);
+                    }
                 }
+                vars.put(key, value.toString());
+                replacement.append("SELECT value FROM json_each(:");
+                replacement.append(key);
+                replacement.append(')');
             }
             else {
-                varsEndIndex = (i + 1) * chunkSize;
+                for (int vi = 0, vlength = value.length(); vi < vlength; ++vi) {
+                    String paramName = "$" + key + "_" + vi;
+                    vars.put(paramName, value.get(vi));
+                    if (vi > 0) {
+                        replacement.append(',');
+                    }
+                    replacement.append(':');
+                    replacement.append(paramName);
+                }
             }
 
-            // We create a new try-catch here because it's unsafe to call finalize on a failed statement.
-            try {
-                Sqlite.reset(statement);
-                this.$bindBulkVars(statement, vars, varsStartIndex, varsEndIndex);
-                Sqlite.step(statement);
+            replacements.put(key, replacement.toString());
+        }
+
+        StringBuilder out = null;
+        int copied = 0;
+        int i = 0;
+        int length = sql.length();
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                // Quotes are escaped by doubling them, which is the same as closing and reopening the literal.
+                int end = sql.indexOf(c, i + 1);
+                i = end == -1 ? length : end + 1;
             }
-            catch (SqliteException ex) {
-                Sqlite.finalize(statement);
-                JSONObject details = new JSONObject();
-                details.put(Error.QUERY_KEY, chunkSql);
-                details.put("iteration", i);
-                ex.setDetails(details);
-                throw ex;
+            else if (c == '[') {
+                int end = sql.indexOf(']', i + 1);
+                i = end == -1 ? length : end + 1;
+            }
+            else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i + 2);
+                i = end == -1 ? length : end + 1;
+            }
+            else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end == -1 ? length : end + 2;
+            }
+            else if (c == ':') {
+                int end = i + 1;
+                while (end < length && $isIdentifierChar(sql.charAt(end))) {
+                    end++;
+                }
+
+                String replacement = end > i + 1 ? replacements.get(sql.substring(i + 1, end)) : null;
+                if (replacement != null) {
+                    if (out == null) {
+                        out = new StringBuilder(sql.length() + replacement.length());
+                    }
+                    out.append(sql, copied, i);
+                    out.append(replacement);
+                    copied = end;
+                }
+                i = Math.max(end, i + 1);
             }
+            else {
+                i++;
+            }
+        }
+
+        if (out == null) {
+            return sql;
         }
 
-        Sqlite.finalize(statement);
+        out.append(sql, copied, length);
+        return out.toString();
+    }
+
+    /**
+     * Characters SQLite accepts in a parameter name after the colon.
+     */
+    private static final boolean $isIdentifierChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c > 0x7f;
+    }
+
+    /**
+     * Checks out a statement from the connection's cache without binding anything.
+     */
+    private final CachedStatement $prepareStatement(Connection connection, String sql) throws JSONException, SqliteException {
+        try {
+            return connection.getStatementCache().acquire(sql);
+        }
+        catch (SqliteException ex) {
+            JSONObject details = new JSONObject();
+            details.put(Error.QUERY_KEY, sql);
+            ex.setDetails(details);
+            throw ex;
+        }
     }
 
     private final void $bindVars(long statement, JSONObject vars) throws JSONException, SqliteException {
@@ -278,22 +2258,7 @@ public class Database {
                 }
                 else if (value instanceof JSONObject) {
                     // This is a complex object, such as an object representing  binary data.
-                    JSONObject v = (JSONObject)value;
-                    String objType = v.getString("type");
-                    if (objType.equals("bytearray")) {
-                        JSONArray jByteArray = v.getJSONArray("value");
-                        byte[] bytes = new byte[jByteArray.length()];
-                        for (int i = 0; i < jByteArray.length(); i++) {
-                            // The 0xFF mask is to trim off any value that is larger than 8 bits.
-                            // The expected array should be a int8 array.
-                            bytes[i] = (byte)(((int)jByteArray.get(i)) & 0xFF);
-                        }
-
-                        Sqlite.bindBlob(statement, key, bytes);
-                    }
-                    else {
-                        throw new SqliteException(Error.DOMAIN, "Unhandled Complex Parameter Object for type \"" + objType + "\"", Error.UNHANDLED_PARAMETER_TYPE);
-                    }
+                    Sqlite.bindBlob(statement, key, $parseBlob((JSONObject)value));
                 }
                 else {
                     throw new SqliteException(Error.DOMAIN, "Unhandled Parameter Type for key \"" + key + "\"", Error.UNHANDLED_PARAMETER_TYPE);
@@ -328,22 +2293,7 @@ public class Database {
                 }
                 else if (value instanceof JSONObject) {
                     // This is a complex object, such as an object representing  binary data.
-                    JSONObject v = (JSONObject)value;
-                    String objType = v.getString("type");
-                    if (objType.equals("bytearray")) {
-                        JSONArray jByteArray = v.getJSONArray("value");
-                        byte[] bytes = new byte[jByteArray.length()];
-                        for (int i = 0; i < jByteArray.length(); i++) {
-                            // The 0xFF mask is to trim off any value that is larger than 8 bits.
-                            // The expected array should be a int8 array.
-                            bytes[i] = (byte)(((int)jByteArray.get(i)) & 0xFF);
-                        }
-
-                        Sqlite.bindBlobWithIndex(statement, index, bytes);
-                    }
-                    else {
-                        throw new SqliteException(Error.DOMAIN, "Unhandled Complex Parameter Object for type \"" + objType + "\"", Error.UNHANDLED_PARAMETER_TYPE);
-                    }
+                    Sqlite.bindBlobWithIndex(statement, index, $parseBlob((JSONObject)value));
                 }
                 else {
                     throw new SqliteException(Error.DOMAIN, "Unhandled Parameter Type for value [" + x + "][" + y + "]", Error.UNHANDLED_PARAMETER_TYPE);
@@ -352,36 +2302,71 @@ public class Database {
         }
     }
 
-    private final JSONObject $buildRowObject(Long statement, int columnCount) throws JSONException, SqliteException {
+    /**
+     * Decodes a complex parameter object that represents binary data.
+     *
+     * The base64 type is preferred. The bytearray type, a JSON array with one number per byte, is kept for
+     * backwards compatibility.
+     */
+    private final byte[] $parseBlob(JSONObject v) throws JSONException, SqliteException {
+        String objType = v.getString("type");
+        if (objType.equals(QueryOptions.BLOB_FORMAT_BASE64)) {
+            try {
+                return Base64.decode(v.getString("value"), Base64.DEFAULT);
+            }
+            catch (IllegalArgumentException ex) {
+                throw new SqliteException(Error.DOMAIN, "Invalid base64 blob parameter", Error.BIND_PARAMETER_ERROR);
+            }
+        }
+        else if (objType.equals(QueryOptions.BLOB_FORMAT_BYTEARRAY)) {
+            JSONArray jByteArray = v.getJSONArray("value");
+            byte[] bytes = new byte[jByteArray.length()];
+            for (int i = 0; i < jByteArray.length(); i++) {
+                // The 0xFF mask is to trim off any value that is larger than 8 bits.
+                // The expected array should be a int8 array.
+                bytes[i] = (byte)(jByteArray.getInt(i) & 0xFF);
+            }
+            return bytes;
+        }
+        else {
+            throw new SqliteException(Error.DOMAIN, "Unhandled Complex Parameter Object for type \"" + objType + "\"", Error.UNHANDLED_PARAMETER_TYPE);
+        }
+    }
+
+    private final JSONObject $buildRowObject(long statement, int columnCount, QueryOptions options) throws JSONException, SqliteException {
         JSONObject row = new JSONObject();
 
         for (int i = 0; i < columnCount; i++) {
-            int columnType = Sqlite.columnType(statement, i);
-            String columnName = Sqlite.columnName(statement, i);
-            switch (columnType) {
-                case ColumnType.INTEGER:
-                    row.put(columnName, Sqlite.getInt(statement, i));
-                    break;
-                case ColumnType.FLOAT:
-                    row.put(columnName, Sqlite.getDouble(statement, i));
-                    break;
-                case ColumnType.TEXT:
-                    row.put(columnName, Sqlite.getString(statement, i));
-                    break;
-                case ColumnType.BLOB:
-                    row.put(columnName, $parseByteArray(Sqlite.getBlob(statement, i)));
-                    break;
-                case ColumnType.NULL:
-                    row.put(columnName, JSONObject.NULL);
-                    break;
-                default:
-                    throw new SqliteException(Error.DOMAIN, "Unhandled Column Type \"" + Integer.toString(columnType) + "\"", Error.UNSUPPORTED_COLUMN_TYPE);
-            }
+            row.put(Sqlite.columnName(statement, i), $getColumnValue(statement, i, options));
         }
 
         return row;
     }
 
+    private final Object $getColumnValue(long statement, int column, QueryOptions options) throws JSONException, SqliteException {
+        int columnType = Sqlite.columnType(statement, column);
+        switch (columnType) {
+            case ColumnType.INTEGER:
+                return Sqlite.getInt(statement, column);
+            case ColumnType.FLOAT:
+                return Sqlite.getDouble(statement, column);
+            case ColumnType.TEXT:
+                return Sqlite.getString(statement, column);
+            case ColumnType.BLOB:
+                if (options.isBase64Blobs()) {
+                    JSONObject blob = new JSONObject();
+                    blob.put("type", QueryOptions.BLOB_FORMAT_BASE64);
+                    blob.put("value", Base64.encodeToString(Sqlite.getBlob(statement, column), Base64.NO_WRAP));
+                    return blob;
+                }
+                return $parseByteArray(Sqlite.getBlob(statement, column));
+            case ColumnType.NULL:
+                return JSONObject.NULL;
+            default:
+                throw new SqliteException(Error.DOMAIN, "Unhandled Column Type \"" + Integer.toString(columnType) + "\"", Error.UNSUPPORTED_COLUMN_TYPE);
+        }
+    }
+
     private final JSONArray $parseByteArray(byte[] bytes) throws JSONException {
         JSONArray blob = new JSONArray();
 
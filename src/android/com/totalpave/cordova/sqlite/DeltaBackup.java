@@ -0,0 +1,514 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+package com.totalpave.cordova.sqlite;
+
+import com.totalpave.sqlite3.SqliteException;
+
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Incremental backups, kept in a directory as a base file holding every page of the database followed by delta
+ * files holding only the pages that changed since the previous backup.
+ *
+ * The binding exposes neither the sqlite3_backup API nor the sqlite_dbpage table, so pages are read from the database
+ * file itself while an IMMEDIATE transaction keeps other writers out. In WAL mode the WAL is checkpointed and truncated
+ * first, so the file holds every committed page. The CRC32 of every page at the last backup is kept in a .crc file
+ * named by the manifest, and a page goes into the next delta when its CRC32 differs. Each backup writes its entry and
+ * .crc file under new names, and manifest.json, which names them, is replaced last. Replacing the manifest is the
+ * only step that changes the chain, so a backup that fails part way leaves the previous chain in place. Files the new
+ * manifest no longer names are deleted after it.
+ *
+ * A restore writes the base and every delta into a temporary database, verifying the CRC32 of every file and page
+ * along the way, checks the result against the .crc file and PRAGMA quick_check, then copies it into the database the
+ * same way as Backup.restore.
+ */
+public class DeltaBackup {
+    public static final int DEFAULT_MAX_DELTAS = 7;
+
+    private static final String MANIFEST = "manifest.json";
+    private static final String TEMP_SUFFIX = "-temp";
+    private static final int VERSION = 1;
+    private static final byte[] MAGIC = "TPDELTA1".getBytes(StandardCharsets.US_ASCII);
+    // Writers that commit between the checkpoint and the transaction leave frames in the WAL, so it is tried again.
+    private static final int SNAPSHOT_ATTEMPTS = 5;
+
+    // SQLITE_OPEN_READWRITE
+    private static final int OPEN_READ_WRITE = 0x00000002;
+
+    private DeltaBackup() {}
+
+    /**
+     * Adds a backup of the source database to the chain in the directory. A base is written when the directory holds no
+     * valid chain, when the page size changed, or once the chain has maxDeltas deltas. A delta is written otherwise.
+     *
+     * @param progressInterval Time in milliseconds between progress reports. 0 or less disables progress reports.
+     * @return {type, pages, pageCount, bytes, deltas}, where pages is the number of pages written and bytes the size of
+     *         the file written.
+     */
+    public static JSONObject backup(File source, File directory, int busyTimeout, int maxDeltas, long progressInterval, ScheduledExecutorService timer, Backup.ProgressListener listener) throws SqliteException, JSONException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new SqliteException(Error.DOMAIN, "Could not create the backup directory " + directory.getAbsolutePath(), Error.IO_ERROR);
+        }
+
+        JSONObject manifest = $readManifest(directory);
+        int[] previous = null;
+        if (manifest != null && manifest.getJSONArray("entries").length() <= maxDeltas) {
+            try {
+                previous = $readChecksums(directory, manifest);
+            }
+            catch (SqliteException ex) {
+                Log.w(SQLite.LOG_TAG, "Writing a new base backup: " + ex.getMessage());
+            }
+        }
+
+        long sequence = manifest == null ? 0 : manifest.getLong("sequence");
+        AtomicLong completed = new AtomicLong(0);
+        ScheduledFuture<?> sampler = null;
+        File entryFile = null;
+        File entryTemp = null;
+        CRC32 entryCrc = new CRC32();
+        int[] checksums;
+        int pageSize;
+        long pages;
+        boolean base;
+
+        Connection connection = new Connection(source, OPEN_READ_WRITE, 0);
+        try {
+            connection.setBusyTimeout(busyTimeout);
+            $beginSnapshot(connection, source);
+            try {
+                pageSize = Integer.parseInt(connection.executeScalar("PRAGMA page_size"));
+                int pageCount = Integer.parseInt(connection.executeScalar("PRAGMA page_count"));
+                base = previous == null || manifest.getInt("pageSize") != pageSize;
+                long totalBytes = (long)pageCount * pageSize;
+
+                if (listener != null && progressInterval > 0) {
+                    sampler = timer.scheduleAtFixedRate(new Runnable() {
+                        public void run() {
+                            try {
+                                listener.onProgress($createProgress(completed.get(), totalBytes));
+                            }
+                            catch (JSONException ex) {
+                                Log.e(SQLite.LOG_TAG, "Unable to report backup progress", ex);
+                            }
+                        }
+                    }, progressInterval, progressInterval, TimeUnit.MILLISECONDS);
+                }
+
+                entryFile = new File(directory, String.format(Locale.ROOT, "%06d.%s", sequence, base ? "base" : "delta"));
+                entryTemp = new File(entryFile.getAbsolutePath() + TEMP_SUFFIX);
+                checksums = new int[pageCount];
+                pages = $writePages(source, entryTemp, pageSize, pageCount, base ? null : previous, checksums, entryCrc, completed);
+            }
+            finally {
+                // Nothing was written. Ending the transaction lets the writers in again.
+                connection.executeScalar("ROLLBACK");
+            }
+        }
+        catch (IOException ex) {
+            if (entryTemp != null) {
+                entryTemp.delete();
+            }
+            throw new SqliteException(Error.DOMAIN, "Could not write the backup: " + ex.getMessage(), Error.IO_ERROR);
+        }
+        catch (SqliteException ex) {
+            if (entryTemp != null) {
+                entryTemp.delete();
+            }
+            throw ex;
+        }
+        finally {
+            if (sampler != null) {
+                sampler.cancel(false);
+            }
+            connection.close();
+        }
+
+        JSONObject entry = new JSONObject();
+        entry.put("file", entryFile.getName());
+        entry.put("type", base ? "base" : "delta");
+        entry.put("pageCount", checksums.length);
+        entry.put("pages", pages);
+        entry.put("bytes", entryTemp.length());
+        entry.put("crc32", entryCrc.getValue());
+        entry.put("createdAt", System.currentTimeMillis());
+
+        JSONArray entries = base ? new JSONArray() : manifest.getJSONArray("entries");
+        entries.put(entry);
+        String checksumsFile = String.format(Locale.ROOT, "%06d.crc", sequence);
+        JSONObject next = new JSONObject();
+        next.put("version", VERSION);
+        next.put("pageSize", pageSize);
+        next.put("sequence", sequence + 1);
+        next.put("entries", entries);
+        next.put("checksums", checksumsFile);
+
+        try {
+            // Neither file is named by the current manifest, so the previous chain is intact until the manifest is replaced.
+            $moveIntoPlace(entryTemp, entryFile);
+            next.put("checksumsCrc32", $writeChecksums(new File(directory, checksumsFile), checksums));
+            // The manifest is the commit point of the backup.
+            $writeFile(new File(directory, MANIFEST), next.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        catch (IOException ex) {
+            entryFile.delete();
+            new File(directory, checksumsFile).delete();
+            throw new SqliteException(Error.DOMAIN, "Could not write the backup: " + ex.getMessage(), Error.IO_ERROR);
+        }
+
+        if (manifest != null) {
+            String obsoleteChecksums = manifest.optString("checksums", null);
+            if (obsoleteChecksums != null) {
+                new File(directory, obsoleteChecksums).delete();
+            }
+            if (base) {
+                JSONArray obsolete = manifest.getJSONArray("entries");
+                for (int i = 0, length = obsolete.length(); i < length; ++i) {
+                    new File(directory, obsolete.getJSONObject(i).getString("file")).delete();
+                }
+            }
+        }
+
+        JSONObject result = new JSONObject();
+        result.put("type", entry.getString("type"));
+        result.put("pages", pages);
+        result.put("pageCount", checksums.length);
+        result.put("bytes", entry.getLong("bytes"));
+        result.put("deltas", entries.length() - 1);
+        return result;
+    }
+
+    /**
+     * Rebuilds the database from the chain in the directory, verifies it, and replaces the content of the destination
+     * database with it. Progress is reported after each table is copied, as for Backup.restore.
+     */
+    public static void restore(File destination, File directory, int busyTimeout, Backup.ProgressListener listener) throws SqliteException, JSONException {
+        JSONObject manifest = $readManifest(directory);
+        if (manifest == null) {
+            throw new SqliteException(Error.DOMAIN, "No incremental backup found in " + directory.getAbsolutePath(), Error.IO_ERROR);
+        }
+        int pageSize = manifest.getInt("pageSize");
+        int[] checksums = $readChecksums(directory, manifest);
+
+        File assembled = new File(destination.getAbsolutePath() + "-restore");
+        $deleteDatabase(assembled);
+        try {
+            try (RandomAccessFile out = new RandomAccessFile(assembled, "rw")) {
+                JSONArray entries = manifest.getJSONArray("entries");
+                for (int i = 0, length = entries.length(); i < length; ++i) {
+                    $applyEntry(directory, entries.getJSONObject(i), pageSize, out);
+                }
+                $verifyPages(out, pageSize, checksums);
+            }
+            catch (IOException ex) {
+                throw new SqliteException(Error.DOMAIN, "Could not rebuild the backup: " + ex.getMessage(), Error.IO_ERROR);
+            }
+
+            Connection check = new Connection(assembled, OPEN_READ_WRITE, 0);
+            try {
+                String result = check.executeScalar("PRAGMA quick_check");
+                if (!"ok".equals(result)) {
+                    throw new SqliteException(Error.DOMAIN, "The rebuilt backup failed PRAGMA quick_check: " + result, Error.CORRUPT_BACKUP);
+                }
+            }
+            finally {
+                check.close();
+            }
+
+            Backup.restore(destination, assembled, busyTimeout, listener);
+        }
+        finally {
+            $deleteDatabase(assembled);
+        }
+    }
+
+    /**
+     * Starts an IMMEDIATE transaction once the database file holds every committed page.
+     */
+    private static void $beginSnapshot(Connection connection, File source) throws SqliteException {
+        boolean wal = "wal".equalsIgnoreCase(connection.executeScalar("PRAGMA journal_mode"));
+        File walFile = new File(source.getAbsolutePath() + "-wal");
+        for (int attempt = 0; attempt < SNAPSHOT_ATTEMPTS; ++attempt) {
+            if (wal) {
+                connection.executeScalar("PRAGMA wal_checkpoint(TRUNCATE)");
+            }
+            connection.executeScalar("BEGIN IMMEDIATE TRANSACTION");
+            if (!wal || walFile.length() == 0) {
+                return;
+            }
+            connection.executeScalar("ROLLBACK");
+        }
+        throw new SqliteException(Error.DOMAIN, "Could not checkpoint the WAL of " + source.getAbsolutePath() + " because other connections kept it in use", Error.IO_ERROR);
+    }
+
+    /**
+     * Writes every page, or the pages whose CRC32 differs from previous, with a header and a trailer.
+     * Fills checksums with the CRC32 of every page, and fileCrc with the CRC32 of the file.
+     *
+     * @return The number of pages written.
+     */
+    private static long $writePages(File source, File destination, int pageSize, int pageCount, int[] previous, int[] checksums, CRC32 fileCrc, AtomicLong completed) throws IOException {
+        byte[] page = new byte[pageSize];
+        CRC32 crc = new CRC32();
+        long written = 0;
+        try (
+            RandomAccessFile in = new RandomAccessFile(source, "r");
+            FileOutputStream file = new FileOutputStream(destination);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(file, fileCrc), pageSize * 16))
+        ) {
+            out.write(MAGIC);
+            out.writeInt(pageSize);
+            out.writeInt(pageCount);
+            for (int i = 0; i < pageCount; ++i) {
+                in.readFully(page);
+                crc.reset();
+                crc.update(page, 0, pageSize);
+                checksums[i] = (int)crc.getValue();
+                if (previous == null || i >= previous.length || previous[i] != checksums[i]) {
+                    // Page numbers start at 1, so 0 marks the trailer.
+                    out.writeInt(i + 1);
+                    out.writeInt(checksums[i]);
+                    out.write(page);
+                    written++;
+                }
+                completed.addAndGet(pageSize);
+            }
+            out.writeInt(0);
+            out.writeLong(written);
+            out.flush();
+            file.getFD().sync();
+        }
+        return written;
+    }
+
+    /**
+     * Writes the pages of a base or delta file into the rebuilt database, after checking the CRC32 of the file against
+     * the manifest.
+     */
+    private static void $applyEntry(File directory, JSONObject entry, int pageSize, RandomAccessFile out) throws IOException, JSONException, SqliteException {
+        File file = new File(directory, entry.getString("file"));
+        if (!file.isFile()) {
+            throw new SqliteException(Error.DOMAIN, "The backup file " + file.getName() + " is missing", Error.CORRUPT_BACKUP);
+        }
+        if ($crc32(file) != entry.getLong("crc32")) {
+            throw new SqliteException(Error.DOMAIN, "The backup file " + file.getName() + " does not match its checksum", Error.CORRUPT_BACKUP);
+        }
+
+        byte[] page = new byte[pageSize];
+        byte[] magic = new byte[MAGIC.length];
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), pageSize * 16))) {
+            in.readFully(magic);
+            int filePageSize = in.readInt();
+            int pageCount = in.readInt();
+            if (!Arrays.equals(magic, MAGIC) || filePageSize != pageSize || pageCount != entry.getInt("pageCount")) {
+                throw new SqliteException(Error.DOMAIN, "The backup file " + file.getName() + " does not match the manifest", Error.CORRUPT_BACKUP);
+            }
+
+            long pages = 0;
+            int pageNumber;
+            while ((pageNumber = in.readInt()) != 0) {
+                int checksum = in.readInt();
+                in.readFully(page);
+                crc.reset();
+                crc.update(page, 0, pageSize);
+                if (pageNumber > pageCount || (int)crc.getValue() != checksum) {
+                    throw new SqliteException(Error.DOMAIN, "Page " + pageNumber + " of the backup file " + file.getName() + " is corrupt", Error.CORRUPT_BACKUP);
+                }
+                out.seek((long)(pageNumber - 1) * pageSize);
+                out.write(page);
+                pages++;
+            }
+            if (in.readLong() != pages) {
+                throw new SqliteException(Error.DOMAIN, "The backup file " + file.getName() + " is truncated", Error.CORRUPT_BACKUP);
+            }
+            // The database may have shrunk since the previous backup.
+            out.setLength((long)pageCount * pageSize);
+        }
+    }
+
+    /**
+     * Checks every page of the rebuilt database against the checksums of the last backup.
+     */
+    private static void $verifyPages(RandomAccessFile file, int pageSize, int[] checksums) throws IOException, SqliteException {
+        if (file.length() != (long)checksums.length * pageSize) {
+            throw new SqliteException(Error.DOMAIN, "The rebuilt backup has the wrong size", Error.CORRUPT_BACKUP);
+        }
+        byte[] page = new byte[pageSize];
+        CRC32 crc = new CRC32();
+        file.seek(0);
+        for (int i = 0; i < checksums.length; ++i) {
+            file.readFully(page);
+            crc.reset();
+            crc.update(page, 0, pageSize);
+            if ((int)crc.getValue() != checksums[i]) {
+                throw new SqliteException(Error.DOMAIN, "Page " + (i + 1) + " of the rebuilt backup does not match its checksum", Error.CORRUPT_BACKUP);
+            }
+        }
+    }
+
+    /**
+     * @return The manifest, or null if the directory holds no backup.
+     */
+    private static JSONObject $readManifest(File directory) throws SqliteException {
+        File file = new File(directory, MANIFEST);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            JSONObject manifest = new JSONObject(new String($readFile(file), StandardCharsets.UTF_8));
+            if (manifest.getInt("version") != VERSION) {
+                throw new SqliteException(Error.DOMAIN, "Unsupported backup version " + manifest.getInt("version"), Error.CORRUPT_BACKUP);
+            }
+            return manifest;
+        }
+        catch (IOException ex) {
+            throw new SqliteException(Error.DOMAIN, "Could not read the backup manifest: " + ex.getMessage(), Error.IO_ERROR);
+        }
+        catch (JSONException ex) {
+            throw new SqliteException(Error.DOMAIN, "The backup manifest is corrupt: " + ex.getMessage(), Error.CORRUPT_BACKUP);
+        }
+    }
+
+    /**
+     * @return The CRC32 of every page at the last backup, after checking the CRC32 of the file against the manifest.
+     */
+    private static int[] $readChecksums(File directory, JSONObject manifest) throws SqliteException, JSONException {
+        String name = manifest.optString("checksums", null);
+        if (name == null) {
+            throw new SqliteException(Error.DOMAIN, "The backup manifest names no page checksums", Error.CORRUPT_BACKUP);
+        }
+        byte[] data;
+        try {
+            data = $readFile(new File(directory, name));
+        }
+        catch (IOException ex) {
+            throw new SqliteException(Error.DOMAIN, "Could not read the page checksums: " + ex.getMessage(), Error.CORRUPT_BACKUP);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        if (crc.getValue() != manifest.getLong("checksumsCrc32") || data.length % 4 != 0) {
+            throw new SqliteException(Error.DOMAIN, "The page checksums do not match the manifest", Error.CORRUPT_BACKUP);
+        }
+        int[] checksums = new int[data.length / 4];
+        for (int i = 0; i < checksums.length; ++i) {
+            checksums[i] = ((data[i * 4] & 0xff) << 24) | ((data[i * 4 + 1] & 0xff) << 16) | ((data[i * 4 + 2] & 0xff) << 8) | (data[i * 4 + 3] & 0xff);
+        }
+        return checksums;
+    }
+
+    /**
+     * @return The CRC32 of the written file.
+     */
+    private static long $writeChecksums(File file, int[] checksums) throws IOException {
+        byte[] data = new byte[checksums.length * 4];
+        for (int i = 0; i < checksums.length; ++i) {
+            data[i * 4] = (byte)(checksums[i] >>> 24);
+            data[i * 4 + 1] = (byte)(checksums[i] >>> 16);
+            data[i * 4 + 2] = (byte)(checksums[i] >>> 8);
+            data[i * 4 + 3] = (byte)checksums[i];
+        }
+        $writeFile(file, data);
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        return crc.getValue();
+    }
+
+    /**
+     * Writes the file next to its destination, syncs it and moves it into place.
+     */
+    private static void $writeFile(File destination, byte[] data) throws IOException {
+        File temp = new File(destination.getAbsolutePath() + TEMP_SUFFIX);
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(data);
+            out.getFD().sync();
+        }
+        $moveIntoPlace(temp, destination);
+    }
+
+    private static void $moveIntoPlace(File temp, File destination) throws IOException {
+        if (!temp.renameTo(destination)) {
+            temp.delete();
+            throw new IOException("Could not move " + temp.getName() + " to " + destination.getName());
+        }
+    }
+
+    private static byte[] $readFile(File file) throws IOException {
+        try (FileInputStream in = new FileInputStream(file)) {
+            byte[] data = new byte[(int)file.length()];
+            int offset = 0;
+            while (offset < data.length) {
+                int read = in.read(data, offset, data.length - offset);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of " + file.getName());
+                }
+                offset += read;
+            }
+            return data;
+        }
+    }
+
+    private static long $crc32(File file) throws IOException {
+        byte[] buffer = new byte[65536];
+        try (CheckedInputStream in = new CheckedInputStream(new FileInputStream(file), new CRC32())) {
+            while (in.read(buffer) >= 0) {
+                // Reading updates the checksum.
+            }
+            return in.getChecksum().getValue();
+        }
+    }
+
+    private static void $deleteDatabase(File file) {
+        file.delete();
+        new File(file.getAbsolutePath() + "-wal").delete();
+        new File(file.getAbsolutePath() + "-shm").delete();
+        new File(file.getAbsolutePath() + "-journal").delete();
+    }
+
+    private static JSONObject $createProgress(long completed, long total) throws JSONException {
+        JSONObject progress = new JSONObject();
+        progress.put("event", "progress");
+        progress.put("completed", completed);
+        progress.put("total", total);
+        return progress;
+    }
+}
@@ -10,4 +10,21 @@ public class Error {
     public static final int UNSUPPORTED_COLUMN_TYPE = 3;
     public static final int DATABASE_NOT_FOUND = 4;
     public static final int IO_ERROR = 5;
+    public static final int CURSOR_NOT_FOUND = 6;
+    public static final int UNSUPPORTED_BATCH_METHOD = 7;
+    public static final int QUEUE_FULL = 8;
+    public static final int QUERY_CANCELLED = 9;
+    public static final int QUERY_TIMEOUT = 10;
+    public static final int INVALID_OPEN_OPTION = 11;
+    public static final int BLOB_NOT_FOUND = 12;
+    public static final int INVALID_BLOB_ACCESS = 13;
+    public static final int UNSUPPORTED_EXPORT_FORMAT = 14;
+    public static final int INVALID_IMPORT_OPTION = 15;
+    public static final int MALFORMED_IMPORT_FILE = 16;
+    public static final int INVALID_BULK_OPTION = 17;
+    public static final int MEMORY_LIMIT_EXCEEDED = 18;
+    public static final int WATCH_NOT_FOUND = 19;
+    public static final int INVALID_WATCH = 20;
+    public static final int CORRUPT_BACKUP = 21;
+    public static final int INVALID_BATCH_OPTIONS = 22;
 }
@@ -0,0 +1,422 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+package com.totalpave.cordova.sqlite;
+
+import android.util.Base64;
+
+import com.totalpave.sqlite3.SqliteException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Reads the rows of a UTF-8 NDJSON or CSV file one at a time, in the same formats written by ResultExporter.
+ *
+ * NDJSON values are read by their column name and CSV values by their position, or by the header line when the
+ * file has one. An unquoted empty CSV field is read as NULL. CSV fields are otherwise read as text and converted
+ * by the affinity of their column, except for BLOB columns, whose fields are decoded from base64.
+ */
+public class FileImporter {
+    public static final String FORMAT_NDJSON = ResultExporter.FORMAT_NDJSON;
+    public static final String FORMAT_CSV = ResultExporter.FORMAT_CSV;
+
+    public static final int DEFAULT_BATCH_SIZE = 10000;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String[] CONFLICT_CLAUSES = { "ABORT", "IGNORE", "REPLACE" };
+
+    private final File $source;
+    private final String $table;
+    private final String[] $columns;
+    private final boolean $csv;
+    private final boolean $header;
+    private final String $onConflict;
+    private final int $batchSize;
+    private final Backup.ProgressListener $listener;
+    private FileInputStream $stream;
+    private FileChannel $channel;
+    private BufferedReader $reader;
+    private int[] $fieldColumns;
+    private boolean[] $blobColumns;
+    private final StringBuilder $field;
+    private final ArrayList<String> $fieldList;
+    private String[] $fields;
+    private long $line;
+    private long $rowLine;
+
+    /**
+     * @param onConflict One of abort, ignore or replace, or null for abort.
+     * @param header Reads the first line of a CSV file as column names. Ignored for NDJSON.
+     * @param batchSize The number of rows committed at a time.
+     * @param listener Receives {rows, bytes, totalBytes} progress reports after each batch is committed. May be null.
+     */
+    public FileImporter(File source, String table, JSONArray columns, String format, String onConflict, boolean header, int batchSize, Backup.ProgressListener listener) throws JSONException, SqliteException {
+        if (!FORMAT_NDJSON.equals(format) && !FORMAT_CSV.equals(format)) {
+            throw new SqliteException(Error.DOMAIN, "Unsupported import format \"" + format + "\"", Error.INVALID_IMPORT_OPTION);
+        }
+        if (table == null || table.isEmpty()) {
+            throw new SqliteException(Error.DOMAIN, "An import requires a table", Error.INVALID_IMPORT_OPTION);
+        }
+        if (columns == null || columns.length() == 0) {
+            throw new SqliteException(Error.DOMAIN, "An import requires at least one column", Error.INVALID_IMPORT_OPTION);
+        }
+        if (batchSize < 1) {
+            throw new SqliteException(Error.DOMAIN, "batchSize must be at least 1", Error.INVALID_IMPORT_OPTION);
+        }
+
+        $onConflict = onConflict == null ? CONFLICT_CLAUSES[0] : onConflict.toUpperCase(Locale.ROOT);
+        boolean validConflict = false;
+        for (String clause : CONFLICT_CLAUSES) {
+            if (clause.equals($onConflict)) {
+                validConflict = true;
+                break;
+            }
+        }
+        if (!validConflict) {
+            throw new SqliteException(Error.DOMAIN, "onConflict must be one of abort, ignore or replace", Error.INVALID_IMPORT_OPTION);
+        }
+
+        $source = source;
+        $table = table;
+        $columns = new String[columns.length()];
+        for (int i = 0; i < $columns.length; i++) {
+            $columns[i] = columns.getString(i);
+        }
+        $csv = FORMAT_CSV.equals(format);
+        $header = header;
+        $batchSize = batchSize;
+        $listener = listener;
+        $field = new StringBuilder();
+        $fieldList = new ArrayList<String>();
+        $line = 0;
+    }
+
+    public String getTable() {
+        return $table;
+    }
+
+    public String[] getColumns() {
+        return $columns;
+    }
+
+    public int getBatchSize() {
+        return $batchSize;
+    }
+
+    /**
+     * @return INSERT OR <onConflict> INTO "table" ("column", ...), ready for a VALUES clause.
+     */
+    public String getInsertSql() {
+        StringBuilder sql = new StringBuilder("INSERT OR ");
+        sql.append($onConflict);
+        sql.append(" INTO ");
+        $appendIdentifier(sql, $table);
+        sql.append(" (");
+        for (int i = 0; i < $columns.length; i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            $appendIdentifier(sql, $columns[i]);
+        }
+        sql.append(") ");
+        return sql.toString();
+    }
+
+    /**
+     * Opens the file and reads the CSV header, if any.
+     *
+     * @param blobColumns Whether each of the columns has BLOB affinity. Only used for CSV files.
+     */
+    public void open(boolean[] blobColumns) throws SqliteException {
+        $blobColumns = blobColumns;
+        try {
+            $stream = new FileInputStream($source);
+            $channel = $stream.getChannel();
+            $reader = new BufferedReader(new InputStreamReader($stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+            // Skip the byte order mark some tools write at the start of UTF-8 files.
+            $reader.mark(1);
+            if ($reader.read() != '\uFEFF') {
+                $reader.reset();
+            }
+
+            if ($csv) {
+                $fieldColumns = new int[$columns.length];
+                if ($header) {
+                    $openCsvHeader();
+                }
+                else {
+                    for (int i = 0; i < $fieldColumns.length; i++) {
+                        $fieldColumns[i] = i;
+                    }
+                }
+            }
+        }
+        catch (IOException ex) {
+            close();
+            throw new SqliteException(Error.DOMAIN, ex.getMessage(), Error.IO_ERROR);
+        }
+        catch (SqliteException ex) {
+            close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Reads the next row into values, in the order of the columns.
+     *
+     * @return False once the end of the file is reached.
+     */
+    public boolean readRow(Object[] values, int offset) throws SqliteException {
+        try {
+            if ($csv) {
+                return $readCsvRow(values, offset);
+            }
+            return $readJsonRow(values, offset);
+        }
+        catch (IOException ex) {
+            throw new SqliteException(Error.DOMAIN, ex.getMessage(), Error.IO_ERROR);
+        }
+    }
+
+    /**
+     * The line number the last row read starts on, starting from 1.
+     */
+    public long getLine() {
+        return $rowLine;
+    }
+
+    public void reportProgress(long rows) throws JSONException {
+        if ($listener == null) {
+            return;
+        }
+
+        JSONObject progress = new JSONObject();
+        progress.put("event", "progress");
+        progress.put("rows", rows);
+        try {
+            // Includes what the reader has buffered ahead of the last row.
+            progress.put("bytes", $channel.position());
+        }
+        catch (IOException ex) {
+            progress.put("bytes", 0);
+        }
+        progress.put("totalBytes", $source.length());
+        $listener.onProgress(progress);
+    }
+
+    /**
+     * Safe to call more than once.
+     */
+    public void close() {
+        if ($stream != null) {
+            FileInputStream stream = $stream;
+            $stream = null;
+            $channel = null;
+            $reader = null;
+            try {
+                stream.close();
+            }
+            catch (IOException ex) {
+                // Nothing was written, so there is nothing to lose.
+            }
+        }
+    }
+
+    private final void $openCsvHeader() throws IOException, SqliteException {
+        if (!$readCsvFields()) {
+            throw new SqliteException(Error.DOMAIN, "The CSV file does not have a header line", Error.MALFORMED_IMPORT_FILE);
+        }
+
+        HashMap<String, Integer> positions = new HashMap<String, Integer>();
+        for (int i = 0; i < $fields.length; i++) {
+            if ($fields[i] != null && !positions.containsKey($fields[i])) {
+                positions.put($fields[i], i);
+            }
+        }
+
+        for (int i = 0; i < $columns.length; i++) {
+            Integer position = positions.get($columns[i]);
+            if (position == null) {
+                throw new SqliteException(Error.DOMAIN, "The CSV header does not have the column \"" + $columns[i] + "\"", Error.MALFORMED_IMPORT_FILE);
+            }
+            $fieldColumns[i] = position;
+        }
+    }
+
+    private final boolean $readJsonRow(Object[] values, int offset) throws IOException, SqliteException {
+        String text;
+        do {
+            text = $reader.readLine();
+            if (text == null) {
+                return false;
+            }
+            $line++;
+        } while (text.trim().isEmpty());
+        $rowLine = $line;
+
+        JSONObject row;
+        try {
+            row = new JSONObject(text);
+        }
+        catch (JSONException ex) {
+            throw new SqliteException(Error.DOMAIN, "Line " + $rowLine + " is not a JSON object: " + ex.getMessage(), Error.MALFORMED_IMPORT_FILE);
+        }
+
+        for (int i = 0; i < $columns.length; i++) {
+            Object value = row.opt($columns[i]);
+            values[offset + i] = value == JSONObject.NULL ? null : value;
+        }
+        return true;
+    }
+
+    private final boolean $readCsvRow(Object[] values, int offset) throws IOException, SqliteException {
+        if (!$readCsvFields()) {
+            return false;
+        }
+
+        for (int i = 0; i < $columns.length; i++) {
+            int position = $fieldColumns[i];
+            if (position >= $fields.length) {
+                throw new SqliteException(Error.DOMAIN, "Line " + $rowLine + " has " + $fields.length + " fields, but column \"" + $columns[i] + "\" is field " + (position + 1), Error.MALFORMED_IMPORT_FILE);
+            }
+
+            String field = $fields[position];
+            if (field != null && $blobColumns != null && $blobColumns[i]) {
+                try {
+                    values[offset + i] = Base64.decode(field, Base64.DEFAULT);
+                }
+                catch (IllegalArgumentException ex) {
+                    throw new SqliteException(Error.DOMAIN, "Line " + $rowLine + " has invalid base64 for blob column \"" + $columns[i] + "\"", Error.MALFORMED_IMPORT_FILE);
+                }
+            }
+            else {
+                values[offset + i] = field;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the fields of the next record into $fields, as described by RFC 4180.
+     * Records end with CRLF or LF, and quoted fields may span lines. Empty lines are skipped.
+     *
+     * @return False once the end of the file is reached.
+     */
+    private final boolean $readCsvFields() throws IOException, SqliteException {
+        StringBuilder field = $field;
+        ArrayList<String> fields = $fieldList;
+        field.setLength(0);
+        fields.clear();
+        boolean quoted = false;
+        boolean inQuotes = false;
+        boolean empty = true;
+        int c;
+
+        while (true) {
+            c = $reader.read();
+            if (c == -1) {
+                if (inQuotes) {
+                    throw new SqliteException(Error.DOMAIN, "Line " + $rowLine + " has an unterminated quoted field", Error.MALFORMED_IMPORT_FILE);
+                }
+                if (empty) {
+                    return false;
+                }
+                break;
+            }
+
+            if (empty) {
+                if (c == '\r' || c == '\n') {
+                    if (c == '\n') {
+                        $line++;
+                    }
+                    continue;
+                }
+                empty = false;
+                $rowLine = $line + 1;
+            }
+
+            if (inQuotes) {
+                if (c == '"') {
+                    $reader.mark(1);
+                    if ($reader.read() == '"') {
+                        field.append('"');
+                    }
+                    else {
+                        $reader.reset();
+                        inQuotes = false;
+                    }
+                }
+                else {
+                    if (c == '\n') {
+                        $line++;
+                    }
+                    field.append((char)c);
+                }
+                continue;
+            }
+
+            if (c == '"' && field.length() == 0 && !quoted) {
+                quoted = true;
+                inQuotes = true;
+            }
+            else if (c == ',') {
+                fields.add(quoted || field.length() > 0 ? field.toString() : null);
+                field.setLength(0);
+                quoted = false;
+            }
+            else if (c == '\n') {
+                $line++;
+                break;
+            }
+            else if (c == '\r') {
+                $reader.mark(1);
+                if ($reader.read() != '\n') {
+                    $reader.reset();
+                }
+                $line++;
+                break;
+            }
+            else {
+                field.append((char)c);
+            }
+        }
+
+        fields.add(quoted || field.length() > 0 ? field.toString() : null);
+        $fields = fields.toArray(new String[fields.size()]);
+        return true;
+    }
+
+    private static final void $appendIdentifier(StringBuilder sql, String identifier) {
+        sql.append('"');
+        sql.append(identifier.replace("\"", "\"\""));
+        sql.append('"');
+    }
+}
@@ -0,0 +1,218 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+package com.totalpave.cordova.sqlite;
+
+import com.totalpave.sqlite3.SqliteException;
+
+import android.os.SystemClock;
+
+import java.io.File;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * An in-memory copy of a database file that queries run against instead of the file.
+ *
+ * The JNI binding does not expose the sqlite3_backup API, so the file is loaded by attaching it and copying its
+ * schema and rows like Backup.restore, and written back with VACUUM INTO a temporary file that is then moved over
+ * the database file. The move is atomic, so the file always holds either the previous or the new copy.
+ * The file is switched to the DELETE journal mode when loaded, so a WAL file can never be applied to a newer copy.
+ */
+public class HotCopy {
+    public static final long DEFAULT_MAX_SIZE = 64L * 1024 * 1024;
+
+    // SQLITE_OPEN_READWRITE
+    private static final int OPEN_READ_WRITE = 0x00000002;
+
+    private final File $file;
+    private final boolean $writable;
+    private final Connection $connection;
+    private final boolean $flushOnCommit;
+    private final long $flushInterval;
+    private ScheduledFuture<?> $future;
+
+    private long $changes;
+    private long $schemaVersion;
+    private long $userVersion;
+    // Set by writes that total_changes does not count.
+    private boolean $written;
+    private long $flushes;
+    private long $lastFlushDuration;
+    private long $size;
+
+    /**
+     * Loads the file into a new in-memory connection.
+     *
+     * @param maxSize The most bytes the in-memory database may hold. 0 removes the limit.
+     * @param flushInterval Time in milliseconds between timed flushes. 0 disables timed flushes.
+     * @throws SqliteException MEMORY_LIMIT_EXCEEDED if the content of the file does not fit in maxSize.
+     */
+    public HotCopy(File file, int openFlags, int statementCacheSize, long maxSize, boolean flushOnCommit, long flushInterval) throws SqliteException {
+        $file = file;
+        $writable = (openFlags & OPEN_READ_WRITE) != 0;
+        $flushOnCommit = flushOnCommit;
+        $flushInterval = Math.max(0, flushInterval);
+
+        long pageSize;
+        Connection source = new Connection(file, openFlags, 0);
+        try {
+            if ($writable) {
+                // Moves every committed page into the file, then deletes the WAL file.
+                source.executeScalar("PRAGMA journal_mode=DELETE");
+            }
+            pageSize = Long.parseLong(source.executeScalar("PRAGMA page_size"));
+            long pageCount = Long.parseLong(source.executeScalar("PRAGMA page_count"));
+            long freePages = Long.parseLong(source.executeScalar("PRAGMA freelist_count"));
+            $size = (pageCount - freePages) * pageSize;
+            if (maxSize > 0 && $size > maxSize) {
+                throw new SqliteException(Error.DOMAIN, "The database holds " + $size + " bytes, which is more than the inMemory maxSize of " + maxSize + " bytes", Error.MEMORY_LIMIT_EXCEEDED);
+            }
+        }
+        finally {
+            source.close();
+        }
+
+        $connection = Connection.openInMemory(statementCacheSize);
+        try {
+            $connection.executeScalar("PRAGMA page_size=" + pageSize);
+            Backup.copyInto($connection, file, null);
+            if (maxSize > 0) {
+                // Writes past the limit fail with SQLITE_FULL instead of growing the heap.
+                $connection.executeScalar("PRAGMA max_page_count=" + Math.max(1, maxSize / pageSize));
+            }
+            if (!$writable) {
+                $connection.executeScalar("PRAGMA query_only=1");
+            }
+            $markClean();
+        }
+        catch (SqliteException ex) {
+            $connection.close();
+            throw ex;
+        }
+        catch (JSONException ex) {
+            $connection.close();
+            throw new SqliteException(Error.DOMAIN, ex.getMessage(), Error.IO_ERROR);
+        }
+    }
+
+    /**
+     * The in-memory connection, which is used as the writer of the database.
+     */
+    public Connection getConnection() {
+        return $connection;
+    }
+
+    public boolean isFlushOnCommit() {
+        return $flushOnCommit;
+    }
+
+    /**
+     * Runs the flush task on the timer every flushInterval milliseconds. The task is expected to queue the flush on
+     * the database's scheduler, since it uses the connection.
+     */
+    public synchronized void start(ScheduledExecutorService timer, Runnable flushTask) {
+        if ($flushInterval == 0 || !$writable || $future != null) {
+            return;
+        }
+        $future = timer.scheduleWithFixedDelay(flushTask, $flushInterval, $flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if ($future != null) {
+            $future.cancel(false);
+            $future = null;
+        }
+    }
+
+    /**
+     * @return True if the in-memory database changed since it was loaded or last flushed.
+     */
+    public boolean isDirty() throws SqliteException {
+        return $writable && (
+            $written
+            || Long.parseLong($connection.executeScalar("SELECT total_changes()")) != $changes
+            || Long.parseLong($connection.executeScalar("PRAGMA schema_version")) != $schemaVersion
+            || Long.parseLong($connection.executeScalar("PRAGMA user_version")) != $userVersion
+        );
+    }
+
+    /**
+     * Records a change that total_changes does not count, such as a write through a blob handle.
+     */
+    public void markDirty() {
+        $written = true;
+    }
+
+    /**
+     * Writes the in-memory database to the file if it changed. Must not be called inside a transaction,
+     * and must be called on the thread that owns the connection.
+     *
+     * @return True if the file was written.
+     */
+    public boolean flush() throws SqliteException {
+        if (!isDirty()) {
+            return false;
+        }
+
+        long start = SystemClock.elapsedRealtime();
+        File temp = new File($file.getAbsolutePath() + "-temp");
+        temp.delete();
+        try {
+            $connection.executeScalar("VACUUM INTO '" + temp.getAbsolutePath().replace("'", "''") + "'");
+        }
+        catch (SqliteException ex) {
+            temp.delete();
+            throw ex;
+        }
+        long size = temp.length();
+        if (!temp.renameTo($file)) {
+            temp.delete();
+            throw new SqliteException(Error.DOMAIN, "Could not move the in-memory copy to " + $file.getAbsolutePath(), Error.IO_ERROR);
+        }
+
+        $markClean();
+        synchronized (this) {
+            $flushes++;
+            $lastFlushDuration = SystemClock.elapsedRealtime() - start;
+            $size = size;
+        }
+        return true;
+    }
+
+    /**
+     * @return {flushes, lastFlushDuration, size}, where size is the size of the file after the last flush.
+     */
+    public synchronized JSONObject getStats() throws JSONException {
+        JSONObject stats = new JSONObject();
+        stats.put("flushes", $flushes);
+        stats.put("lastFlushDuration", $lastFlushDuration);
+        stats.put("size", $size);
+        return stats;
+    }
+
+    private final void $markClean() throws SqliteException {
+        $changes = Long.parseLong($connection.executeScalar("SELECT total_changes()"));
+        $schemaVersion = Long.parseLong($connection.executeScalar("PRAGMA schema_version"));
+        $userVersion = Long.parseLong($connection.executeScalar("PRAGMA user_version"));
+        $written = false;
+    }
+}
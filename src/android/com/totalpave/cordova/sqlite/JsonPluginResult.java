@@ -0,0 +1,43 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+package com.totalpave.cordova.sqlite;
+
+import org.apache.cordova.PluginResult;
+
+/**
+ * A successful result whose message is JSON text that was already serialized, such as by a JsonResultWriter.
+ * The text is sent to the WebView as is, instead of being parsed into org.json objects only to be serialized again.
+ */
+public class JsonPluginResult extends PluginResult {
+    private final String $json;
+
+    public JsonPluginResult(String json) {
+        super(PluginResult.Status.OK, (String)null);
+        $json = json;
+    }
+
+    @Override
+    public int getMessageType() {
+        return PluginResult.MESSAGE_TYPE_JSON;
+    }
+
+    @Override
+    public String getMessage() {
+        return $json;
+    }
+}
@@ -0,0 +1,337 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+package com.totalpave.cordova.sqlite;
+
+import android.util.Base64;
+
+import com.totalpave.sqlite3.ColumnType;
+import com.totalpave.sqlite3.Sqlite;
+import com.totalpave.sqlite3.SqliteException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.json.JSONException;
+
+/**
+ * Writes the rows of a statement straight into JSON text, without building an org.json object graph first.
+ *
+ * The output is identical to building the same result with JSONObject and JSONArray and calling toString on it,
+ * including the escaping of the platform's JSONStringer and JSONObject's handling of duplicate column names.
+ * Each thread reuses one writer, so the text buffer is only reallocated when a result outgrows it.
+ */
+public class JsonResultWriter {
+    private static final int INITIAL_CAPACITY = 4096;
+
+    /**
+     * Buffers that grew past this many characters are dropped after use instead of being kept for the next result.
+     */
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    private static final long NEGATIVE_ZERO_BITS = Double.doubleToLongBits(-0d);
+
+    private static final ThreadLocal<JsonResultWriter> WRITERS = new ThreadLocal<JsonResultWriter>() {
+        @Override
+        protected JsonResultWriter initialValue() {
+            return new JsonResultWriter();
+        }
+    };
+
+    /**
+     * The column layout of a statement, with every column name escaped once.
+     */
+    public static class Columns {
+        private final String[] $names;
+        private final String[] $keys;
+        private final int[] $keyColumns;
+
+        /**
+         * @param names The column names of the statement, in column order.
+         */
+        public Columns(String[] names) {
+            $names = names;
+
+            // A JSONObject keeps a repeated name at its first position with the value of its last column.
+            HashMap<String, Integer> positions = new HashMap<>();
+            ArrayList<String> keys = new ArrayList<>();
+            ArrayList<Integer> keyColumns = new ArrayList<>();
+            for (int i = 0; i < names.length; i++) {
+                Integer position = positions.get(names[i]);
+                if (position == null) {
+                    positions.put(names[i], keys.size());
+                    keys.add(names[i]);
+                    keyColumns.add(i);
+                }
+                else {
+                    keyColumns.set(position, i);
+                }
+            }
+
+            $keys = new String[keys.size()];
+            $keyColumns = new int[keys.size()];
+            StringBuilder key = new StringBuilder();
+            for (int i = 0; i < $keys.length; i++) {
+                key.setLength(0);
+                $writeString(key, keys.get(i));
+                key.append(':');
+                $keys[i] = key.toString();
+                $keyColumns[i] = keyColumns.get(i);
+            }
+        }
+
+        public int getColumnCount() {
+            return $names.length;
+        }
+
+        /**
+         * @return True if the statement still has exactly these column names.
+         */
+        public boolean matches(long statement, int columnCount) throws SqliteException {
+            if (columnCount != $names.length) {
+                return false;
+            }
+            for (int i = 0; i < columnCount; i++) {
+                if (!$names[i].equals(Sqlite.columnName(statement, i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private StringBuilder $out;
+
+    public JsonResultWriter() {
+        $out = new StringBuilder(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Returns the writer of the calling thread, emptied and ready for a new result.
+     */
+    public static JsonResultWriter get() {
+        JsonResultWriter writer = WRITERS.get();
+        writer.$out.setLength(0);
+        return writer;
+    }
+
+    /**
+     * Returns the column layout of the statement, reusing the one cached on the statement while its columns are unchanged.
+     * Columns can change when SQLite recompiles a statement after a schema change.
+     */
+    public static Columns getColumns(CachedStatement cachedStatement) throws SqliteException {
+        long statement = cachedStatement.getStatement();
+        int columnCount = Sqlite.columnCount(statement);
+        Columns columns = cachedStatement.getColumns();
+        if (columns != null && columns.matches(statement, columnCount)) {
+            return columns;
+        }
+
+        String[] names = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            names[i] = Sqlite.columnName(statement, i);
+        }
+        columns = new Columns(names);
+        cachedStatement.setColumns(columns);
+        return columns;
+    }
+
+    public void append(char c) {
+        $out.append(c);
+    }
+
+    /**
+     * Writes the current row as an object keyed by column name.
+     */
+    public void writeRowObject(long statement, Columns columns, QueryOptions options) throws JSONException, SqliteException {
+        $out.append('{');
+        for (int i = 0; i < columns.$keys.length; i++) {
+            if (i > 0) {
+                $out.append(',');
+            }
+            $out.append(columns.$keys[i]);
+            writeColumnValue(statement, columns.$keyColumns[i], options);
+        }
+        $out.append('}');
+    }
+
+    /**
+     * Writes the current row as an array of values in column order.
+     */
+    public void writeRowArray(long statement, int columnCount, QueryOptions options) throws JSONException, SqliteException {
+        $out.append('[');
+        for (int i = 0; i < columnCount; i++) {
+            if (i > 0) {
+                $out.append(',');
+            }
+            writeColumnValue(statement, i, options);
+        }
+        $out.append(']');
+    }
+
+    public void writeString(String value) {
+        $writeString($out, value);
+    }
+
+    /**
+     * Writes the column names as an array of strings.
+     */
+    public void writeColumnNames(Columns columns) {
+        $out.append('[');
+        for (int i = 0; i < columns.$names.length; i++) {
+            if (i > 0) {
+                $out.append(',');
+            }
+            $writeString($out, columns.$names[i]);
+        }
+        $out.append(']');
+    }
+
+    public void writeColumnValue(long statement, int column, QueryOptions options) throws JSONException, SqliteException {
+        int columnType = Sqlite.columnType(statement, column);
+        switch (columnType) {
+            case ColumnType.INTEGER:
+                $out.append(Sqlite.getInt(statement, column));
+                break;
+            case ColumnType.FLOAT:
+                appendDouble($out, Sqlite.getDouble(statement, column));
+                break;
+            case ColumnType.TEXT:
+                $writeString($out, Sqlite.getString(statement, column));
+                break;
+            case ColumnType.BLOB:
+                byte[] bytes = Sqlite.getBlob(statement, column);
+                if (options.isBase64Blobs()) {
+                    $out.append("{\"type\":");
+                    $writeString($out, QueryOptions.BLOB_FORMAT_BASE64);
+                    $out.append(",\"value\":");
+                    $writeString($out, Base64.encodeToString(bytes, Base64.NO_WRAP));
+                    $out.append('}');
+                }
+                else {
+                    $out.append('[');
+                    for (int i = 0; i < bytes.length; i++) {
+                        if (i > 0) {
+                            $out.append(',');
+                        }
+                        $out.append((int)bytes[i]);
+                    }
+                    $out.append(']');
+                }
+                break;
+            case ColumnType.NULL:
+                $out.append("null");
+                break;
+            default:
+                throw new SqliteException(Error.DOMAIN, "Unhandled Column Type \"" + Integer.toString(columnType) + "\"", Error.UNSUPPORTED_COLUMN_TYPE);
+        }
+    }
+
+    /**
+     * The text written so far, without copying it. Only valid until the next write.
+     */
+    public CharSequence getText() {
+        return $out;
+    }
+
+    /**
+     * Discards the text written so far, keeping the buffer.
+     */
+    public void clear() {
+        $out.setLength(0);
+    }
+
+    /**
+     * Returns the written text and releases the buffer if it grew too large to keep.
+     */
+    public String finish() {
+        String json = $out.toString();
+        if ($out.capacity() > MAX_RETAINED_CAPACITY) {
+            $out = new StringBuilder(INITIAL_CAPACITY);
+        }
+        else {
+            $out.setLength(0);
+        }
+        return json;
+    }
+
+    /**
+     * Formats a double the way JSONObject.numberToString does.
+     */
+    public static void appendDouble(StringBuilder out, double value) throws JSONException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new JSONException("Forbidden numeric value: " + value);
+        }
+
+        if (Double.doubleToLongBits(value) == NEGATIVE_ZERO_BITS) {
+            out.append("-0");
+            return;
+        }
+
+        long longValue = (long)value;
+        if (value == (double)longValue) {
+            out.append(longValue);
+        }
+        else {
+            out.append(value);
+        }
+    }
+
+    /**
+     * Quotes and escapes a string the way JSONStringer does, which also escapes forward slashes.
+     */
+    private static final void $writeString(StringBuilder out, String value) {
+        out.append('"');
+        int start = 0;
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (c > 0x1F && c != '"' && c != '\\' && c != '/') {
+                continue;
+            }
+
+            out.append(value, start, i);
+            start = i + 1;
+            switch (c) {
+                case '"':
+                case '\\':
+                case '/':
+                    out.append('\\').append(c);
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\b':
+                    out.append("\\b");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\f':
+                    out.append("\\f");
+                    break;
+                default:
+                    out.append(String.format("\\u%04x", (int)c));
+                    break;
+            }
+        }
+        out.append(value, start, value.length());
+        out.append('"');
+    }
+}
@@ -0,0 +1,421 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+package com.totalpave.cordova.sqlite;
+
+import com.totalpave.sqlite3.SqliteException;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Runs PRAGMA optimize, incremental vacuum and a WAL checkpoint on the writer once the database has been idle for a while.
+ * A pass is split into slices of about sliceDuration milliseconds, each queued on the scheduler as an idle task.
+ * When a query is waiting after a slice, the pass pauses and resumes at the next idle period, so maintenance never
+ * holds up the app for more than one slice. A pass only starts again after new queries have run on the database.
+ */
+public class Maintenance {
+    public interface Listener {
+        void onFinished(JSONObject report);
+    }
+
+    public static final long DEFAULT_IDLE_TIMEOUT = 30000;
+    public static final long DEFAULT_SLICE_DURATION = 50;
+
+    private static final long MIN_CHECK_INTERVAL = 250;
+    // Pages freed by one incremental_vacuum step. Small enough that a step stays well within a slice.
+    private static final int VACUUM_PAGES_PER_STEP = 16;
+    // Rows sampled per index by the ANALYZE that PRAGMA optimize may run, so it stays cheap on large tables.
+    private static final int ANALYSIS_LIMIT = 400;
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    private static final int STEP_OPTIMIZE = 0;
+    private static final int STEP_VACUUM = 1;
+    private static final int STEP_CHECKPOINT = 2;
+    private static final int STEP_DONE = 3;
+
+    private final Database $database;
+    private final Connection $writer;
+    private final QueryScheduler $scheduler;
+    private final long $idleTimeout;
+    private final long $sliceDuration;
+    private ScheduledFuture<?> $future;
+    private boolean $stopped;
+
+    private boolean $running;
+    private boolean $paused;
+    private boolean $queued;
+    private boolean $forced;
+    private long $lastSubmittedCount;
+    private final ArrayList<Listener> $listeners = new ArrayList<>();
+
+    private int $step;
+    private long $startedAt;
+    private long $start;
+    private int $slices;
+    private int $yielded;
+    private boolean $optimized;
+    private long $pagesReclaimed;
+    private long $freePages;
+    private JSONObject $checkpoint;
+    private String $error;
+
+    private long $runs;
+    private long $totalDuration;
+    private long $totalPagesReclaimed;
+    private JSONObject $lastRun;
+
+    /**
+     * @param idleTimeout Time in milliseconds without queries before a pass starts. 0 disables automatic passes,
+     *                    while requestRun still works.
+     * @param sliceDuration Time in milliseconds a slice may run before it gives the queue a chance to run queries.
+     */
+    public Maintenance(Database database, Connection writer, QueryScheduler scheduler, long idleTimeout, long sliceDuration) {
+        $database = database;
+        $writer = writer;
+        $scheduler = scheduler;
+        $idleTimeout = Math.max(0, idleTimeout);
+        $sliceDuration = sliceDuration > 0 ? sliceDuration : DEFAULT_SLICE_DURATION;
+        // The first idle period after opening runs a pass, since the previous session may have left work behind.
+        $lastSubmittedCount = -1;
+    }
+
+    /**
+     * Starts checking for idle periods on the timer. Does nothing if automatic passes are disabled.
+     */
+    public synchronized void start(ScheduledExecutorService timer) {
+        if ($idleTimeout == 0 || $stopped || $future != null) {
+            return;
+        }
+
+        long interval = Math.max(MIN_CHECK_INTERVAL, $idleTimeout / 2);
+        $future = timer.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                // An exception would cancel the fixed-delay schedule.
+                try {
+                    $check();
+                }
+                catch (RuntimeException ex) {
+                    Log.w(SQLite.LOG_TAG, "Maintenance check failed: " + ex.getMessage());
+                }
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops checking for idle periods. A pass in progress is finished without completing its remaining steps.
+     */
+    public void stop() {
+        ArrayList<Listener> listeners = null;
+        JSONObject report = null;
+        synchronized (this) {
+            $stopped = true;
+            if ($future != null) {
+                $future.cancel(false);
+                $future = null;
+            }
+            if ($running) {
+                $error = "The database was closed.";
+                report = $finishPass();
+                listeners = new ArrayList<>($listeners);
+                $listeners.clear();
+            }
+        }
+        $notify(listeners, report);
+    }
+
+    /**
+     * Starts a pass now, without waiting for an idle period, or joins the pass in progress.
+     * A forced pass still runs in slices between queries, but does not wait for the next idle period after yielding.
+     */
+    public void requestRun(Listener listener) {
+        JSONObject report = null;
+        synchronized (this) {
+            if ($stopped) {
+                $beginPass();
+                $running = false;
+                $error = "The database was closed.";
+                report = $buildReport(false);
+            }
+            else {
+                $listeners.add(listener);
+                $forced = true;
+                if (!$running) {
+                    $beginPass();
+                }
+                if (!$queued) {
+                    $paused = false;
+                    $submitSlice();
+                }
+            }
+        }
+        if (report != null) {
+            listener.onFinished(report);
+        }
+    }
+
+    /**
+     * @return {enabled, idleTimeout, sliceDuration, running, runs, totalDuration, totalPagesReclaimed, lastRun}
+     */
+    public synchronized JSONObject getStats() throws JSONException {
+        JSONObject stats = new JSONObject();
+        stats.put("enabled", $idleTimeout > 0);
+        stats.put("idleTimeout", $idleTimeout);
+        stats.put("sliceDuration", $sliceDuration);
+        stats.put("running", $running);
+        stats.put("runs", $runs);
+        stats.put("totalDuration", $totalDuration);
+        stats.put("totalPagesReclaimed", $totalPagesReclaimed);
+        stats.put("lastRun", $lastRun == null ? JSONObject.NULL : $lastRun);
+        return stats;
+    }
+
+    private final synchronized void $check() {
+        if ($stopped || $queued || ($running && !$paused)) {
+            return;
+        }
+        // Only resume a paused pass or start a new one after queries have run since the last pass began.
+        if (!$paused && $scheduler.getSubmittedCount() == $lastSubmittedCount) {
+            return;
+        }
+        if ($scheduler.getIdleTime() < $idleTimeout) {
+            return;
+        }
+
+        if (!$running) {
+            $beginPass();
+        }
+        $paused = false;
+        $submitSlice();
+    }
+
+    private final void $beginPass() {
+        $running = true;
+        $lastSubmittedCount = $scheduler.getSubmittedCount();
+        $step = STEP_OPTIMIZE;
+        $startedAt = System.currentTimeMillis();
+        $start = SystemClock.elapsedRealtime();
+        $slices = 0;
+        $yielded = 0;
+        $optimized = false;
+        $pagesReclaimed = 0;
+        $freePages = -1;
+        $checkpoint = null;
+        $error = null;
+    }
+
+    private final void $submitSlice() {
+        try {
+            $scheduler.submitIdle(new Runnable() {
+                public void run() {
+                    $runSlice();
+                }
+            });
+            $queued = true;
+        }
+        catch (SqliteException ex) {
+            // The scheduler is closing. stop() finishes the pass once the database closes.
+            $queued = false;
+            $paused = true;
+        }
+    }
+
+    /**
+     * Runs steps on the scheduler thread until the pass is done or the slice is used up.
+     * The state is only read here and written under the lock, since slices never run in parallel.
+     */
+    private final void $runSlice() {
+        long deadline = SystemClock.elapsedRealtime() + $sliceDuration;
+        int step;
+        boolean blocked = false;
+        synchronized (this) {
+            $queued = false;
+            if (!$running) {
+                return;
+            }
+            $slices++;
+            step = $step;
+        }
+
+        try {
+            while (step != STEP_DONE && SystemClock.elapsedRealtime() < deadline) {
+                // Nothing runs inside a transaction or under an open cursor or blob, which hold statements on the writer.
+                if (!$database.canRunMaintenance()) {
+                    blocked = true;
+                    break;
+                }
+                step = $runStep(step, deadline);
+            }
+        }
+        catch (SqliteException ex) {
+            Log.w(SQLite.LOG_TAG, "Maintenance failed: " + ex.getMessage());
+            synchronized (this) {
+                $error = ex.getMessage();
+            }
+            step = STEP_DONE;
+        }
+
+        ArrayList<Listener> listeners = null;
+        JSONObject report = null;
+        synchronized (this) {
+            if (!$running) {
+                // Stopped while the slice ran.
+                return;
+            }
+            $step = step;
+            if (step == STEP_DONE || (blocked && $forced)) {
+                if (blocked) {
+                    $error = "A transaction, cursor or blob handle is open on the database.";
+                }
+                report = $finishPass();
+                listeners = new ArrayList<>($listeners);
+                $listeners.clear();
+            }
+            else if (blocked || $scheduler.hasQueuedTasks()) {
+                $yielded++;
+                if ($forced && !blocked) {
+                    // Queued behind the waiting queries instead of waiting for an idle period.
+                    $submitSlice();
+                }
+                else {
+                    $paused = true;
+                }
+            }
+            else {
+                $submitSlice();
+            }
+        }
+        $notify(listeners, report);
+    }
+
+    /**
+     * @return The step to run next.
+     */
+    private final int $runStep(int step, long deadline) throws SqliteException {
+        if (step == STEP_OPTIMIZE) {
+            // The limit is a setting of the connection, so the value the app chose is put back.
+            String analysisLimit = $writer.executeScalar("PRAGMA analysis_limit");
+            $writer.executeScalar("PRAGMA analysis_limit=" + ANALYSIS_LIMIT);
+            try {
+                $writer.executeScalar("PRAGMA optimize");
+            }
+            finally {
+                if (analysisLimit != null) {
+                    $writer.executeScalar("PRAGMA analysis_limit=" + Long.parseLong(analysisLimit));
+                }
+            }
+            synchronized (this) {
+                $optimized = true;
+            }
+            return STEP_VACUUM;
+        }
+
+        if (step == STEP_VACUUM) {
+            // incremental_vacuum does nothing unless the database was created, or vacuumed, with auto_vacuum=INCREMENTAL.
+            if (Long.parseLong($writer.executeScalar("PRAGMA auto_vacuum")) != AUTO_VACUUM_INCREMENTAL) {
+                return STEP_CHECKPOINT;
+            }
+            long freePages = Long.parseLong($writer.executeScalar("PRAGMA freelist_count"));
+            while (freePages > 0 && SystemClock.elapsedRealtime() < deadline) {
+                $writer.executeScalar("PRAGMA incremental_vacuum(" + VACUUM_PAGES_PER_STEP + ")");
+                long remaining = Long.parseLong($writer.executeScalar("PRAGMA freelist_count"));
+                synchronized (this) {
+                    $pagesReclaimed += freePages - remaining;
+                    $freePages = remaining;
+                }
+                freePages = remaining;
+            }
+            synchronized (this) {
+                $freePages = freePages;
+            }
+            return freePages > 0 ? STEP_VACUUM : STEP_CHECKPOINT;
+        }
+
+        if (step == STEP_CHECKPOINT) {
+            if ("wal".equalsIgnoreCase($writer.executeScalar("PRAGMA journal_mode"))) {
+                String[] result = $writer.executeRows("PRAGMA wal_checkpoint(TRUNCATE)").get(0);
+                try {
+                    JSONObject checkpoint = new JSONObject();
+                    checkpoint.put("busy", Long.parseLong(result[0]));
+                    checkpoint.put("log", Long.parseLong(result[1]));
+                    checkpoint.put("checkpointed", Long.parseLong(result[2]));
+                    synchronized (this) {
+                        $checkpoint = checkpoint;
+                    }
+                }
+                catch (JSONException ex) {
+                    Log.w(SQLite.LOG_TAG, "Maintenance failed: " + ex.getMessage());
+                }
+            }
+            return STEP_DONE;
+        }
+
+        return STEP_DONE;
+    }
+
+    private final JSONObject $finishPass() {
+        JSONObject report = $buildReport($error == null && $step == STEP_DONE);
+        $running = false;
+        $paused = false;
+        $forced = false;
+        $runs++;
+        $totalDuration += report.optLong("duration");
+        $totalPagesReclaimed += $pagesReclaimed;
+        $lastRun = report;
+        return report;
+    }
+
+    /**
+     * @return {startedAt, duration, slices, yielded, optimized, pagesReclaimed, freePages, checkpoint, completed, error}
+     */
+    private final JSONObject $buildReport(boolean completed) {
+        JSONObject report = new JSONObject();
+        try {
+            report.put("startedAt", $running ? $startedAt : System.currentTimeMillis());
+            report.put("duration", $running ? SystemClock.elapsedRealtime() - $start : 0);
+            report.put("slices", $slices);
+            report.put("yielded", $yielded);
+            report.put("optimized", $optimized);
+            report.put("pagesReclaimed", $pagesReclaimed);
+            report.put("freePages", $freePages);
+            report.put("checkpoint", $checkpoint == null ? JSONObject.NULL : $checkpoint);
+            report.put("completed", completed);
+            report.put("error", $error == null ? JSONObject.NULL : $error);
+        }
+        catch (JSONException ex) {
+            Log.w(SQLite.LOG_TAG, "Maintenance report failed: " + ex.getMessage());
+        }
+        return report;
+    }
+
+    private final void $notify(ArrayList<Listener> listeners, JSONObject report) {
+        if (listeners == null) {
+            return;
+        }
+        for (int i = 0, length = listeners.size(); i < length; ++i) {
+            listeners.get(i).onFinished(report);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.totalpave.cordova.sqlite;
+
+import org.json.JSONObject;
+
+/**
+ * Optional connection settings given to the open action.
+ */
+public class OpenOptions {
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 25;
+
+    public static final int DEFAULT_READ_CONNECTIONS = 0;
+
+    private int $statementCacheSize;
+    private int $readConnections;
+    private boolean $statsEnabled;
+    private boolean $queryPlanProfilerEnabled;
+    private long $slowQueryThreshold;
+    private int $maxQueueDepth;
+    private long $resultCacheSize;
+    private String $profile;
+    private JSONObject $pragmas;
+    private long $maintenanceIdleTimeout;
+    private long $maintenanceSliceDuration;
+    private boolean $inMemory;
+    private long $inMemoryMaxSize;
+    private boolean $inMemoryFlushOnCommit;
+    private long $inMemoryFlushInterval;
+
+    public OpenOptions() {
+        $statementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
+        $readConnections = DEFAULT_READ_CONNECTIONS;
+        $statsEnabled = false;
+        $queryPlanProfilerEnabled = false;
+        $slowQueryThreshold = QueryStats.DEFAULT_SLOW_QUERY_THRESHOLD;
+        $maxQueueDepth = QueryScheduler.DEFAULT_MAX_QUEUE_DEPTH;
+        $resultCacheSize = 0;
+        $profile = PragmaOptions.PROFILE_DEFAULT;
+        $pragmas = null;
+        $maintenanceIdleTimeout = 0;
+        $maintenanceSliceDuration = Maintenance.DEFAULT_SLICE_DURATION;
+        $inMemory = false;
+        $inMemoryMaxSize = HotCopy.DEFAULT_MAX_SIZE;
+        $inMemoryFlushOnCommit = true;
+        $inMemoryFlushInterval = 0;
+    }
+
+    /**
+     * @param options The options object from JS. May be null, in which case defaults are used.
+     */
+    public static OpenOptions fromJSON(JSONObject options) {
+        OpenOptions out = new OpenOptions();
+        if (options == null) {
+            return out;
+        }
+
+        out.$statementCacheSize = options.optInt("statementCacheSize", DEFAULT_STATEMENT_CACHE_SIZE);
+        out.$readConnections = Math.max(0, options.optInt("readConnections", DEFAULT_READ_CONNECTIONS));
+        out.$statsEnabled = options.optBoolean("stats", false);
+        out.$queryPlanProfilerEnabled = options.optBoolean("queryPlanProfiler", false);
+        out.$slowQueryThreshold = options.optLong("slowQueryThreshold", QueryStats.DEFAULT_SLOW_QUERY_THRESHOLD);
+        out.$maxQueueDepth = Math.max(0, options.optInt("maxQueueDepth", QueryScheduler.DEFAULT_MAX_QUEUE_DEPTH));
+        out.$resultCacheSize = Math.max(0, options.optLong("resultCacheSize", 0));
+        out.$profile = options.optString("profile", PragmaOptions.PROFILE_DEFAULT);
+        out.$pragmas = options.optJSONObject("pragmas");
+        JSONObject maintenance = options.optJSONObject("maintenance");
+        if (maintenance != null) {
+            out.$maintenanceIdleTimeout = Math.max(0, maintenance.optLong("idleTimeout", Maintenance.DEFAULT_IDLE_TIMEOUT));
+            out.$maintenanceSliceDuration = maintenance.optLong("sliceDuration", Maintenance.DEFAULT_SLICE_DURATION);
+        }
+        JSONObject inMemory = options.optJSONObject("inMemory");
+        if (inMemory != null) {
+            out.$inMemory = true;
+            out.$inMemoryMaxSize = Math.max(0, inMemory.optLong("maxSize", HotCopy.DEFAULT_MAX_SIZE));
+            out.$inMemoryFlushOnCommit = inMemory.optBoolean("flushOnCommit", true);
+            out.$inMemoryFlushInterval = Math.max(0, inMemory.optLong("flushInterval", 0));
+        }
+
+        return out;
+    }
+
+    public int getStatementCacheSize() {
+        return $statementCacheSize;
+    }
+
+    /**
+     * The number of extra read-only connections used to run SELECT statements in parallel with the writer.
+     * 0 disables the read pool.
+     */
+    public int getReadConnections() {
+        return $readConnections;
+    }
+
+    public boolean isStatsEnabled() {
+        return $statsEnabled;
+    }
+
+    /**
+     * Records the query plan of every distinct statement, see QueryPlanProfiler.
+     */
+    public boolean isQueryPlanProfilerEnabled() {
+        return $queryPlanProfilerEnabled;
+    }
+
+    /**
+     * Time in milliseconds. Statements that take at least this long are logged, even while stats are disabled. 0 disables the log.
+     */
+    public long getSlowQueryThreshold() {
+        return $slowQueryThreshold;
+    }
+
+    /**
+     * The most queries that may wait to run on the database before new queries are rejected. 0 removes the limit.
+     */
+    public int getMaxQueueDepth() {
+        return $maxQueueDepth;
+    }
+
+    /**
+     * The approximate memory in bytes the result cache may hold. 0 disables the result cache.
+     */
+    public long getResultCacheSize() {
+        return $resultCacheSize;
+    }
+
+    /**
+     * The named set of PRAGMA settings to open with, one of the PragmaOptions profiles.
+     */
+    public String getProfile() {
+        return $profile;
+    }
+
+    /**
+     * PRAGMA settings that override the profile, or null. Validated by PragmaOptions when the database is opened.
+     */
+    public JSONObject getPragmas() {
+        return $pragmas;
+    }
+
+    /**
+     * Time in milliseconds without queries before idle maintenance runs. 0, the default when the maintenance option
+     * is not given, disables automatic maintenance.
+     */
+    public long getMaintenanceIdleTimeout() {
+        return $maintenanceIdleTimeout;
+    }
+
+    /**
+     * Queries run against an in-memory copy of the database, which is written back to the file, see HotCopy.
+     */
+    public boolean isInMemory() {
+        return $inMemory;
+    }
+
+    /**
+     * The most bytes the in-memory copy may hold. 0 removes the limit.
+     */
+    public long getInMemoryMaxSize() {
+        return $inMemoryMaxSize;
+    }
+
+    /**
+     * Writes the in-memory copy to the file after every committed write.
+     */
+    public boolean isInMemoryFlushOnCommit() {
+        return $inMemoryFlushOnCommit;
+    }
+
+    /**
+     * Time in milliseconds between timed writes of the in-memory copy to the file. 0 disables timed writes.
+     */
+    public long getInMemoryFlushInterval() {
+        return $inMemoryFlushInterval;
+    }
+
+    /**
+     * Time in milliseconds each slice of a maintenance pass may run before queued queries get a turn.
+     */
+    public long getMaintenanceSliceDuration() {
+        return $maintenanceSliceDuration;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+package com.totalpave.cordova.sqlite;
+
+import com.totalpave.sqlite3.SqliteException;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The PRAGMA settings applied to the connections of a database when it is opened.
+ *
+ * Settings come from a named profile and are then overridden by any settings given explicitly.
+ * A setting that is neither part of the profile nor given explicitly is left at the SQLite default.
+ * Values are validated before any connection is opened, since they are written into the PRAGMA statements.
+ */
+public class PragmaOptions {
+    public static final String PROFILE_DEFAULT = "default";
+    public static final String PROFILE_READ_HEAVY = "read-heavy";
+    public static final String PROFILE_BULK_LOAD = "bulk-load";
+
+    private static final List<String> JOURNAL_MODES = Arrays.asList("delete", "truncate", "persist", "memory", "wal", "off");
+    // Indexed by the value SQLite reports for the setting.
+    private static final List<String> SYNCHRONOUS_MODES = Arrays.asList("off", "normal", "full", "extra");
+    private static final List<String> TEMP_STORES = Arrays.asList("default", "file", "memory");
+
+    private String $journalMode;
+    private String $synchronous;
+    private Long $cacheSize;
+    private Long $mmapSize;
+    private String $tempStore;
+    private Long $pageSize;
+    private Long $walAutocheckpoint;
+
+    public PragmaOptions() {}
+
+    /**
+     * @param profile One of the PROFILE constants. May be null, which is the same as PROFILE_DEFAULT.
+     * @param pragmas Explicit settings that override the profile. May be null.
+     */
+    public static PragmaOptions fromJSON(String profile, JSONObject pragmas) throws SqliteException {
+        PragmaOptions out = new PragmaOptions();
+
+        if (profile == null || profile.equals(PROFILE_DEFAULT)) {
+            // Leaves every setting at the SQLite default, as before profiles existed.
+        }
+        else if (profile.equals(PROFILE_READ_HEAVY)) {
+            out.$journalMode = "wal";
+            out.$synchronous = "normal";
+            // Negative cache sizes are in KiB rather than pages.
+            out.$cacheSize = -16384L;
+            out.$mmapSize = 268435456L;
+            out.$tempStore = "memory";
+        }
+        else if (profile.equals(PROFILE_BULK_LOAD)) {
+            out.$journalMode = "wal";
+            out.$synchronous = "off";
+            out.$cacheSize = -32768L;
+            out.$tempStore = "memory";
+            out.$walAutocheckpoint = 10000L;
+        }
+        else {
+            throw new SqliteException(Error.DOMAIN, "Unknown open profile \"" + profile + "\"", Error.INVALID_OPEN_OPTION);
+        }
+
+        if (pragmas == null) {
+            return out;
+        }
+
+        if (pragmas.has("journalMode")) {
+            out.$journalMode = $parseName(pragmas, "journalMode", JOURNAL_MODES);
+        }
+        if (pragmas.has("synchronous")) {
+            out.$synchronous = $parseName(pragmas, "synchronous", SYNCHRONOUS_MODES);
+        }
+        if (pragmas.has("cacheSize")) {
+            out.$cacheSize = $parseInteger(pragmas, "cacheSize", Long.MIN_VALUE);
+        }
+        if (pragmas.has("mmapSize")) {
+            out.$mmapSize = $parseInteger(pragmas, "mmapSize", 0);
+        }
+        if (pragmas.has("tempStore")) {
+            out.$tempStore = $parseName(pragmas, "tempStore", TEMP_STORES);
+        }
+        if (pragmas.has("pageSize")) {
+            long pageSize = $parseInteger(pragmas, "pageSize", 512);
+            if (pageSize > 65536 || (pageSize & (pageSize - 1)) != 0) {
+                throw new SqliteException(Error.DOMAIN, "pageSize must be a power of two between 512 and 65536", Error.INVALID_OPEN_OPTION);
+            }
+            out.$pageSize = pageSize;
+        }
+        if (pragmas.has("walAutocheckpoint")) {
+            out.$walAutocheckpoint = $parseInteger(pragmas, "walAutocheckpoint", Long.MIN_VALUE);
+        }
+
+        return out;
+    }
+
+    /**
+     * The journal mode to use, or null to leave it unchanged.
+     */
+    public String getJournalMode() {
+        return $journalMode;
+    }
+
+    /**
+     * Applies every setting to the connection that writes to the database.
+     * The page size is applied first, since it can only change before the database has content or a WAL journal.
+     */
+    public void applyToWriter(Connection connection) throws SqliteException {
+        if ($pageSize != null) {
+            connection.executeScalar("PRAGMA page_size=" + $pageSize);
+        }
+        if ($journalMode != null) {
+            connection.executeScalar("PRAGMA journal_mode=" + $journalMode);
+        }
+        $applyConnectionSettings(connection);
+        if ($walAutocheckpoint != null) {
+            connection.executeScalar("PRAGMA wal_autocheckpoint=" + $walAutocheckpoint);
+        }
+    }
+
+    /**
+     * Applies the settings that are kept per connection to a read only connection.
+     * The page size, journal mode and checkpoint settings belong to the database file and the writer.
+     */
+    public void applyToReader(Connection connection) throws SqliteException {
+        $applyConnectionSettings(connection);
+    }
+
+    /**
+     * Reads the settings currently in effect on the connection, using the same names and units the settings are given in.
+     */
+    public static JSONObject getEffective(Connection connection) throws JSONException, SqliteException {
+        JSONObject effective = new JSONObject();
+        effective.put("journalMode", connection.executeScalar("PRAGMA journal_mode"));
+        effective.put("synchronous", $nameOf(SYNCHRONOUS_MODES, connection.executeScalar("PRAGMA synchronous")));
+        effective.put("cacheSize", Long.parseLong(connection.executeScalar("PRAGMA cache_size")));
+        // Reports nothing when memory mapped I/O is compiled out of SQLite.
+        String mmapSize = connection.executeScalar("PRAGMA mmap_size");
+        effective.put("mmapSize", mmapSize == null ? 0 : Long.parseLong(mmapSize));
+        effective.put("tempStore", $nameOf(TEMP_STORES, connection.executeScalar("PRAGMA temp_store")));
+        effective.put("pageSize", Long.parseLong(connection.executeScalar("PRAGMA page_size")));
+        effective.put("walAutocheckpoint", Long.parseLong(connection.executeScalar("PRAGMA wal_autocheckpoint")));
+        return effective;
+    }
+
+    private final void $applyConnectionSettings(Connection connection) throws SqliteException {
+        if ($synchronous != null) {
+            connection.executeScalar("PRAGMA synchronous=" + $synchronous);
+        }
+        if ($cacheSize != null) {
+            connection.executeScalar("PRAGMA cache_size=" + $cacheSize);
+        }
+        if ($mmapSize != null) {
+            connection.executeScalar("PRAGMA mmap_size=" + $mmapSize);
+        }
+        if ($tempStore != null) {
+            connection.executeScalar("PRAGMA temp_store=" + $tempStore);
+        }
+    }
+
+    private static final String $parseName(JSONObject pragmas, String key, List<String> names) throws SqliteException {
+        String value = pragmas.optString(key, "").toLowerCase();
+        if (!names.contains(value)) {
+            throw new SqliteException(Error.DOMAIN, key + " must be one of " + names.toString(), Error.INVALID_OPEN_OPTION);
+        }
+        return value;
+    }
+
+    private static final long $parseInteger(JSONObject pragmas, String key, long min) throws SqliteException {
+        Object value = pragmas.opt(key);
+        if (!(value instanceof Number) || ((Number)value).doubleValue() != ((Number)value).longValue() || ((Number)value).longValue() < min) {
+            throw new SqliteException(Error.DOMAIN, key + " must be an integer" + (min == Long.MIN_VALUE ? "" : " of at least " + min), Error.INVALID_OPEN_OPTION);
+        }
+        return ((Number)value).longValue();
+    }
+
+    private static final String $nameOf(List<String> names, String value) {
+        int index = Integer.parseInt(value);
+        return index >= 0 && index < names.size() ? names.get(index) : value;
+    }
+}
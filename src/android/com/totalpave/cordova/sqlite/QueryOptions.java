@@ -0,0 +1,122 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.totalpave.cordova.sqlite;
+
+import org.json.JSONObject;
+
+/**
+ * Optional settings given to the query action.
+ */
+public class QueryOptions {
+    public static final String RESULT_FORMAT_OBJECTS = "objects";
+    public static final String RESULT_FORMAT_COLUMNAR = "columnar";
+    public static final String BLOB_FORMAT_BYTEARRAY = "bytearray";
+    public static final String BLOB_FORMAT_BASE64 = "base64";
+    public static final String ARRAY_BINDING_EXPAND = "expand";
+    public static final String ARRAY_BINDING_JSON = "json";
+    public static final String PRIORITY_INTERACTIVE = "interactive";
+    public static final String PRIORITY_BACKGROUND = "background";
+
+    private String $resultFormat;
+    private String $blobFormat;
+    private String $arrayBinding;
+    private String $priority;
+    private String $queryId;
+    private long $timeout;
+    private boolean $cached;
+
+    public QueryOptions() {
+        $resultFormat = RESULT_FORMAT_OBJECTS;
+        $blobFormat = BLOB_FORMAT_BYTEARRAY;
+        $arrayBinding = ARRAY_BINDING_EXPAND;
+        $priority = PRIORITY_INTERACTIVE;
+        $queryId = null;
+        $timeout = 0;
+        $cached = false;
+    }
+
+    /**
+     * @param options The options object from JS. May be null, in which case defaults are used.
+     */
+    public static QueryOptions fromJSON(JSONObject options) {
+        QueryOptions out = new QueryOptions();
+        if (options == null) {
+            return out;
+        }
+
+        out.$resultFormat = options.optString("resultFormat", RESULT_FORMAT_OBJECTS);
+        out.$blobFormat = options.optString("blobFormat", BLOB_FORMAT_BYTEARRAY);
+        out.$arrayBinding = options.optString("arrayBinding", ARRAY_BINDING_EXPAND);
+        out.$priority = options.optString("priority", PRIORITY_INTERACTIVE);
+        out.$queryId = options.isNull("queryId") ? null : options.optString("queryId", null);
+        out.$timeout = options.optLong("timeoutMs", 0);
+        out.$cached = options.optBoolean("cache", false);
+
+        return out;
+    }
+
+    public boolean isColumnar() {
+        return RESULT_FORMAT_COLUMNAR.equals($resultFormat);
+    }
+
+    public boolean isBase64Blobs() {
+        return BLOB_FORMAT_BASE64.equals($blobFormat);
+    }
+
+    /**
+     * True if array parameters are bound as a single JSON text value read through json_each,
+     * instead of being expanded into one parameter per element.
+     */
+    public boolean isJsonArrays() {
+        return ARRAY_BINDING_JSON.equals($arrayBinding);
+    }
+
+    /**
+     * @return The QueryScheduler priority the query is queued with.
+     */
+    public int getPriority() {
+        return PRIORITY_BACKGROUND.equals($priority) ? QueryScheduler.PRIORITY_BACKGROUND : QueryScheduler.PRIORITY_INTERACTIVE;
+    }
+
+    /**
+     * The id the query can be cancelled with. Null if the query cannot be cancelled.
+     */
+    public String getQueryId() {
+        return $queryId;
+    }
+
+    /**
+     * Time in milliseconds the query may take, including the time it waits to start. 0 disables the deadline.
+     */
+    public long getTimeout() {
+        return $timeout;
+    }
+
+    /**
+     * True if the result may be served from, and stored in, the result cache of the database.
+     */
+    public boolean isCached() {
+        return $cached;
+    }
+
+    /**
+     * Identifies the options that change the shape of the result, so results in different formats are cached apart.
+     */
+    public String getFormatKey() {
+        return $resultFormat + "," + $blobFormat + "," + $arrayBinding;
+    }
+}
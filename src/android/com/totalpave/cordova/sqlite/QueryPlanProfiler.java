@@ -0,0 +1,841 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+package com.totalpave.cordova.sqlite;
+
+import com.totalpave.sqlite3.Sqlite;
+import com.totalpave.sqlite3.Statement;
+import com.totalpave.sqlite3.SqliteException;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Records the query plan of every distinct statement run while enabled, and flags plans that read a table in full,
+ * sort through a temporary b-tree or build an automatic index.
+ *
+ * The plan is read once per SQL string with EXPLAIN QUERY PLAN. Each run adds its time and, when SQLite was built
+ * with the sqlite_stmt virtual table, the growth of the fullscan step, sort, automatic index and VM step counters of
+ * the statement, which are the sqlite3_stmt_status counters. The report suggests single column indexes for the
+ * tables that were scanned, shaped like the parameters of CreateIndexQuery.
+ */
+public class QueryPlanProfiler {
+    // Statements beyond this many distinct SQL strings are not profiled, to bound memory.
+    public static final int MAX_STATEMENTS = 500;
+    public static final int DEFAULT_REPORT_LIMIT = 20;
+
+    private static final String COUNTERS_SQL = "SELECT sum(nscan), sum(nsort), sum(naidx), sum(nstep) FROM sqlite_stmt WHERE sql = ?";
+    private static final int COUNTER_COUNT = 4;
+    private static final int FULLSCAN_STEPS = 0;
+    private static final int SORTS = 1;
+    private static final int AUTOINDEXES = 2;
+    private static final int VM_STEPS = 3;
+
+    private static final String REASON_SCAN = "scan";
+    private static final String REASON_AUTOINDEX = "autoindex";
+    private static final String REASON_SORT = "sort";
+
+    private static class Plan {
+        final String sql;
+        final ArrayList<String> details = new ArrayList<>();
+        // Names as they appear in the plan, which are aliases where the SQL gives one.
+        final ArrayList<String> fullScans = new ArrayList<>();
+        final ArrayList<String> tempBTrees = new ArrayList<>();
+        final ArrayList<String> automaticIndexes = new ArrayList<>();
+        long count;
+        long total;
+        long max;
+        final long[] counters = new long[COUNTER_COUNT];
+
+        Plan(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    private static class Comparison {
+        final String table;
+        final String column;
+        final boolean equality;
+        // The table of the column on the other side, or null if the column is compared to a value.
+        final String otherTable;
+
+        Comparison(String table, String column, boolean equality, String otherTable) {
+            this.table = table;
+            this.column = column;
+            this.equality = equality;
+            this.otherTable = otherTable;
+        }
+    }
+
+    /**
+     * The tables a plan scans and the comparisons of its SQL, resolved against the schema.
+     */
+    private static class Analysis {
+        ArrayList<String> tokens;
+        HashMap<String, String> aliases;
+        final ArrayList<String> scannedTables = new ArrayList<>();
+        ArrayList<Comparison> comparisons;
+    }
+
+    private static class Suggestion {
+        final String table;
+        ArrayList<String> columns;
+        String reason;
+        long statements;
+        long total;
+
+        Suggestion(String table, ArrayList<String> columns, String reason) {
+            this.table = table;
+            this.columns = columns;
+            this.reason = reason;
+        }
+    }
+
+    private volatile boolean $enabled;
+    private final HashMap<String, Plan> $plans = new HashMap<>();
+    // Whether each connection handle can read sqlite_stmt, probed on first use.
+    private final HashMap<Long, Boolean> $countersAvailable = new HashMap<>();
+
+    public QueryPlanProfiler(boolean enabled) {
+        $enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return $enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        $enabled = enabled;
+    }
+
+    public synchronized void reset() {
+        $plans.clear();
+    }
+
+    /**
+     * Called once the statement is bound, before its first step. Reads the plan the first time the SQL is seen.
+     * Profiling errors are logged instead of failing the query.
+     */
+    public void begin(Connection connection, CachedStatement cachedStatement) {
+        if (!$enabled) {
+            return;
+        }
+
+        String sql = cachedStatement.getSql();
+        try {
+            boolean known;
+            synchronized (this) {
+                known = $plans.containsKey(sql);
+                if (!known && $plans.size() >= MAX_STATEMENTS) {
+                    return;
+                }
+            }
+            if (!known) {
+                Plan plan = $explain(connection, sql);
+                synchronized (this) {
+                    if (!$plans.containsKey(sql)) {
+                        $plans.put(sql, plan);
+                    }
+                }
+            }
+            cachedStatement.setProfile(SystemClock.elapsedRealtimeNanos(), $readCounters(connection, sql));
+        }
+        catch (SqliteException ex) {
+            Log.w(SQLite.LOG_TAG, "Query plan profiling failed: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Called after the last step, before the statement is released.
+     */
+    public void end(Connection connection, CachedStatement cachedStatement) {
+        long start = cachedStatement.getProfileStart();
+        if (start == 0) {
+            return;
+        }
+        long elapsed = SystemClock.elapsedRealtimeNanos() - start;
+        long[] before = cachedStatement.getProfileCounters();
+        cachedStatement.setProfile(0, null);
+
+        String sql = cachedStatement.getSql();
+        long[] after = null;
+        try {
+            after = before == null ? null : $readCounters(connection, sql);
+        }
+        catch (SqliteException ex) {
+            Log.w(SQLite.LOG_TAG, "Query plan profiling failed: " + ex.getMessage());
+        }
+
+        synchronized (this) {
+            Plan plan = $plans.get(sql);
+            if (plan == null) {
+                return;
+            }
+            plan.count++;
+            plan.total += elapsed;
+            plan.max = Math.max(plan.max, elapsed);
+            if (after != null) {
+                for (int i = 0; i < COUNTER_COUNT; ++i) {
+                    plan.counters[i] += Math.max(0, after[i] - before[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ranks the flagged statements by total time and suggests indexes for them.
+     * Runs statements on the given connection to look up the schema, so it must be called on the writer's thread.
+     *
+     * @param limit The most statements to return.
+     * @return {enabled, countersAvailable, statements: [...], suggestions: [...]}
+     */
+    public JSONObject getReport(Connection connection, int limit) throws JSONException, SqliteException {
+        ArrayList<Plan> plans = new ArrayList<>();
+        ArrayList<JSONObject> snapshots = new ArrayList<>();
+        ArrayList<Long> totals = new ArrayList<>();
+        synchronized (this) {
+            // Copied while locked, since end updates the totals.
+            for (Plan plan : $plans.values()) {
+                plans.add(plan);
+                snapshots.add($toJSON(plan));
+                totals.add(plan.total);
+            }
+        }
+
+        ArrayList<JSONObject> flagged = new ArrayList<>();
+        LinkedHashMap<String, Suggestion> suggestions = new LinkedHashMap<>();
+        SchemaInfo schema = new SchemaInfo(connection);
+        for (int i = 0, length = plans.size(); i < length; ++i) {
+            Plan plan = plans.get(i);
+            JSONObject snapshot = snapshots.get(i);
+            Analysis analysis = $analyze(plan, schema);
+            // Scans of CTEs and subqueries are not flagged, since they can not be indexed.
+            if (analysis.scannedTables.isEmpty() && plan.tempBTrees.isEmpty() && plan.automaticIndexes.isEmpty()
+                && snapshot.getLong("fullscanSteps") == 0 && snapshot.getLong("autoindexes") == 0) {
+                continue;
+            }
+            flagged.add(snapshot);
+            $suggest(plan, analysis, totals.get(i), schema, suggestions);
+        }
+
+        Collections.sort(flagged, new Comparator<JSONObject>() {
+            public int compare(JSONObject a, JSONObject b) {
+                int order = Double.compare(b.optDouble("totalTime", 0), a.optDouble("totalTime", 0));
+                return order != 0 ? order : Long.compare(b.optLong("fullscanSteps"), a.optLong("fullscanSteps"));
+            }
+        });
+        JSONArray statements = new JSONArray();
+        for (int i = 0, length = Math.min(limit, flagged.size()); i < length; ++i) {
+            statements.put(flagged.get(i));
+        }
+
+        ArrayList<Suggestion> ranked = new ArrayList<>(suggestions.values());
+        Collections.sort(ranked, new Comparator<Suggestion>() {
+            public int compare(Suggestion a, Suggestion b) {
+                return Long.compare(b.total, a.total);
+            }
+        });
+        JSONArray suggestionsOut = new JSONArray();
+        for (int i = 0, length = ranked.size(); i < length; ++i) {
+            Suggestion suggestion = ranked.get(i);
+            String column = suggestion.columns.get(0);
+            JSONObject out = new JSONObject();
+            out.put("indexName", ("idx_" + suggestion.table + "_" + column).replaceAll("\\W", "_"));
+            out.put("tableName", suggestion.table);
+            out.put("columnName", column);
+            out.put("columns", new JSONArray(suggestion.columns));
+            out.put("reason", suggestion.reason);
+            out.put("statements", suggestion.statements);
+            out.put("totalTime", suggestion.total / 1e6);
+            suggestionsOut.put(out);
+        }
+
+        JSONObject report = new JSONObject();
+        report.put("enabled", $enabled);
+        report.put("countersAvailable", $isCountersAvailable(connection));
+        report.put("statements", statements);
+        report.put("suggestions", suggestionsOut);
+        return report;
+    }
+
+    private final JSONObject $toJSON(Plan plan) throws JSONException {
+        JSONObject out = new JSONObject();
+        out.put("sql", plan.sql.trim().replaceAll("\\s+", " "));
+        out.put("count", plan.count);
+        out.put("totalTime", plan.total / 1e6);
+        out.put("averageTime", plan.count == 0 ? 0 : plan.total / 1e6 / plan.count);
+        out.put("maxTime", plan.max / 1e6);
+        out.put("plan", new JSONArray(plan.details));
+        out.put("fullScans", new JSONArray(plan.fullScans));
+        out.put("tempBTrees", new JSONArray(plan.tempBTrees));
+        out.put("automaticIndexes", new JSONArray(plan.automaticIndexes));
+        out.put("fullscanSteps", plan.counters[FULLSCAN_STEPS]);
+        out.put("sorts", plan.counters[SORTS]);
+        out.put("autoindexes", plan.counters[AUTOINDEXES]);
+        out.put("vmSteps", plan.counters[VM_STEPS]);
+        return out;
+    }
+
+    private final Plan $explain(Connection connection, String sql) throws SqliteException {
+        Plan plan = new Plan(sql);
+        ArrayList<String[]> rows;
+        try {
+            rows = connection.executeRows("EXPLAIN QUERY PLAN " + sql);
+        }
+        catch (SqliteException ex) {
+            // Statements such as EXPLAIN itself have no plan. They are still timed.
+            return plan;
+        }
+
+        for (int i = 0, length = rows.size(); i < length; ++i) {
+            String detail = rows.get(i)[rows.get(i).length - 1];
+            if (detail == null) {
+                continue;
+            }
+            plan.details.add(detail);
+            if (detail.startsWith("SCAN ") && !detail.contains(" USING ") && !detail.equals("SCAN CONSTANT ROW") && !detail.contains(" VIRTUAL TABLE")) {
+                // "SCAN t" reads every row of t. "SCAN t USING INDEX i" only reads an index in full, which is cheaper.
+                plan.fullScans.add(detail.substring(5).trim());
+            }
+            else if (detail.startsWith("USE TEMP B-TREE")) {
+                plan.tempBTrees.add(detail.substring("USE TEMP B-TREE".length()).trim());
+            }
+            if (detail.contains(" AUTOMATIC ")) {
+                plan.automaticIndexes.add(detail);
+            }
+        }
+        return plan;
+    }
+
+    private final long[] $readCounters(Connection connection, String sql) throws SqliteException {
+        if (!$isCountersAvailable(connection)) {
+            return null;
+        }
+
+        StatementCache cache = connection.getStatementCache();
+        CachedStatement cachedStatement = cache.acquire(COUNTERS_SQL);
+        try {
+            long statement = cachedStatement.getStatement();
+            Sqlite.bindStringWithIndex(statement, 1, sql);
+            long[] counters = new long[COUNTER_COUNT];
+            if (Sqlite.step(statement) == Statement.ROW) {
+                for (int i = 0; i < COUNTER_COUNT; ++i) {
+                    counters[i] = Sqlite.getInt(statement, i);
+                }
+            }
+            cache.release(cachedStatement);
+            return counters;
+        }
+        catch (SqliteException ex) {
+            cache.discard(cachedStatement);
+            throw ex;
+        }
+    }
+
+    private final boolean $isCountersAvailable(Connection connection) {
+        Long handle = connection.getHandle();
+        synchronized ($countersAvailable) {
+            Boolean available = $countersAvailable.get(handle);
+            if (available == null) {
+                // sqlite_stmt only exists when SQLite is built with SQLITE_ENABLE_STMTVTAB.
+                try {
+                    connection.executeScalar("SELECT 1 FROM sqlite_stmt LIMIT 0");
+                    available = true;
+                }
+                catch (SqliteException ex) {
+                    available = false;
+                }
+                $countersAvailable.put(handle, available);
+            }
+            return available;
+        }
+    }
+
+    /**
+     * Resolves the tables a plan scans and the column comparisons of its SQL against the schema.
+     */
+    private static Analysis $analyze(Plan plan, SchemaInfo schema) throws SqliteException {
+        Analysis analysis = new Analysis();
+        analysis.tokens = $tokenize(plan.sql);
+        analysis.aliases = $findAliases(analysis.tokens, schema);
+        for (int i = 0, length = plan.fullScans.size(); i < length; ++i) {
+            String table = analysis.aliases.get(plan.fullScans.get(i).toLowerCase(Locale.ROOT));
+            if (table != null && !analysis.scannedTables.contains(table)) {
+                analysis.scannedTables.add(table);
+            }
+        }
+        analysis.comparisons = $findComparisons(analysis.tokens, analysis.aliases, schema);
+        return analysis;
+    }
+
+    /**
+     * Adds the index suggestions of a flagged plan. Automatic indexes name the columns SQLite wanted an index on.
+     * For a scanned table, the columns compared to a value are used, equality comparisons first. Failing that,
+     * the columns joined to a table that is itself compared to a value, since an index would let that table drive
+     * the join. Failing that, the ORDER BY columns if the plan sorts.
+     */
+    private static void $suggest(Plan plan, Analysis analysis, long total, SchemaInfo schema, LinkedHashMap<String, Suggestion> suggestions) throws SqliteException {
+        for (int i = 0, length = plan.automaticIndexes.size(); i < length; ++i) {
+            String detail = plan.automaticIndexes.get(i);
+            String[] words = detail.split(" ");
+            String table = words.length > 1 ? analysis.aliases.get(words[1].toLowerCase(Locale.ROOT)) : null;
+            int open = detail.indexOf('(');
+            int close = detail.lastIndexOf(')');
+            if (table == null || open < 0 || close < open) {
+                continue;
+            }
+            ArrayList<String> columns = new ArrayList<>();
+            String[] terms = detail.substring(open + 1, close).split(" AND ");
+            for (int j = 0; j < terms.length; ++j) {
+                String column = terms[j].replaceAll("[<>=!].*$", "").trim();
+                if (!column.isEmpty() && !columns.contains(column)) {
+                    columns.add(column);
+                }
+            }
+            $addSuggestion(total, schema, suggestions, table, columns, REASON_AUTOINDEX);
+        }
+
+        for (int i = 0, length = analysis.scannedTables.size(); i < length; ++i) {
+            String table = analysis.scannedTables.get(i);
+            ArrayList<String> columns = new ArrayList<>();
+            String range = null;
+            for (int j = 0, count = analysis.comparisons.size(); j < count; ++j) {
+                Comparison comparison = analysis.comparisons.get(j);
+                if (!comparison.table.equals(table) || comparison.otherTable != null) {
+                    continue;
+                }
+                if (comparison.equality) {
+                    if (!columns.contains(comparison.column)) {
+                        columns.add(comparison.column);
+                    }
+                }
+                else if (range == null) {
+                    range = comparison.column;
+                }
+            }
+            // Columns after the first range column can not use the index, so at most one is kept.
+            if (range != null && !columns.contains(range)) {
+                columns.add(range);
+            }
+
+            if (columns.isEmpty()) {
+                for (int j = 0, count = analysis.comparisons.size(); j < count; ++j) {
+                    Comparison comparison = analysis.comparisons.get(j);
+                    if (comparison.table.equals(table) && comparison.equality && comparison.otherTable != null
+                        && !comparison.otherTable.equals(table) && $isComparedToValue(analysis.comparisons, comparison.otherTable)
+                        && !columns.contains(comparison.column)) {
+                        columns.add(comparison.column);
+                    }
+                }
+            }
+
+            String reason = REASON_SCAN;
+            if (columns.isEmpty() && !plan.tempBTrees.isEmpty()) {
+                HashSet<String> names = new HashSet<>();
+                for (Map.Entry<String, String> alias : analysis.aliases.entrySet()) {
+                    if (alias.getValue().equals(table)) {
+                        names.add(alias.getKey());
+                    }
+                }
+                columns = $findOrderColumns(analysis.tokens, names, schema.getColumns(table));
+                reason = REASON_SORT;
+            }
+            $addSuggestion(total, schema, suggestions, table, columns, reason);
+        }
+    }
+
+    private static boolean $isComparedToValue(ArrayList<Comparison> comparisons, String table) {
+        for (int i = 0, length = comparisons.size(); i < length; ++i) {
+            if (comparisons.get(i).table.equals(table) && comparisons.get(i).otherTable == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void $addSuggestion(long total, SchemaInfo schema, LinkedHashMap<String, Suggestion> suggestions, String table, ArrayList<String> columns, String reason) throws SqliteException {
+        if (columns.isEmpty() || schema.isIndexed(table, columns.get(0))) {
+            return;
+        }
+        String key = table + "\u0000" + columns.get(0);
+        Suggestion suggestion = suggestions.get(key);
+        if (suggestion == null) {
+            suggestion = new Suggestion(table, columns, reason);
+            suggestions.put(key, suggestion);
+        }
+        else if (columns.size() > suggestion.columns.size()) {
+            suggestion.columns = columns;
+            suggestion.reason = reason;
+        }
+        suggestion.statements++;
+        suggestion.total += total;
+    }
+
+    /**
+     * Maps each table name and alias in the SQL, lower cased, to its table as named in the schema.
+     */
+    private static HashMap<String, String> $findAliases(ArrayList<String> tokens, SchemaInfo schema) throws SqliteException {
+        HashMap<String, String> aliases = new HashMap<>();
+        for (int i = 0, length = tokens.size(); i < length; ++i) {
+            String table = schema.getTable(tokens.get(i));
+            if (table == null) {
+                continue;
+            }
+            aliases.put(tokens.get(i).toLowerCase(Locale.ROOT), table);
+            int next = i + 1;
+            if (next < length && tokens.get(next).equalsIgnoreCase("AS")) {
+                next++;
+            }
+            if (next < length && $isIdentifier(tokens.get(next)) && !$isKeyword(tokens.get(next))) {
+                aliases.put(tokens.get(next).toLowerCase(Locale.ROOT), table);
+            }
+        }
+        return aliases;
+    }
+
+    /**
+     * Finds every comparison of a table column, to a value or to a column of another table.
+     * Assignments in SET are skipped.
+     */
+    private static ArrayList<Comparison> $findComparisons(ArrayList<String> tokens, HashMap<String, String> aliases, SchemaInfo schema) throws SqliteException {
+        HashSet<String> tables = new HashSet<>(aliases.values());
+        ArrayList<Comparison> comparisons = new ArrayList<>();
+        boolean assigning = false;
+        for (int i = 0, length = tokens.size(); i < length; ++i) {
+            String token = tokens.get(i).toUpperCase(Locale.ROOT);
+            if (token.equals("SET")) {
+                assigning = true;
+            }
+            else if (token.equals("WHERE") || token.equals("FROM") || token.equals("RETURNING")) {
+                assigning = false;
+            }
+            boolean equality = token.equals("=") || token.equals("==") || token.equals("IN") || token.equals("IS");
+            if (assigning || !(equality || $isRangeOperator(token))) {
+                continue;
+            }
+            if (token.equals("IS") && i + 1 < length && tokens.get(i + 1).equalsIgnoreCase("NOT")) {
+                continue;
+            }
+
+            String[] left = $readColumnBefore(tokens, i, aliases, tables, schema);
+            String[] right = $readColumnAfter(tokens, i + 1, aliases, tables, schema);
+            if (left != null) {
+                comparisons.add(new Comparison(left[0], left[1], equality, right == null ? null : right[0]));
+            }
+            // IN, IS, BETWEEN, LIKE and GLOB only take the column on their left.
+            if (right != null && token.length() <= 2) {
+                comparisons.add(new Comparison(right[0], right[1], equality, left == null ? null : left[0]));
+            }
+        }
+        return comparisons;
+    }
+
+    /**
+     * @return {table, column} of the column reference that ends right before index, or null.
+     */
+    private static String[] $readColumnBefore(ArrayList<String> tokens, int index, HashMap<String, String> aliases, HashSet<String> tables, SchemaInfo schema) throws SqliteException {
+        if (index < 1) {
+            return null;
+        }
+        if (index >= 3 && tokens.get(index - 2).equals(".")) {
+            return $resolveQualified(tokens.get(index - 3), tokens.get(index - 1), aliases, schema);
+        }
+        return $resolveUnqualified(tokens.get(index - 1), tables, schema);
+    }
+
+    /**
+     * @return {table, column} of the column reference that starts at index, or null.
+     */
+    private static String[] $readColumnAfter(ArrayList<String> tokens, int index, HashMap<String, String> aliases, HashSet<String> tables, SchemaInfo schema) throws SqliteException {
+        if (index >= tokens.size()) {
+            return null;
+        }
+        if (index + 2 < tokens.size() && tokens.get(index + 1).equals(".")) {
+            return $resolveQualified(tokens.get(index), tokens.get(index + 2), aliases, schema);
+        }
+        if (index + 1 < tokens.size() && tokens.get(index + 1).equals("(")) {
+            // A function call.
+            return null;
+        }
+        return $resolveUnqualified(tokens.get(index), tables, schema);
+    }
+
+    private static String[] $resolveQualified(String qualifier, String name, HashMap<String, String> aliases, SchemaInfo schema) throws SqliteException {
+        String table = aliases.get(qualifier.toLowerCase(Locale.ROOT));
+        String column = table == null ? null : schema.getColumns(table).get(name.toLowerCase(Locale.ROOT));
+        return column == null ? null : new String[] {table, column};
+    }
+
+    /**
+     * @return The reference if exactly one table of the statement has the column.
+     */
+    private static String[] $resolveUnqualified(String name, HashSet<String> tables, SchemaInfo schema) throws SqliteException {
+        if (!$isIdentifier(name)) {
+            return null;
+        }
+        String[] out = null;
+        for (String table : tables) {
+            String column = schema.getColumns(table).get(name.toLowerCase(Locale.ROOT));
+            if (column != null) {
+                if (out != null) {
+                    return null;
+                }
+                out = new String[] {table, column};
+            }
+        }
+        return out;
+    }
+
+    private static ArrayList<String> $findOrderColumns(ArrayList<String> tokens, HashSet<String> names, HashMap<String, String> columns) {
+        ArrayList<String> out = new ArrayList<>();
+        for (int i = 0, length = tokens.size() - 1; i < length; ++i) {
+            if (!tokens.get(i).equalsIgnoreCase("ORDER") || !tokens.get(i + 1).equalsIgnoreCase("BY")) {
+                continue;
+            }
+            for (int j = i + 2; j < tokens.size(); ++j) {
+                String token = tokens.get(j);
+                if (token.equals(")") || token.equals(";") || token.equalsIgnoreCase("LIMIT")) {
+                    break;
+                }
+                String column = $resolveColumn(tokens, j, names, columns);
+                if (column != null && !out.contains(column)) {
+                    out.add(column);
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * @return The column of the table named by the reference starting at index, or null.
+     */
+    private static String $resolveColumn(ArrayList<String> tokens, int index, HashSet<String> names, HashMap<String, String> columns) {
+        String token = tokens.get(index);
+        if (!$isIdentifier(token)) {
+            return null;
+        }
+        if (index + 2 < tokens.size() && tokens.get(index + 1).equals(".")) {
+            if (!names.contains(token.toLowerCase(Locale.ROOT))) {
+                return null;
+            }
+            return columns.get(tokens.get(index + 2).toLowerCase(Locale.ROOT));
+        }
+        if (index > 0 && tokens.get(index - 1).equals(".")) {
+            return null;
+        }
+        return columns.get(token.toLowerCase(Locale.ROOT));
+    }
+
+    private static boolean $isRangeOperator(String token) {
+        return token.equals("<") || token.equals(">") || token.equals("<=") || token.equals(">=")
+            || token.equals("BETWEEN") || token.equals("LIKE") || token.equals("GLOB");
+    }
+
+    private static boolean $isIdentifier(String token) {
+        char c = token.charAt(0);
+        return Character.isLetter(c) || c == '_' || c > 0x7f;
+    }
+
+    private static boolean $isKeyword(String token) {
+        switch (token.toUpperCase(Locale.ROOT)) {
+            case "WHERE": case "JOIN": case "ON": case "USING": case "LEFT": case "RIGHT": case "FULL": case "INNER":
+            case "OUTER": case "CROSS": case "NATURAL": case "ORDER": case "GROUP": case "HAVING": case "LIMIT":
+            case "SET": case "INDEXED": case "NOT": case "VALUES": case "UNION": case "EXCEPT": case "INTERSECT":
+            case "WINDOW": case "RETURNING": case "DEFAULT": case "SELECT": case "AS":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Splits SQL into identifiers, with quotes removed, and operators. Literals and parameters become "?", and comments are dropped.
+     */
+    private static ArrayList<String> $tokenize(String sql) {
+        ArrayList<String> tokens = new ArrayList<>();
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            }
+            else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                while (i < length && sql.charAt(i) != '\n') {
+                    i++;
+                }
+            }
+            else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            }
+            else if (c == '\'') {
+                i = $skipQuoted(sql, i, '\'');
+                tokens.add("?");
+            }
+            else if (c == '"' || c == '`' || c == '[') {
+                char close = c == '[' ? ']' : c;
+                int end = $skipQuoted(sql, i, close);
+                String name = sql.substring(i + 1, Math.max(i + 1, end - 1));
+                tokens.add(name.isEmpty() ? "?" : name);
+                i = end;
+            }
+            else if (Character.isLetter(c) || c == '_' || c > 0x7f) {
+                int start = i;
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_' || sql.charAt(i) == '$' || sql.charAt(i) > 0x7f)) {
+                    i++;
+                }
+                tokens.add(sql.substring(start, i));
+            }
+            else if (Character.isDigit(c) || c == '?' || c == ':' || c == '@' || c == '$') {
+                i++;
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_' || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                tokens.add("?");
+            }
+            else if (i + 1 < length && $isOperatorPair(sql.charAt(i), sql.charAt(i + 1))) {
+                tokens.add(sql.substring(i, i + 2));
+                i += 2;
+            }
+            else {
+                tokens.add(String.valueOf(c));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean $isOperatorPair(char first, char second) {
+        return (second == '=' && (first == '<' || first == '>' || first == '!' || first == '='))
+            || (first == '<' && second == '>')
+            || (first == '|' && second == '|');
+    }
+
+    private static int $skipQuoted(String sql, int start, char close) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == close) {
+                // A doubled quote is an escaped quote.
+                if (close != ']' && i + 1 < sql.length() && sql.charAt(i + 1) == close) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return sql.length();
+    }
+
+    /**
+     * Looks up tables, their columns and the leading column of their indexes, once per report.
+     */
+    private static class SchemaInfo {
+        private final Connection $connection;
+        private HashMap<String, String> $tables;
+        private final HashMap<String, HashMap<String, String>> $columns = new HashMap<>();
+        private final HashMap<String, HashSet<String>> $indexed = new HashMap<>();
+
+        SchemaInfo(Connection connection) {
+            $connection = connection;
+        }
+
+        /**
+         * @return The table as named in the schema, or null if name is not a table of the main schema.
+         */
+        String getTable(String name) throws SqliteException {
+            if ($tables == null) {
+                $tables = new HashMap<>();
+                ArrayList<String[]> rows = $connection.executeRows("SELECT name FROM sqlite_master WHERE type = 'table' AND name NOT LIKE 'sqlite\\_%' ESCAPE '\\'");
+                for (int i = 0, length = rows.size(); i < length; ++i) {
+                    $tables.put(rows.get(i)[0].toLowerCase(Locale.ROOT), rows.get(i)[0]);
+                }
+            }
+            return $tables.get(name.toLowerCase(Locale.ROOT));
+        }
+
+        /**
+         * @return The columns of the table, keyed by their lower cased name.
+         */
+        HashMap<String, String> getColumns(String table) throws SqliteException {
+            HashMap<String, String> columns = $columns.get(table);
+            if (columns == null) {
+                columns = new HashMap<>();
+                ArrayList<String[]> rows = $connection.executeRows("PRAGMA table_info(" + $quote(table) + ")");
+                for (int i = 0, length = rows.size(); i < length; ++i) {
+                    columns.put(rows.get(i)[1].toLowerCase(Locale.ROOT), rows.get(i)[1]);
+                }
+                $columns.put(table, columns);
+            }
+            return columns;
+        }
+
+        /**
+         * @return True if the column is the rowid or leads an existing index, so a new index would not help.
+         */
+        boolean isIndexed(String table, String column) throws SqliteException {
+            HashSet<String> indexed = $indexed.get(table);
+            if (indexed == null) {
+                indexed = new HashSet<>();
+                ArrayList<String[]> info = $connection.executeRows("PRAGMA table_info(" + $quote(table) + ")");
+                int primaryKeys = 0;
+                String integerKey = null;
+                for (int i = 0, length = info.size(); i < length; ++i) {
+                    String[] row = info.get(i);
+                    if (row[5] != null && !row[5].equals("0")) {
+                        primaryKeys++;
+                        if (row[2] != null && row[2].equalsIgnoreCase("INTEGER")) {
+                            integerKey = row[1];
+                        }
+                    }
+                }
+                if (primaryKeys == 1 && integerKey != null) {
+                    indexed.add(integerKey.toLowerCase(Locale.ROOT));
+                }
+                ArrayList<String[]> indexes = $connection.executeRows("PRAGMA index_list(" + $quote(table) + ")");
+                for (int i = 0, length = indexes.size(); i < length; ++i) {
+                    ArrayList<String[]> columns = $connection.executeRows("PRAGMA index_info(" + $quote(indexes.get(i)[1]) + ")");
+                    for (int j = 0, count = columns.size(); j < count; ++j) {
+                        if ("0".equals(columns.get(j)[0]) && columns.get(j)[2] != null) {
+                            indexed.add(columns.get(j)[2].toLowerCase(Locale.ROOT));
+                        }
+                    }
+                }
+                $indexed.put(table, indexed);
+            }
+            return indexed.contains(column.toLowerCase(Locale.ROOT));
+        }
+
+        private static String $quote(String name) {
+            return "\"" + name.replace("\"", "\"\"") + "\"";
+        }
+    }
+}
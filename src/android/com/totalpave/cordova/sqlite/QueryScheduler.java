@@ -0,0 +1,307 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.totalpave.cordova.sqlite;
+
+import com.totalpave.sqlite3.SqliteException;
+
+import android.os.SystemClock;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Runs the work of a single database on its own threads, instead of the thread pool shared with other plugins.
+ *
+ * Tasks start in the order they were submitted. Interactive tasks start before any queued background task,
+ * but a running task is never interrupted. Exclusive tasks use the write connection, so they run one at a time
+ * and in order. Shared tasks, such as SELECT statements, run on a read connection alongside any other task.
+ * A shared task runs on the writer instead, once it is free, when every reader is taken or when the writer
+ * has a transaction open, so that it sees the transaction's changes.
+ *
+ * Idle tasks, such as maintenance, queue like exclusive background tasks but are not counted as activity,
+ * so they neither delay the next idle period nor show up in the stats.
+ */
+public class QueryScheduler {
+    public static final int PRIORITY_INTERACTIVE = 0;
+    public static final int PRIORITY_BACKGROUND = 1;
+
+    // 0 allows the queue to grow without bound.
+    public static final int DEFAULT_MAX_QUEUE_DEPTH = 0;
+
+    /**
+     * Tells the scheduler whether the write connection has a transaction open.
+     */
+    public interface TransactionState {
+        boolean isInTransaction();
+    }
+
+    private static class Task {
+        final Runnable runnable;
+        final boolean shared;
+        final boolean idle;
+        final long queuedAt;
+        boolean onReader;
+
+        Task(Runnable runnable, boolean shared, boolean idle) {
+            this.runnable = runnable;
+            this.shared = shared;
+            this.idle = idle;
+            this.queuedAt = SystemClock.elapsedRealtimeNanos();
+            this.onReader = false;
+        }
+    }
+
+    private final ExecutorService $executor;
+    private final int $readers;
+    private final int $maxQueueDepth;
+    private final TransactionState $transactionState;
+    private final ArrayDeque<Task> $interactive;
+    private final ArrayDeque<Task> $background;
+    private final ThreadLocal<Task> $current;
+    private int $runningOnReaders;
+    private boolean $writerBusy;
+    private long $readerWaits;
+    private Runnable $onDrained;
+    private boolean $closed;
+    private long $started;
+    private long $completed;
+    private long $rejected;
+    private long $totalQueueWait;
+    private long $maxQueueWait;
+    private long $submitted;
+    private long $lastActivity;
+
+    /**
+     * @param readers The number of read connections. That many shared tasks may run alongside the task on the writer.
+     * @param maxQueueDepth The most tasks that may wait to start. 0 or less removes the limit.
+     */
+    public QueryScheduler(int readers, int maxQueueDepth, TransactionState transactionState) {
+        $readers = Math.max(0, readers);
+        $maxQueueDepth = Math.max(0, maxQueueDepth);
+        $transactionState = transactionState;
+        $interactive = new ArrayDeque<>();
+        $background = new ArrayDeque<>();
+        $current = new ThreadLocal<>();
+        $runningOnReaders = 0;
+        $writerBusy = false;
+        $readerWaits = 0;
+        $closed = false;
+        $submitted = 0;
+        $lastActivity = SystemClock.elapsedRealtime();
+        $executor = Executors.newFixedThreadPool(1 + $readers, new ThreadFactory() {
+            private int $count = 0;
+
+            public synchronized Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "TP-SQLite-" + (++$count));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * @param shared True if the task only reads, so it may run on a read connection.
+     * @throws SqliteException QUEUE_FULL if the maximum queue depth is reached, or DATABASE_NOT_FOUND if the database is closing.
+     */
+    public synchronized void submit(int priority, boolean shared, Runnable runnable) throws SqliteException {
+        if ($closed) {
+            throw new SqliteException(Error.DOMAIN, "Database Not Found. The database is closing.", Error.DATABASE_NOT_FOUND);
+        }
+
+        if ($maxQueueDepth > 0 && $interactive.size() + $background.size() >= $maxQueueDepth) {
+            $rejected++;
+            throw new SqliteException(Error.DOMAIN, "Query Queue Full. " + Integer.toString($maxQueueDepth) + " queries are already waiting to run.", Error.QUEUE_FULL);
+        }
+
+        Task task = new Task(runnable, shared, false);
+        if (priority == PRIORITY_BACKGROUND) {
+            $background.add(task);
+        }
+        else {
+            $interactive.add(task);
+        }
+        $submitted++;
+        $lastActivity = SystemClock.elapsedRealtime();
+        $dispatch();
+    }
+
+    /**
+     * Queues an exclusive background task that is not counted as activity. Ignores the maximum queue depth.
+     *
+     * @throws SqliteException DATABASE_NOT_FOUND if the database is closing.
+     */
+    public synchronized void submitIdle(Runnable runnable) throws SqliteException {
+        if ($closed) {
+            throw new SqliteException(Error.DOMAIN, "Database Not Found. The database is closing.", Error.DATABASE_NOT_FOUND);
+        }
+
+        $background.add(new Task(runnable, false, true));
+        $dispatch();
+    }
+
+    /**
+     * @return True if the calling thread runs a shared task that was given a read connection.
+     * Every other caller, including threads that do not belong to the scheduler, must use the writer.
+     */
+    public boolean isOnReader() {
+        Task task = $current.get();
+        return task != null && task.onReader;
+    }
+
+    /**
+     * @return The number of shared tasks that ran on the writer because every reader was taken.
+     */
+    public synchronized long getReaderWaits() {
+        return $readerWaits;
+    }
+
+    /**
+     * @return True if any task is waiting to start.
+     */
+    public synchronized boolean hasQueuedTasks() {
+        return !$interactive.isEmpty() || !$background.isEmpty();
+    }
+
+    /**
+     * @return The time in milliseconds since the last task was submitted or finished, or 0 while any task is queued or running.
+     */
+    public synchronized long getIdleTime() {
+        if (hasQueuedTasks() || $writerBusy || $runningOnReaders > 0) {
+            return 0;
+        }
+        return SystemClock.elapsedRealtime() - $lastActivity;
+    }
+
+    /**
+     * @return The number of tasks submitted so far, not counting idle tasks. Changes whenever there was new activity.
+     */
+    public synchronized long getSubmittedCount() {
+        return $submitted;
+    }
+
+    /**
+     * Stops accepting tasks and runs onDrained once every queued and running task has finished.
+     */
+    public synchronized void close(Runnable onDrained) {
+        $closed = true;
+        $onDrained = onDrained;
+        $dispatch();
+    }
+
+    /**
+     * Stops the threads of the scheduler. Tasks that have not started are dropped.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            $closed = true;
+            $interactive.clear();
+            $background.clear();
+        }
+        $executor.shutdown();
+    }
+
+    public synchronized JSONObject getStats() throws JSONException {
+        JSONObject stats = new JSONObject();
+        stats.put("interactiveQueued", $interactive.size());
+        stats.put("backgroundQueued", $background.size());
+        stats.put("running", ($writerBusy ? 1 : 0) + $runningOnReaders);
+        stats.put("maxQueueDepth", $maxQueueDepth);
+        stats.put("completed", $completed);
+        stats.put("rejected", $rejected);
+        stats.put("averageQueueWait", $started == 0 ? 0 : (double)$totalQueueWait / (double)$started / 1000000.0);
+        stats.put("maxQueueWait", (double)$maxQueueWait / 1000000.0);
+        return stats;
+    }
+
+    /**
+     * Starts queued tasks in order until the task at the head of the queue has to wait.
+     * Must be called while holding the lock.
+     */
+    private void $dispatch() {
+        while (!$executor.isShutdown()) {
+            ArrayDeque<Task> queue = $interactive.isEmpty() ? $background : $interactive;
+            Task task = queue.peek();
+            if (task == null) {
+                if ($onDrained != null && !$writerBusy && $runningOnReaders == 0) {
+                    Runnable onDrained = $onDrained;
+                    $onDrained = null;
+                    $executor.execute(onDrained);
+                }
+                return;
+            }
+
+            // The head of the queue blocks every task behind it, so tasks never start out of order.
+            boolean inTransaction = task.shared && $transactionState.isInTransaction();
+            if (task.shared && $runningOnReaders < $readers && !inTransaction) {
+                task.onReader = true;
+                $runningOnReaders++;
+            }
+            else if (!$writerBusy) {
+                $writerBusy = true;
+                if (task.shared && !inTransaction) {
+                    $readerWaits++;
+                }
+            }
+            else {
+                return;
+            }
+
+            queue.poll();
+
+            if (!task.idle) {
+                long wait = SystemClock.elapsedRealtimeNanos() - task.queuedAt;
+                $started++;
+                $totalQueueWait += wait;
+                if (wait > $maxQueueWait) {
+                    $maxQueueWait = wait;
+                }
+            }
+
+            $executor.execute(new Runnable() {
+                public void run() {
+                    $current.set(task);
+                    try {
+                        task.runnable.run();
+                    }
+                    finally {
+                        $current.remove();
+                        $finish(task);
+                    }
+                }
+            });
+        }
+    }
+
+    private synchronized void $finish(Task task) {
+        if (task.onReader) {
+            $runningOnReaders--;
+        }
+        else {
+            $writerBusy = false;
+        }
+        if (!task.idle) {
+            $completed++;
+            $lastActivity = SystemClock.elapsedRealtime();
+        }
+        $dispatch();
+    }
+}
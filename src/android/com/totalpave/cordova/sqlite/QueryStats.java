@@ -0,0 +1,212 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.totalpave.cordova.sqlite;
+
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Per-statement timing metrics of a database, keyed by the SQL as given by the caller.
+ *
+ * Durations are kept in a log-linear histogram with 4 buckets per power of two microseconds,
+ * so percentiles are accurate to within 25% while every statement only costs an array increment.
+ * While disabled, nothing is recorded, and start returns an inert timer unless the slow query log is enabled.
+ */
+public class QueryStats {
+    public static final long DEFAULT_SLOW_QUERY_THRESHOLD = 0;
+    // Statements beyond this many distinct SQL strings are grouped under OTHER_SQL to bound memory.
+    public static final int MAX_STATEMENTS = 500;
+    public static final String OTHER_SQL = "(other)";
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = 64 * SUB_BUCKETS;
+
+    private static class Metric {
+        long count;
+        long errors;
+        long rows;
+        long bytes;
+        long total;
+        long max;
+        final long[] phases = new long[QueryTimer.PHASE_COUNT];
+        final long[] histogram = new long[BUCKET_COUNT];
+    }
+
+    private volatile boolean $enabled;
+    private volatile long $slowQueryThreshold;
+    private final HashMap<String, Metric> $metrics;
+
+    public QueryStats(boolean enabled, long slowQueryThreshold) {
+        $enabled = enabled;
+        $slowQueryThreshold = slowQueryThreshold;
+        $metrics = new HashMap<>();
+    }
+
+    public boolean isEnabled() {
+        return $enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        $enabled = enabled;
+    }
+
+    /**
+     * @param slowQueryThreshold Time in milliseconds. Statements that take at least this long are logged. 0 or less disables the log.
+     */
+    public void setSlowQueryThreshold(long slowQueryThreshold) {
+        $slowQueryThreshold = slowQueryThreshold;
+    }
+
+    /**
+     * Starts timing a statement. Call this as early as possible, so that the time spent waiting for a thread is measured.
+     */
+    public QueryTimer start(String sql) {
+        if (!$enabled && $slowQueryThreshold <= 0) {
+            return QueryTimer.DISABLED;
+        }
+        return new QueryTimer(this, sql);
+    }
+
+    void record(QueryTimer timer, long elapsed, boolean success) {
+        long threshold = $slowQueryThreshold;
+        if (threshold > 0 && elapsed >= threshold * 1000000L) {
+            Log.w(SQLite.LOG_TAG, String.format(
+                "Slow query took %.2fms (queue %.2fms, prepare %.2fms, bind %.2fms, step %.2fms, serialize %.2fms, rows %d): %s",
+                elapsed / 1e6,
+                timer.getPhase(QueryTimer.QUEUE) / 1e6,
+                timer.getPhase(QueryTimer.PREPARE) / 1e6,
+                timer.getPhase(QueryTimer.BIND) / 1e6,
+                timer.getPhase(QueryTimer.STEP) / 1e6,
+                timer.getPhase(QueryTimer.SERIALIZE) / 1e6,
+                timer.getRows(),
+                $normalize(timer.getSql())
+            ));
+        }
+
+        if (!$enabled) {
+            return;
+        }
+
+        synchronized (this) {
+            Metric metric = $metrics.get(timer.getSql());
+            if (metric == null) {
+                String key = $metrics.size() < MAX_STATEMENTS ? timer.getSql() : OTHER_SQL;
+                metric = $metrics.get(key);
+                if (metric == null) {
+                    metric = new Metric();
+                    $metrics.put(key, metric);
+                }
+            }
+
+            metric.count++;
+            if (!success) {
+                metric.errors++;
+            }
+            metric.rows += timer.getRows();
+            metric.bytes += timer.getBytes();
+            metric.total += elapsed;
+            metric.max = Math.max(metric.max, elapsed);
+            for (int i = 0; i < QueryTimer.PHASE_COUNT; ++i) {
+                metric.phases[i] += timer.getPhase(i);
+            }
+            metric.histogram[$getBucket(elapsed / 1000)]++;
+        }
+    }
+
+    public synchronized void reset() {
+        $metrics.clear();
+    }
+
+    public synchronized JSONObject toJSON() throws JSONException {
+        JSONArray statements = new JSONArray();
+        for (Map.Entry<String, Metric> entry : $metrics.entrySet()) {
+            Metric metric = entry.getValue();
+            JSONObject out = new JSONObject();
+            out.put("sql", $normalize(entry.getKey()));
+            out.put("count", metric.count);
+            out.put("errors", metric.errors);
+            out.put("rows", metric.rows);
+            out.put("bytes", metric.bytes);
+            out.put("totalTime", metric.total / 1e6);
+            out.put("p50", $getPercentile(metric, 0.50));
+            out.put("p95", $getPercentile(metric, 0.95));
+            out.put("max", metric.max / 1e6);
+            out.put("queueTime", metric.phases[QueryTimer.QUEUE] / 1e6);
+            out.put("prepareTime", metric.phases[QueryTimer.PREPARE] / 1e6);
+            out.put("bindTime", metric.phases[QueryTimer.BIND] / 1e6);
+            out.put("stepTime", metric.phases[QueryTimer.STEP] / 1e6);
+            out.put("serializeTime", metric.phases[QueryTimer.SERIALIZE] / 1e6);
+            statements.put(out);
+        }
+
+        JSONObject stats = new JSONObject();
+        stats.put("enabled", $enabled);
+        stats.put("slowQueryThreshold", $slowQueryThreshold);
+        stats.put("statements", statements);
+        return stats;
+    }
+
+    /**
+     * @return The upper bound, in milliseconds, of the bucket that holds the given percentile.
+     */
+    private static double $getPercentile(Metric metric, double percentile) {
+        long target = (long)Math.ceil(metric.count * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            seen += metric.histogram[i];
+            if (seen >= target && seen > 0) {
+                return Math.min($getBucketUpperBound(i), metric.max / 1000) / 1e3;
+            }
+        }
+        return 0;
+    }
+
+    private static int $getBucket(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int)Math.max(0, micros);
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int)(micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return Math.min(BUCKET_COUNT - 1, (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket);
+    }
+
+    private static long $getBucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (subBucket + 1) * width - 1;
+    }
+
+    /**
+     * Collapses whitespace so multi-line SQL is readable in logs and stats.
+     */
+    private static String $normalize(String sql) {
+        return sql.trim().replaceAll("\\s+", " ");
+    }
+}
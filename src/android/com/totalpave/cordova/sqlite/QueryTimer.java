@@ -0,0 +1,116 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.totalpave.cordova.sqlite;
+
+import android.os.SystemClock;
+
+/**
+ * Measures the phases of a single statement execution for QueryStats.
+ *
+ * Phases are measured as laps: each call to lap adds the time since the previous lap to the given phase.
+ * A timer created while stats are disabled is inert, so callers never need to check whether stats are enabled.
+ */
+public class QueryTimer {
+    public static final int QUEUE = 0;
+    public static final int PREPARE = 1;
+    public static final int BIND = 2;
+    public static final int STEP = 3;
+    public static final int SERIALIZE = 4;
+    public static final int PHASE_COUNT = 5;
+
+    /**
+     * A timer that records nothing, used while stats are disabled.
+     */
+    public static final QueryTimer DISABLED = new QueryTimer(null, null);
+
+    private final QueryStats $stats;
+    private final String $sql;
+    private final long $start;
+    private final long[] $phases;
+    private long $last;
+    private long $rows;
+    private long $bytes;
+    private boolean $finished;
+
+    public QueryTimer(QueryStats stats, String sql) {
+        $stats = stats;
+        $sql = sql;
+        $phases = new long[PHASE_COUNT];
+        $rows = 0;
+        $bytes = 0;
+        $finished = stats == null;
+        $start = $finished ? 0 : SystemClock.elapsedRealtimeNanos();
+        $last = $start;
+    }
+
+    public boolean isEnabled() {
+        return $stats != null;
+    }
+
+    public String getSql() {
+        return $sql;
+    }
+
+    /**
+     * Adds the time elapsed since the previous lap to the given phase.
+     */
+    public void lap(int phase) {
+        if ($stats == null) {
+            return;
+        }
+
+        long now = SystemClock.elapsedRealtimeNanos();
+        $phases[phase] += now - $last;
+        $last = now;
+    }
+
+    public void addRows(long rows) {
+        $rows += rows;
+    }
+
+    /**
+     * The size of the serialized response, in characters.
+     */
+    public void setBytes(long bytes) {
+        $bytes = bytes;
+    }
+
+    public long getPhase(int phase) {
+        return $phases[phase];
+    }
+
+    public long getRows() {
+        return $rows;
+    }
+
+    public long getBytes() {
+        return $bytes;
+    }
+
+    /**
+     * Records the timer into its stats. Only the first call has any effect.
+     *
+     * @param success false if the statement failed.
+     */
+    public void finish(boolean success) {
+        if ($finished) {
+            return;
+        }
+        $finished = true;
+        $stats.record(this, SystemClock.elapsedRealtimeNanos() - $start, success);
+    }
+}
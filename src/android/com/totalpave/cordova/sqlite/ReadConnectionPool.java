@@ -0,0 +1,107 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.totalpave.cordova.sqlite;
+
+import com.totalpave.sqlite3.SqliteException;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * A fixed set of read only connections used to run SELECT statements in parallel with the writer connection.
+ *
+ * A connection is used by a single query at a time. The scheduler gives a reader to at most as many tasks as there
+ * are readers, and runs other reads on the writer.
+ */
+public class ReadConnectionPool {
+    // SQLITE_OPEN_READONLY, SQLITE_OPEN_READWRITE and SQLITE_OPEN_CREATE
+    private static final int OPEN_READ_ONLY = 0x00000001;
+    private static final int OPEN_MODE_MASK = 0x00000001 | 0x00000002 | 0x00000004;
+
+    private final ArrayList<Connection> $connections;
+    private final LinkedBlockingQueue<Connection> $idle;
+    private long $acquisitions;
+
+    /**
+     * @param openFlags The flags the writer was opened with. The access mode is replaced with read only.
+     * @param pragmas Applied to each reader when it is opened.
+     */
+    public ReadConnectionPool(File fpath, int openFlags, int size, int statementCacheSize, PragmaOptions pragmas) throws SqliteException {
+        $connections = new ArrayList<>(size);
+        $idle = new LinkedBlockingQueue<>();
+        $acquisitions = 0;
+
+        int readerFlags = (openFlags & ~OPEN_MODE_MASK) | OPEN_READ_ONLY;
+        try {
+            for (int i = 0; i < size; ++i) {
+                Connection connection = new Connection(fpath, readerFlags, statementCacheSize);
+                $connections.add(connection);
+                pragmas.applyToReader(connection);
+                $idle.add(connection);
+            }
+        }
+        catch (SqliteException ex) {
+            close();
+            throw ex;
+        }
+    }
+
+    public ArrayList<Connection> getConnections() {
+        return $connections;
+    }
+
+    /**
+     * Takes an idle reader without waiting.
+     *
+     * @return The reader, or null if every reader is busy.
+     */
+    public Connection acquire() {
+        Connection connection = $idle.poll();
+        if (connection != null) {
+            synchronized (this) {
+                $acquisitions++;
+            }
+        }
+        return connection;
+    }
+
+    public void release(Connection connection) {
+        $idle.offer(connection);
+    }
+
+    public void close() {
+        for (int i = 0, length = $connections.size(); i < length; ++i) {
+            $connections.get(i).close();
+        }
+        $connections.clear();
+        $idle.clear();
+    }
+
+    public synchronized JSONObject getStats() throws JSONException {
+        int idle = $idle.size();
+        JSONObject stats = new JSONObject();
+        stats.put("size", $connections.size());
+        stats.put("idle", idle);
+        stats.put("busy", $connections.size() - idle);
+        stats.put("acquisitions", $acquisitions);
+        return stats;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.totalpave.cordova.sqlite;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * A least recently used cache of query results, bounded by the approximate size of the results in bytes.
+ *
+ * Each entry records the tables its statement read, so that a write only evicts the entries that depend on
+ * the written tables. Every invalidation bumps a generation counter. A result is only stored if no invalidation
+ * happened while it was being computed, so a result read before a write can never be cached after it.
+ */
+public class ResultCache {
+    private static class Entry {
+        final Object value;
+        final long bytes;
+        final Set<String> tables;
+
+        Entry(Object value, long bytes, Set<String> tables) {
+            this.value = value;
+            this.bytes = bytes;
+            this.tables = tables;
+        }
+    }
+
+    private final long $capacity;
+    private final LinkedHashMap<String, Entry> $entries;
+    private long $size;
+    private long $generation;
+    private long $hits;
+    private long $misses;
+    private long $evictions;
+    private long $invalidations;
+
+    /**
+     * @param capacity The most bytes of results to keep.
+     */
+    public ResultCache(long capacity) {
+        $capacity = Math.max(0, capacity);
+        // Access ordered so that the eldest entry is always the least recently used result.
+        $entries = new LinkedHashMap<>(16, 0.75f, true);
+        $size = 0;
+        $generation = 0;
+        $hits = 0;
+        $misses = 0;
+        $evictions = 0;
+        $invalidations = 0;
+    }
+
+    /**
+     * @return The cached result, or null on a miss.
+     */
+    public synchronized Object get(String key) {
+        Entry entry = $entries.get(key);
+        if (entry == null) {
+            $misses++;
+            return null;
+        }
+        $hits++;
+        return entry.value;
+    }
+
+    /**
+     * Must be read before the result is computed, and given back to put.
+     */
+    public synchronized long getGeneration() {
+        return $generation;
+    }
+
+    /**
+     * @param bytes The approximate memory held by the result.
+     * @param tables The tables the statement read.
+     * @param generation The generation read before the result was computed.
+     */
+    public synchronized void put(String key, Object value, long bytes, Set<String> tables, long generation) {
+        // Keys are held in memory as well, at two bytes per character.
+        long entryBytes = bytes + (key.length() * 2L);
+        if (generation != $generation || entryBytes > $capacity) {
+            return;
+        }
+
+        Entry previous = $entries.remove(key);
+        if (previous != null) {
+            $size -= previous.bytes;
+        }
+
+        $entries.put(key, new Entry(value, entryBytes, tables));
+        $size += entryBytes;
+
+        Iterator<Map.Entry<String, Entry>> it = $entries.entrySet().iterator();
+        while ($size > $capacity && it.hasNext()) {
+            $size -= it.next().getValue().bytes;
+            it.remove();
+            $evictions++;
+        }
+    }
+
+    /**
+     * Removes every result that read any of the tables.
+     */
+    public synchronized void invalidate(Collection<String> tables) {
+        if (tables.isEmpty()) {
+            return;
+        }
+
+        $generation++;
+        ArrayList<String> keys = new ArrayList<>();
+        for (Map.Entry<String, Entry> entry : $entries.entrySet()) {
+            for (String table : tables) {
+                if (entry.getValue().tables.contains(table)) {
+                    keys.add(entry.getKey());
+                    break;
+                }
+            }
+        }
+
+        for (int i = 0, length = keys.size(); i < length; ++i) {
+            $size -= $entries.remove(keys.get(i)).bytes;
+        }
+        $invalidations += keys.size();
+    }
+
+    /**
+     * Removes every result, such as after a schema change or a write that could not be attributed to tables.
+     */
+    public synchronized void clear() {
+        $generation++;
+        $invalidations += $entries.size();
+        $entries.clear();
+        $size = 0;
+    }
+
+    public synchronized JSONObject getStats() throws JSONException {
+        long lookups = $hits + $misses;
+        JSONObject stats = new JSONObject();
+        stats.put("capacity", $capacity);
+        stats.put("size", $size);
+        stats.put("entries", $entries.size());
+        stats.put("hits", $hits);
+        stats.put("misses", $misses);
+        stats.put("hitRate", lookups == 0 ? 0 : (double)$hits / (double)lookups);
+        stats.put("evictions", $evictions);
+        stats.put("invalidations", $invalidations);
+        return stats;
+    }
+}
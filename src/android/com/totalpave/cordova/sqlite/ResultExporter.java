@@ -0,0 +1,306 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+package com.totalpave.cordova.sqlite;
+
+import android.os.SystemClock;
+import android.util.Base64;
+
+import com.totalpave.sqlite3.ColumnType;
+import com.totalpave.sqlite3.Sqlite;
+import com.totalpave.sqlite3.SqliteException;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Streams the rows of a statement into a UTF-8 file as NDJSON or CSV.
+ *
+ * Each row is formatted into a reusable text buffer, encoded into a fixed size byte buffer and written through a
+ * FileChannel whenever the byte buffer fills up, so memory use does not grow with the size of the export.
+ * The rows are written to a temporary file next to the destination, which is moved into place once the export
+ * is complete, so a failed or cancelled export never leaves a partial file behind.
+ */
+public class ResultExporter {
+    public static final String FORMAT_NDJSON = "ndjson";
+    public static final String FORMAT_CSV = "csv";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File $destination;
+    private final File $temp;
+    private final boolean $csv;
+    private final boolean $header;
+    private final QueryOptions $options;
+    private final long $progressInterval;
+    private final Backup.ProgressListener $listener;
+    private final JsonResultWriter $writer;
+    private final StringBuilder $line;
+    private final CharsetEncoder $encoder;
+    private final ByteBuffer $bytes;
+    private FileOutputStream $stream;
+    private FileChannel $channel;
+    private long $rows;
+    private long $written;
+    private long $lastProgress;
+
+    /**
+     * @param header Writes the column names as the first line of a CSV export.
+     * @param progressInterval Time in milliseconds between progress reports. 0 or less disables progress reports.
+     * @param listener Receives {rows, bytes} progress reports on the exporting thread. May be null.
+     */
+    public ResultExporter(File destination, String format, boolean header, QueryOptions options, long progressInterval, Backup.ProgressListener listener) throws SqliteException {
+        if (!FORMAT_NDJSON.equals(format) && !FORMAT_CSV.equals(format)) {
+            throw new SqliteException(Error.DOMAIN, "Unsupported export format \"" + format + "\"", Error.UNSUPPORTED_EXPORT_FORMAT);
+        }
+
+        $destination = destination;
+        $temp = new File(destination.getAbsolutePath() + "-temp");
+        $csv = FORMAT_CSV.equals(format);
+        $header = header;
+        $options = options;
+        $progressInterval = progressInterval;
+        $listener = listener;
+        $writer = new JsonResultWriter();
+        $line = new StringBuilder();
+        $encoder = StandardCharsets.UTF_8.newEncoder();
+        $bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        $rows = 0;
+        $written = 0;
+    }
+
+    /**
+     * Creates the temporary file and writes the CSV header, if any.
+     */
+    public void open(JsonResultWriter.Columns columns, long statement) throws SqliteException {
+        File directory = $destination.getParentFile();
+        if (directory != null) {
+            directory.mkdirs();
+        }
+        $temp.delete();
+
+        try {
+            $stream = new FileOutputStream($temp);
+            $channel = $stream.getChannel();
+            if ($csv && $header) {
+                $line.setLength(0);
+                for (int i = 0, length = columns.getColumnCount(); i < length; i++) {
+                    if (i > 0) {
+                        $line.append(',');
+                    }
+                    $appendCsvText($line, Sqlite.columnName(statement, i));
+                }
+                $line.append("\r\n");
+                $write($line);
+            }
+        }
+        catch (IOException ex) {
+            abort();
+            throw new SqliteException(Error.DOMAIN, ex.getMessage(), Error.IO_ERROR);
+        }
+        $lastProgress = SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * Writes the current row of the statement.
+     */
+    public void writeRow(long statement, JsonResultWriter.Columns columns) throws JSONException, SqliteException {
+        CharSequence text;
+        if ($csv) {
+            $line.setLength(0);
+            for (int i = 0, length = columns.getColumnCount(); i < length; i++) {
+                if (i > 0) {
+                    $line.append(',');
+                }
+                $appendCsvValue(statement, i);
+            }
+            $line.append("\r\n");
+            text = $line;
+        }
+        else {
+            $writer.clear();
+            $writer.writeRowObject(statement, columns, $options);
+            $writer.append('\n');
+            text = $writer.getText();
+        }
+
+        try {
+            $write(text);
+        }
+        catch (IOException ex) {
+            throw new SqliteException(Error.DOMAIN, ex.getMessage(), Error.IO_ERROR);
+        }
+        $rows++;
+
+        if ($listener != null && $progressInterval > 0) {
+            long now = SystemClock.elapsedRealtime();
+            if (now - $lastProgress >= $progressInterval) {
+                $lastProgress = now;
+                $listener.onProgress($createProgress("progress"));
+            }
+        }
+    }
+
+    /**
+     * Flushes the remaining bytes and moves the file into place.
+     *
+     * @return {rows, bytes}
+     */
+    public JSONObject finish() throws JSONException, SqliteException {
+        try {
+            $flush();
+            $channel.force(false);
+            $close();
+        }
+        catch (IOException ex) {
+            abort();
+            throw new SqliteException(Error.DOMAIN, ex.getMessage(), Error.IO_ERROR);
+        }
+
+        $destination.delete();
+        if (!$temp.renameTo($destination)) {
+            $temp.delete();
+            throw new SqliteException(Error.DOMAIN, "Could not move the export to " + $destination.getAbsolutePath(), Error.IO_ERROR);
+        }
+
+        JSONObject result = new JSONObject();
+        result.put("rows", $rows);
+        result.put("bytes", $written);
+        return result;
+    }
+
+    /**
+     * Closes and deletes the temporary file. Safe to call more than once.
+     */
+    public void abort() {
+        try {
+            $close();
+        }
+        catch (IOException ex) {
+            // The file is deleted regardless.
+        }
+        $temp.delete();
+    }
+
+    private final JSONObject $createProgress(String event) throws JSONException {
+        JSONObject progress = new JSONObject();
+        progress.put("event", event);
+        progress.put("rows", $rows);
+        progress.put("bytes", $written + $bytes.position());
+        return progress;
+    }
+
+    private final void $appendCsvValue(long statement, int column) throws JSONException, SqliteException {
+        int columnType = Sqlite.columnType(statement, column);
+        switch (columnType) {
+            case ColumnType.INTEGER:
+                $line.append(Sqlite.getInt(statement, column));
+                break;
+            case ColumnType.FLOAT:
+                JsonResultWriter.appendDouble($line, Sqlite.getDouble(statement, column));
+                break;
+            case ColumnType.TEXT:
+                $appendCsvText($line, Sqlite.getString(statement, column));
+                break;
+            case ColumnType.BLOB:
+                // Base64 only needs quoting when the blob is empty.
+                $appendCsvText($line, Base64.encodeToString(Sqlite.getBlob(statement, column), Base64.NO_WRAP));
+                break;
+            case ColumnType.NULL:
+                // An unquoted empty field.
+                break;
+            default:
+                throw new SqliteException(Error.DOMAIN, "Unhandled Column Type \"" + Integer.toString(columnType) + "\"", Error.UNSUPPORTED_COLUMN_TYPE);
+        }
+    }
+
+    /**
+     * Appends a field as described by RFC 4180, quoted only when it contains a separator, a quote or a line break.
+     * Empty text is quoted as well, so that it can be told apart from NULL.
+     */
+    private static final void $appendCsvText(StringBuilder out, String value) {
+        boolean quote = value.isEmpty();
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                quote = true;
+                break;
+            }
+        }
+
+        if (!quote) {
+            out.append(value);
+            return;
+        }
+
+        out.append('"');
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    private final void $write(CharSequence text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        $encoder.reset();
+        while (true) {
+            CoderResult result = $encoder.encode(chars, $bytes, true);
+            if (result.isOverflow()) {
+                $flush();
+                continue;
+            }
+            if (result.isError()) {
+                result.throwException();
+            }
+            break;
+        }
+        while ($encoder.flush($bytes).isOverflow()) {
+            $flush();
+        }
+    }
+
+    private final void $flush() throws IOException {
+        $bytes.flip();
+        while ($bytes.hasRemaining()) {
+            $written += $channel.write($bytes);
+        }
+        $bytes.clear();
+    }
+
+    private final void $close() throws IOException {
+        if ($stream != null) {
+            FileOutputStream stream = $stream;
+            $stream = null;
+            $channel = null;
+            stream.close();
+        }
+    }
+}
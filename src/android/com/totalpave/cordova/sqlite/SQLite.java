@@ -21,6 +21,7 @@ import com.totalpave.sqlite3.Sqlite;
 
 import org.apache.cordova.CallbackContext;
 import org.apache.cordova.CordovaPlugin;
+import org.apache.cordova.PluginResult;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.json.JSONException;
@@ -29,8 +30,9 @@ import android.util.Log;
 import android.system.Os;
 import android.system.OsConstants;
 
-import java.io.FileNotFoundException;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.net.URI;
 import java.io.File;
 import java.io.IOException;
@@ -41,11 +43,20 @@ import java.lang.NumberFormatException;
 public class SQLite extends CordovaPlugin {
     public static final String LOG_TAG = "TP-SQLite";
 
-    private HashMap<Long, Database> $databases;
+    public static final long DEFAULT_CURSOR_IDLE_TIMEOUT = 60000;
+    public static final int DEFAULT_BACKUP_BUSY_TIMEOUT = 60000;
+    // The chunk size suggested to blob handles, in memory pages.
+    public static final int BLOB_CHUNK_PAGES = 16;
+
+    // Accessed from the WebView thread and from the threads of each database.
+    private ConcurrentHashMap<Long, Database> $databases;
+    // Runs the idle timeouts of cursors
+    private ScheduledExecutorService $timer;
 
     @Override
     protected void pluginInitialize() {
-        $databases = new HashMap<Long, Database>();
+        $databases = new ConcurrentHashMap<Long, Database>();
+        $timer = Executors.newSingleThreadScheduledExecutor();
 
         File cacheDir = this.cordova.getContext().getCacheDir();
         File sqliteTempDir = new File(cacheDir, "sqlite3");
@@ -59,6 +70,11 @@ public class SQLite extends CordovaPlugin {
         }
     }
 
+    @Override
+    public void onDestroy() {
+        $timer.shutdownNow();
+    }
+
     /**
      * Gets the ideal buffer size for processing streams of data.
      *
@@ -85,15 +101,17 @@ public class SQLite extends CordovaPlugin {
             String dbPath = args.getString(0);
             int openFlags = args.getInt(1);
             int busyTimeout = args.getInt(2);
+            OpenOptions options = OpenOptions.fromJSON(args.optJSONObject(3));
 
             cordova.getThreadPool().execute(new Runnable() {
                 public void run() {
                     try {
                         try {
-                            long dbHandle = $openDatabase(dbPath, openFlags);
+                            Database db = $openDatabase(dbPath, openFlags, options);
                             JSONObject response = new JSONObject();
-                            response.put("dbHandle", Long.toString(dbHandle));
-                            Sqlite.setBusyTimeout(dbHandle, busyTimeout);
+                            response.put("dbHandle", Long.toString(db.getHandle()));
+                            response.put("pragmas", db.getPragmas());
+                            db.setBusyTimeout(busyTimeout);
                             callback.success(response);
                         }
                         catch (SqliteException ex) {
@@ -111,24 +129,163 @@ public class SQLite extends CordovaPlugin {
             long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
             String sql = args.getString(1);
             JSONObject params = args.optJSONObject(2);
+            QueryOptions options = QueryOptions.fromJSON(args.optJSONObject(3));
             Database db = $databases.get(dbHandle);
             if (db == null) {
                 callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling query?", Error.DATABASE_NOT_FOUND).toDictionary());
                 return true;
             }
-            cordova.getThreadPool().execute(new Runnable() {
+            QueryTimer timer = db.getQueryStats().start(sql);
+            CancellationToken token = db.startQuery(options.getQueryId(), options.getTimeout(), $timer);
+            $schedule(db, options.getPriority(), db.isParallelReadable(sql), callback, token, new Runnable() {
                 public void run() {
                     try {
                         try {
-                            callback.success(db.run(sql, params));
+                            String cacheKey = db.getResultCacheKey(sql, params, options);
+                            if (cacheKey != null) {
+                                Object cached = db.getCachedResult(cacheKey);
+                                if (cached != null) {
+                                    timer.lap(QueryTimer.QUEUE);
+                                    // The cached result was serialized when it was first sent, so it is sent again as is.
+                                    callback.sendPluginResult((PluginResult)cached);
+                                    timer.finish(true);
+                                    return;
+                                }
+                            }
+                            long cacheGeneration = db.getResultCacheGeneration();
+
+                            PluginResult result;
+                            if (options.isColumnar()) {
+                                result = new JsonPluginResult(db.runColumnarJson(sql, params, options, timer, token));
+                            }
+                            else {
+                                result = new JsonPluginResult(db.runJson(sql, params, options, timer, token));
+                            }
+                            // The rows are serialized as they are read.
+                            timer.lap(QueryTimer.SERIALIZE);
+                            if (timer.isEnabled()) {
+                                timer.setBytes(result.getMessage().length());
+                            }
+                            callback.sendPluginResult(result);
+                            if (cacheKey != null) {
+                                // Two bytes per character of the serialized result.
+                                db.cacheResult(cacheKey, sql, result, result.getMessage().length() * 2L, cacheGeneration);
+                            }
+                            timer.finish(true);
                         }
                         catch (SqliteException ex) {
+                            timer.finish(false);
                             callback.error(ex.toDictionary());
                         }
                     }
+                    catch (JSONException ex) {
+                        timer.finish(false);
+                        callback.error(ex.getMessage());
+                    }
+                    finally {
+                        db.finishQuery(token);
+                    }
+                }
+            });
+            return true;
+        }
+        else if (action.equals("exportQuery")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            String sql = args.getString(1);
+            JSONObject params = args.optJSONObject(2);
+            File destination = $parsePath(args.getString(3));
+            String format = args.getString(4);
+            JSONObject exportOptions = args.optJSONObject(5);
+            QueryOptions options = QueryOptions.fromJSON(exportOptions);
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling exportQuery?", Error.DATABASE_NOT_FOUND).toDictionary());
+                return true;
+            }
+
+            boolean header = exportOptions == null || exportOptions.optBoolean("header", true);
+            long progressInterval = exportOptions == null ? 0 : exportOptions.optLong("progressInterval", 0);
+            ResultExporter exporter;
+            try {
+                exporter = new ResultExporter(destination, format, header, options, progressInterval, $createProgressListener(callback));
+            }
+            catch (SqliteException ex) {
+                callback.error(ex.toDictionary());
+                return true;
+            }
+
+            CancellationToken token = db.startQuery(options.getQueryId(), options.getTimeout(), $timer);
+            $schedule(db, options.getPriority(), db.isParallelReadable(sql), callback, token, new Runnable() {
+                public void run() {
+                    try {
+                        try {
+                            $sendComplete(callback, db.exportQuery(sql, params, options, exporter, token));
+                        }
+                        catch (SqliteException ex) {
+                            $sendError(callback, ex.toDictionary());
+                        }
+                    }
+                    catch (JSONException ex) {
+                        callback.error(ex.getMessage());
+                    }
+                    finally {
+                        db.finishQuery(token);
+                    }
+                }
+            });
+            return true;
+        }
+        else if (action.equals("importFile")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            File source = $parsePath(args.getString(1));
+            String table = args.getString(2);
+            JSONArray columns = args.optJSONArray(3);
+            String format = args.getString(4);
+            JSONObject importOptions = args.optJSONObject(5);
+            QueryOptions options = QueryOptions.fromJSON(importOptions);
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling importFile?", Error.DATABASE_NOT_FOUND).toDictionary());
+                return true;
+            }
+
+            String onConflict = null;
+            boolean header = true;
+            int batchSize = FileImporter.DEFAULT_BATCH_SIZE;
+            boolean progress = false;
+            if (importOptions != null) {
+                onConflict = importOptions.isNull("onConflict") ? null : importOptions.getString("onConflict");
+                header = importOptions.optBoolean("header", true);
+                batchSize = importOptions.optInt("batchSize", FileImporter.DEFAULT_BATCH_SIZE);
+                progress = importOptions.optBoolean("progress", false);
+            }
+
+            FileImporter importer;
+            try {
+                importer = new FileImporter(source, table, columns, format, onConflict, header, batchSize, progress ? $createProgressListener(callback) : null);
+            }
+            catch (SqliteException ex) {
+                callback.error(ex.toDictionary());
+                return true;
+            }
+
+            CancellationToken token = db.startQuery(options.getQueryId(), options.getTimeout(), $timer);
+            $schedule(db, options.getPriority(), false, callback, token, new Runnable() {
+                public void run() {
+                    try {
+                        try {
+                            $sendComplete(callback, db.importFile(importer, token));
+                        }
+                        catch (SqliteException ex) {
+                            $sendError(callback, ex.toDictionary());
+                        }
+                    }
                     catch (JSONException ex) {
                         callback.error(ex.getMessage());
                     }
+                    finally {
+                        db.finishQuery(token);
+                    }
                 }
             });
             return true;
@@ -137,18 +294,100 @@ public class SQLite extends CordovaPlugin {
             long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
             String sql = args.getString(1);
             JSONArray params = args.optJSONArray(2);
+            QueryOptions options = QueryOptions.fromJSON(args.optJSONObject(3));
             Database db = $databases.get(dbHandle);
 
             if (db == null) {
                 callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling bulkInsert?", Error.DATABASE_NOT_FOUND).toDictionary());
                 return true;
             }
-            cordova.getThreadPool().execute(new Runnable() {
+
+            BulkRunOptions bulkOptions;
+            try {
+                bulkOptions = BulkRunOptions.fromJSON(args.optJSONObject(3));
+            }
+            catch (SqliteException ex) {
+                callback.error(ex.toDictionary());
+                return true;
+            }
+            QueryTimer timer = db.getQueryStats().start(sql);
+            CancellationToken token = db.startQuery(options.getQueryId(), options.getTimeout(), $timer);
+            $schedule(db, options.getPriority(), false, callback, token, new Runnable() {
                 public void run() {
+                    timer.lap(QueryTimer.QUEUE);
                     try {
                         try {
-                            db.bulkRun(sql, params);
-                            callback.success();
+                            JSONObject result = db.bulkRun(sql, params, bulkOptions, timer, token);
+                            callback.success(result);
+                            timer.finish(true);
+                        } catch (SqliteException ex) {
+                            timer.finish(false);
+                            callback.error(ex.toDictionary());
+                        }
+                    }
+                    catch (JSONException ex) {
+                        timer.finish(false);
+                        callback.error(ex.getMessage());
+                    }
+                    finally {
+                        db.finishQuery(token);
+                    }
+                }
+            });
+            return true;
+        }
+        else if (action.equals("executeMany")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            String sql = args.getString(1);
+            JSONArray rows = args.optJSONArray(2);
+            JSONObject rawOptions = args.optJSONObject(3);
+            boolean lastInsertRowId = rawOptions != null && rawOptions.optBoolean("lastInsertRowId", false);
+            QueryOptions options = QueryOptions.fromJSON(rawOptions);
+            Database db = $databases.get(dbHandle);
+
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling executeMany?", Error.DATABASE_NOT_FOUND).toDictionary());
+                return true;
+            }
+            CancellationToken token = db.startQuery(options.getQueryId(), options.getTimeout(), $timer);
+            $schedule(db, options.getPriority(), false, callback, token, new Runnable() {
+                public void run() {
+                    try {
+                        try {
+                            callback.success(db.executeMany(sql, rows, lastInsertRowId, options, token));
+                        } catch (SqliteException ex) {
+                            callback.error(ex.toDictionary());
+                        }
+                    }
+                    catch (JSONException ex) {
+                        callback.error(ex.getMessage());
+                    }
+                    finally {
+                        db.finishQuery(token);
+                    }
+                }
+            });
+            return true;
+        }
+        else if (action.equals("batch")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            JSONArray entries = args.getJSONArray(1);
+            JSONObject options = args.optJSONObject(2);
+            boolean transaction = options != null && options.optBoolean("transaction", false);
+            String transactionMode = options == null ? "DEFERRED" : options.optString("transactionMode", "DEFERRED");
+            boolean stopOnError = options == null || options.optBoolean("stopOnError", true);
+            int priority = QueryOptions.fromJSON(options).getPriority();
+            Database db = $databases.get(dbHandle);
+
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling batch?", Error.DATABASE_NOT_FOUND).toDictionary());
+                return true;
+            }
+            $schedule(db, priority, false, callback, new Runnable() {
+                public void run() {
+                    try {
+                        try {
+                            callback.success(db.batch(entries, transaction, transactionMode, stopOnError));
                         } catch (SqliteException ex) {
                             callback.error(ex.toDictionary());
                         }
@@ -168,92 +407,773 @@ public class SQLite extends CordovaPlugin {
                 return true;
             }
 
-            db.close();
+            // New queries can no longer find the database, while the queries already queued still run before it closes.
             $databases.remove(dbHandle);
-            callback.success();
+            db.getScheduler().close(new Runnable() {
+                public void run() {
+                    // An in-memory database is written to its file first, so a failure can be reported. It still closes.
+                    SqliteException error = null;
+                    try {
+                        db.flushBeforeClose();
+                    }
+                    catch (SqliteException ex) {
+                        error = ex;
+                    }
+                    db.close();
+                    if (error == null) {
+                        callback.success();
+                        return;
+                    }
+                    try {
+                        callback.error(error.toDictionary());
+                    }
+                    catch (JSONException ex) {
+                        callback.error(ex.getMessage());
+                    }
+                }
+            });
             return true;
         }
-        else if (action.equals("backup")) {
-            String path = args.getString(0);
-            String backupPath = args.getString(1);
-
-            File source = $parsePath(path);
-            File destination = $parsePath(backupPath);
-            destination.delete(); // returns false if fails but we don't care.
-
-            FileInputStream in;
-            FileOutputStream out;
-
-            try {
-                in = new FileInputStream(source);
-                out = new FileOutputStream(destination);
-            }
-            catch (FileNotFoundException ex) {
-                callback.error(new SqliteException(Error.DOMAIN, ex.getMessage(), Error.IO_ERROR).toDictionary());
+        else if (action.equals("openCursor")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            String sql = args.getString(1);
+            JSONObject params = args.optJSONObject(2);
+            JSONObject rawOptions = args.optJSONObject(3);
+            QueryOptions options = QueryOptions.fromJSON(rawOptions);
+            long idleTimeout = rawOptions == null ? DEFAULT_CURSOR_IDLE_TIMEOUT : rawOptions.optLong("idleTimeout", DEFAULT_CURSOR_IDLE_TIMEOUT);
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling openCursor?", Error.DATABASE_NOT_FOUND).toDictionary());
                 return true;
             }
-            try {
-                // Transfer bytes from in to out
-                byte[] buf = new byte[this.getPageSize() * 2];
-                int len;
-                while ((len = in.read(buf)) > 0) {
-                    out.write(buf, 0, len);
+            $schedule(db, options.getPriority(), false, callback, new Runnable() {
+                public void run() {
+                    try {
+                        try {
+                            JSONObject response = new JSONObject();
+                            response.put("cursorId", db.openCursor(sql, params, options, idleTimeout, $timer));
+                            callback.success(response);
+                        }
+                        catch (SqliteException ex) {
+                            callback.error(ex.toDictionary());
+                        }
+                    }
+                    catch (JSONException ex) {
+                        callback.error(ex.getMessage());
+                    }
                 }
+            });
+            return true;
+        }
+        else if (action.equals("fetchCursor")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            int cursorId = args.getInt(1);
+            int count = args.getInt(2);
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling fetchCursor?", Error.DATABASE_NOT_FOUND).toDictionary());
+                return true;
             }
-            catch (IOException ex) {
-                try {
-                    out.close();
-                    in.close();
-                }
-                catch (IOException iex) {
-                    Log.e(LOG_TAG, iex.getMessage());
+            $schedule(db, QueryScheduler.PRIORITY_INTERACTIVE, false, callback, new Runnable() {
+                public void run() {
+                    try {
+                        try {
+                            callback.success(db.fetchCursor(cursorId, count));
+                        }
+                        catch (SqliteException ex) {
+                            callback.error(ex.toDictionary());
+                        }
+                    }
+                    catch (JSONException ex) {
+                        callback.error(ex.getMessage());
+                    }
                 }
-                callback.error(new SqliteException(Error.DOMAIN, ex.getMessage(), Error.IO_ERROR).toDictionary());
+            });
+            return true;
+        }
+        else if (action.equals("closeCursor")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            int cursorId = args.getInt(1);
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.success();
                 return true;
             }
-
-            callback.success();
+            // Closing waits for any in-flight fetch on the cursor, so keep it off the WebView thread.
+            $schedule(db, QueryScheduler.PRIORITY_INTERACTIVE, false, callback, new Runnable() {
+                public void run() {
+                    db.closeCursor(cursorId);
+                    callback.success();
+                }
+            });
             return true;
         }
-        else if (action.equals("restoreBackup")) {
-            String path = args.getString(0);
-            String backupPath = args.getString(1);
-
-            File tempdestination = $parsePath(path + "-temp");
-            File source = $parsePath(backupPath);
-            File destination = $parsePath(path);
-
-            String userErr = "Could not restore database.";
-
-            // Store existing database in case of failure.
-            if (!destination.renameTo(tempdestination)) {
-                callback.error(new SqliteException(Error.DOMAIN, "Could not rename existing database.", Error.IO_ERROR).toDictionary());
+        else if (action.equals("openBlob")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            String table = args.getString(1);
+            String column = args.getString(2);
+            long rowId = args.getLong(3);
+            JSONObject rawOptions = args.optJSONObject(4);
+            String schema = rawOptions == null ? "main" : rawOptions.optString("schema", "main");
+            boolean writable = rawOptions != null && rawOptions.optBoolean("writable", false);
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling openBlob?", Error.DATABASE_NOT_FOUND).toDictionary());
                 return true;
             }
-
-            // Restore db
-            if (!source.renameTo(destination)) {
-                if (!tempdestination.renameTo(destination)) {
-                    userErr += " Also failed to recover from error state.";
+            $schedule(db, QueryScheduler.PRIORITY_INTERACTIVE, false, callback, new Runnable() {
+                public void run() {
+                    try {
+                        try {
+                            JSONObject response = db.openBlob(schema, table, column, rowId, writable);
+                            // Reads and writes of a few memory pages keep bridge calls few while the chunks stay small.
+                            response.put("chunkSize", getPageSize() * BLOB_CHUNK_PAGES);
+                            callback.success(response);
+                        }
+                        catch (SqliteException ex) {
+                            callback.error(ex.toDictionary());
+                        }
+                    }
+                    catch (JSONException ex) {
+                        callback.error(ex.getMessage());
+                    }
                 }
-                callback.error(new SqliteException(Error.DOMAIN, userErr, Error.IO_ERROR).toDictionary());
+            });
+            return true;
+        }
+        else if (action.equals("reopenBlob")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            int blobId = args.getInt(1);
+            long rowId = args.getLong(2);
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling reopenBlob?", Error.DATABASE_NOT_FOUND).toDictionary());
                 return true;
             }
-
-            tempdestination.delete();
-            source.delete();
-
-            callback.success();
+            $schedule(db, QueryScheduler.PRIORITY_INTERACTIVE, false, callback, new Runnable() {
+                public void run() {
+                    try {
+                        try {
+                            JSONObject response = new JSONObject();
+                            response.put("size", db.reopenBlob(blobId, rowId));
+                            callback.success(response);
+                        }
+                        catch (SqliteException ex) {
+                            callback.error(ex.toDictionary());
+                        }
+                    }
+                    catch (JSONException ex) {
+                        callback.error(ex.getMessage());
+                    }
+                }
+            });
             return true;
         }
-
-        return false;
-    }
-    
-    private final Long $openDatabase(String path, int openFlags) throws SqliteException {
-        Database db = new Database($parsePath(path), openFlags);
-        $databases.put(db.getHandle(), db);
-        return db.getHandle();
+        else if (action.equals("readBlob")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            int blobId = args.getInt(1);
+            long offset = args.getLong(2);
+            int length = args.getInt(3);
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling readBlob?", Error.DATABASE_NOT_FOUND).toDictionary());
+                return true;
+            }
+            $schedule(db, QueryScheduler.PRIORITY_INTERACTIVE, false, callback, new Runnable() {
+                public void run() {
+                    try {
+                        try {
+                            // Sent as an ArrayBuffer rather than JSON.
+                            callback.sendPluginResult(new PluginResult(PluginResult.Status.OK, db.readBlob(blobId, offset, length)));
+                        }
+                        catch (SqliteException ex) {
+                            callback.error(ex.toDictionary());
+                        }
+                    }
+                    catch (JSONException ex) {
+                        callback.error(ex.getMessage());
+                    }
+                }
+            });
+            return true;
+        }
+        else if (action.equals("writeBlob")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            int blobId = args.getInt(1);
+            long offset = args.getLong(2);
+            JSONObject data = args.getJSONObject(3);
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling writeBlob?", Error.DATABASE_NOT_FOUND).toDictionary());
+                return true;
+            }
+            $schedule(db, QueryScheduler.PRIORITY_INTERACTIVE, false, callback, new Runnable() {
+                public void run() {
+                    try {
+                        try {
+                            db.writeBlob(blobId, offset, data);
+                            callback.success();
+                        }
+                        catch (SqliteException ex) {
+                            callback.error(ex.toDictionary());
+                        }
+                    }
+                    catch (JSONException ex) {
+                        callback.error(ex.getMessage());
+                    }
+                }
+            });
+            return true;
+        }
+        else if (action.equals("closeBlob")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            int blobId = args.getInt(1);
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                // The handle was closed with its database.
+                callback.success();
+                return true;
+            }
+            // Closing commits the writes made through the handle, so it runs on the database's queue.
+            $schedule(db, QueryScheduler.PRIORITY_INTERACTIVE, false, callback, new Runnable() {
+                public void run() {
+                    try {
+                        try {
+                            db.closeBlob(blobId);
+                            callback.success();
+                        }
+                        catch (SqliteException ex) {
+                            callback.error(ex.toDictionary());
+                        }
+                    }
+                    catch (JSONException ex) {
+                        callback.error(ex.getMessage());
+                    }
+                }
+            });
+            return true;
+        }
+        else if (action.equals("cancel")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            String queryId = args.getString(1);
+            Database db = $databases.get(dbHandle);
+            JSONObject response = new JSONObject();
+            // The database may have closed after the query finished, which is not an error.
+            response.put("cancelled", db != null && db.cancel(queryId));
+            callback.success(response);
+            return true;
+        }
+        else if (action.equals("getStatementCacheStats")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling getStatementCacheStats?", Error.DATABASE_NOT_FOUND).toDictionary());
+                return true;
+            }
+
+            callback.success(db.getStatementCacheStats());
+            return true;
+        }
+        else if (action.equals("watch")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            JSONArray tables = args.getJSONArray(1);
+            JSONObject watchOptions = args.optJSONObject(2);
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling watch?", Error.DATABASE_NOT_FOUND).toDictionary());
+                return true;
+            }
+
+            long minInterval = ChangeWatcher.DEFAULT_MIN_INTERVAL;
+            int maxRowids = ChangeWatcher.DEFAULT_MAX_ROWIDS;
+            if (watchOptions != null) {
+                minInterval = watchOptions.optLong("minInterval", ChangeWatcher.DEFAULT_MIN_INTERVAL);
+                maxRowids = watchOptions.optInt("maxRowids", ChangeWatcher.DEFAULT_MAX_ROWIDS);
+            }
+            final long watchMinInterval = minInterval;
+            final int watchMaxRowids = maxRowids;
+
+            ChangeWatcher.Listener listener = new ChangeWatcher.Listener() {
+                public void onChanges(JSONObject event) {
+                    synchronized (callback) {
+                        if (callback.isFinished()) {
+                            return;
+                        }
+                        PluginResult result = new PluginResult(PluginResult.Status.OK, event);
+                        result.setKeepCallback(true);
+                        callback.sendPluginResult(result);
+                    }
+                }
+
+                public void onClosed() {
+                    try {
+                        $sendComplete(callback);
+                    }
+                    catch (JSONException ex) {
+                        callback.error(ex.getMessage());
+                    }
+                }
+            };
+
+            $schedule(db, QueryScheduler.PRIORITY_INTERACTIVE, false, callback, new Runnable() {
+                public void run() {
+                    try {
+                        try {
+                            JSONObject response = new JSONObject();
+                            response.put("event", "watch");
+                            response.put("watchId", db.watch(tables, watchMinInterval, watchMaxRowids, $timer, listener));
+                            listener.onChanges(response);
+                        }
+                        catch (SqliteException ex) {
+                            $sendError(callback, ex.toDictionary());
+                        }
+                    }
+                    catch (JSONException ex) {
+                        callback.error(ex.getMessage());
+                    }
+                }
+            });
+            return true;
+        }
+        else if (action.equals("unwatch")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            int watchId = args.getInt(1);
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling unwatch?", Error.DATABASE_NOT_FOUND).toDictionary());
+                return true;
+            }
+
+            $schedule(db, QueryScheduler.PRIORITY_INTERACTIVE, false, callback, new Runnable() {
+                public void run() {
+                    try {
+                        try {
+                            db.unwatch(watchId);
+                            callback.success();
+                        }
+                        catch (SqliteException ex) {
+                            callback.error(ex.toDictionary());
+                        }
+                    }
+                    catch (JSONException ex) {
+                        callback.error(ex.getMessage());
+                    }
+                }
+            });
+            return true;
+        }
+        else if (action.equals("flush")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling flush?", Error.DATABASE_NOT_FOUND).toDictionary());
+                return true;
+            }
+
+            $schedule(db, QueryScheduler.PRIORITY_INTERACTIVE, false, callback, new Runnable() {
+                public void run() {
+                    try {
+                        try {
+                            JSONObject response = new JSONObject();
+                            response.put("flushed", db.flush());
+                            JSONObject stats = db.getInMemoryStats();
+                            response.put("stats", stats == null ? JSONObject.NULL : stats);
+                            callback.success(response);
+                        }
+                        catch (SqliteException ex) {
+                            callback.error(ex.toDictionary());
+                        }
+                    }
+                    catch (JSONException ex) {
+                        callback.error(ex.getMessage());
+                    }
+                }
+            });
+            return true;
+        }
+        else if (action.equals("runMaintenance")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling runMaintenance?", Error.DATABASE_NOT_FOUND).toDictionary());
+                return true;
+            }
+
+            // The pass runs in slices between queries, so it is not queued like a query.
+            db.getMaintenance().requestRun(new Maintenance.Listener() {
+                public void onFinished(JSONObject report) {
+                    callback.success(report);
+                }
+            });
+            return true;
+        }
+        else if (action.equals("getMaintenanceStats")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling getMaintenanceStats?", Error.DATABASE_NOT_FOUND).toDictionary());
+                return true;
+            }
+
+            callback.success(db.getMaintenance().getStats());
+            return true;
+        }
+        else if (action.equals("getStats")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling getStats?", Error.DATABASE_NOT_FOUND).toDictionary());
+                return true;
+            }
+
+            callback.success(db.getQueryStats().toJSON());
+            return true;
+        }
+        else if (action.equals("resetStats")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling resetStats?", Error.DATABASE_NOT_FOUND).toDictionary());
+                return true;
+            }
+
+            db.getQueryStats().reset();
+            callback.success();
+            return true;
+        }
+        else if (action.equals("getQueryPlanReport")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            JSONObject options = args.optJSONObject(1);
+            int limit = options == null ? QueryPlanProfiler.DEFAULT_REPORT_LIMIT : Math.max(0, options.optInt("limit", QueryPlanProfiler.DEFAULT_REPORT_LIMIT));
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling getQueryPlanReport?", Error.DATABASE_NOT_FOUND).toDictionary());
+                return true;
+            }
+
+            // The report reads the schema through the writer.
+            $schedule(db, QueryScheduler.PRIORITY_INTERACTIVE, false, callback, new Runnable() {
+                public void run() {
+                    try {
+                        try {
+                            callback.success(db.getQueryPlanReport(limit));
+                        }
+                        catch (SqliteException ex) {
+                            callback.error(ex.toDictionary());
+                        }
+                    }
+                    catch (JSONException ex) {
+                        callback.error(ex.getMessage());
+                    }
+                }
+            });
+            return true;
+        }
+        else if (action.equals("resetQueryPlanReport")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling resetQueryPlanReport?", Error.DATABASE_NOT_FOUND).toDictionary());
+                return true;
+            }
+
+            db.getQueryPlanProfiler().reset();
+            callback.success();
+            return true;
+        }
+        else if (action.equals("configureStats")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            JSONObject options = args.getJSONObject(1);
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling configureStats?", Error.DATABASE_NOT_FOUND).toDictionary());
+                return true;
+            }
+
+            QueryStats stats = db.getQueryStats();
+            if (options.has("enabled")) {
+                stats.setEnabled(options.getBoolean("enabled"));
+            }
+            if (options.has("slowQueryThreshold")) {
+                stats.setSlowQueryThreshold(options.getLong("slowQueryThreshold"));
+            }
+            callback.success();
+            return true;
+        }
+        else if (action.equals("getResultCacheStats")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling getResultCacheStats?", Error.DATABASE_NOT_FOUND).toDictionary());
+                return true;
+            }
+
+            JSONObject stats = db.getResultCacheStats();
+            if (stats == null) {
+                // The database was opened without a result cache.
+                stats = new ResultCache(0).getStats();
+            }
+            callback.success(stats);
+            return true;
+        }
+        else if (action.equals("getConnectionPoolStats")) {
+            long dbHandle = Long.parseLong(args.getJSONObject(0).getString("dbHandle"));
+            Database db = $databases.get(dbHandle);
+            if (db == null) {
+                callback.error(new SqliteException(Error.DOMAIN, "Database Not Found. Did you open your database before calling getConnectionPoolStats?", Error.DATABASE_NOT_FOUND).toDictionary());
+                return true;
+            }
+
+            callback.success(db.getConnectionPoolStats());
+            return true;
+        }
+        else if (action.equals("backup")) {
+            String path = args.getString(0);
+            String backupPath = args.getString(1);
+            JSONObject options = args.optJSONObject(2);
+
+            File source = $parsePath(path);
+            File destination = $parsePath(backupPath);
+
+            if (options != null && options.optBoolean("incremental", false)) {
+                int busyTimeout = options.optInt("busyTimeout", DEFAULT_BACKUP_BUSY_TIMEOUT);
+                int maxDeltas = options.optInt("maxDeltas", DeltaBackup.DEFAULT_MAX_DELTAS);
+                long progressInterval = options.optLong("progressInterval", 0);
+                cordova.getThreadPool().execute(new Runnable() {
+                    public void run() {
+                        try {
+                            try {
+                                $sendComplete(callback, DeltaBackup.backup(source, destination, busyTimeout, maxDeltas, progressInterval, $timer, $createProgressListener(callback)));
+                            }
+                            catch (SqliteException ex) {
+                                $sendError(callback, ex.toDictionary());
+                            }
+                        }
+                        catch (JSONException ex) {
+                            callback.error(ex.getMessage());
+                        }
+                    }
+                });
+                return true;
+            }
+
+            if (options != null && options.optBoolean("online", false)) {
+                int busyTimeout = options.optInt("busyTimeout", DEFAULT_BACKUP_BUSY_TIMEOUT);
+                long progressInterval = options.optLong("progressInterval", 0);
+                cordova.getThreadPool().execute(new Runnable() {
+                    public void run() {
+                        try {
+                            try {
+                                Backup.backup(source, destination, busyTimeout, progressInterval, $timer, $createProgressListener(callback));
+                                $sendComplete(callback);
+                            }
+                            catch (SqliteException ex) {
+                                $sendError(callback, ex.toDictionary());
+                            }
+                        }
+                        catch (JSONException ex) {
+                            callback.error(ex.getMessage());
+                        }
+                    }
+                });
+                return true;
+            }
+
+            cordova.getThreadPool().execute(new Runnable() {
+                public void run() {
+                    try {
+                        $copyFile(source, destination);
+                        callback.success();
+                    }
+                    catch (IOException ex) {
+                        try {
+                            callback.error(new SqliteException(Error.DOMAIN, ex.getMessage(), Error.IO_ERROR).toDictionary());
+                        }
+                        catch (JSONException jex) {
+                            callback.error(jex.getMessage());
+                        }
+                    }
+                }
+            });
+            return true;
+        }
+        else if (action.equals("restoreBackup")) {
+            String path = args.getString(0);
+            String backupPath = args.getString(1);
+            JSONObject options = args.optJSONObject(2);
+
+            if (options != null && options.optBoolean("incremental", false)) {
+                File destination = $parsePath(path);
+                File directory = $parsePath(backupPath);
+                int busyTimeout = options.optInt("busyTimeout", DEFAULT_BACKUP_BUSY_TIMEOUT);
+                cordova.getThreadPool().execute(new Runnable() {
+                    public void run() {
+                        try {
+                            try {
+                                DeltaBackup.restore(destination, directory, busyTimeout, $createProgressListener(callback));
+                                $sendComplete(callback);
+                            }
+                            catch (SqliteException ex) {
+                                $sendError(callback, ex.toDictionary());
+                            }
+                        }
+                        catch (JSONException ex) {
+                            callback.error(ex.getMessage());
+                        }
+                    }
+                });
+                return true;
+            }
+
+            if (options != null && options.optBoolean("online", false)) {
+                File destination = $parsePath(path);
+                File source = $parsePath(backupPath);
+                int busyTimeout = options.optInt("busyTimeout", DEFAULT_BACKUP_BUSY_TIMEOUT);
+                cordova.getThreadPool().execute(new Runnable() {
+                    public void run() {
+                        try {
+                            try {
+                                Backup.restore(destination, source, busyTimeout, $createProgressListener(callback));
+                                $sendComplete(callback);
+                            }
+                            catch (SqliteException ex) {
+                                $sendError(callback, ex.toDictionary());
+                            }
+                        }
+                        catch (JSONException ex) {
+                            callback.error(ex.getMessage());
+                        }
+                    }
+                });
+                return true;
+            }
+
+            File tempdestination = $parsePath(path + "-temp");
+            File source = $parsePath(backupPath);
+            File destination = $parsePath(path);
+
+            String userErr = "Could not restore database.";
+
+            // Store existing database in case of failure.
+            if (!destination.renameTo(tempdestination)) {
+                callback.error(new SqliteException(Error.DOMAIN, "Could not rename existing database.", Error.IO_ERROR).toDictionary());
+                return true;
+            }
+
+            // Restore db
+            if (!source.renameTo(destination)) {
+                if (!tempdestination.renameTo(destination)) {
+                    userErr += " Also failed to recover from error state.";
+                }
+                callback.error(new SqliteException(Error.DOMAIN, userErr, Error.IO_ERROR).toDictionary());
+                return true;
+            }
+
+            tempdestination.delete();
+            source.delete();
+
+            callback.success();
+            return true;
+        }
+
+        return false;
+    }
+    
+    /**
+     * Queues the task on the scheduler of the database, or reports the backpressure error if the queue is full.
+     */
+    private final void $schedule(Database db, int priority, boolean shared, CallbackContext callback, Runnable task) throws JSONException {
+        $schedule(db, priority, shared, callback, CancellationToken.NONE, task);
+    }
+
+    /**
+     * @param token Finished here if the task could not be queued, otherwise the task must finish it.
+     */
+    private final void $schedule(Database db, int priority, boolean shared, CallbackContext callback, CancellationToken token, Runnable task) throws JSONException {
+        try {
+            db.getScheduler().submit(priority, shared, task);
+        }
+        catch (SqliteException ex) {
+            db.finishQuery(token);
+            callback.error(ex.toDictionary());
+        }
+    }
+
+    private final Database $openDatabase(String path, int openFlags, OpenOptions options) throws SqliteException {
+        Database db = new Database($parsePath(path), openFlags, options);
+        $databases.put(db.getHandle(), db);
+        db.getMaintenance().start($timer);
+        db.startFlushTimer($timer);
+        return db;
+    }
+
+    /**
+     * Copies the file byte by byte. Used by the legacy backup, which is only safe while the database is not in use.
+     */
+    private final void $copyFile(File source, File destination) throws IOException {
+        destination.delete(); // returns false if fails but we don't care.
+
+        FileInputStream in = null;
+        FileOutputStream out = null;
+        try {
+            in = new FileInputStream(source);
+            out = new FileOutputStream(destination);
+
+            // Transfer bytes from in to out
+            byte[] buf = new byte[this.getPageSize() * 2];
+            int len;
+            while ((len = in.read(buf)) > 0) {
+                out.write(buf, 0, len);
+            }
+        }
+        finally {
+            try {
+                if (out != null) {
+                    out.close();
+                }
+                if (in != null) {
+                    in.close();
+                }
+            }
+            catch (IOException ex) {
+                Log.e(LOG_TAG, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reports progress to JS without finishing the callback. Progress that arrives after the callback finished is dropped.
+     */
+    private final Backup.ProgressListener $createProgressListener(CallbackContext callback) {
+        return new Backup.ProgressListener() {
+            public void onProgress(JSONObject progress) {
+                synchronized (callback) {
+                    if (callback.isFinished()) {
+                        return;
+                    }
+                    PluginResult result = new PluginResult(PluginResult.Status.OK, progress);
+                    result.setKeepCallback(true);
+                    callback.sendPluginResult(result);
+                }
+            }
+        };
+    }
+
+    private final void $sendComplete(CallbackContext callback) throws JSONException {
+        $sendComplete(callback, new JSONObject());
+    }
+
+    private final void $sendComplete(CallbackContext callback, JSONObject response) throws JSONException {
+        response.put("event", "complete");
+        synchronized (callback) {
+            callback.success(response);
+        }
+    }
+
+    private final void $sendError(CallbackContext callback, JSONObject error) {
+        synchronized (callback) {
+            callback.error(error);
+        }
     }
 
     private final File $parsePath(String path) {
@@ -0,0 +1,143 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.totalpave.cordova.sqlite;
+
+import com.totalpave.sqlite3.Sqlite;
+import com.totalpave.sqlite3.SqliteException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * A bounded, least recently used cache of prepared statements for a single connection handle.
+ *
+ * Statements are keyed by their final SQL text, that is after array parameters have been expanded.
+ * A statement is removed from the cache while it is in use, so concurrent callers running the
+ * same SQL never share a statement. If two callers prepare the same SQL at once, the second
+ * statement to be released is finalized rather than cached.
+ */
+public class StatementCache {
+    private final long $handle;
+    private final int $capacity;
+    private final LinkedHashMap<String, CachedStatement> $statements;
+    private long $hits;
+    private long $misses;
+    private boolean $closed;
+
+    public StatementCache(long handle, int capacity) {
+        $handle = handle;
+        $capacity = Math.max(0, capacity);
+        $hits = 0;
+        $misses = 0;
+        $closed = false;
+        // Access ordered so that the eldest entry is always the least recently used statement.
+        $statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() > $capacity) {
+                    eldest.getValue().finalizeStatement();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Checks out a statement for the given SQL, preparing a new one on a cache miss.
+     * The statement must be given back by calling either release or discard.
+     */
+    public CachedStatement acquire(String sql) throws SqliteException {
+        synchronized (this) {
+            CachedStatement statement = $statements.remove(sql);
+            if (statement != null) {
+                $hits++;
+                return statement;
+            }
+            $misses++;
+        }
+
+        return new CachedStatement(this, sql, Sqlite.prepare($handle, sql));
+    }
+
+    /**
+     * Resets the statement and returns it to the cache so it can be reused.
+     */
+    public void release(CachedStatement statement) {
+        try {
+            statement.reset();
+        }
+        catch (SqliteException ex) {
+            statement.finalizeStatement();
+            return;
+        }
+
+        synchronized (this) {
+            if ($closed || $capacity == 0 || $statements.containsKey(statement.getSql())) {
+                statement.finalizeStatement();
+                return;
+            }
+            $statements.put(statement.getSql(), statement);
+        }
+    }
+
+    /**
+     * Finalizes a statement without returning it to the cache, such as after a failed step.
+     */
+    public void discard(CachedStatement statement) {
+        statement.finalizeStatement();
+    }
+
+    /**
+     * Finalizes every cached statement. Statements that are currently checked out are unaffected.
+     */
+    public void clear() {
+        ArrayList<CachedStatement> statements;
+        synchronized (this) {
+            statements = new ArrayList<>($statements.values());
+            $statements.clear();
+        }
+
+        for (int i = 0, length = statements.size(); i < length; ++i) {
+            statements.get(i).finalizeStatement();
+        }
+    }
+
+    /**
+     * Finalizes every cached statement and stops caching statements that are released afterwards.
+     * Must be called before the connection handle is closed.
+     */
+    public void close() {
+        synchronized (this) {
+            $closed = true;
+        }
+        clear();
+    }
+
+    public synchronized JSONObject getStats() throws JSONException {
+        JSONObject stats = new JSONObject();
+        stats.put("capacity", $capacity);
+        stats.put("size", $statements.size());
+        stats.put("hits", $hits);
+        stats.put("misses", $misses);
+        return stats;
+    }
+}
@@ -0,0 +1,213 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.totalpave.cordova.sqlite;
+
+import com.totalpave.sqlite3.SqliteException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Works out which tables of the main database a statement reads or writes, from the bytecode shown by EXPLAIN.
+ *
+ * The binding does not expose the authorizer or update hook, so the btree cursors opened by the program are
+ * mapped to their tables through the root pages listed in sqlite_master instead. Anything that cannot be
+ * attributed to a table, such as a trigger program or a virtual table, is reported as unknown so callers
+ * can fall back to the safe behaviour. Results are remembered per SQL text until the schema changes.
+ */
+public class TableTracker {
+    private static final int MAX_STATEMENTS = 200;
+
+    // The columns of an EXPLAIN row.
+    private static final int OPCODE = 1;
+    private static final int P1 = 2;
+    private static final int P2 = 3;
+    private static final int P3 = 4;
+    private static final int P4 = 5;
+
+    // Functions that may return a different value for the same arguments.
+    private static final HashSet<String> NON_DETERMINISTIC_FUNCTIONS = new HashSet<>(Arrays.asList(
+        "random", "randomblob", "changes", "total_changes", "last_insert_rowid",
+        "date", "time", "datetime", "julianday", "unixepoch", "strftime", "timediff",
+        "current_date", "current_time", "current_timestamp"
+    ));
+
+    // Returned when the tables of a statement cannot be determined. Compared by identity.
+    private static final Set<String> UNKNOWN = new HashSet<>();
+
+    private HashMap<Long, String> $rootPages;
+    private final LinkedHashMap<String, Set<String>> $reads;
+    private final LinkedHashMap<String, Set<String>> $writes;
+
+    public TableTracker() {
+        $rootPages = null;
+        $reads = $createMemo();
+        $writes = $createMemo();
+    }
+
+    /**
+     * @return The tables the statement reads, or null if its result may not be cached, because it reads
+     *         something other than tables of the main database, or calls a non-deterministic function.
+     */
+    public synchronized Set<String> getReadTables(Connection connection, String sql) throws SqliteException {
+        Set<String> tables = $reads.get(sql);
+        if (tables == null) {
+            tables = $analyze(connection, sql, false);
+            $reads.put(sql, tables);
+        }
+        return tables == UNKNOWN ? null : tables;
+    }
+
+    /**
+     * @return The tables the statement writes, or null if the writes cannot be attributed to tables.
+     */
+    public synchronized Set<String> getWriteTables(Connection connection, String sql) throws SqliteException {
+        Set<String> tables = $writes.get(sql);
+        if (tables == null) {
+            tables = $analyze(connection, sql, true);
+            $writes.put(sql, tables);
+        }
+        return tables == UNKNOWN ? null : tables;
+    }
+
+    /**
+     * Forgets the root pages and every analyzed statement. Must be called when the schema may have changed.
+     */
+    public synchronized void clear() {
+        $rootPages = null;
+        $reads.clear();
+        $writes.clear();
+    }
+
+    private Set<String> $analyze(Connection connection, String sql, boolean writes) throws SqliteException {
+        ArrayList<String[]> program = connection.executeRows("EXPLAIN " + sql);
+        HashSet<String> tables = new HashSet<>();
+
+        for (int i = 0, length = program.size(); i < length; ++i) {
+            String[] op = program.get(i);
+            switch (op[OPCODE]) {
+                case "OpenRead":
+                    if (writes) {
+                        break;
+                    }
+                    // P3 is the database index, 0 is main. Temp and attached databases are not tracked.
+                    if (!"0".equals(op[P3]) || !$addTable(connection, tables, op[P2])) {
+                        return UNKNOWN;
+                    }
+                    break;
+                case "OpenWrite":
+                    if (!writes) {
+                        return UNKNOWN;
+                    }
+                    if ("0".equals(op[P3]) && !$addTable(connection, tables, op[P2])) {
+                        return UNKNOWN;
+                    }
+                    break;
+                case "Clear":
+                    // DELETE without a WHERE clause empties the btree directly. P1 is the root page and P2 the database index.
+                    if (writes && "0".equals(op[P2]) && !$addTable(connection, tables, op[P1])) {
+                        return UNKNOWN;
+                    }
+                    break;
+                case "Function":
+                case "PureFunc":
+                    if (!writes && $isNonDeterministic(op[P4])) {
+                        return UNKNOWN;
+                    }
+                    break;
+                case "Program":
+                case "VOpen":
+                case "VUpdate":
+                case "Destroy":
+                case "CreateBtree":
+                case "ParseSchema":
+                    // Triggers, foreign key actions, virtual tables and schema changes.
+                    return UNKNOWN;
+                default:
+                    break;
+            }
+        }
+        return tables;
+    }
+
+    private boolean $addTable(Connection connection, Set<String> tables, String rootPage) throws SqliteException {
+        long page;
+        try {
+            page = Long.parseLong(rootPage);
+        }
+        catch (NumberFormatException ex) {
+            return false;
+        }
+
+        if ($rootPages == null || !$rootPages.containsKey(page)) {
+            // The schema may have changed since the root pages were read.
+            $loadRootPages(connection);
+        }
+
+        String table = $rootPages.get(page);
+        if (table == null) {
+            return false;
+        }
+        tables.add(table);
+        return true;
+    }
+
+    private void $loadRootPages(Connection connection) throws SqliteException {
+        $rootPages = new HashMap<>();
+        $rootPages.put(1L, "sqlite_master");
+        // An index maps to the table it indexes.
+        ArrayList<String[]> rows = connection.executeRows("SELECT rootpage, tbl_name FROM main.sqlite_master WHERE rootpage > 0");
+        for (int i = 0, length = rows.size(); i < length; ++i) {
+            String[] row = rows.get(i);
+            $rootPages.put(Long.parseLong(row[0]), row[1].toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * @param p4 The P4 operand of a function call, such as "random(0)".
+     */
+    private static boolean $isNonDeterministic(String p4) {
+        if (p4 == null) {
+            return true;
+        }
+        String name = p4;
+        int paren = name.indexOf('(');
+        if (paren >= 0) {
+            name = name.substring(0, paren);
+        }
+        int colon = name.lastIndexOf(':');
+        if (colon >= 0) {
+            name = name.substring(colon + 1);
+        }
+        return NON_DETERMINISTIC_FUNCTIONS.contains(name.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static LinkedHashMap<String, Set<String>> $createMemo() {
+        return new LinkedHashMap<String, Set<String>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Set<String>> eldest) {
+                return size() > MAX_STATEMENTS;
+            }
+        };
+    }
+}
@@ -388,6 +388,29 @@ const NSInteger MAX_VARIABLE_COUNT = 32666;
             }
             status = sqlite3_bind_blob(statement, index, &bytes, (int)jByteArray.count - 1, SQLITE_TRANSIENT);
         }
+        else if ([objType isEqual: @"base64"]) {
+            NSData* bytes = [[NSData alloc] initWithBase64EncodedString:[val objectForKey:@"value"] options:0];
+            if (bytes == nil) {
+                *error = [[NSError alloc]
+                    initWithDomain:ERROR_DOMAIN
+                    code:ERROR_CODE_BIND_PARAMETER_ERROR
+                    userInfo:@{
+                        NSLocalizedDescriptionKey: [NSString stringWithFormat: @"Invalid base64 blob parameter \"%@\"", parameterKeyForError],
+                        ERROR_DETAILS_KEY: @{
+                            ERROR_QUERY_KEY: [NSString stringWithUTF8String: sqlite3_sql(statement)]
+                        }
+                    }
+                ];
+                return;
+            }
+            if ([bytes length] == 0) {
+                // An empty NSData may not have a backing pointer, which sqlite3_bind_blob treats as NULL.
+                status = sqlite3_bind_zeroblob(statement, index, 0);
+            }
+            else {
+                status = sqlite3_bind_blob(statement, index, [bytes bytes], (int)[bytes length], SQLITE_TRANSIENT);
+            }
+        }
         else {
             *error = [[NSError alloc]
                 initWithDomain:ERROR_DOMAIN
@@ -11,5 +11,39 @@ typedef NS_ENUM(short, TotalPaveSQLitePluginErrorCodes) {
     ERROR_CODE_UNSUPPORTED_COLUMN_TYPE = 3,
     // Only used in Android
     //ERROR_CODE_DATABASE_NOT_FOUND = 4,
-    ERROR_CODE_IO = 5
+    ERROR_CODE_IO = 5,
+    // Only used in Android
+    //ERROR_CODE_CURSOR_NOT_FOUND = 6,
+    // Only used in Android
+    //ERROR_CODE_UNSUPPORTED_BATCH_METHOD = 7,
+    // Only used in Android
+    //ERROR_CODE_QUEUE_FULL = 8,
+    // Only used in Android
+    //ERROR_CODE_QUERY_CANCELLED = 9,
+    // Only used in Android
+    //ERROR_CODE_QUERY_TIMEOUT = 10,
+    // Only used in Android
+    //ERROR_CODE_INVALID_OPEN_OPTION = 11,
+    // Only used in Android
+    //ERROR_CODE_BLOB_NOT_FOUND = 12,
+    // Only used in Android
+    //ERROR_CODE_INVALID_BLOB_ACCESS = 13,
+    // Only used in Android
+    //ERROR_CODE_UNSUPPORTED_EXPORT_FORMAT = 14,
+    // Only used in Android
+    //ERROR_CODE_INVALID_IMPORT_OPTION = 15,
+    // Only used in Android
+    //ERROR_CODE_MALFORMED_IMPORT_FILE = 16,
+    // Only used in Android
+    //ERROR_CODE_INVALID_BULK_OPTION = 17,
+    // Only used in Android
+    //ERROR_CODE_MEMORY_LIMIT_EXCEEDED = 18,
+    // Only used in Android
+    //ERROR_CODE_WATCH_NOT_FOUND = 19,
+    // Only used in Android
+    //ERROR_CODE_INVALID_WATCH = 20,
+    // Only used in Android
+    //ERROR_CODE_CORRUPT_BACKUP = 21,
+    // Only used in Android
+    //ERROR_CODE_INVALID_BATCH_OPTIONS = 22
 };
@@ -0,0 +1,114 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+import {SERVICE_NAME} from './SQLite';
+import {IDatabaseHandle} from './IDatabaseHandle';
+import {IError} from './IError';
+import {IQueryOptions} from './IQueryOptions';
+import {IBatchOptions} from './IBatchOptions';
+import {IBatchResult} from './IBatchResult';
+import {TransactionMode} from './TransactionMode';
+import {
+    Query,
+    IBatchEntry
+} from './Query';
+
+/**
+ * @internal
+ */
+interface IBatchItem {
+    query: Query<any, any>;
+    options: IQueryOptions;
+}
+
+/**
+ * An ordered list of queries that are sent to the native side and executed
+ * in a single bridge call.
+ * 
+ * @since v0.8.0
+ * 
+ * @example
+ * ```typescript
+ * let result: IBatchResult = await new Batch()
+ *     .add(new InsertUserQuery(user))
+ *     .add(new GetUsersQuery())
+ *     .execute(db, { transaction: true });
+ * ```
+ */
+export class Batch {
+    private $items: Array<IBatchItem>;
+
+    public constructor() {
+        this.$items = [];
+    }
+
+    /**
+     * Appends a query to the batch. Queries run in the order they are added.
+     */
+    public add(query: Query<any, any>, options: IQueryOptions = {}): this {
+        this.$items.push({query, options});
+        return this;
+    }
+
+    public getLength(): number {
+        return this.$items.length;
+    }
+
+    public async execute(db: IDatabaseHandle, options: IBatchOptions = {}): Promise<IBatchResult> {
+        let entries: Array<IBatchEntry> = [];
+        for (let i: number = 0; i < this.$items.length; ++i) {
+            entries.push(await this.$items[i].query.__getBatchEntry(this.$items[i].options));
+        }
+
+        let nativeOptions = {
+            transaction: !!options.transaction,
+            transactionMode: this.$getTransactionMode(options.transactionMode),
+            stopOnError: options.stopOnError !== false,
+            priority: options.priority || 'interactive'
+        };
+
+        return new Promise<IBatchResult>((resolve, reject) => {
+            cordova.exec(
+                (data: IBatchResult) => {
+                    resolve(data);
+                },
+                (error: IError) => {
+                    reject(error);
+                },
+                SERVICE_NAME,
+                'batch',
+                [
+                    {dbHandle: db.getHandle()},
+                    entries,
+                    nativeOptions
+                ]
+            );
+        });
+    }
+
+    private $getTransactionMode(mode: TransactionMode = TransactionMode.DEFERRED): string {
+        switch (mode) {
+            case TransactionMode.DEFERRED:
+                return 'DEFERRED';
+            case TransactionMode.IMMEDIATE:
+                return 'IMMEDIATE';
+            case TransactionMode.EXCLUSIVE:
+                return 'EXCLUSIVE';
+        }
+
+        throw new Error('Invalid TransactionMode');
+    }
+}
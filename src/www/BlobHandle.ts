@@ -0,0 +1,159 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+import {SERVICE_NAME} from './SQLite';
+import {IDatabaseHandle} from './IDatabaseHandle';
+import {IError} from './IError';
+import {SQLiteParamValueConverter} from './SQLiteParamValueConverter';
+import {SQLiteBlob} from './SQLiteTypes';
+
+/**
+ * Options for `SQLite.openBlob`.
+ * 
+ * @since v0.8.0
+ */
+export interface IOpenBlobOptions {
+    /**
+     * Allows `write`. Defaults to false.
+     */
+    writable?: boolean;
+
+    /**
+     * The schema of the table, such as the name of an attached database. Defaults to `'main'`.
+     */
+    schema?: string;
+}
+
+/**
+ * A handle to a single blob value that is read and written in byte ranges,
+ * so large blobs never have to be held in memory whole. Use `SQLite.openBlob` to create a handle.
+ * 
+ * Like `sqlite3_blob_open`, a handle can not change the size of its blob.
+ * To write a large blob in chunks, first insert a `zeroblob(size)` of its final size.
+ * 
+ * @since v0.8.0
+ */
+export class BlobHandle {
+    private $db: IDatabaseHandle;
+    private $id: number;
+    private $size: number;
+    private $chunkSize: number;
+    private $closed: boolean;
+
+    public constructor(db: IDatabaseHandle, id: number, size: number, chunkSize: number) {
+        this.$db = db;
+        this.$id = id;
+        this.$size = size;
+        this.$chunkSize = chunkSize;
+        this.$closed = false;
+    }
+
+    private $exec<T>(method: string, args: Array<any>): Promise<T> {
+        return new Promise<T>((resolve, reject) => {
+            cordova.exec(
+                (data: T) => {
+                    resolve(data);
+                },
+                (error: IError) => {
+                    reject(error);
+                },
+                SERVICE_NAME,
+                method,
+                [
+                    {dbHandle: this.$db.getHandle()},
+                    ...args
+                ]
+            );
+        });
+    }
+
+    public getId(): number {
+        return this.$id;
+    }
+
+    /**
+     * The size in bytes of the blob as of the last call on the handle.
+     */
+    public getSize(): number {
+        return this.$size;
+    }
+
+    /**
+     * A chunk size in bytes, based on the memory page size of the device, that keeps
+     * both the number of calls and the memory used per call small.
+     */
+    public getChunkSize(): number {
+        return this.$chunkSize;
+    }
+
+    public isClosed(): boolean {
+        return this.$closed;
+    }
+
+    /**
+     * Reads `length` bytes starting at `offset`. The range must be inside the blob.
+     * 
+     * @param length Defaults to the chunk size, or the bytes left after `offset` if fewer.
+     */
+    public async read(offset: number, length?: number): Promise<Uint8Array> {
+        if (length === undefined) {
+            length = Math.max(0, Math.min(this.$chunkSize, this.$size - offset));
+        }
+        return new Uint8Array(await this.$exec<ArrayBuffer>('readBlob', [this.$id, offset, length]));
+    }
+
+    /**
+     * Overwrites the bytes starting at `offset` with `data`. The range must be inside the blob.
+     * The handle must have been opened with the `writable` option.
+     */
+    public async write(offset: number, data: Uint8Array | ArrayBuffer | SQLiteBlob): Promise<void> {
+        let blob: SQLiteBlob;
+        if (data instanceof Uint8Array) {
+            blob = await SQLiteParamValueConverter.int8OrUint8ToSQLiteBlob(data);
+        }
+        else if (data instanceof ArrayBuffer) {
+            blob = await SQLiteParamValueConverter.arrayBufferToSQLiteBlob(data);
+        }
+        else {
+            blob = data;
+        }
+        await this.$exec<void>('writeBlob', [this.$id, offset, blob]);
+    }
+
+    /**
+     * Points the handle at the same column of another row.
+     * If the new row has no blob, reads and writes reject until the handle is reopened on a row that does.
+     * 
+     * @returns The size of the blob in the new row.
+     */
+    public async reopen(rowId: number): Promise<number> {
+        this.$size = (await this.$exec<{size: number}>('reopenBlob', [this.$id, rowId])).size;
+        return this.$size;
+    }
+
+    /**
+     * Commits the writes made through the handle. Closing a handle that is already closed is a no-op.
+     */
+    public async close(): Promise<void> {
+        if (this.$closed) {
+            return;
+        }
+
+        this.$closed = true;
+        await this.$exec<void>('closeBlob', [this.$id]);
+    }
+}
@@ -1,10 +1,15 @@
 
 import {Query} from './Query';
 import {SQLiteParams, SQLiteType} from './SQLiteTypes';
+import {IDatabaseHandle} from './IDatabaseHandle';
+import {
+    IBulkInsertOptions,
+    IBulkInsertResult
+} from './IBulkInsertOptions';
 
 export type TBulkInsertParams = Array<Array<SQLiteType>>;
 
-export abstract class BulkInsertQuery<TParams extends TBulkInsertParams> extends Query<TParams, void> {
+export abstract class BulkInsertQuery<TParams extends TBulkInsertParams> extends Query<TParams, IBulkInsertResult> {
     private $escapeColumn(column: string): string {
         let pieces: Array<string> = column.split('.');
         if (pieces[0].charAt(0) != '`') {
@@ -32,6 +37,18 @@ export abstract class BulkInsertQuery<TParams extends TBulkInsertParams> extends
         `;
     }
 
+    /**
+     * Inserts the rows and resolves with the number of rows inserted.
+     * 
+     * On iOS, the `IBulkInsertOptions` specific options are ignored and the
+     * promise resolves with undefined.
+     * 
+     * @since v0.8.0 accepts `IBulkInsertOptions` and resolves with `IBulkInsertResult`.
+     */
+    public override async execute(db: IDatabaseHandle, options: IBulkInsertOptions = {}): Promise<IBulkInsertResult> {
+        return await super.execute(db, options);
+    }
+
     protected _validateParameterNames() { /* No-op because we never have parameter names to validate */ }
 
     protected override _getNativeMethod(): string {
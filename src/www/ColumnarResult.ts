@@ -0,0 +1,116 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+/**
+ * The raw columnar payload returned by the native query API.
+ * 
+ * @since v0.8.0
+ */
+export interface IColumnarResultData {
+    columns: Array<string>;
+    rows: Array<Array<any>>;
+}
+
+/**
+ * A result set where the column names are stored once and each row is an array of values.
+ * 
+ * Row objects are only built when requested, via `getRow` or `toArray`.
+ * 
+ * @since v0.8.0
+ */
+export class ColumnarResult<TRow = Record<string, any>> {
+    private $columns: Array<string>;
+    private $rows: Array<Array<any>>;
+
+    public constructor(data: IColumnarResultData) {
+        this.$columns = data.columns;
+        this.$rows = data.rows;
+    }
+
+    /**
+     * Creates a ColumnarResult from an array of row objects.
+     * Used when the native platform does not support the columnar format.
+     */
+    public static fromRowObjects<TRow = Record<string, any>>(objects: Array<Record<string, any>>): ColumnarResult<TRow> {
+        let columns: Array<string> = objects.length > 0 ? Object.keys(objects[0]) : [];
+        let rows: Array<Array<any>> = new Array(objects.length);
+        for (let i: number = 0; i < objects.length; i++) {
+            let object: Record<string, any> = objects[i];
+            let row: Array<any> = new Array(columns.length);
+            for (let j: number = 0; j < columns.length; j++) {
+                row[j] = object[columns[j]];
+            }
+            rows[i] = row;
+        }
+
+        return new ColumnarResult<TRow>({columns, rows});
+    }
+
+    public getColumns(): Array<string> {
+        return this.$columns;
+    }
+
+    /**
+     * Returns the raw rows, where each row is an array of values ordered by `getColumns`.
+     */
+    public getRows(): Array<Array<any>> {
+        return this.$rows;
+    }
+
+    public getLength(): number {
+        return this.$rows.length;
+    }
+
+    /**
+     * Returns the index of the given column name, or -1 if the column does not exist.
+     * If the column name is duplicated, the last occurrence is returned.
+     */
+    public getColumnIndex(column: string): number {
+        return this.$columns.lastIndexOf(column);
+    }
+
+    public getValue(rowIndex: number, column: string | number): any {
+        let columnIndex: number = typeof column === 'number' ? column : this.getColumnIndex(column);
+        if (columnIndex === -1) {
+            return undefined;
+        }
+        return this.$rows[rowIndex][columnIndex];
+    }
+
+    /**
+     * Builds the object for a single row, keyed by column name.
+     * Duplicated column names resolve to the value of the last occurrence.
+     */
+    public getRow(rowIndex: number): TRow {
+        let row: Array<any> = this.$rows[rowIndex];
+        let out: Record<string, any> = {};
+        for (let i: number = 0; i < this.$columns.length; i++) {
+            out[this.$columns[i]] = row[i];
+        }
+        return <TRow>out;
+    }
+
+    /**
+     * Builds every row object. Equivalent to the result of `Query.execute`.
+     */
+    public toArray(): Array<TRow> {
+        let out: Array<TRow> = new Array(this.$rows.length);
+        for (let i: number = 0; i < this.$rows.length; i++) {
+            out[i] = this.getRow(i);
+        }
+        return out;
+    }
+}
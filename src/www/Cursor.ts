@@ -0,0 +1,120 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+import {SERVICE_NAME} from './SQLite';
+import {IDatabaseHandle} from './IDatabaseHandle';
+import {IError} from './IError';
+import {
+    ColumnarResult,
+    IColumnarResultData
+} from './ColumnarResult';
+
+/**
+ * @internal
+ */
+interface ICursorPage extends IColumnarResultData {
+    done: boolean;
+}
+
+/**
+ * A handle to a statement that is kept open natively so that its result set
+ * can be read in pages. Use `Query.openCursor` to create a cursor.
+ * 
+ * The cursor closes itself once every row has been fetched. Otherwise it must
+ * be closed with `close`, or it will be closed natively after its idle timeout.
+ * 
+ * @since v0.8.0
+ */
+export class Cursor<TRow = Record<string, any>> {
+    private $db: IDatabaseHandle;
+    private $id: number;
+    private $columns: Array<string>;
+    private $done: boolean;
+
+    public constructor(db: IDatabaseHandle, id: number) {
+        this.$db = db;
+        this.$id = id;
+        this.$columns = [];
+        this.$done = false;
+    }
+
+    private $exec<T>(method: string, args: Array<any>): Promise<T> {
+        return new Promise<T>((resolve, reject) => {
+            cordova.exec(
+                (data: T) => {
+                    resolve(data);
+                },
+                (error: IError) => {
+                    reject(error);
+                },
+                SERVICE_NAME,
+                method,
+                [
+                    {dbHandle: this.$db.getHandle()},
+                    ...args
+                ]
+            );
+        });
+    }
+
+    public getId(): number {
+        return this.$id;
+    }
+
+    /**
+     * Returns true once every row has been fetched or the cursor has been closed.
+     */
+    public isDone(): boolean {
+        return this.$done;
+    }
+
+    /**
+     * Fetches up to `count` rows. Returns an empty result once the cursor is done.
+     */
+    public async fetchColumnar(count: number): Promise<ColumnarResult<TRow>> {
+        if (this.$done) {
+            return new ColumnarResult<TRow>({
+                columns: this.$columns,
+                rows: []
+            });
+        }
+
+        let page: ICursorPage = await this.$exec<ICursorPage>('fetchCursor', [this.$id, count]);
+        this.$columns = page.columns;
+        this.$done = page.done;
+        return new ColumnarResult<TRow>(page);
+    }
+
+    /**
+     * Fetches up to `count` rows as row objects. Returns an empty array once the cursor is done.
+     */
+    public async fetch(count: number): Promise<Array<TRow>> {
+        return (await this.fetchColumnar(count)).toArray();
+    }
+
+    /**
+     * Closes the cursor and frees its native statement.
+     * Closing a cursor that is already done is a no-op.
+     */
+    public async close(): Promise<void> {
+        if (this.$done) {
+            return;
+        }
+
+        this.$done = true;
+        await this.$exec<void>('closeCursor', [this.$id]);
+    }
+}
@@ -15,14 +15,17 @@
 */
 
 import {IDatabaseHandle} from './IDatabaseHandle';
+import {IEffectivePragmas} from './IPragmaOptions';
 
 export class Database implements IDatabaseHandle {
     private $handle: string;
     private $closed: boolean;
+    private $pragmas: IEffectivePragmas;
 
-    public constructor(handle: string) {
+    public constructor(handle: string, pragmas: IEffectivePragmas = null) {
         this.$handle = handle;
         this.$closed = false;
+        this.$pragmas = pragmas;
     }
 
     public getHandle(): string {
@@ -33,6 +36,16 @@ export class Database implements IDatabaseHandle {
         return this.$closed;
     }
 
+    /**
+     * The PRAGMA settings in effect when the database was opened,
+     * or null on platforms that do not report them.
+     * 
+     * @since v0.8.0
+     */
+    public getPragmas(): IEffectivePragmas {
+        return this.$pragmas;
+    }
+
     public __close(): void {
         this.$closed = true;
     }
@@ -0,0 +1,77 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+import {Query} from './Query';
+import {IDatabaseHandle} from './IDatabaseHandle';
+import {IExecuteManyOptions} from './IExecuteManyOptions';
+import {IExecuteManyResult} from './IExecuteManyResult';
+import {
+    SQLiteKWargs,
+    SQLiteParams
+} from './SQLiteTypes';
+
+/**
+ * A query that is prepared once and executed for every row of named parameters,
+ * inside a single transaction. Use this for bulk UPDATE, DELETE or UPSERT statements,
+ * or for per-row statements with a RETURNING clause.
+ * 
+ * If any row fails, every row is rolled back. The error details contain the index
+ * of the failed row as `row`.
+ * 
+ * Array parameters are not supported, because every row must use the same statement.
+ * 
+ * @since v0.8.0
+ * 
+ * @example
+ * ```typescript
+ * class UpdatePriceQuery extends ExecuteManyQuery<{id: number, price: number}> {
+ *     public override getQuery(): string {
+ *         return 'UPDATE item SET price = :price WHERE id = :id';
+ *     }
+ * }
+ * 
+ * let result = await new UpdatePriceQuery(prices).execute(db);
+ * ```
+ */
+export abstract class ExecuteManyQuery<TRow extends Record<string, unknown>, TReturning = Record<string, any>> extends Query<Array<TRow>, IExecuteManyResult<TReturning>> {
+    public override async execute(db: IDatabaseHandle, options: IExecuteManyOptions = {}): Promise<IExecuteManyResult<TReturning>> {
+        return await super.execute(db, options);
+    }
+
+    protected override _getNativeMethod(): string {
+        return 'executeMany';
+    }
+
+    protected override _validateParameterNames(params: SQLiteParams): void {
+        let rows: Array<SQLiteKWargs> = <Array<SQLiteKWargs>><unknown>params;
+        for (let i: number = 0; i < rows.length; ++i) {
+            super._validateParameterNames(rows[i]);
+        }
+    }
+
+    protected override async _getParameters(params: Array<TRow>): Promise<SQLiteParams> {
+        let rows: Array<SQLiteParams> = [];
+        if (!params) {
+            return <SQLiteParams><unknown>rows;
+        }
+
+        for (let i: number = 0; i < params.length; ++i) {
+            rows.push(await this._getParamAdapter().processKWargs(params[i]));
+        }
+
+        return <SQLiteParams><unknown>rows;
+    }
+}
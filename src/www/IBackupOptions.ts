@@ -0,0 +1,110 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+import {SQLiteInteger} from './SQLiteTypes';
+
+/**
+ * @since v0.8.0
+ */
+export interface IBackupProgress {
+    /**
+     * For a backup, the number of bytes written so far, or read so far for an
+     * incremental backup. For a restore, the number of tables copied so far.
+     */
+    completed: SQLiteInteger;
+
+    /**
+     * For a backup, the estimated size of the backup in bytes, or the size of the
+     * database for an incremental backup. For a restore, the number of tables to copy.
+     */
+    total: SQLiteInteger;
+
+    /**
+     * The table that was just copied. Only set during a restore.
+     */
+    table?: string;
+}
+
+/**
+ * Optional settings for `SQLite.backup` and `SQLite.restoreBackup`.
+ * 
+ * @since v0.8.0
+ */
+export interface IBackupOptions {
+    /**
+     * Uses SQLite to read and write the database instead of copying files, so the
+     * database can stay open and in use. Runs in the background and does not block
+     * writers while a backup is taken. Defaults to false. (Android only)
+     */
+    online?: boolean;
+
+    /**
+     * Treats the backup path as a directory holding a chain of backups: a base
+     * with every page of the database, followed by deltas with only the pages
+     * that changed since the previous backup. `restoreBackup` rebuilds and
+     * verifies the chain, then restores it like `online`. Defaults to false. (Android only)
+     */
+    incremental?: boolean;
+
+    /**
+     * The most deltas kept after a base. The next incremental backup writes a
+     * new base and deletes the previous chain. Defaults to 7.
+     */
+    maxDeltas?: SQLiteInteger;
+
+    /**
+     * Time in milliseconds to wait for other connections to release their locks.
+     * Only used when `online` or `incremental` is true. Defaults to 60 seconds.
+     */
+    busyTimeout?: SQLiteInteger;
+
+    /**
+     * Time in milliseconds between progress reports during an online or incremental backup.
+     * Restores report progress after each table instead. Defaults to 0, which
+     * disables progress reports for backups.
+     */
+    progressInterval?: SQLiteInteger;
+
+    /**
+     * Invoked with progress reports during an online backup or restore.
+     */
+    onProgress?: (progress: IBackupProgress) => void;
+}
+
+/**
+ * The result of an incremental `SQLite.backup`.
+ * 
+ * @since v0.8.0
+ */
+export interface IIncrementalBackupResult {
+    type: 'base' | 'delta';
+    /**
+     * The number of pages written.
+     */
+    pages: SQLiteInteger;
+    /**
+     * The number of pages in the database.
+     */
+    pageCount: SQLiteInteger;
+    /**
+     * The size in bytes of the file written.
+     */
+    bytes: SQLiteInteger;
+    /**
+     * The number of deltas in the chain, including this one.
+     */
+    deltas: SQLiteInteger;
+}
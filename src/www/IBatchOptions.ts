@@ -0,0 +1,50 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+import {TransactionMode} from './TransactionMode';
+
+/**
+ * Optional settings for `Batch.execute`.
+ * 
+ * @since v0.8.0
+ */
+export interface IBatchOptions {
+    /**
+     * Runs every query of the batch inside a single transaction.
+     * Defaults to false.
+     */
+    transaction?: boolean;
+
+    /**
+     * The transaction mode used when `transaction` is true.
+     * Defaults to `TransactionMode.DEFERRED`.
+     */
+    transactionMode?: TransactionMode;
+
+    /**
+     * When true, queries after the first failed query are skipped, and the
+     * transaction is rolled back if `transaction` is true. When false, every
+     * query runs regardless of failures, and the transaction is committed.
+     * Defaults to true.
+     */
+    stopOnError?: boolean;
+
+    /**
+     * The priority the batch is queued with. See `IQueryOptions.priority`.
+     * Defaults to `'interactive'`.
+     */
+    priority?: 'interactive' | 'background';
+}
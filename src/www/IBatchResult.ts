@@ -0,0 +1,54 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+import {IError} from './IError';
+
+/**
+ * @since v0.8.0
+ */
+export interface IBatchEntryResult<T = any> {
+    /**
+     * `skipped` is reported for queries that did not run because an earlier
+     * query failed while `stopOnError` was enabled.
+     */
+    status: 'success' | 'error' | 'skipped';
+
+    /**
+     * The response of the query, as it would be returned by `Query.execute`.
+     * Only set when status is `success`.
+     */
+    result?: T;
+
+    /**
+     * Only set when status is `error`.
+     */
+    error?: IError;
+}
+
+/**
+ * @since v0.8.0
+ */
+export interface IBatchResult {
+    /**
+     * One result per query, in the order the queries were added.
+     */
+    results: Array<IBatchEntryResult>;
+
+    /**
+     * True if the implicit transaction was rolled back because a query failed.
+     */
+    rolledBack: boolean;
+}
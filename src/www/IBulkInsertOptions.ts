@@ -0,0 +1,99 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+import {IQueryOptions} from './IQueryOptions';
+import {SQLiteInteger} from './SQLiteTypes';
+
+/**
+ * The `wal_checkpoint` modes. See https://www.sqlite.org/pragma.html#pragma_wal_checkpoint
+ * 
+ * @since v0.8.0
+ */
+export type TCheckpointMode = 'passive' | 'full' | 'restart' | 'truncate';
+
+/**
+ * Optional settings for `BulkInsertQuery.execute`.
+ * 
+ * @since v0.8.0
+ */
+export interface IBulkInsertOptions extends IQueryOptions {
+    /**
+     * Runs the insert inside a savepoint, so that either every row is inserted or
+     * none are. The savepoint is a transaction of its own when no transaction is
+     * open, which also avoids a disk sync per statement. Defaults to false, where
+     * each statement commits on its own unless a transaction is open. (Android only)
+     */
+    transaction?: boolean;
+
+    /**
+     * Commits after every `commitEvery` rows, rounded up to a whole statement,
+     * instead of once at the end. Implies `transaction`. If the insert fails, only
+     * the rows since the last commit are rolled back. Inside an open transaction,
+     * rows are only committed with the transaction. Defaults to 0, which commits
+     * once. (Android only)
+     */
+    commitEvery?: SQLiteInteger;
+
+    /**
+     * Runs a WAL checkpoint of this mode once the rows are committed, so a large
+     * load does not leave a large WAL file behind. Defaults to leaving
+     * checkpoints to SQLite. (Android only)
+     */
+    checkpoint?: TCheckpointMode;
+}
+
+/**
+ * @since v0.8.0
+ */
+export interface ICheckpointResult {
+    /**
+     * 1 if the checkpoint could not complete because of other connections, 0 otherwise.
+     */
+    busy: SQLiteInteger;
+
+    /**
+     * The number of frames in the WAL file, or -1 outside of WAL mode.
+     */
+    log: SQLiteInteger;
+
+    /**
+     * The number of frames copied into the database, or -1 outside of WAL mode.
+     */
+    checkpointed: SQLiteInteger;
+}
+
+/**
+ * The result of `BulkInsertQuery.execute`. (Android only)
+ * 
+ * @since v0.8.0
+ */
+export interface IBulkInsertResult {
+    /**
+     * The number of rows given to the query.
+     */
+    rows: SQLiteInteger;
+
+    /**
+     * The number of rows inserted, which excludes rows skipped by a conflict clause.
+     */
+    changes: SQLiteInteger;
+
+    /**
+     * Only set when the `checkpoint` option is used.
+     */
+    checkpoint?: ICheckpointResult;
+}
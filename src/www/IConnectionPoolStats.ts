@@ -0,0 +1,89 @@
+
+import {
+    SQLiteInteger,
+    SQLiteDouble
+} from './SQLiteTypes';
+import {IInMemoryStats} from './IInMemoryOptions';
+
+/**
+ * @since v0.8.0
+ */
+export interface IConnectionPoolStats {
+    /**
+     * The number of read connections. 0 when the read pool is disabled.
+     */
+    size: SQLiteInteger;
+    /**
+     * The number of read connections not currently running a statement.
+     */
+    idle: SQLiteInteger;
+    busy: SQLiteInteger;
+    /**
+     * The number of times a read connection was checked out.
+     */
+    acquisitions: SQLiteInteger;
+    /**
+     * The number of times a SELECT found no idle read connection and ran on the
+     * write connection instead.
+     */
+    waits: SQLiteInteger;
+    /**
+     * The number of statements routed to a read connection.
+     */
+    readerQueries: SQLiteInteger;
+    /**
+     * The number of statements routed to the write connection.
+     */
+    writerQueries: SQLiteInteger;
+    /**
+     * True while the write connection has a transaction open. Reads are routed
+     * to the write connection during a transaction so they see its changes.
+     */
+    inTransaction: boolean;
+    /**
+     * The counters of the query queue of the database.
+     */
+    scheduler: IQuerySchedulerStats;
+    /**
+     * The flush counters of a database opened with the `inMemory` option, or null.
+     */
+    inMemory: IInMemoryStats;
+}
+
+/**
+ * @since v0.8.0
+ */
+export interface IQuerySchedulerStats {
+    /**
+     * The number of interactive queries waiting to run.
+     */
+    interactiveQueued: SQLiteInteger;
+    /**
+     * The number of background queries waiting to run.
+     */
+    backgroundQueued: SQLiteInteger;
+    /**
+     * The number of queries currently running.
+     */
+    running: SQLiteInteger;
+    /**
+     * The `maxQueueDepth` open option. 0 if the queue is not limited.
+     */
+    maxQueueDepth: SQLiteInteger;
+    /**
+     * The number of queries that finished running.
+     */
+    completed: SQLiteInteger;
+    /**
+     * The number of queries rejected because the queue was full.
+     */
+    rejected: SQLiteInteger;
+    /**
+     * The average time in milliseconds queries waited in the queue before they started.
+     */
+    averageQueueWait: SQLiteDouble;
+    /**
+     * The longest time in milliseconds a query waited in the queue before it started.
+     */
+    maxQueueWait: SQLiteDouble;
+}
@@ -0,0 +1,16 @@
+
+import {IQueryOptions} from './IQueryOptions';
+import {SQLiteInteger} from './SQLiteTypes';
+
+/**
+ * Optional settings for `Query.openCursor`.
+ * 
+ * @since v0.8.0
+ */
+export interface ICursorOptions extends IQueryOptions {
+    /**
+     * Time in milliseconds a cursor may go without being fetched from before it is closed automatically.
+     * Set to 0 to disable the idle timeout. Defaults to 60 seconds.
+     */
+    idleTimeout?: SQLiteInteger;
+}
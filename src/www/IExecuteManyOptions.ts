@@ -0,0 +1,30 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+import {IQueryOptions} from './IQueryOptions';
+
+/**
+ * Optional settings for `ExecuteManyQuery.execute`.
+ * 
+ * @since v0.8.0
+ */
+export interface IExecuteManyOptions extends IQueryOptions {
+    /**
+     * Also return the `last_insert_rowid()` after each row.
+     * Defaults to false.
+     */
+    lastInsertRowId?: boolean;
+}
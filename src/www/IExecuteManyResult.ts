@@ -0,0 +1,44 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+import {SQLiteInteger} from './SQLiteTypes';
+
+/**
+ * @since v0.8.0
+ */
+export interface IExecuteManyResult<TReturning = Record<string, any>> {
+    /**
+     * The number of rows modified by each parameter row, in order.
+     */
+    changes: Array<SQLiteInteger>;
+
+    /**
+     * The sum of `changes`.
+     */
+    totalChanges: SQLiteInteger;
+
+    /**
+     * The `last_insert_rowid()` after each parameter row.
+     * Only set when the `lastInsertRowId` option is true.
+     */
+    lastInsertRowIds?: Array<SQLiteInteger>;
+
+    /**
+     * The rows returned by each parameter row, such as from a RETURNING clause.
+     * Only set when the statement returns columns.
+     */
+    returning?: Array<Array<TReturning>>;
+}
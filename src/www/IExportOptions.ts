@@ -0,0 +1,86 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+import {IQueryOptions} from './IQueryOptions';
+import {SQLiteInteger} from './SQLiteTypes';
+
+/**
+ * The file formats supported by `Query.exportToFile`.
+ * 
+ * `'ndjson'` writes one JSON object per row, separated by newlines, in the same
+ * shape as the rows returned by `execute`.
+ * 
+ * `'csv'` writes comma separated values as described by RFC 4180, with CRLF line
+ * endings. NULL is written as an unquoted empty field and empty text as `""`.
+ * Blobs are written as base64.
+ * 
+ * @since v0.8.0
+ */
+export type TExportFormat = 'ndjson' | 'csv';
+
+/**
+ * @since v0.8.0
+ */
+export interface IExportProgress {
+    /**
+     * The number of rows written so far.
+     */
+    rows: SQLiteInteger;
+
+    /**
+     * The number of bytes written so far.
+     */
+    bytes: SQLiteInteger;
+}
+
+/**
+ * @since v0.8.0
+ */
+export interface IExportResult {
+    /**
+     * The number of rows written to the file.
+     */
+    rows: SQLiteInteger;
+
+    /**
+     * The size of the file in bytes.
+     */
+    bytes: SQLiteInteger;
+}
+
+/**
+ * Optional settings for `Query.exportToFile`. Exported results are never cached.
+ * 
+ * @since v0.8.0
+ */
+export interface IExportOptions extends Omit<IQueryOptions, 'cache'> {
+    /**
+     * Writes the column names as the first line of a CSV file. Defaults to true.
+     */
+    header?: boolean;
+
+    /**
+     * Time in milliseconds between progress reports. Only used when `onProgress`
+     * is set. Defaults to 1 second.
+     */
+    progressInterval?: SQLiteInteger;
+
+    /**
+     * Invoked with progress reports while rows are written.
+     */
+    onProgress?: (progress: IExportProgress) => void;
+}
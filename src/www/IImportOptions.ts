@@ -0,0 +1,101 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+import {IQueryOptions} from './IQueryOptions';
+import {SQLiteInteger} from './SQLiteTypes';
+
+/**
+ * The file formats supported by `SQLite.importFile`, which are the formats
+ * written by `Query.exportToFile`.
+ * 
+ * `'ndjson'` reads one JSON object per line and takes each column from the
+ * property of the same name. Missing properties are inserted as NULL.
+ * 
+ * `'csv'` reads comma separated values as described by RFC 4180, with CRLF or LF
+ * line endings. An unquoted empty field is inserted as NULL. Other fields are
+ * inserted as text and converted by the affinity of their column, except fields
+ * of BLOB columns, which are decoded from base64.
+ * 
+ * @since v0.8.0
+ */
+export type TImportFormat = 'ndjson' | 'csv';
+
+/**
+ * @since v0.8.0
+ */
+export interface IImportProgress {
+    /**
+     * The number of rows committed so far.
+     */
+    rows: SQLiteInteger;
+
+    /**
+     * The number of bytes read from the file so far.
+     */
+    bytes: SQLiteInteger;
+
+    /**
+     * The size of the file in bytes.
+     */
+    totalBytes: SQLiteInteger;
+}
+
+/**
+ * @since v0.8.0
+ */
+export interface IImportResult {
+    /**
+     * The number of rows read from the file.
+     */
+    rows: SQLiteInteger;
+
+    /**
+     * The number of rows inserted, which excludes rows skipped by `onConflict: 'ignore'`.
+     */
+    changes: SQLiteInteger;
+}
+
+/**
+ * Optional settings for `SQLite.importFile`.
+ * 
+ * @since v0.8.0
+ */
+export interface IImportOptions extends Pick<IQueryOptions, 'priority' | 'queryId' | 'timeoutMs'> {
+    /**
+     * What to do with a row that violates a constraint of the table. Defaults to `'abort'`.
+     * 
+     * `'abort'` rejects the import and rolls back the current batch.
+     * `'ignore'` skips the row. `'replace'` deletes the rows it conflicts with first.
+     */
+    onConflict?: 'abort' | 'ignore' | 'replace';
+
+    /**
+     * Reads the first line of a CSV file as column names, so that columns are
+     * matched by name instead of by position. Defaults to true.
+     */
+    header?: boolean;
+
+    /**
+     * The number of rows committed at a time. Defaults to 10000.
+     */
+    batchSize?: SQLiteInteger;
+
+    /**
+     * Invoked after each batch is committed.
+     */
+    onProgress?: (progress: IImportProgress) => void;
+}
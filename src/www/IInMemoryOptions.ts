@@ -0,0 +1,65 @@
+import {SQLiteInteger} from './SQLiteTypes';
+
+/**
+ * Settings for running a database from memory, given as the `inMemory` open option.
+ * The file is loaded into memory when the database opens, queries run against
+ * the copy, and committed changes are written back to the file.
+ * 
+ * @since v0.8.0
+ */
+export interface IInMemoryOptions {
+    /**
+     * The most bytes the copy may hold. Opening a larger database rejects with a
+     * `MEMORY_LIMIT_EXCEEDED` error, and writes past the limit fail with
+     * `SQLITE_FULL`. Defaults to 67108864 (64 MB). Set to 0 to remove the limit.
+     */
+    maxSize?: SQLiteInteger;
+
+    /**
+     * Writes the copy to the file after every committed write. Defaults to true.
+     * When false, changes are only written by `SQLite.flush`, the `flushInterval`
+     * timer and `SQLite.close`, and may be lost if the app is killed in between.
+     */
+    flushOnCommit?: boolean;
+
+    /**
+     * The milliseconds between timed writes of the copy to the file. The write
+     * waits until the database is idle. Defaults to 0, which disables the timer.
+     */
+    flushInterval?: SQLiteInteger;
+}
+
+/**
+ * @since v0.8.0
+ */
+export interface IInMemoryStats {
+    /**
+     * The number of times the copy was written to the file.
+     */
+    flushes: SQLiteInteger;
+    /**
+     * The milliseconds the last write took.
+     */
+    lastFlushDuration: SQLiteInteger;
+    /**
+     * The size in bytes of the file after the last write, or when the database was opened.
+     */
+    size: SQLiteInteger;
+}
+
+/**
+ * The result of `SQLite.flush`.
+ * 
+ * @since v0.8.0
+ */
+export interface IFlushResult {
+    /**
+     * True if the file was written. False when nothing changed since the last
+     * write, a transaction is open, or the database was not opened `inMemory`.
+     */
+    flushed: boolean;
+    /**
+     * The in-memory counters, or null if the database was not opened `inMemory`.
+     */
+    stats: IInMemoryStats;
+}
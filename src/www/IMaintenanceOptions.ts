@@ -0,0 +1,117 @@
+import {SQLiteInteger} from './SQLiteTypes';
+
+/**
+ * Settings for idle-time maintenance, given as the `maintenance` open option.
+ * 
+ * @since v0.8.0
+ */
+export interface IMaintenanceOptions {
+    /**
+     * The milliseconds without queries before a maintenance pass starts.
+     * Defaults to 30000. Set to 0 to only run maintenance through `SQLite.runMaintenance`.
+     */
+    idleTimeout?: SQLiteInteger;
+
+    /**
+     * The milliseconds a pass may run before queued queries get a turn.
+     * `PRAGMA optimize` and the WAL checkpoint cannot be split, so they may run
+     * past a slice. Defaults to 50.
+     */
+    sliceDuration?: SQLiteInteger;
+}
+
+/**
+ * @since v0.8.0
+ */
+export interface IMaintenanceCheckpoint {
+    /**
+     * 1 if the checkpoint could not finish because a reader or writer was busy.
+     */
+    busy: SQLiteInteger;
+    /**
+     * The number of frames in the WAL file.
+     */
+    log: SQLiteInteger;
+    /**
+     * The number of frames copied back into the database.
+     */
+    checkpointed: SQLiteInteger;
+}
+
+/**
+ * The outcome of one maintenance pass.
+ * 
+ * @since v0.8.0
+ */
+export interface IMaintenanceReport {
+    /**
+     * The time the pass started, in milliseconds since the epoch.
+     */
+    startedAt: SQLiteInteger;
+    /**
+     * The milliseconds between the start and the end of the pass, including the time it was paused.
+     */
+    duration: SQLiteInteger;
+    /**
+     * The number of slices the pass ran in.
+     */
+    slices: SQLiteInteger;
+    /**
+     * The number of times the pass paused to let queued queries run.
+     */
+    yielded: SQLiteInteger;
+    /**
+     * True once `PRAGMA optimize` ran.
+     */
+    optimized: boolean;
+    /**
+     * The number of free pages returned to the file system by incremental vacuum.
+     * Always 0 unless the database uses `auto_vacuum = INCREMENTAL`.
+     */
+    pagesReclaimed: SQLiteInteger;
+    /**
+     * The number of free pages left, or -1 if incremental vacuum did not run.
+     */
+    freePages: SQLiteInteger;
+    /**
+     * The result of the WAL checkpoint, or null outside of WAL mode or if the pass did not reach it.
+     */
+    checkpoint: IMaintenanceCheckpoint;
+    /**
+     * True if every step ran.
+     */
+    completed: boolean;
+    /**
+     * Why the pass stopped early, or null.
+     */
+    error: string;
+}
+
+/**
+ * @since v0.8.0
+ */
+export interface IMaintenanceStats {
+    /**
+     * True if passes start automatically when the database is idle.
+     */
+    enabled: boolean;
+    idleTimeout: SQLiteInteger;
+    sliceDuration: SQLiteInteger;
+    /**
+     * True while a pass is running or paused.
+     */
+    running: boolean;
+    /**
+     * The number of passes finished, including forced passes.
+     */
+    runs: SQLiteInteger;
+    /**
+     * The milliseconds spent across every pass.
+     */
+    totalDuration: SQLiteInteger;
+    totalPagesReclaimed: SQLiteInteger;
+    /**
+     * The report of the last finished pass, or null.
+     */
+    lastRun: IMaintenanceReport;
+}
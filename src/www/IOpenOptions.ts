@@ -0,0 +1,89 @@
+
+import {SQLiteInteger} from './SQLiteTypes';
+import {
+    IPragmaOptions,
+    TOpenProfile
+} from './IPragmaOptions';
+import {IMaintenanceOptions} from './IMaintenanceOptions';
+import {IInMemoryOptions} from './IInMemoryOptions';
+
+/**
+ * Optional connection settings for `SQLite.open`.
+ * 
+ * @since v0.8.0
+ */
+export interface IOpenOptions {
+    /**
+     * The maximum number of prepared statements kept per connection.
+     * Statements are reused when the same SQL is executed again.
+     * Set to 0 to disable the statement cache. Defaults to 25.
+     */
+    statementCacheSize?: SQLiteInteger;
+
+    /**
+     * The number of extra read-only connections used to run SELECT statements
+     * in parallel with writes. When greater than 0 and the database is opened
+     * with write access, the database is switched to WAL journal mode.
+     * Defaults to 0, which runs every statement on a single connection.
+     */
+    readConnections?: SQLiteInteger;
+
+    /**
+     * Records per-statement timing metrics, available from `SQLite.getStats`.
+     * Defaults to false.
+     */
+    stats?: boolean;
+
+    /**
+     * Records the query plan of every distinct statement, to find the
+     * statements that scan tables, available from `SQLite.getQueryPlanReport`.
+     * Defaults to false.
+     */
+    queryPlanProfiler?: boolean;
+
+    /**
+     * Statements that take at least this many milliseconds are logged natively,
+     * even while `stats` is disabled. Defaults to 0, which disables the log.
+     */
+    slowQueryThreshold?: SQLiteInteger;
+
+    /**
+     * The most queries that may wait to run on the database. Queries executed
+     * while the queue is full are rejected with a `QUEUE_FULL` error instead of
+     * being queued. Defaults to 0, which does not limit the queue.
+     */
+    maxQueueDepth?: SQLiteInteger;
+
+    /**
+     * The approximate memory in bytes used to cache the results of queries
+     * executed with the `cache` option. The least recently used results are
+     * dropped once the limit is reached. Defaults to 0, which disables the cache.
+     */
+    resultCacheSize?: SQLiteInteger;
+
+    /**
+     * A named set of PRAGMA settings applied to every connection before the
+     * database is returned. Defaults to `'default'`, which leaves every setting
+     * at the SQLite default.
+     */
+    profile?: TOpenProfile;
+
+    /**
+     * PRAGMA settings that override the profile. The settings in effect are
+     * available from `Database.getPragmas`.
+     */
+    pragmas?: IPragmaOptions;
+
+    /**
+     * Runs `PRAGMA optimize`, incremental vacuum and a WAL checkpoint in short
+     * slices once the database has been idle for a while. Defaults to disabled.
+     */
+    maintenance?: IMaintenanceOptions;
+
+    /**
+     * Loads the database into memory when it opens and writes committed changes
+     * back to the file. Cannot be used with `readConnections`. Defaults to
+     * disabled, which runs every statement against the file.
+     */
+    inMemory?: IInMemoryOptions;
+}
@@ -0,0 +1,60 @@
+
+import {SQLiteInteger} from './SQLiteTypes';
+
+/**
+ * A named set of PRAGMA settings for `SQLite.open`.
+ * 
+ * `'default'` leaves every setting at the SQLite default.
+ * `'read-heavy'` uses WAL with `synchronous` NORMAL, a 16 MiB page cache, 256 MiB of memory mapped I/O and in memory temporary tables.
+ * `'bulk-load'` uses WAL with `synchronous` OFF, a 32 MiB page cache, in memory temporary tables and less frequent checkpoints.
+ * 
+ * @since v0.8.0
+ */
+export type TOpenProfile = 'default' | 'read-heavy' | 'bulk-load';
+
+export type TJournalMode = 'delete' | 'truncate' | 'persist' | 'memory' | 'wal' | 'off';
+export type TSynchronousMode = 'off' | 'normal' | 'full' | 'extra';
+export type TTempStore = 'default' | 'file' | 'memory';
+
+/**
+ * PRAGMA settings applied when a database is opened. Each setting maps to the
+ * PRAGMA of the same name, see https://www.sqlite.org/pragma.html.
+ * 
+ * @since v0.8.0
+ */
+export interface IPragmaOptions {
+    journalMode?: TJournalMode;
+    synchronous?: TSynchronousMode;
+    /**
+     * Positive values are a number of pages, negative values are KiB.
+     */
+    cacheSize?: SQLiteInteger;
+    /**
+     * The most bytes of the database file to access through memory mapped I/O. 0 disables it.
+     */
+    mmapSize?: SQLiteInteger;
+    tempStore?: TTempStore;
+    /**
+     * Only takes effect on a new database, or after a VACUUM outside of WAL mode.
+     */
+    pageSize?: SQLiteInteger;
+    /**
+     * The number of WAL pages after which the writer checkpoints automatically. 0 or less disables automatic checkpoints.
+     */
+    walAutocheckpoint?: SQLiteInteger;
+}
+
+/**
+ * The PRAGMA settings in effect after a database was opened, see `Database.getPragmas`.
+ * 
+ * @since v0.8.0
+ */
+export interface IEffectivePragmas {
+    journalMode: TJournalMode;
+    synchronous: TSynchronousMode;
+    cacheSize: SQLiteInteger;
+    mmapSize: SQLiteInteger;
+    tempStore: TTempStore;
+    pageSize: SQLiteInteger;
+    walAutocheckpoint: SQLiteInteger;
+}
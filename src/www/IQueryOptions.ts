@@ -0,0 +1,72 @@
+
+import {
+    SQLiteBlobEncoding,
+    SQLiteInteger
+} from './SQLiteTypes';
+
+/**
+ * Optional settings for `Query.execute` and `Query.executeColumnar`.
+ * 
+ * @since v0.8.0
+ */
+export interface IQueryOptions {
+    /**
+     * The encoding of blob columns in the result set.
+     * 
+     * `bytearray` returns each blob as an array of numbers and is the default for backwards compatibility.
+     * `base64` returns each blob as a `SQLiteBlob`, which is significantly smaller to transfer.
+     * Use `SQLiteParamValueConverter.sqliteBlobToUint8Array` to read the bytes of either format.
+     */
+    blobFormat?: SQLiteBlobEncoding;
+
+    /**
+     * How array parameters are bound. Defaults to `'expand'`.
+     * 
+     * `'expand'` replaces the array parameter with one parameter per element,
+     * which produces a different statement for every array length.
+     * 
+     * `'json'` binds the array as a single JSON text value and reads it through
+     * `json_each`, so `WHERE id IN (:ids)` compiles to the same statement for any
+     * array length. Only text, numbers and null elements are supported.
+     */
+    arrayBinding?: 'expand' | 'json';
+
+    /**
+     * The priority the query is queued with on its database. Defaults to `'interactive'`.
+     * 
+     * Queued `'interactive'` queries start before any queued `'background'` query,
+     * so long running work such as a large `BulkInsertQuery` does not delay user facing
+     * lookups. A query that has already started is never interrupted. Queries of the
+     * same priority start in the order they were executed.
+     */
+    priority?: 'interactive' | 'background';
+
+    /**
+     * The id the query can be cancelled with, see `SQLite.cancel`. If omitted,
+     * a unique id is generated, which is given to `onQueryId`.
+     */
+    queryId?: string;
+
+    /**
+     * Called with the id of this execution as soon as the query is executed,
+     * before it is queued, so it can be given to `SQLite.cancel` while the query runs.
+     * Each execution has its own id, even when a `Query` instance is executed again
+     * before its previous execution finished.
+     */
+    onQueryId?: (queryId: string) => void;
+
+    /**
+     * The time in milliseconds the query may take, including the time it waits
+     * to start. A query that runs past its deadline is stopped and rejects with a
+     * `QUERY_TIMEOUT` error. Defaults to 0, which does not limit the query.
+     */
+    timeoutMs?: SQLiteInteger;
+
+    /**
+     * Serves the result from the database's result cache when possible and stores
+     * it there otherwise. Requires the database to be opened with `resultCacheSize`.
+     * Only SELECT statements outside of a transaction are cached. A cached result is
+     * dropped as soon as a table it read from is written to. Defaults to false.
+     */
+    cache?: boolean;
+}
@@ -0,0 +1,97 @@
+import {SQLiteInteger} from './SQLiteTypes';
+import {ICreateIndexQueryParams} from './CreateIndexQuery';
+
+/**
+ * @since v0.8.0
+ */
+export interface IQueryPlanReportOptions {
+    /**
+     * The most statements to return. Defaults to 20.
+     */
+    limit?: SQLiteInteger;
+}
+
+/**
+ * A statement whose plan reads a table in full, sorts through a temporary
+ * b-tree or builds an automatic index. Times are in milliseconds.
+ * 
+ * @since v0.8.0
+ */
+export interface IQueryPlanStatement {
+    sql: string;
+    count: SQLiteInteger;
+    totalTime: number;
+    averageTime: number;
+    maxTime: number;
+    /**
+     * The detail column of each `EXPLAIN QUERY PLAN` row.
+     */
+    plan: Array<string>;
+    /**
+     * The tables, or their aliases, read with a `SCAN` step that uses no index.
+     */
+    fullScans: Array<string>;
+    /**
+     * What each `USE TEMP B-TREE` step is for, such as `'FOR ORDER BY'`.
+     */
+    tempBTrees: Array<string>;
+    /**
+     * The plan steps that build an automatic index.
+     */
+    automaticIndexes: Array<string>;
+    /**
+     * The rows stepped through in full table scans. The counters are 0 when
+     * `countersAvailable` is false.
+     */
+    fullscanSteps: SQLiteInteger;
+    sorts: SQLiteInteger;
+    autoindexes: SQLiteInteger;
+    vmSteps: SQLiteInteger;
+}
+
+/**
+ * A candidate index, which can be given to `CreateIndexQuery` as is.
+ * 
+ * @since v0.8.0
+ */
+export interface IIndexSuggestion extends ICreateIndexQueryParams {
+    /**
+     * Every column that would help, leading with `columnName`. Equality
+     * comparisons come before the one range comparison.
+     */
+    columns: Array<string>;
+    /**
+     * `'autoindex'` when SQLite built an automatic index on the columns,
+     * `'scan'` when they are compared in a statement that reads the table in full,
+     * and `'sort'` when they are only used to sort such a statement.
+     */
+    reason: 'autoindex' | 'scan' | 'sort';
+    /**
+     * The number of flagged statements that would use the index.
+     */
+    statements: SQLiteInteger;
+    /**
+     * The total time of those statements in milliseconds.
+     */
+    totalTime: number;
+}
+
+/**
+ * @since v0.8.0
+ */
+export interface IQueryPlanReport {
+    enabled: boolean;
+    /**
+     * True if SQLite was built with the `sqlite_stmt` virtual table, which the
+     * statement counters are read from.
+     */
+    countersAvailable: boolean;
+    /**
+     * The flagged statements, slowest in total first.
+     */
+    statements: Array<IQueryPlanStatement>;
+    /**
+     * Index candidates, the ones that would serve the slowest statements first.
+     */
+    suggestions: Array<IIndexSuggestion>;
+}
@@ -0,0 +1,75 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+import {SQLiteInteger} from './SQLiteTypes';
+
+/**
+ * Timing metrics of a single SQL statement. Times are in milliseconds.
+ * 
+ * @since v0.8.0
+ */
+export interface IStatementStats {
+    /**
+     * The SQL as given to the query, with whitespace collapsed.
+     * Statements beyond the 500th distinct SQL are grouped under `(other)`.
+     */
+    sql: string;
+    count: SQLiteInteger;
+    errors: SQLiteInteger;
+    /**
+     * Rows returned, or rows inserted for bulk inserts.
+     */
+    rows: SQLiteInteger;
+    /**
+     * Size of the serialized responses, in characters.
+     */
+    bytes: SQLiteInteger;
+    totalTime: number;
+    /**
+     * Percentiles are accurate to within 25%.
+     */
+    p50: number;
+    p95: number;
+    max: number;
+    /**
+     * Time spent waiting for a native thread and, with read connections, for an idle connection.
+     */
+    queueTime: number;
+    prepareTime: number;
+    bindTime: number;
+    stepTime: number;
+    /**
+     * Time spent converting rows to JSON.
+     */
+    serializeTime: number;
+}
+
+/**
+ * @since v0.8.0
+ */
+export interface IQueryStats {
+    enabled: boolean;
+    slowQueryThreshold: SQLiteInteger;
+    statements: Array<IStatementStats>;
+}
+
+/**
+ * @since v0.8.0
+ */
+export interface IQueryStatsOptions {
+    enabled?: boolean;
+    slowQueryThreshold?: SQLiteInteger;
+}
@@ -0,0 +1,34 @@
+
+import {SQLiteInteger} from './SQLiteTypes';
+
+/**
+ * @since v0.8.0
+ */
+export interface IResultCacheStats {
+    /**
+     * The approximate memory in bytes the cache may hold. 0 when the cache is disabled.
+     */
+    capacity: SQLiteInteger;
+    /**
+     * The approximate memory in bytes currently held by cached results.
+     */
+    size: SQLiteInteger;
+    /**
+     * The number of results currently cached.
+     */
+    entries: SQLiteInteger;
+    hits: SQLiteInteger;
+    misses: SQLiteInteger;
+    /**
+     * hits / (hits + misses), or 0 before the first lookup.
+     */
+    hitRate: number;
+    /**
+     * The number of results removed to make room for newer results.
+     */
+    evictions: SQLiteInteger;
+    /**
+     * The number of results removed because a table they read from was written to.
+     */
+    invalidations: SQLiteInteger;
+}
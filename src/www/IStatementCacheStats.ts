@@ -0,0 +1,18 @@
+
+import {SQLiteInteger} from './SQLiteTypes';
+
+/**
+ * @since v0.8.0
+ */
+export interface IStatementCacheStats {
+    /**
+     * The maximum number of cached statements.
+     */
+    capacity: SQLiteInteger;
+    /**
+     * The number of statements currently cached.
+     */
+    size: SQLiteInteger;
+    hits: SQLiteInteger;
+    misses: SQLiteInteger;
+}
@@ -18,7 +18,46 @@ import {SERVICE_NAME} from './SQLite';
 import { SQLiteParams } from './SQLiteTypes';
 import {IDatabaseHandle} from './IDatabaseHandle';
 import {IError} from './IError';
+import {IQueryOptions} from './IQueryOptions';
+import {ICursorOptions} from './ICursorOptions';
+import {Cursor} from './Cursor';
+import {
+    IExportOptions,
+    IExportProgress,
+    IExportResult,
+    TExportFormat
+} from './IExportOptions';
 import {SQLiteParamAdapter} from './SQLiteParamAdapter';
+import {
+    ColumnarResult,
+    IColumnarResultData
+} from './ColumnarResult';
+
+/**
+ * @internal
+ */
+interface IQueryNativeOptions extends ICursorOptions {
+    resultFormat: 'objects' | 'columnar';
+}
+
+/**
+ * @internal
+ */
+interface INativeExportEvent extends IExportProgress {
+    event: 'progress' | 'complete';
+}
+
+const DEFAULT_EXPORT_PROGRESS_INTERVAL: number = 1000;
+
+/**
+ * @internal
+ */
+export interface IBatchEntry {
+    sql: string;
+    params: SQLiteParams;
+    method: string;
+    options: IQueryNativeOptions;
+}
 
 /**
  * Before v0.2.0 TParams can hold anything, as long as you filtered out
@@ -45,6 +84,8 @@ import {SQLiteParamAdapter} from './SQLiteParamAdapter';
  * ```
  */
 export abstract class Query<TParams, TResponse> {
+    private static $nextQueryId: number = 0;
+
     private $params: TParams;
     private $paramAdapter: SQLiteParamAdapter;
 
@@ -61,6 +102,14 @@ export abstract class Query<TParams, TResponse> {
         return new SQLiteParamAdapter();
     }
 
+    /**
+     * @since v0.8.0
+     * @returns The adapter created by `_createParamAdapter`.
+     */
+    protected _getParamAdapter(): SQLiteParamAdapter {
+        return this.$paramAdapter;
+    }
+
     protected _validateParameterNames(params: SQLiteParams) {
         for (let key in params) {
             if (!(/^([a-zA-Z])+([a-zA-Z0-9_]+)/.test(key))) {
@@ -107,10 +156,146 @@ export abstract class Query<TParams, TResponse> {
         return 'query';
     }
 
-    public async execute(db: IDatabaseHandle): Promise<TResponse> {
+    public async execute(db: IDatabaseHandle, options: IQueryOptions = {}): Promise<TResponse> {
+        return await this.$execute<TResponse>(db, {
+            ...options,
+            queryId: this.$createQueryId(options),
+            resultFormat: 'objects'
+        });
+    }
+
+    /**
+     * Executes the query and returns the result set in a columnar format,
+     * where column names are only transferred once. Row objects are
+     * only built when requested from the returned ColumnarResult.
+     * 
+     * @since v0.8.0
+     */
+    public async executeColumnar<TRow = TResponse extends Array<infer R> ? R : Record<string, any>>(db: IDatabaseHandle, options: IQueryOptions = {}): Promise<ColumnarResult<TRow>> {
+        let data: IColumnarResultData | Array<Record<string, any>> = await this.$execute<IColumnarResultData | Array<Record<string, any>>>(db, {
+            ...options,
+            queryId: this.$createQueryId(options),
+            resultFormat: 'columnar'
+        });
+
+        if (data instanceof Array) {
+            // Platform does not support the columnar format
+            return ColumnarResult.fromRowObjects<TRow>(data);
+        }
+
+        return new ColumnarResult<TRow>(data);
+    }
+
+    /**
+     * Opens a cursor that keeps the statement alive natively, so that a large
+     * result set can be read in pages without buffering every row at once.
+     * 
+     * The cursor must be read until done, or closed. Otherwise it is closed
+     * natively after its idle timeout.
+     * 
+     * @since v0.8.0
+     */
+    public async openCursor<TRow = TResponse extends Array<infer R> ? R : Record<string, any>>(db: IDatabaseHandle, options: ICursorOptions = {}): Promise<Cursor<TRow>> {
+        let response: {cursorId: number} = await this.$execute<{cursorId: number}>(db, {
+            ...options,
+            resultFormat: 'columnar'
+        }, 'openCursor');
+
+        return new Cursor<TRow>(db, response.cursorId);
+    }
+
+    /**
+     * Runs the query and writes its rows straight to a file natively, without
+     * transferring the result set to the WebView. The file is written next to its
+     * destination and moved into place once every row is written, so a failed or
+     * cancelled export does not leave a partial file behind. An existing file is replaced.
+     * 
+     * Android only.
+     * 
+     * @since v0.8.0
+     * @param fileUri The `file://` URI of the file to write.
+     */
+    public async exportToFile(db: IDatabaseHandle, fileUri: string, format: TExportFormat, options: IExportOptions = {}): Promise<IExportResult> {
+        let params: SQLiteParams = await this._getParameters(this.$params);
+        this._validateParameterNames(params);
+
+        let nativeOptions: IExportOptions = {
+            ...options,
+            queryId: this.$createQueryId(options),
+            progressInterval: options.onProgress ? (options.progressInterval || DEFAULT_EXPORT_PROGRESS_INTERVAL) : 0
+        };
+        delete nativeOptions.onProgress;
+        delete nativeOptions.onQueryId;
+
+        return new Promise<IExportResult>((resolve, reject) => {
+            cordova.exec(
+                (response: INativeExportEvent) => {
+                    if (response.event === 'progress') {
+                        if (options.onProgress) {
+                            options.onProgress({
+                                rows: response.rows,
+                                bytes: response.bytes
+                            });
+                        }
+                        return;
+                    }
+
+                    resolve({
+                        rows: response.rows,
+                        bytes: response.bytes
+                    });
+                },
+                (error: IError) => {
+                    reject(error);
+                },
+                SERVICE_NAME,
+                'exportQuery',
+                [
+                    {dbHandle: db.getHandle()},
+                    this.getQuery(),
+                    params,
+                    fileUri,
+                    format,
+                    nativeOptions
+                ]
+            );
+        });
+    }
+
+    /**
+     * @internal Builds the native representation of this query, as used by Batch. Don't touch this.
+     */
+    public async __getBatchEntry(options: IQueryOptions = {}): Promise<IBatchEntry> {
+        let params: SQLiteParams = await this._getParameters(this.$params);
+        this._validateParameterNames(params);
+        return {
+            sql: this.getQuery(),
+            params: params,
+            method: this._getNativeMethod(),
+            options: {
+                ...options,
+                resultFormat: 'objects'
+            }
+        };
+    }
+
+    /**
+     * Returns the id of a single execution, and gives it to `onQueryId` before the execution is queued.
+     */
+    private $createQueryId(options: IQueryOptions): string {
+        let queryId: string = options.queryId || `query-${++Query.$nextQueryId}`;
+        if (options.onQueryId) {
+            options.onQueryId(queryId);
+        }
+        return queryId;
+    }
+
+    private async $execute<T>(db: IDatabaseHandle, options: IQueryNativeOptions, method: string = this._getNativeMethod()): Promise<T> {
+        // Functions can not be sent to native.
+        delete options.onQueryId;
         let params: SQLiteParams = await this._getParameters(this.$params);
         this._validateParameterNames(params); // _getParameters is able to create or remove parameter keys. As a result, we must validate the returned value of _getParameters.
-        return new Promise<TResponse>((resolve, reject) => {
+        return new Promise<T>((resolve, reject) => {
             cordova.exec(
                 (data: any) => {
                     resolve(data);
@@ -119,11 +304,12 @@ export abstract class Query<TParams, TResponse> {
                     reject(error);
                 },
                 SERVICE_NAME,
-                this._getNativeMethod(),
+                method,
                 [
                     {dbHandle: db.getHandle()},
                     this.getQuery(),
-                    params
+                    params,
+                    options
                 ]
             );
         });
@@ -15,7 +15,47 @@
 */
 
 import {Database} from './Database';
+import {IDatabaseHandle} from './IDatabaseHandle';
 import {IError} from './IError';
+import {IOpenOptions} from './IOpenOptions';
+import {
+    BlobHandle,
+    IOpenBlobOptions
+} from './BlobHandle';
+import {IEffectivePragmas} from './IPragmaOptions';
+import {IStatementCacheStats} from './IStatementCacheStats';
+import {IConnectionPoolStats} from './IConnectionPoolStats';
+import {IResultCacheStats} from './IResultCacheStats';
+import {
+    IQueryPlanReport,
+    IQueryPlanReportOptions
+} from './IQueryPlanReport';
+import {
+    IMaintenanceReport,
+    IMaintenanceStats
+} from './IMaintenanceOptions';
+import {IFlushResult} from './IInMemoryOptions';
+import {
+    TableWatch,
+    IWatchOptions,
+    INativeWatchEvent,
+    TChangeListener
+} from './TableWatch';
+import {
+    IQueryStats,
+    IQueryStatsOptions
+} from './IQueryStats';
+import {
+    IBackupOptions,
+    IBackupProgress,
+    IIncrementalBackupResult
+} from './IBackupOptions';
+import {
+    IImportOptions,
+    IImportProgress,
+    IImportResult,
+    TImportFormat
+} from './IImportOptions';
 import {SQLiteInteger} from './SQLiteTypes';
 
 enum OpenFlags {
@@ -35,6 +75,20 @@ export const SERVICE_NAME: string = "TPSQLite";
 
 const DEFAULT_BUSY_TIMEOUT: number = 60000; // 60 seconds
 
+/**
+ * @internal
+ */
+interface INativeImportEvent extends Partial<IImportProgress>, Partial<IImportResult> {
+    event: 'progress' | 'complete';
+}
+
+/**
+ * @internal
+ */
+interface INativeBackupEvent extends Partial<IBackupProgress>, Partial<IIncrementalBackupResult> {
+    event: 'progress' | 'complete';
+}
+
 export class SQLite {
     private static async $exec<TArgs extends Array<any> = Array<any>, TResponse = any>(method: string, vargs: TArgs): Promise<TResponse> {
         return new Promise<TResponse>((resolve, reject) => {
@@ -46,25 +100,26 @@ export class SQLite {
         });
     }
 
-    public static async open(path: string, writeAccess: boolean, busyTimeout: SQLiteInteger = DEFAULT_BUSY_TIMEOUT): Promise<Database> {
+    public static async open(path: string, writeAccess: boolean, busyTimeout: SQLiteInteger = DEFAULT_BUSY_TIMEOUT, options: IOpenOptions = {}): Promise<Database> {
         if (path.indexOf("file://") !== 0) {
             throw new Error("Database path must start with file://");
         }
 
-        let dbHandle: string = (
+        let response: {dbHandle: string, pragmas?: IEffectivePragmas} = (
             await this.$exec<
-                [string, number, SQLiteInteger],
-                {dbHandle: string}
+                [string, number, SQLiteInteger, IOpenOptions],
+                {dbHandle: string, pragmas?: IEffectivePragmas}
             >(
                 'open',
                 [
                     path,
                     writeAccess ? OpenFlags.CREATE | OpenFlags.READ_WRITE : OpenFlags.READ_ONLY,
-                    busyTimeout
+                    busyTimeout,
+                    options
                 ]
             )
-        ).dbHandle;
-        return new Database(dbHandle);
+        );
+        return new Database(response.dbHandle, response.pragmas || null);
     }
 
     public static async close(db: Database): Promise<void> {
@@ -73,28 +128,340 @@ export class SQLite {
     }
 
     /**
+     * Returns the prepared statement cache counters of the given database.
+     * 
+     * @since v0.8.0
+     * @param db 
+     */
+    public static async getStatementCacheStats(db: Database): Promise<IStatementCacheStats> {
+        return await this.$exec<[{dbHandle: string}], IStatementCacheStats>('getStatementCacheStats', [ { dbHandle: db.getHandle() } ]);
+    }
+
+    /**
+     * Returns the per-statement timing metrics of the given database.
+     * Metrics are only recorded while stats are enabled, see the `stats` open option.
+     * 
+     * @since v0.8.0
+     * @param db 
+     */
+    public static async getStats(db: Database): Promise<IQueryStats> {
+        return await this.$exec<[{dbHandle: string}], IQueryStats>('getStats', [ { dbHandle: db.getHandle() } ]);
+    }
+
+    /**
+     * Clears the timing metrics of the given database.
+     * 
+     * @since v0.8.0
+     * @param db 
+     */
+    public static async resetStats(db: Database): Promise<void> {
+        await this.$exec<[{dbHandle: string}], void>('resetStats', [ { dbHandle: db.getHandle() } ]);
+    }
+
+    /**
+     * Returns the statements whose query plans read tables in full, sort or build
+     * automatic indexes, with candidate indexes for `CreateIndexQuery`.
+     * Plans are only recorded while the `queryPlanProfiler` open option is enabled.
+     * 
+     * @since v0.8.0
+     * @param db 
+     * @param options 
+     */
+    public static async getQueryPlanReport(db: Database, options: IQueryPlanReportOptions = {}): Promise<IQueryPlanReport> {
+        return await this.$exec<[{dbHandle: string}, IQueryPlanReportOptions], IQueryPlanReport>('getQueryPlanReport', [ { dbHandle: db.getHandle() }, options ]);
+    }
+
+    /**
+     * Clears the recorded query plans of the given database.
      * 
-     * Note, this API is unsafe to use while the db is being actively used.
+     * @since v0.8.0
+     * @param db 
+     */
+    public static async resetQueryPlanReport(db: Database): Promise<void> {
+        await this.$exec<[{dbHandle: string}], void>('resetQueryPlanReport', [ { dbHandle: db.getHandle() } ]);
+    }
+
+    /**
+     * Enables or disables timing metrics and the slow query log of an open database.
+     * Omitted options are left unchanged.
+     * 
+     * @since v0.8.0
+     * @param db 
+     * @param options 
+     */
+    public static async configureStats(db: Database, options: IQueryStatsOptions): Promise<void> {
+        await this.$exec<[{dbHandle: string}, IQueryStatsOptions], void>('configureStats', [ { dbHandle: db.getHandle() }, options ]);
+    }
+
+    /**
+     * Returns the read connection pool counters of the given database.
+     * 
+     * @since v0.8.0
+     * @param db 
+     */
+    public static async getConnectionPoolStats(db: Database): Promise<IConnectionPoolStats> {
+        return await this.$exec<[{dbHandle: string}], IConnectionPoolStats>('getConnectionPoolStats', [ { dbHandle: db.getHandle() } ]);
+    }
+
+    /**
+     * Returns the result cache counters of the given database.
+     * All counters are 0 when the database was opened without `resultCacheSize`.
+     * 
+     * @since v0.8.0
+     * @param db 
+     */
+    public static async getResultCacheStats(db: Database): Promise<IResultCacheStats> {
+        return await this.$exec<[{dbHandle: string}], IResultCacheStats>('getResultCacheStats', [ { dbHandle: db.getHandle() } ]);
+    }
+
+    /**
+     * Runs a maintenance pass now instead of waiting for the database to be idle,
+     * or waits for the pass in progress. The pass still runs in slices between queries.
+     * It stops early with an `error` in the report while a transaction, cursor or
+     * blob handle is open.
+     * 
+     * @since v0.8.0
+     * @param db 
+     */
+    public static async runMaintenance(db: Database): Promise<IMaintenanceReport> {
+        return await this.$exec<[{dbHandle: string}], IMaintenanceReport>('runMaintenance', [ { dbHandle: db.getHandle() } ]);
+    }
+
+    /**
+     * Returns the maintenance counters of the given database, see the `maintenance` open option.
+     * 
+     * @since v0.8.0
+     * @param db 
+     */
+    public static async getMaintenanceStats(db: Database): Promise<IMaintenanceStats> {
+        return await this.$exec<[{dbHandle: string}], IMaintenanceStats>('getMaintenanceStats', [ { dbHandle: db.getHandle() } ]);
+    }
+
+    /**
+     * Calls `listener` with the rows written to `tables` once their transaction
+     * commits, instead of polling them with queries. Changes of a transaction that
+     * rolls back are never reported. Events are sent at most once per
+     * `minInterval` milliseconds, and past `maxRowids` only the count of rows is
+     * given, so bulk loads do not flood the bridge.
+     * 
+     * Only writes made through this database are seen, since changes are logged
+     * by TEMP triggers on its write connection. Can not be called inside a transaction.
+     * 
+     * Android only.
+     * 
+     * @since v0.8.0
+     * @param db 
+     * @param tables 
+     * @param listener 
+     * @param options 
+     */
+    public static async watch(db: IDatabaseHandle, tables: Array<string>, listener: TChangeListener, options: IWatchOptions = {}): Promise<TableWatch> {
+        return new Promise<TableWatch>((resolve, reject) => {
+            let watch: TableWatch = null;
+            cordova.exec((response: INativeWatchEvent) => {
+                if (response.event === 'watch') {
+                    watch = new TableWatch(db, response.watchId);
+                    resolve(watch);
+                }
+                else if (response.event === 'change') {
+                    listener({
+                        changes: response.changes,
+                        transactions: response.transactions
+                    });
+                }
+                else if (watch) {
+                    watch._setClosed();
+                }
+            }, (error: IError) => {
+                reject(error);
+            }, SERVICE_NAME, 'watch', [ { dbHandle: db.getHandle() }, tables, options ]);
+        });
+    }
+
+    /**
+     * Writes a database opened with the `inMemory` option to its file, if it
+     * changed since the last write. Nothing is written while a transaction is open.
+     * Resolves with `flushed: false` for a database that runs against its file.
+     * 
+     * @since v0.8.0
+     * @param db 
+     */
+    public static async flush(db: Database): Promise<IFlushResult> {
+        return await this.$exec<[{dbHandle: string}], IFlushResult>('flush', [ { dbHandle: db.getHandle() } ]);
+    }
+
+    /**
+     * Cancels a queued or running query by the `queryId` it was executed with.
+     * The query rejects with a `QUERY_CANCELLED` error.
+     * 
+     * A running query is interrupted, unless it runs on the write connection while
+     * a transaction, cursor or blob handle is open. It then stops before it reads its next row.
+     * 
+     * @since v0.8.0
+     * @param db 
+     * @param queryId 
+     * @returns False if no query with the id was queued or running.
+     */
+    public static async cancel(db: IDatabaseHandle, queryId: string): Promise<boolean> {
+        return (await this.$exec<[{dbHandle: string}, string], {cancelled: boolean}>('cancel', [ { dbHandle: db.getHandle() }, queryId ])).cancelled;
+    }
+
+    /**
+     * Opens a handle to the blob in `column` of the row with `rowId`, which can be
+     * read and written in chunks. The value must be a blob, not NULL or text.
+     * 
+     * @since v0.8.0
+     * @param db 
+     * @param table 
+     * @param column 
+     * @param rowId 
+     * @param options 
+     */
+    public static async openBlob(db: IDatabaseHandle, table: string, column: string, rowId: number, options: IOpenBlobOptions = {}): Promise<BlobHandle> {
+        let response: {blobId: number, size: number, chunkSize: number} = await this.$exec<
+            [{dbHandle: string}, string, string, number, IOpenBlobOptions],
+            {blobId: number, size: number, chunkSize: number}
+        >('openBlob', [ { dbHandle: db.getHandle() }, table, column, rowId, options ]);
+        return new BlobHandle(db, response.blobId, response.size, response.chunkSize);
+    }
+
+    /**
+     * Reads the rows of a file natively and inserts them into `table`, without
+     * transferring the values through the WebView. Rows are inserted in multi-row
+     * statements and committed in batches of `batchSize` rows. If the import fails,
+     * only the current batch is rolled back, and the error details include the
+     * number of `rows` committed before it.
+     * 
+     * Runs on the database's queue like a query, and can be cancelled with
+     * `SQLite.cancel` when a `queryId` is given.
+     * 
+     * Android only.
+     * 
+     * @since v0.8.0
+     * @param db 
+     * @param fileUri The `file://` URI of the file to read.
+     * @param table 
+     * @param columns The columns to insert into. For NDJSON and for CSV files with a
+     *                header, these are also the names to read. For CSV files without
+     *                a header, these are the columns of each field, in order.
+     * @param format 
+     * @param options 
+     */
+    public static async importFile(db: IDatabaseHandle, fileUri: string, table: string, columns: Array<string>, format: TImportFormat, options: IImportOptions = {}): Promise<IImportResult> {
+        let nativeOptions: Record<string, any> = {
+            ...options,
+            progress: !!options.onProgress
+        };
+        delete nativeOptions.onProgress;
+
+        return new Promise<IImportResult>((resolve, reject) => {
+            cordova.exec((response: INativeImportEvent) => {
+                if (response.event === 'progress') {
+                    if (options.onProgress) {
+                        options.onProgress({
+                            rows: response.rows,
+                            bytes: response.bytes,
+                            totalBytes: response.totalBytes
+                        });
+                    }
+                    return;
+                }
+
+                resolve({
+                    rows: response.rows,
+                    changes: response.changes
+                });
+            }, (error: IError) => {
+                reject(error);
+            }, SERVICE_NAME, 'importFile', [ { dbHandle: db.getHandle() }, fileUri, table, columns, format, nativeOptions ]);
+        });
+    }
+
+    /**
+     * 
+     * Note, unless the online or incremental option is used, this API is unsafe to use while the db is being actively used.
+     * 
+     * With the incremental option, `backupPath` is a directory, and the result
+     * tells whether a base or a delta was written. Other backups resolve with undefined.
      * 
      * @param path 
      * @param backupName 
      */
-    public static async backup(path: string, backupPath: string): Promise<void> {
+    public static async backup(path: string, backupPath: string, options: IBackupOptions = {}): Promise<IIncrementalBackupResult> {
+        if (options.incremental) {
+            let response: INativeBackupEvent = await this.$execWithProgress('backup', [ path, backupPath, this.$getNativeBackupOptions(options) ], options.onProgress);
+            return {
+                type: response.type,
+                pages: response.pages,
+                pageCount: response.pageCount,
+                bytes: response.bytes,
+                deltas: response.deltas
+            };
+        }
+
+        if (options.online) {
+            await this.$execWithProgress('backup', [ path, backupPath, this.$getNativeBackupOptions(options) ], options.onProgress);
+            return;
+        }
+
         await this.$exec<[path: string, backupPath: string], void>('backup', [ path, backupPath ]);
     }
 
     /**
      * 
-     * Note, this API is unsafe to use while the db is being actively used.
+     * Note, unless the online option is used, this API is unsafe to use while the db is being actively used.
      * Close all active databases prior to restoring and re-open them after restoring.
      * 
+     * With the online option, the content of the database is replaced in a single
+     * transaction, and open databases see the restored content once it completes.
+     * The incremental option rebuilds the chain of backups in the `backupPath`
+     * directory, verifies it, and restores it the same way.
+     * 
      * @param path 
      * @param backupName 
      */
-    public static async restoreBackup(path: string, backupPath: string): Promise<void> {
+    public static async restoreBackup(path: string, backupPath: string, options: IBackupOptions = {}): Promise<void> {
+        if (options.online || options.incremental) {
+            await this.$execWithProgress('restoreBackup', [ path, backupPath, this.$getNativeBackupOptions(options) ], options.onProgress);
+            return;
+        }
+
         await this.$exec<[path: string, backupPath: string], void>('restoreBackup', [ path, backupPath ]);
     }
 
+    private static $getNativeBackupOptions(options: IBackupOptions): Record<string, any> {
+        return {
+            online: !options.incremental,
+            incremental: options.incremental,
+            maxDeltas: options.maxDeltas,
+            busyTimeout: options.busyTimeout,
+            progressInterval: options.onProgress ? (options.progressInterval || 0) : 0
+        };
+    }
+
+    /**
+     * Native sends progress events on the same callback before the final complete event.
+     */
+    private static $execWithProgress(method: string, vargs: Array<any>, onProgress: (progress: IBackupProgress) => void): Promise<INativeBackupEvent> {
+        return new Promise<INativeBackupEvent>((resolve, reject) => {
+            cordova.exec((response: INativeBackupEvent) => {
+                if (response && response.event === 'progress') {
+                    if (onProgress) {
+                        onProgress({
+                            completed: response.completed,
+                            total: response.total,
+                            table: response.table
+                        });
+                    }
+                    return;
+                }
+
+                resolve(response);
+            }, (error: IError) => {
+                reject(error);
+            }, SERVICE_NAME, method, vargs);
+        });
+    }
     // Incomplete API
     // public static async getLogs(): Promise<Array<String>> {
     //     return await this.$exec('getLogs', []);
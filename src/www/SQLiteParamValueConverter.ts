@@ -1,10 +1,23 @@
 
-import { SQLiteInteger, SQLiteDouble, SQLiteNull, SQLiteText, SQLiteBlob } from './SQLiteTypes';
+import { SQLiteInteger, SQLiteDouble, SQLiteNull, SQLiteText, SQLiteBlob, SQLiteBlobEncoding } from './SQLiteTypes';
 
 type TInternalTypedArray =  Uint8Array  | Int8Array;
 const NativeFileReader = window.FileReader; // Hold a reference to FileReader before plugins like cordova-plugin-file overwrites it.
 
+// String.fromCharCode.apply has an argument count limit, so large arrays are encoded in chunks.
+const BASE64_CHUNK_SIZE: number = 0x8000;
+
 export class SQLiteParamValueConverter {
+    /**
+     * The encoding used when converting binary data into a `SQLiteBlob`.
+     * 
+     * `base64` is significantly smaller and faster to transfer. `bytearray` is the
+     * legacy format of one JSON number per byte.
+     * 
+     * @since v0.8.0
+     */
+    public static blobEncoding: SQLiteBlobEncoding = 'base64';
+
     public static numberToInteger(value: number): SQLiteInteger {
         return value;
     }
@@ -30,26 +43,74 @@ export class SQLiteParamValueConverter {
     }
 
     public static async blobToSQLiteBlob(value: Blob): Promise<SQLiteBlob> {
-        return {
-            type: 'bytearray',
-            value: SQLiteParamValueConverter.$normalizeBufferedArray(new Uint8Array(await SQLiteParamValueConverter.$getArrayBufferFromBlob(value)))
-        };
+        return SQLiteParamValueConverter.$toSQLiteBlob(new Uint8Array(await SQLiteParamValueConverter.$getArrayBufferFromBlob(value)));
     }
 
     public static async arrayBufferToSQLiteBlob(value: ArrayBuffer): Promise<SQLiteBlob> {
-        return {
-            type: 'bytearray',
-            value: SQLiteParamValueConverter.$normalizeBufferedArray(new Uint8Array(value))
-        };
+        return SQLiteParamValueConverter.$toSQLiteBlob(new Uint8Array(value));
     }
 
     public static async int8OrUint8ToSQLiteBlob(value: Uint8Array | Int8Array): Promise<SQLiteBlob> {
+        return SQLiteParamValueConverter.$toSQLiteBlob(value);
+    }
+
+    /**
+     * Converts a blob column value back into bytes.
+     * 
+     * Accepts both a `SQLiteBlob`, as returned when querying with the `base64` blob format,
+     * and the legacy array of numbers.
+     * 
+     * @since v0.8.0
+     */
+    public static sqliteBlobToUint8Array(value: SQLiteBlob | Array<number>): Uint8Array {
+        if (value instanceof Array) {
+            return Uint8Array.from(value);
+        }
+
+        if (value.type === 'base64') {
+            return SQLiteParamValueConverter.$decodeBase64(value.value);
+        }
+
+        return Uint8Array.from(value.value);
+    }
+
+    private static $toSQLiteBlob(ta: TInternalTypedArray): SQLiteBlob {
+        if (SQLiteParamValueConverter.blobEncoding === 'bytearray') {
+            return {
+                type: 'bytearray',
+                value: SQLiteParamValueConverter.$normalizeBufferedArray(ta)
+            };
+        }
+
         return {
-            type: 'bytearray',
-            value: SQLiteParamValueConverter.$normalizeBufferedArray(value)
+            type: 'base64',
+            value: SQLiteParamValueConverter.$encodeBase64(ta)
         };
     }
 
+    private static $encodeBase64(ta: TInternalTypedArray): string {
+        // Read signed arrays as unsigned bytes
+        let bytes: Uint8Array = ta instanceof Uint8Array ? ta : new Uint8Array(ta.buffer, ta.byteOffset, ta.byteLength);
+        let chunks: Array<string> = [];
+
+        for (let i: number = 0; i < bytes.length; i += BASE64_CHUNK_SIZE) {
+            chunks.push(String.fromCharCode.apply(null, bytes.subarray(i, i + BASE64_CHUNK_SIZE)));
+        }
+
+        return btoa(chunks.join(''));
+    }
+
+    private static $decodeBase64(value: string): Uint8Array {
+        let binary: string = atob(value);
+        let out: Uint8Array = new Uint8Array(binary.length);
+
+        for (let i: number = 0; i < binary.length; i++) {
+            out[i] = binary.charCodeAt(i);
+        }
+
+        return out;
+    }
+
     private static $normalizeBufferedArray(ta: TInternalTypedArray): Array<number> {
         let out: Array<number> = [];
 
@@ -14,10 +14,26 @@ export interface IByteArray extends IComplexParamValue<Array<number>> {
     type: 'bytearray';
 }
 
+/**
+ * @internal - Do not construct this manually. Use `SQLiteBlob` type instead.
+ * 
+ * @since v0.8.0
+ */
+export interface IBase64Blob extends IComplexParamValue<string> {
+    type: 'base64';
+}
+
+/**
+ * The encoding used to transfer blobs between JavaScript and native.
+ * 
+ * @since v0.8.0
+ */
+export type SQLiteBlobEncoding = 'base64' | 'bytearray';
+
 export type SQLiteText = string;
 export type SQLiteInteger = number;
 export type SQLiteDouble = number;
-export type SQLiteBlob = IByteArray;
+export type SQLiteBlob = IByteArray | IBase64Blob;
 export type SQLiteNull = null;
 export type SQLiteType = SQLiteText | SQLiteDouble | SQLiteInteger | SQLiteNull | SQLiteBlob;
 
@@ -0,0 +1,143 @@
+/*
+   Copyright 2026 Total Pave Inc.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+import {SERVICE_NAME} from './SQLite';
+import {IDatabaseHandle} from './IDatabaseHandle';
+import {IError} from './IError';
+import {SQLiteInteger} from './SQLiteTypes';
+
+/**
+ * Options for `SQLite.watch`.
+ * 
+ * @since v0.8.0
+ */
+export interface IWatchOptions {
+    /**
+     * The fewest milliseconds between two change events. Changes committed in
+     * between are merged into the next event. Defaults to 100.
+     */
+    minInterval?: SQLiteInteger;
+
+    /**
+     * The most rowids listed per table and operation in an event. Past this,
+     * `rowids` is null and only `count` is given. Defaults to 1000.
+     */
+    maxRowids?: SQLiteInteger;
+}
+
+export type TChangeOperation = 'insert' | 'update' | 'delete';
+
+/**
+ * @since v0.8.0
+ */
+export interface ITableChange {
+    table: string;
+    op: TChangeOperation;
+    /**
+     * The rowids of the rows written, or null past `maxRowids` and for `WITHOUT ROWID` tables.
+     */
+    rowids: Array<SQLiteInteger>;
+    /**
+     * The number of rows written. Once `rowids` is null, a row written in
+     * several transactions is counted once per transaction.
+     */
+    count: SQLiteInteger;
+}
+
+/**
+ * @since v0.8.0
+ */
+export interface IChangeEvent {
+    changes: Array<ITableChange>;
+    /**
+     * The number of committed transactions merged into the event.
+     */
+    transactions: SQLiteInteger;
+}
+
+export type TChangeListener = (event: IChangeEvent) => void;
+
+/**
+ * @internal
+ */
+export interface INativeWatchEvent extends Partial<IChangeEvent> {
+    event: 'watch' | 'change' | 'complete';
+    watchId?: number;
+}
+
+/**
+ * A registration made by `SQLite.watch`. Call `unwatch` when the changes are no longer needed,
+ * since every write to a watched table also writes to the change log.
+ * 
+ * @since v0.8.0
+ */
+export class TableWatch {
+    private $db: IDatabaseHandle;
+    private $id: number;
+    private $closed: boolean;
+
+    public constructor(db: IDatabaseHandle, id: number) {
+        this.$db = db;
+        this.$id = id;
+        this.$closed = false;
+    }
+
+    public getId(): number {
+        return this.$id;
+    }
+
+    /**
+     * True once the watch was stopped, either by `unwatch` or by closing the database.
+     */
+    public isClosed(): boolean {
+        return this.$closed;
+    }
+
+    /**
+     * @internal
+     */
+    public _setClosed(): void {
+        this.$closed = true;
+    }
+
+    /**
+     * Stops the watch. Changes that were waiting on `minInterval` are sent first.
+     * Unwatching a watch that is already closed is a no-op.
+     */
+    public async unwatch(): Promise<void> {
+        if (this.$closed) {
+            return;
+        }
+
+        this.$closed = true;
+        await new Promise<void>((resolve, reject) => {
+            cordova.exec(
+                () => {
+                    resolve();
+                },
+                (error: IError) => {
+                    reject(error);
+                },
+                SERVICE_NAME,
+                'unwatch',
+                [
+                    {dbHandle: this.$db.getHandle()},
+                    this.$id
+                ]
+            );
+        });
+    }
+}
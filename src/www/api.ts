@@ -3,11 +3,24 @@
 export {Database} from './Database';
 export {Query} from './Query';
 export {BulkInsertQuery, TBulkInsertParams} from './BulkInsertQuery';
+export {ExecuteManyQuery} from './ExecuteManyQuery';
 export {TransactionMode} from './TransactionMode';
 export {SQLite} from './SQLite';
 export {CreateIndexQuery, ICreateIndexQueryParams} from './CreateIndexQuery';
 export {SQLiteParamValueConverter} from './SQLiteParamValueConverter';
 export {SQLiteParamAdapter} from './SQLiteParamAdapter';
+export {ColumnarResult, IColumnarResultData} from './ColumnarResult';
+export {Cursor} from './Cursor';
+export {BlobHandle, IOpenBlobOptions} from './BlobHandle';
+export {
+    TableWatch,
+    IWatchOptions,
+    ITableChange,
+    IChangeEvent,
+    TChangeOperation,
+    TChangeListener
+} from './TableWatch';
+export {Batch} from './Batch';
 
 // Prebuilt Queries
 export {RawQuery} from './RawQuery';
@@ -18,3 +31,32 @@ export {RollbackTransactionQuery} from './RollbackTransactionQuery';
 // TypeScript API
 export * from './SQLiteTypes';
 export {IDatabaseHandle} from './IDatabaseHandle';
+export {IOpenOptions} from './IOpenOptions';
+export {IPragmaOptions, IEffectivePragmas, TOpenProfile, TJournalMode, TSynchronousMode, TTempStore} from './IPragmaOptions';
+export {IStatementCacheStats} from './IStatementCacheStats';
+export {IConnectionPoolStats, IQuerySchedulerStats} from './IConnectionPoolStats';
+export {IResultCacheStats} from './IResultCacheStats';
+export {
+    IMaintenanceOptions,
+    IMaintenanceCheckpoint,
+    IMaintenanceReport,
+    IMaintenanceStats
+} from './IMaintenanceOptions';
+export {IInMemoryOptions, IInMemoryStats, IFlushResult} from './IInMemoryOptions';
+export {IQueryStats, IStatementStats, IQueryStatsOptions} from './IQueryStats';
+export {
+    IQueryPlanReport,
+    IQueryPlanReportOptions,
+    IQueryPlanStatement,
+    IIndexSuggestion
+} from './IQueryPlanReport';
+export {IBackupOptions, IBackupProgress, IIncrementalBackupResult} from './IBackupOptions';
+export {IQueryOptions} from './IQueryOptions';
+export {ICursorOptions} from './ICursorOptions';
+export {IBatchOptions} from './IBatchOptions';
+export {IBatchResult, IBatchEntryResult} from './IBatchResult';
+export {IExecuteManyOptions} from './IExecuteManyOptions';
+export {IExecuteManyResult} from './IExecuteManyResult';
+export {IExportOptions, IExportProgress, IExportResult, TExportFormat} from './IExportOptions';
+export {IImportOptions, IImportProgress, IImportResult, TImportFormat} from './IImportOptions';
+export {IBulkInsertOptions, IBulkInsertResult, ICheckpointResult, TCheckpointMode} from './IBulkInsertOptions';